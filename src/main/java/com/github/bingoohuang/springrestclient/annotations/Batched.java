@@ -0,0 +1,35 @@
+package com.github.bingoohuang.springrestclient.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Collects the concurrent calls of a single item method into one call of its batch counterpart,
+ * like {@code /item/{id}} into {@code /items?ids=...}.
+ * <p>
+ * The single item method takes the key of the item as its only parameter.
+ * The batch method of the same interface, named by {@link #value()}, takes a collection
+ * or an array of the keys, and returns the items as a Map by the keys, or as a List
+ * in the order of the keys or matched by their {@link #keyProperty()}, optionally in a Future.
+ * <p>
+ * A batch is sent {@link #windowMillis()} after its first call, or at once when it has
+ * {@link #maxSize()} distinct keys. The items missing in the batch result are returned as null,
+ * so the single item method could not return a primitive,
+ * and the failure of the batch call is thrown to all of its callers.
+ * <p>
+ * The single item method itself is never called, so it could not have {@link Retry} or {@link CircuitBreaker},
+ * which are put on the batch method instead.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Batched {
+    // name of the batch method
+    String value();
+
+    long windowMillis() default 5;
+
+    int maxSize() default 100;
+
+    // property of the listed items holding their keys, empty to match the items by their positions
+    String keyProperty() default "";
+}
@@ -0,0 +1,39 @@
+package com.github.bingoohuang.springrestclient.annotations;
+
+import com.github.bingoohuang.springrestclient.exception.CircuitBreakerOpenException;
+
+import java.lang.annotation.*;
+
+/**
+ * Per api method circuit breaker. When declared on the interface, it applies to
+ * every method which has not declared its own one.
+ * <p>
+ * Calls are recorded in a sliding window of the last {@link #slidingWindowSize()} calls.
+ * A call is a failure when no response is received or the response status is 5xx,
+ * and it is slow when it takes longer than {@link #slowCallDurationMillis()}.
+ * While open, calls fail immediately with {@link #openException()}.
+ */
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CircuitBreaker {
+    int slidingWindowSize() default 100;
+
+    int minimumNumberOfCalls() default 10;
+
+    // percentage of failed calls to open the breaker
+    int failureRateThreshold() default 50;
+
+    long slowCallDurationMillis() default 60000;
+
+    // percentage of slow calls to open the breaker
+    int slowCallRateThreshold() default 100;
+
+    long waitDurationInOpenStateMillis() default 60000;
+
+    int permittedCallsInHalfOpenState() default 10;
+
+    // should have a constructor with a String message argument or a default constructor,
+    // checked exception should be declared on the method like @RespStatusMapping.
+    Class<? extends Throwable> openException() default CircuitBreakerOpenException.class;
+}
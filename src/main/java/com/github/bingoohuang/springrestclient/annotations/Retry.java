@@ -0,0 +1,43 @@
+package com.github.bingoohuang.springrestclient.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Per api method retry policy. When declared on the interface, it applies to
+ * every method which has not declared its own one.
+ * <p>
+ * Idempotent methods (GET) are retried when no response is received.
+ * Other methods are only retried on the {@link #statuses()} and {@link #exceptions()} listed explicitly.
+ * The n-th retry waits {@code backoffMillis * multiplier^(n-1)} (at most {@link #maxBackoffMillis()})
+ * randomized down by {@link #jitter()}.
+ * <p>
+ * All the methods of an interface share one retry budget: every call deposits
+ * {@link #budgetPercent()}% of a token and every retry withdraws a whole token,
+ * besides {@link #minRetriesPerSecond()} retries which are always allowed.
+ */
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Retry {
+    // including the first call
+    int maxAttempts() default 3;
+
+    long backoffMillis() default 100;
+
+    double multiplier() default 2;
+
+    long maxBackoffMillis() default 2000;
+
+    // 0 for no jitter, 1 for full jitter
+    double jitter() default 0.5;
+
+    // response statuses to retry on, for any method
+    int[] statuses() default {};
+
+    // causes of the transport failure to retry on, for any method
+    Class<? extends Throwable>[] exceptions() default {};
+
+    int budgetPercent() default 20;
+
+    int minRetriesPerSecond() default 10;
+}
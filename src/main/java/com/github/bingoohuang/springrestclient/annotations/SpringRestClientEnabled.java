@@ -16,4 +16,19 @@ public @interface SpringRestClientEnabled {
     Class<? extends BaseUrlProvider> baseUrlProvider() default BaseUrlProvider.class;
 
     Class<? extends SignProvider> signProvider() default SignProvider.class;
+
+    // connections opened to the base url when the client is created, 0 for no warmup
+    int warmupConnections() default 0;
+
+    // path of the HEAD probes opening and keeping alive the connections
+    String warmupPath() default "/";
+
+    // interval of the probes keeping the warmed connections alive, 0 for no probes
+    long keepAliveMillis() default 0;
+
+    // ttl of the addresses cached by the client's own connection pool, 0 to share unirest's clients.
+    // NOTE: the hosts are still looked up behind the jvm's address cache, which keeps them for the
+    // "networkaddress.cache.ttl" security property, 30 seconds by default and forever under a security manager,
+    // so set it no longer than this ttl, or the fail-overs are noticed only after the jvm's ttl.
+    long dnsTtlMillis() default 0;
 }
@@ -0,0 +1,25 @@
+package com.github.bingoohuang.springrestclient.annotations;
+
+import java.lang.annotation.*;
+
+/**
+ * Per api method timeouts, applied on each request instead of the global unirest settings.
+ * When declared on the interface, it applies to every method which has not declared its own one.
+ * <p>
+ * {@link #totalMillis()} bounds the whole call including retries. It is combined with
+ * the deadline attached by the caller by {@link com.github.bingoohuang.springrestclient.timeout.Deadline},
+ * the earlier one wins.
+ */
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Timeout {
+    // negative for the global unirest setting
+    long connectMillis() default -1;
+
+    // max inactivity between two data packets, negative for the global unirest setting
+    long responseMillis() default -1;
+
+    // negative for no deadline
+    long totalMillis() default -1;
+}
@@ -0,0 +1,75 @@
+package com.github.bingoohuang.springrestclient.batch;
+
+import com.github.bingoohuang.springrestclient.generators.RestClientModel;
+import lombok.val;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Routes the calls of the {@link com.github.bingoohuang.springrestclient.annotations.Batched} methods
+ * of a rest client to their micro batchers, the other calls go to the rest client directly.
+ */
+public class BatchingRestClient implements InvocationHandler {
+    private final Class<?> restClientClass;
+    private final Object restClient;
+    private final Map<Method, MicroBatcher> batchers;
+
+    private BatchingRestClient(Class<?> restClientClass, Object restClient, Map<Method, MicroBatcher> batchers) {
+        this.restClientClass = restClientClass;
+        this.restClient = restClient;
+        this.batchers = batchers;
+    }
+
+    /**
+     * @return the rest client itself when it has no batched method.
+     */
+    public static Object wrap(Class<?> restClientClass, RestClientModel model, Object restClient) {
+        val batchers = new HashMap<Method, MicroBatcher>();
+        for (val methodModel : model.getMethods()) {
+            val batched = methodModel.getBatched();
+            if (batched == null) continue;
+
+            val method = methodModel.getMethod();
+            batchers.put(method, new MicroBatcher(restClient, method, batched));
+        }
+        if (batchers.isEmpty()) return restClient;
+
+        return Proxy.newProxyInstance(restClientClass.getClassLoader(), new Class<?>[]{restClientClass},
+            new BatchingRestClient(restClientClass, restClient, batchers));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            String name = method.getName();
+            if ("equals".equals(name)) return proxy == args[0];
+            if ("hashCode".equals(name)) return System.identityHashCode(proxy);
+            if ("toString".equals(name)) return "BatchingRestClient{" + restClientClass.getName() + "}";
+        }
+
+        val batcher = batchers.get(method);
+        if (batcher == null) {
+            try {
+                return method.invoke(restClient, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        val future = batcher.submit(args[0]);
+        if (Future.class.isAssignableFrom(method.getReturnType())) return future;
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+}
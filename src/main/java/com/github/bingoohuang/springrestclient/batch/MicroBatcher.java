@@ -0,0 +1,235 @@
+package com.github.bingoohuang.springrestclient.batch;
+
+import com.github.bingoohuang.springrestclient.annotations.Batched;
+import com.github.bingoohuang.springrestclient.annotations.CircuitBreaker;
+import com.github.bingoohuang.springrestclient.annotations.Retry;
+import com.github.bingoohuang.springrestclient.utils.Schedulers;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.val;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the keys of the single item calls of a {@link Batched} method in a window,
+ * calls the batch method with the distinct keys, and completes the futures of the calls by their keys.
+ * <p>
+ * The keys are matched by their string values, so the keys of the decoded maps could be of other types.
+ */
+public class MicroBatcher {
+    private static final int BATCH_THREADS = 4;
+    // the batches beyond the threads wait in the queue, the idle threads exit
+    private static final ExecutorService batchExecutor = createBatchExecutor();
+
+    private final Object client;
+    private final Method batchMethod;
+    private final Batched batched;
+    private final Object lock = new Object();
+    private Map<String, Pending> pending = new LinkedHashMap<String, Pending>();
+    private long window;
+
+    public MicroBatcher(Object client, Method method, Batched batched) {
+        this.client = client;
+        this.batched = batched;
+        this.batchMethod = findBatchMethod(method, batched);
+    }
+
+    private static ExecutorService createBatchExecutor() {
+        val executor = new ThreadPoolExecutor(BATCH_THREADS, BATCH_THREADS, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new ThreadFactoryBuilder().setNameFormat("rest-client-batch-%d").setDaemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static Method findBatchMethod(Method method, Batched batched) {
+        if (method.getParameterTypes().length != 1)
+            throw badConfig(method, "the single item method should have only the key parameter");
+        if (method.getReturnType().isPrimitive())
+            throw badConfig(method, "the single item method should not return a primitive, the missing items are null");
+        if (method.isAnnotationPresent(Retry.class) || method.isAnnotationPresent(CircuitBreaker.class))
+            throw badConfig(method, "the single item method is not called, put @Retry or @CircuitBreaker on the batch method");
+
+        for (Method batchMethod : method.getDeclaringClass().getMethods()) {
+            if (!batchMethod.getName().equals(batched.value())) continue;
+
+            val parameterTypes = batchMethod.getParameterTypes();
+            if (parameterTypes.length != 1 || !(parameterTypes[0].isArray()
+                || parameterTypes[0].isAssignableFrom(ArrayList.class)
+                || parameterTypes[0].isAssignableFrom(LinkedHashSet.class)))
+                throw badConfig(method, "the batch method should have only the collection or array parameter of the keys");
+
+            return batchMethod;
+        }
+
+        throw badConfig(method, "the batch method " + batched.value() + " is not found");
+    }
+
+    private static RuntimeException badConfig(Method method, String reason) {
+        return new RuntimeException("bad config for @Batched on " + method + ", " + reason);
+    }
+
+    /**
+     * @return the future of the item of the key, completed when its batch is done.
+     */
+    public Future<Object> submit(Object key) {
+        Map<String, Pending> full = null;
+        long scheduleWindow = -1;
+        SettableFuture<Object> future;
+        synchronized (lock) {
+            if (pending.isEmpty()) scheduleWindow = window;
+
+            val stringKey = String.valueOf(key);
+            Pending keyed = pending.get(stringKey);
+            if (keyed == null) {
+                keyed = new Pending(key);
+                pending.put(stringKey, keyed);
+            }
+            future = keyed.future;
+
+            if (pending.size() >= batched.maxSize()) {
+                full = takePending();
+                scheduleWindow = -1;
+            }
+        }
+
+        if (full != null) {
+            executeLater(full);
+        } else if (scheduleWindow >= 0) {
+            final long current = scheduleWindow;
+            Schedulers.schedule(new Runnable() {
+                @Override public void run() {
+                    flush(current);
+                }
+            }, batched.windowMillis());
+        }
+
+        return future;
+    }
+
+    // holding the lock
+    private Map<String, Pending> takePending() {
+        val taken = pending;
+        pending = new LinkedHashMap<String, Pending>();
+        ++window;
+        return taken;
+    }
+
+    private void flush(long expectedWindow) {
+        Map<String, Pending> batch;
+        synchronized (lock) {
+            // flushed already by the max size
+            if (window != expectedWindow || pending.isEmpty()) return;
+
+            batch = takePending();
+        }
+
+        executeLater(batch);
+    }
+
+    private void executeLater(final Map<String, Pending> batch) {
+        batchExecutor.execute(new Runnable() {
+            @Override public void run() {
+                execute(batch);
+            }
+        });
+    }
+
+    private void execute(Map<String, Pending> batch) {
+        try {
+            Object result = batchMethod.invoke(client, createKeysArg(batch.values()));
+            if (result instanceof Future) result = ((Future<?>) result).get();
+
+            complete(batch, result);
+        } catch (InvocationTargetException e) {
+            fail(batch, e.getCause());
+        } catch (ExecutionException e) {
+            fail(batch, e.getCause());
+        } catch (Throwable e) {
+            fail(batch, e);
+        }
+    }
+
+    private Object createKeysArg(Collection<Pending> batch) {
+        val type = batchMethod.getParameterTypes()[0];
+        if (type.isArray()) {
+            val array = Array.newInstance(type.getComponentType(), batch.size());
+            int i = 0;
+            for (Pending pending : batch) Array.set(array, i++, pending.key);
+            return array;
+        }
+
+        Collection<Object> keys = type.isAssignableFrom(ArrayList.class)
+            ? new ArrayList<Object>(batch.size()) : new LinkedHashSet<Object>(batch.size() * 2);
+        for (Pending pending : batch) keys.add(pending.key);
+        return keys;
+    }
+
+    private void complete(Map<String, Pending> batch, Object result) {
+        if (result instanceof Object[]) result = Arrays.asList((Object[]) result);
+
+        if (result == null) {
+            for (Pending pending : batch.values()) pending.future.set(null);
+        } else if (result instanceof Map) {
+            val items = new HashMap<String, Object>();
+            for (val entry : ((Map<?, ?>) result).entrySet()) {
+                items.put(String.valueOf(entry.getKey()), entry.getValue());
+            }
+            for (val entry : batch.entrySet()) entry.getValue().future.set(items.get(entry.getKey()));
+        } else if (result instanceof Collection) {
+            completeListed(batch, (Collection<?>) result);
+        } else {
+            fail(batch, new IllegalStateException("batch result of " + result.getClass()
+                + " is not a map or list by " + batchMethod));
+        }
+    }
+
+    private void completeListed(Map<String, Pending> batch, Collection<?> result) {
+        if (batched.keyProperty().isEmpty()) {
+            if (result.size() != batch.size()) {
+                fail(batch, new IllegalStateException("batch result of " + result.size()
+                    + " items for " + batch.size() + " keys by " + batchMethod));
+                return;
+            }
+
+            val items = result.iterator();
+            for (Pending pending : batch.values()) pending.future.set(items.next());
+            return;
+        }
+
+        val items = new HashMap<String, Object>();
+        for (Object item : result) {
+            if (item != null) items.put(String.valueOf(keyOf(item)), item);
+        }
+        for (val entry : batch.entrySet()) entry.getValue().future.set(items.get(entry.getKey()));
+    }
+
+    private Object keyOf(Object item) {
+        if (item instanceof Map) return ((Map<?, ?>) item).get(batched.keyProperty());
+
+        return PropertyAccessorFactory.forBeanPropertyAccess(item).getPropertyValue(batched.keyProperty());
+    }
+
+    private void fail(Map<String, Pending> batch, Throwable e) {
+        for (Pending pending : batch.values()) pending.future.setException(e);
+    }
+
+    private static class Pending {
+        final Object key;
+        final SettableFuture<Object> future = SettableFuture.create();
+
+        Pending(Object key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.github.bingoohuang.springrestclient.breaker;
+
+public enum CircuitBreakerState {
+    CLOSED, OPEN, HALF_OPEN
+}
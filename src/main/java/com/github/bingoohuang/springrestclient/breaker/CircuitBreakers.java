@@ -0,0 +1,44 @@
+package com.github.bingoohuang.springrestclient.breaker;
+
+import com.github.bingoohuang.springrestclient.annotations.CircuitBreaker;
+import lombok.experimental.UtilityClass;
+import lombok.val;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@UtilityClass
+public class CircuitBreakers {
+    private final ConcurrentMap<String, RestCircuitBreaker> breakers
+        = new ConcurrentHashMap<String, RestCircuitBreaker>();
+
+    public RestCircuitBreaker create(Class<?> apiClass, Method method) {
+        CircuitBreaker config = method.getAnnotation(CircuitBreaker.class);
+        if (config == null) config = apiClass.getAnnotation(CircuitBreaker.class);
+        return create(apiClass, method, config);
+    }
+
+    public RestCircuitBreaker create(Class<?> apiClass, Method method, CircuitBreaker config) {
+        if (config == null) return null;
+
+        val name = createName(apiClass, method);
+        val breaker = new RestCircuitBreaker(name, config);
+        val old = breakers.putIfAbsent(name, breaker);
+        return old != null ? old : breaker;
+    }
+
+    public RestCircuitBreaker get(Class<?> apiClass, String methodName) {
+        return breakers.get(apiClass.getName() + "." + methodName);
+    }
+
+    public Collection<RestCircuitBreaker> all() {
+        return Collections.unmodifiableCollection(breakers.values());
+    }
+
+    private String createName(Class<?> apiClass, Method method) {
+        return apiClass.getName() + "." + method.getName();
+    }
+}
@@ -0,0 +1,204 @@
+package com.github.bingoohuang.springrestclient.breaker;
+
+import com.github.bingoohuang.springrestclient.annotations.CircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class RestCircuitBreaker {
+    /**
+     * The permit of a call not permitted.
+     */
+    public static final long NOT_PERMITTED = -1;
+    /**
+     * The permit of a call permitted while closed, which holds no half open probe.
+     */
+    public static final long CLOSED_PERMIT = 0;
+
+    private final String name;
+    private final CircuitBreaker config;
+    private final long slowCallDurationNanos;
+    private final Class<? extends Throwable> openException;
+
+    private CircuitBreakerState state = CircuitBreakerState.CLOSED;
+    private Window window;
+    private long openedAtMillis;
+    private int halfOpenPermitted;
+    private long halfOpenGeneration;
+    private long notPermittedCalls;
+
+    public RestCircuitBreaker(String name, CircuitBreaker config) {
+        this.name = name;
+        this.config = config;
+        this.slowCallDurationNanos = TimeUnit.MILLISECONDS.toNanos(config.slowCallDurationMillis());
+        this.openException = config.openException();
+        this.window = new Window(config.slidingWindowSize());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<? extends Throwable> getOpenException() {
+        return openException;
+    }
+
+    public boolean tryAcquirePermission() {
+        return acquirePermit() != NOT_PERMITTED;
+    }
+
+    /**
+     * @return {@link #NOT_PERMITTED}, {@link #CLOSED_PERMIT}, or the generation of the half open state
+     * when the call is one of its probes, to be given back by {@link #releasePermission(long)}.
+     */
+    public synchronized long acquirePermit() {
+        if (state == CircuitBreakerState.OPEN) {
+            if (currentTimeMillis() - openedAtMillis < config.waitDurationInOpenStateMillis()) {
+                ++notPermittedCalls;
+                return NOT_PERMITTED;
+            }
+
+            transitionTo(CircuitBreakerState.HALF_OPEN);
+        }
+
+        if (state == CircuitBreakerState.HALF_OPEN) {
+            if (halfOpenPermitted >= config.permittedCallsInHalfOpenState()) {
+                ++notPermittedCalls;
+                return NOT_PERMITTED;
+            }
+
+            ++halfOpenPermitted;
+            return halfOpenGeneration;
+        }
+
+        return CLOSED_PERMIT;
+    }
+
+    /**
+     * Gives back the permit of a call which ends without an outcome to record,
+     * like a cancelled one, so the half open state is not left waiting for it forever.
+     * Only a probe of the current half open state frees a probe slot.
+     */
+    public synchronized void releasePermission(long permit) {
+        if (state == CircuitBreakerState.HALF_OPEN && permit == halfOpenGeneration && halfOpenPermitted > 0)
+            --halfOpenPermitted;
+    }
+
+    public void onResponse(int status, long costNanos) {
+        record(status >= 500, costNanos);
+    }
+
+    public void onError(long costNanos) {
+        record(true, costNanos);
+    }
+
+    private synchronized void record(boolean failure, long costNanos) {
+        if (state == CircuitBreakerState.OPEN) return;
+
+        window.record(failure, costNanos >= slowCallDurationNanos);
+
+        if (state == CircuitBreakerState.HALF_OPEN) {
+            if (window.count < config.permittedCallsInHalfOpenState()) return;
+
+            transitionTo(isOverThreshold() ? CircuitBreakerState.OPEN : CircuitBreakerState.CLOSED);
+        } else if (window.count >= config.minimumNumberOfCalls() && isOverThreshold()) {
+            transitionTo(CircuitBreakerState.OPEN);
+        }
+    }
+
+    private boolean isOverThreshold() {
+        return window.failureRate() >= config.failureRateThreshold()
+            || window.slowCallRate() >= config.slowCallRateThreshold();
+    }
+
+    private void transitionTo(CircuitBreakerState newState) {
+        log.warn("circuit breaker {} changed from {} to {}, failure rate {}%, slow call rate {}%",
+            name, state, newState, window.failureRate(), window.slowCallRate());
+
+        this.state = newState;
+        if (newState == CircuitBreakerState.OPEN) {
+            this.openedAtMillis = currentTimeMillis();
+        } else if (newState == CircuitBreakerState.HALF_OPEN) {
+            this.halfOpenPermitted = 0;
+            ++this.halfOpenGeneration;
+            this.window = new Window(config.permittedCallsInHalfOpenState());
+        } else {
+            this.window = new Window(config.slidingWindowSize());
+        }
+    }
+
+    public synchronized CircuitBreakerState getState() {
+        return state;
+    }
+
+    public synchronized float getFailureRate() {
+        return window.failureRate();
+    }
+
+    public synchronized float getSlowCallRate() {
+        return window.slowCallRate();
+    }
+
+    public synchronized int getNumberOfBufferedCalls() {
+        return window.count;
+    }
+
+    public synchronized long getNumberOfNotPermittedCalls() {
+        return notPermittedCalls;
+    }
+
+    public synchronized void reset() {
+        transitionTo(CircuitBreakerState.CLOSED);
+    }
+
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public String toString() {
+        return "RestCircuitBreaker{" + name + ", " + getState() + "}";
+    }
+
+    /**
+     * Count based sliding window over the last calls.
+     */
+    static class Window {
+        final boolean[] failures;
+        final boolean[] slows;
+        int index;
+        int count;
+        int failureCount;
+        int slowCount;
+
+        Window(int size) {
+            this.failures = new boolean[Math.max(size, 1)];
+            this.slows = new boolean[failures.length];
+        }
+
+        void record(boolean failure, boolean slow) {
+            if (count == failures.length) {
+                if (failures[index]) --failureCount;
+                if (slows[index]) --slowCount;
+            } else {
+                ++count;
+            }
+
+            failures[index] = failure;
+            slows[index] = slow;
+            if (failure) ++failureCount;
+            if (slow) ++slowCount;
+
+            index = (index + 1) % failures.length;
+        }
+
+        float failureRate() {
+            return count == 0 ? 0 : failureCount * 100f / count;
+        }
+
+        float slowCallRate() {
+            return count == 0 ? 0 : slowCount * 100f / count;
+        }
+    }
+}
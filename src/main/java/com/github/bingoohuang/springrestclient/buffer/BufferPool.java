@@ -0,0 +1,138 @@
+package com.github.bingoohuang.springrestclient.buffer;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded pool of heap byte arrays in power of two size classes.
+ * <p>
+ * Arrays larger than the biggest class are allocated and dropped as usual,
+ * at most {@code maxPerClass} arrays are kept for each class.
+ * With the leak detection on, the acquisitions are recorded with their stacks,
+ * so the ones not released could be reported by {@link #leaks()}.
+ */
+@Slf4j
+public class BufferPool {
+    private static final BufferPool shared = new BufferPool(512, 64 * 1024, 32);
+
+    private final int minSize;
+    private final int maxSize;
+    private final BlockingQueue<byte[]>[] classes;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final Map<byte[], Throwable> acquisitions = new IdentityHashMap<byte[], Throwable>();
+    private volatile boolean leakDetection;
+
+    public BufferPool(int minSize, int maxSize, int maxPerClass) {
+        this.minSize = Integer.highestOneBit(minSize);
+        this.maxSize = Integer.highestOneBit(maxSize);
+
+        int classCount = Integer.numberOfTrailingZeros(this.maxSize)
+            - Integer.numberOfTrailingZeros(this.minSize) + 1;
+        this.classes = new BlockingQueue[classCount];
+        for (int i = 0; i < classCount; ++i) {
+            classes[i] = new ArrayBlockingQueue<byte[]>(maxPerClass);
+        }
+    }
+
+    public static BufferPool shared() {
+        return shared;
+    }
+
+    /**
+     * @return an array with at least the capacity, which should be released after use.
+     */
+    public byte[] acquire(int capacity) {
+        int index = classIndex(capacity);
+        byte[] buffer = index < 0 ? null : classes[index].poll();
+        if (buffer == null) buffer = new byte[index < 0 ? capacity : minSize << index];
+
+        outstanding.incrementAndGet();
+        if (leakDetection) {
+            synchronized (acquisitions) {
+                acquisitions.put(buffer, new Throwable("buffer acquired here"));
+            }
+        }
+
+        return buffer;
+    }
+
+    public void release(byte[] buffer) {
+        if (!forget(buffer)) return;
+
+        int index = classIndex(buffer.length);
+        if (index >= 0 && buffer.length == minSize << index) classes[index].offer(buffer);
+    }
+
+    /**
+     * Gives up the buffer without pooling it, for the arrays which may still be read by others,
+     * they are left to the garbage collector and not reported as leaks.
+     */
+    public void discard(byte[] buffer) {
+        forget(buffer);
+    }
+
+    private boolean forget(byte[] buffer) {
+        if (buffer == null) return false;
+
+        if (leakDetection) {
+            synchronized (acquisitions) {
+                if (acquisitions.remove(buffer) == null) {
+                    log.warn("buffer of {} bytes released twice or not acquired from the pool", buffer.length);
+                    return false;
+                }
+            }
+        }
+        outstanding.decrementAndGet();
+        return true;
+    }
+
+    // the smallest class which could hold the capacity, or -1 when bigger than all
+    private int classIndex(int capacity) {
+        if (capacity > maxSize) return -1;
+        if (capacity <= minSize) return 0;
+
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        return Integer.numberOfTrailingZeros(size) - Integer.numberOfTrailingZeros(minSize);
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the number of acquired but not yet released buffers.
+     */
+    public int outstanding() {
+        return outstanding.get();
+    }
+
+    public void setLeakDetection(boolean leakDetection) {
+        synchronized (acquisitions) {
+            this.leakDetection = leakDetection;
+            acquisitions.clear();
+        }
+    }
+
+    /**
+     * @return the acquisition stacks of the buffers not released since the leak detection is on.
+     */
+    public List<Throwable> leaks() {
+        synchronized (acquisitions) {
+            return new ArrayList<Throwable>(acquisitions.values());
+        }
+    }
+
+    public int pooled() {
+        int count = 0;
+        for (val queue : classes) count += queue.size();
+        return count;
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.bingoohuang.springrestclient.buffer;
+
+import com.google.common.base.Charsets;
+
+import java.io.OutputStream;
+
+/**
+ * Byte array output stream growing over the pooled buffers,
+ * the content is available without copying until {@link #release()}.
+ */
+public class PooledOutputStream extends OutputStream {
+    private final BufferPool pool;
+    private byte[] buffer;
+    private int count;
+
+    public PooledOutputStream() {
+        this(BufferPool.shared(), 512);
+    }
+
+    public PooledOutputStream(BufferPool pool, int initialCapacity) {
+        this.pool = pool;
+        this.buffer = pool.acquire(initialCapacity);
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(count + 1);
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (buffer == null) throw new IllegalStateException("buffer already released");
+        if (capacity <= buffer.length) return;
+
+        byte[] bigger = pool.acquire(Math.max(capacity, buffer.length << 1));
+        System.arraycopy(buffer, 0, bigger, 0, count);
+        pool.release(buffer);
+        buffer = bigger;
+    }
+
+    /**
+     * @return the backing buffer, valid from 0 to {@link #size()} until released.
+     */
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public String toString() {
+        return new String(buffer, 0, count, Charsets.UTF_8);
+    }
+
+    public void release() {
+        pool.release(buffer);
+        buffer = null;
+        count = 0;
+    }
+
+    /**
+     * Drops the content like {@link #release()}, but the buffer is not returned to the pool,
+     * for the ones which may still be read elsewhere.
+     */
+    public void discard() {
+        pool.discard(buffer);
+        buffer = null;
+        count = 0;
+    }
+
+    @Override
+    public void close() {
+        // content is kept until released
+    }
+}
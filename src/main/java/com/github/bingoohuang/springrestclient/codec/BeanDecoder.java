@@ -0,0 +1,5 @@
+package com.github.bingoohuang.springrestclient.codec;
+
+public interface BeanDecoder {
+    Object decode(String text);
+}
@@ -0,0 +1,5 @@
+package com.github.bingoohuang.springrestclient.codec;
+
+public interface BeanEncoder {
+    String encode(Object bean);
+}
@@ -0,0 +1,19 @@
+package com.github.bingoohuang.springrestclient.codec;
+
+import java.lang.reflect.Type;
+
+/**
+ * A codec of the bodies written as bytes and read from the response stream,
+ * like the compact CBOR, Smile or Protobuf, or the streaming xml.
+ * It is chosen only by the consumes or produces of the api methods.
+ */
+public interface BinaryCodec extends RestCodec {
+    BinaryEncoder binaryEncoder(Class<?> type);
+
+    BinaryDecoder binaryDecoder(Type type);
+
+    /**
+     * @return the readable body for the logs, like the decoded one or a hex dump.
+     */
+    String preview(byte[] bytes, int offset, int length);
+}
@@ -0,0 +1,7 @@
+package com.github.bingoohuang.springrestclient.codec;
+
+import java.io.InputStream;
+
+public interface BinaryDecoder {
+    Object decode(InputStream in);
+}
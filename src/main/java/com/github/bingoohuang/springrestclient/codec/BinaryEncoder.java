@@ -0,0 +1,8 @@
+package com.github.bingoohuang.springrestclient.codec;
+
+public interface BinaryEncoder {
+    /**
+     * @return a new array owned by the request, which could be sent again by the retries.
+     */
+    byte[] encode(Object bean);
+}
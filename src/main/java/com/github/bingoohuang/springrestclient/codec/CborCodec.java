@@ -0,0 +1,85 @@
+package com.github.bingoohuang.springrestclient.codec;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.parser.ParserConfig;
+import com.alibaba.fastjson.util.TypeUtils;
+import com.github.bingoohuang.springrestclient.buffer.PooledOutputStream;
+import com.google.common.io.ByteStreams;
+import lombok.SneakyThrows;
+import lombok.val;
+
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+
+/**
+ * The application/cbor codec.
+ * <p>
+ * The beans are mapped to and from the json tree by the fastjson bean serializers and deserializers,
+ * so the field names and the fastjson annotations are the same as the json codec.
+ */
+public class CborCodec implements BinaryCodec {
+    public static final String CONTENT_TYPE = "application/cbor";
+    private static final int PREVIEW_HEX_BYTES = 256;
+
+    private final ParserConfig parserConfig = ParserConfig.getGlobalInstance();
+
+    @Override
+    public boolean supports(String mediaType) {
+        return mediaType.contains("/cbor") || mediaType.contains("+cbor");
+    }
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public BinaryEncoder binaryEncoder(Class<?> type) {
+        return new BinaryEncoder() {
+            @Override @SneakyThrows
+            public byte[] encode(Object bean) {
+                val out = new PooledOutputStream();
+                try {
+                    new CborWriter(out).write(JSON.toJSON(bean));
+                    return Arrays.copyOf(out.buffer(), out.size());
+                } finally {
+                    out.release();
+                }
+            }
+        };
+    }
+
+    @Override
+    public BinaryDecoder binaryDecoder(final Type type) {
+        return new BinaryDecoder() {
+            @Override @SneakyThrows
+            public Object decode(InputStream in) {
+                val bytes = ByteStreams.toByteArray(in);
+                if (bytes.length == 0) return null;
+
+                val tree = new CborReader(bytes, 0, bytes.length).readFully();
+                return TypeUtils.cast(tree, type, parserConfig);
+            }
+        };
+    }
+
+    @Override
+    public String preview(byte[] bytes, int offset, int length) {
+        try {
+            return JSON.toJSONString(new CborReader(bytes, offset, length).readFully());
+        } catch (RuntimeException e) {
+            return hex(bytes, offset, length);
+        }
+    }
+
+    static String hex(byte[] bytes, int offset, int length) {
+        int count = Math.min(length, PREVIEW_HEX_BYTES);
+        val hex = new StringBuilder(count * 2 + 32).append("0x");
+        for (int i = offset; i < offset + count; ++i) {
+            hex.append(Character.forDigit((bytes[i] >> 4) & 0xF, 16)).append(Character.forDigit(bytes[i] & 0xF, 16));
+        }
+        if (count < length) hex.append("...(").append(length).append(" bytes)");
+        return hex.toString();
+    }
+}
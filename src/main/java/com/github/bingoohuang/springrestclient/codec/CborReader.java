@@ -0,0 +1,181 @@
+package com.github.bingoohuang.springrestclient.codec;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.google.common.base.Charsets;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+
+/**
+ * Reads CBOR (RFC 7049) data items into the json tree of fastjson,
+ * the tags are skipped and the indefinite lengths are supported.
+ */
+class CborReader {
+    private static final int BREAK = 0xFF;
+
+    private final byte[] bytes;
+    private final int end;
+    private int pos;
+
+    CborReader(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.pos = offset;
+        this.end = offset + length;
+    }
+
+    /**
+     * @return the only data item, which should take all the bytes.
+     */
+    Object readFully() {
+        Object value = read();
+        if (pos != end) throw new IllegalArgumentException("CBOR has " + (end - pos) + " bytes after the data item");
+        return value;
+    }
+
+    Object read() {
+        return read(next());
+    }
+
+    private Object read(int initial) {
+        int info = initial & 0x1F;
+        switch (initial >>> 5) {
+            case 0:
+                return unsigned(argument(info));
+            case 1:
+                return negative(argument(info));
+            case 2:
+                return readBytes(info);
+            case 3:
+                return new String(readBytes(info), Charsets.UTF_8);
+            case 4:
+                return readArray(info);
+            case 5:
+                return readMap(info);
+            case 6:
+                argument(info);
+                return read();
+            default:
+                return readSimple(info);
+        }
+    }
+
+    private Object unsigned(long value) {
+        if (value < 0) return new BigInteger(Long.toHexString(value), 16); // above Long.MAX_VALUE
+        return value <= Integer.MAX_VALUE ? (Object) (int) value : (Object) value;
+    }
+
+    private Object negative(long value) {
+        if (value < 0) return BigInteger.ONE.negate().subtract(new BigInteger(Long.toHexString(value), 16));
+        long negative = -1 - value;
+        return negative >= Integer.MIN_VALUE ? (Object) (int) negative : (Object) negative;
+    }
+
+    private byte[] readBytes(int info) {
+        long length = length(info);
+        if (length >= 0) return take(checkLength(length));
+
+        // indefinite, the definite chunks until the break
+        ByteArrayOutputStream chunks = new ByteArrayOutputStream();
+        for (int initial = next(); initial != BREAK; initial = next()) {
+            byte[] chunk = take(checkLength(length(initial & 0x1F)));
+            chunks.write(chunk, 0, chunk.length);
+        }
+        return chunks.toByteArray();
+    }
+
+    private JSONArray readArray(int info) {
+        long length = length(info);
+        JSONArray array = new JSONArray();
+        if (length >= 0) {
+            for (int i = checkLength(length); i > 0; --i) array.add(read());
+        } else {
+            for (int initial = next(); initial != BREAK; initial = next()) array.add(read(initial));
+        }
+        return array;
+    }
+
+    private JSONObject readMap(int info) {
+        long length = length(info);
+        JSONObject map = new JSONObject();
+        if (length >= 0) {
+            for (int i = checkLength(length); i > 0; --i) map.put(String.valueOf(read()), read());
+        } else {
+            for (int initial = next(); initial != BREAK; initial = next()) {
+                map.put(String.valueOf(read(initial)), read());
+            }
+        }
+        return map;
+    }
+
+    private Object readSimple(int info) {
+        switch (info) {
+            case 20:
+                return Boolean.FALSE;
+            case 21:
+                return Boolean.TRUE;
+            case 22:
+            case 23:
+                return null;
+            case 25:
+                return halfFloat((int) readUnsigned(2));
+            case 26:
+                return (double) Float.intBitsToFloat((int) readUnsigned(4));
+            case 27:
+                return Double.longBitsToDouble(readUnsigned(8));
+            default:
+                throw new IllegalArgumentException("unsupported CBOR simple value " + info + " at " + (pos - 1));
+        }
+    }
+
+    private static double halfFloat(int half) {
+        int exponent = (half >> 10) & 0x1F;
+        int mantissa = half & 0x3FF;
+        double value;
+        if (exponent == 0) value = mantissa * Math.pow(2, -24);
+        else if (exponent == 31) value = mantissa == 0 ? Double.POSITIVE_INFINITY : Double.NaN;
+        else value = (mantissa + 1024) * Math.pow(2, exponent - 25);
+
+        return (half & 0x8000) == 0 ? value : -value;
+    }
+
+    // the length of the head, -1 for the indefinite length
+    private long length(int info) {
+        return info == 31 ? -1 : argument(info);
+    }
+
+    // the unsigned argument of the head, the 8 bytes ones above Long.MAX_VALUE are negative
+    private long argument(int info) {
+        if (info < 24) return info;
+        if (info == 24) return readUnsigned(1);
+        if (info == 25) return readUnsigned(2);
+        if (info == 26) return readUnsigned(4);
+        if (info == 27) return readUnsigned(8);
+
+        throw new IllegalArgumentException("bad CBOR additional info " + info + " at " + (pos - 1));
+    }
+
+    private int checkLength(long length) {
+        if (length < 0 || length > end - pos) throw new IllegalArgumentException("CBOR length " + length + " out of bounds");
+        return (int) length;
+    }
+
+    private long readUnsigned(int count) {
+        checkLength(count);
+        long value = 0;
+        for (int i = 0; i < count; ++i) value = (value << 8) | (bytes[pos++] & 0xFF);
+        return value;
+    }
+
+    private byte[] take(int length) {
+        byte[] taken = new byte[length];
+        System.arraycopy(bytes, pos, taken, 0, length);
+        pos += length;
+        return taken;
+    }
+
+    private int next() {
+        if (pos >= end) throw new IllegalArgumentException("CBOR ends unexpectedly at " + pos);
+        return bytes[pos++] & 0xFF;
+    }
+}
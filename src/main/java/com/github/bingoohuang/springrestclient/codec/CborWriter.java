@@ -0,0 +1,115 @@
+package com.github.bingoohuang.springrestclient.codec;
+
+import com.google.common.base.Charsets;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Writes the json tree of fastjson, maps, lists and scalars, as CBOR (RFC 7049) data items.
+ * The integers and strings take their shortest heads, and the doubles which are exact floats take 4 bytes.
+ */
+class CborWriter {
+    private final OutputStream out;
+
+    CborWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    void write(Object value) throws IOException {
+        if (value == null) {
+            out.write(0xF6);
+        } else if (value instanceof String) {
+            writeText((String) value);
+        } else if (value instanceof Boolean) {
+            out.write((Boolean) value ? 0xF5 : 0xF4);
+        } else if (value instanceof Integer || value instanceof Long
+            || value instanceof Short || value instanceof Byte) {
+            writeLong(((Number) value).longValue());
+        } else if (value instanceof BigInteger && ((BigInteger) value).bitLength() < 64) {
+            writeLong(((BigInteger) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Map) {
+            writeMap((Map<?, ?>) value);
+        } else if (value instanceof Collection) {
+            writeHead(4, ((Collection<?>) value).size());
+            for (Object item : (Collection<?>) value) write(item);
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            writeHead(2, bytes.length);
+            out.write(bytes);
+        } else if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            writeHead(4, length);
+            for (int i = 0; i < length; ++i) write(Array.get(value, i));
+        } else if (value instanceof Date) {
+            writeLong(((Date) value).getTime());
+        } else if (value instanceof Enum) {
+            writeText(((Enum<?>) value).name());
+        } else {
+            // BigDecimal, big BigInteger, Character and the others, as their texts like json
+            writeText(value.toString());
+        }
+    }
+
+    private void writeMap(Map<?, ?> map) throws IOException {
+        writeHead(5, map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writeText(String.valueOf(entry.getKey()));
+            write(entry.getValue());
+        }
+    }
+
+    private void writeText(String text) throws IOException {
+        byte[] bytes = text.getBytes(Charsets.UTF_8);
+        writeHead(3, bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value >= 0) writeHead(0, value);
+        else writeHead(1, -1 - value);
+    }
+
+    private void writeDouble(double value) throws IOException {
+        float floatValue = (float) value;
+        if (floatValue == value || Double.isNaN(value)) {
+            out.write(0xFA);
+            writeBytes(Float.floatToIntBits(floatValue), 4);
+        } else {
+            out.write(0xFB);
+            writeBytes(Double.doubleToLongBits(value), 8);
+        }
+    }
+
+    private void writeHead(int majorType, long value) throws IOException {
+        int major = majorType << 5;
+        if (value < 24) {
+            out.write(major | (int) value);
+        } else if (value < 0x100) {
+            out.write(major | 24);
+            writeBytes(value, 1);
+        } else if (value < 0x10000) {
+            out.write(major | 25);
+            writeBytes(value, 2);
+        } else if (value < 0x100000000L) {
+            out.write(major | 26);
+            writeBytes(value, 4);
+        } else {
+            out.write(major | 27);
+            writeBytes(value, 8);
+        }
+    }
+
+    private void writeBytes(long value, int count) throws IOException {
+        for (int shift = (count - 1) * 8; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift) & 0xFF);
+        }
+    }
+}
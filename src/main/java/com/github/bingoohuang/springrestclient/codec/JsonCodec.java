@@ -0,0 +1,142 @@
+package com.github.bingoohuang.springrestclient.codec;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.parser.DefaultJSONParser;
+import com.alibaba.fastjson.parser.JSONToken;
+import com.alibaba.fastjson.parser.ParserConfig;
+import com.alibaba.fastjson.parser.deserializer.ObjectDeserializer;
+import com.alibaba.fastjson.serializer.JSONSerializer;
+import com.alibaba.fastjson.serializer.ObjectSerializer;
+import com.alibaba.fastjson.serializer.SerializeConfig;
+import com.alibaba.fastjson.serializer.SerializeWriter;
+import com.google.common.primitives.Primitives;
+import lombok.SneakyThrows;
+import lombok.val;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * The default json codec, with the fastjson serializers and deserializers looked up once per type.
+ */
+public class JsonCodec implements TextCodec {
+    public static final String CONTENT_TYPE = "application/json;charset=UTF-8";
+
+    private final ParserConfig parserConfig = ParserConfig.getGlobalInstance();
+    private final SerializeConfig serializeConfig = SerializeConfig.getGlobalInstance();
+
+    @Override
+    public boolean supports(String mediaType) {
+        return mediaType.contains("/json") || mediaType.contains("+json");
+    }
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public BeanEncoder encoder(Class<?> type) {
+        if (isPlainText(type)) return PlainTextEncoder.INSTANCE;
+
+        return new JsonEncoder(isConcrete(type) ? type : null);
+    }
+
+    @Override
+    public BeanDecoder decoder(Type type) {
+        return new JsonDecoder(type);
+    }
+
+    // strings, primitives and enums are sent as is, like the request params
+    static boolean isPlainText(Class<?> type) {
+        return CharSequence.class.isAssignableFrom(type) || type.isPrimitive()
+            || Primitives.isWrapperType(type) || Enum.class.isAssignableFrom(type);
+    }
+
+    static boolean isConcrete(Class<?> type) {
+        return type != Object.class && !type.isInterface() && !Modifier.isAbstract(type.getModifiers());
+    }
+
+    private class JsonEncoder implements BeanEncoder {
+        private final Class<?> type;
+        private final ObjectSerializer writer;
+
+        JsonEncoder(Class<?> type) {
+            this.type = type;
+            this.writer = type == null ? null : serializeConfig.getObjectWriter(type);
+        }
+
+        @Override
+        public String encode(Object bean) {
+            if (bean == null) return "";
+
+            val beanClass = bean.getClass();
+            if (beanClass == type) return write(writer, bean);
+
+            // declared as a super type
+            if (isPlainText(beanClass)) return bean.toString();
+            return write(serializeConfig.getObjectWriter(beanClass), bean);
+        }
+
+        @SneakyThrows
+        private String write(ObjectSerializer writer, Object bean) {
+            val out = new SerializeWriter();
+            try {
+                writer.write(new JSONSerializer(out, serializeConfig), bean, null, null, 0);
+                return out.toString();
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    private class JsonDecoder implements BeanDecoder {
+        private final Type type;
+        private final ObjectDeserializer deserializer;
+        private final Class<?> elementClass;
+
+        JsonDecoder(Type type) {
+            this.type = type;
+            this.deserializer = parserConfig.getDeserializer(type);
+            this.elementClass = isBeanClass(type) ? (Class<?>) type : null;
+        }
+
+        // an array of beans is answered as a list for the bean class
+        private boolean isBeanClass(Type type) {
+            if (!(type instanceof Class)) return false;
+
+            val clazz = (Class<?>) type;
+            return !clazz.isArray() && !Collection.class.isAssignableFrom(clazz);
+        }
+
+        @Override
+        public Object decode(String text) {
+            if (elementClass != null && text.startsWith("[")) return JSON.parseArray(text, elementClass);
+
+            val parser = new DefaultJSONParser(text, parserConfig, JSON.DEFAULT_PARSER_FEATURE);
+            try {
+                val lexer = parser.getLexer();
+                if (lexer.token() == JSONToken.NULL) {
+                    lexer.nextToken();
+                    return null;
+                }
+
+                Object value = deserializer.deserialze(parser, type, null);
+                parser.handleResovleTask(value);
+                return value;
+            } finally {
+                parser.close();
+            }
+        }
+    }
+
+    enum PlainTextEncoder implements BeanEncoder {
+        INSTANCE;
+
+        @Override
+        public String encode(Object bean) {
+            return bean == null ? "" : bean.toString();
+        }
+    }
+}
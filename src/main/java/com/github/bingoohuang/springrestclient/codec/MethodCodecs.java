@@ -0,0 +1,199 @@
+package com.github.bingoohuang.springrestclient.codec;
+
+import com.github.bingoohuang.springrestclient.utils.PrimitiveDecoders;
+import com.github.bingoohuang.springrestclient.utils.Types;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The codecs of an api method, resolved once from its consumes and produces,
+ * with the request body encoder and the response decoder built up front.
+ * <p>
+ * Without produces, the response is decoded by the text codec of its Content-Type,
+ * and by sniffing the text when the Content-Type is missing or unknown.
+ * The binary codecs are only chosen by consumes and produces,
+ * and a codec of both kinds, like the xml one, streams the bodies when chosen so.
+ * A response of another Content-Type than produces, like a json error, is decoded as text.
+ */
+public class MethodCodecs {
+    private final List<RestCodec> codecs;
+    private final RestCodec requestCodec;
+    private final BeanEncoder requestEncoder;
+    private final BinaryEncoder binaryRequestEncoder;
+    private final Type responseType;
+    private final RestCodec producesCodec;
+    private final BeanDecoder producesDecoder;
+    private final BinaryDecoder binaryResponseDecoder;
+    private final AtomicReferenceArray<BeanDecoder> decoders;
+
+    /**
+     * @param requestBodyType the declared type of the @RequestBody parameter, null when none.
+     */
+    public MethodCodecs(List<RestCodec> codecs, Method method, Class<?> requestBodyType,
+                        String consumes, String produces) {
+        this.codecs = codecs;
+        this.decoders = new AtomicReferenceArray<BeanDecoder>(codecs.size());
+
+        int requestIndex = RestCodecs.indexOf(codecs, consumes, RestCodec.class);
+        this.requestCodec = codecs.get(requestIndex < 0 ? defaultIndex() : requestIndex);
+        boolean binaryRequest = requestCodec instanceof BinaryCodec;
+        this.requestEncoder = requestBodyType == null || binaryRequest ? null
+            : ((TextCodec) requestCodec).encoder(requestBodyType);
+        this.binaryRequestEncoder = requestBodyType == null || !binaryRequest ? null
+            : ((BinaryCodec) requestCodec).binaryEncoder(requestBodyType);
+
+        this.responseType = responseType(method);
+        int producesIndex = RestCodecs.indexOf(codecs, produces, RestCodec.class);
+        this.producesCodec = producesIndex < 0 ? null : codecs.get(producesIndex);
+        if (responseType == null) {
+            this.producesDecoder = null;
+            this.binaryResponseDecoder = null;
+        } else if (producesCodec instanceof BinaryCodec) {
+            // the text decoder is kept for the response read as text by the codecs of both kinds
+            this.producesDecoder = producesCodec instanceof TextCodec ? decoder(producesIndex) : null;
+            this.binaryResponseDecoder = ((BinaryCodec) producesCodec).binaryDecoder(responseType);
+        } else if (producesCodec != null) {
+            this.producesDecoder = decoder(producesIndex);
+            this.binaryResponseDecoder = null;
+        } else {
+            this.producesDecoder = null;
+            this.binaryResponseDecoder = null;
+            decoder(defaultIndex());
+        }
+    }
+
+    /**
+     * @return the type to decode the response to,
+     * null when the response text or stream is returned as is.
+     * Object is decoded like the other beans, to the parsed json of the response.
+     */
+    public static Type responseType(Method method) {
+        Type type;
+        if (Types.isFutureReturnType(method)) {
+            type = Types.getGenericTypeArgument(method);
+            if (!(type instanceof Class) && !(type instanceof ParameterizedType)) return null;
+        } else {
+            type = method.getGenericReturnType();
+            if (!(type instanceof ParameterizedType)) type = method.getReturnType();
+        }
+
+        if (type instanceof Class) {
+            Class<?> clazz = (Class<?>) type;
+            if (clazz.isPrimitive() || clazz == Void.class || clazz == String.class
+                || clazz == InputStream.class) return null;
+        }
+
+        return type;
+    }
+
+    private int defaultIndex() {
+        return RestCodecs.indexOf(codecs, "application/json", TextCodec.class);
+    }
+
+    public String getRequestContentType() {
+        return requestCodec.getContentType();
+    }
+
+    /**
+     * @return the content type of the produces codec to accept, null without produces.
+     */
+    public String getAcceptContentType() {
+        return producesCodec == null ? null : producesCodec.getContentType();
+    }
+
+    public boolean isBinaryRequest() {
+        return binaryRequestEncoder != null;
+    }
+
+    /**
+     * @return true when the request body is text, even streamed by a codec of both kinds like the xml one.
+     */
+    public boolean isTextRequest() {
+        return requestCodec instanceof TextCodec;
+    }
+
+    /**
+     * @return true when the response is read as bytes and decoded by the binary codec of produces.
+     */
+    public boolean isBinaryResponse() {
+        return binaryResponseDecoder != null;
+    }
+
+    /**
+     * @return true when the response of the Content-Type is decoded by the binary codec of produces.
+     */
+    public boolean isBinaryResponse(String contentType) {
+        return binaryResponseDecoder != null && contentType != null
+            && producesCodec.supports(contentType.toLowerCase());
+    }
+
+    public String encode(Object bean) {
+        return requestEncoder.encode(bean);
+    }
+
+    public byte[] encodeBinary(Object bean) {
+        return binaryRequestEncoder.encode(bean);
+    }
+
+    /**
+     * @param body the response text, or the response stream of the binary response.
+     */
+    public Object decode(Object body, String contentType) {
+        if (body instanceof InputStream) {
+            if (binaryResponseDecoder == null) return body;
+            if (contentType == null || isBinaryResponse(contentType))
+                return binaryResponseDecoder.decode((InputStream) body);
+
+            // like a json or text error body answered to a binary method
+            return decodeText(PrimitiveDecoders.text((InputStream) body), contentType);
+        }
+
+        String text = (String) body;
+        if (StringUtils.isEmpty(text)) return null;
+        if (responseType == null) return text;
+        if (producesDecoder != null) return producesDecoder.decode(text);
+
+        return decodeText(text, contentType);
+    }
+
+    // decoded by the text codec of the Content-Type, or by sniffing
+    private Object decodeText(String text, String contentType) {
+        if (StringUtils.isEmpty(text)) return null;
+
+        int index = RestCodecs.indexOf(codecs, contentType, TextCodec.class);
+        if (index < 0) {
+            String sniffed = text.startsWith("<") ? "application/xml" : "application/json";
+            index = RestCodecs.indexOf(codecs, sniffed, TextCodec.class);
+        }
+
+        return decoder(index).decode(text);
+    }
+
+    // concurrent first creations are equivalent, any of them could be kept
+    private BeanDecoder decoder(int index) {
+        BeanDecoder decoder = decoders.get(index);
+        if (decoder != null) return decoder;
+
+        decoder = ((TextCodec) codecs.get(index)).decoder(responseType);
+        decoders.set(index, decoder);
+        return decoder;
+    }
+
+    public String previewRequest(byte[] bytes, int offset, int length) {
+        return ((BinaryCodec) requestCodec).preview(bytes, offset, length);
+    }
+
+    public String previewResponse(byte[] bytes, int offset, int length) {
+        return ((BinaryCodec) producesCodec).preview(bytes, offset, length);
+    }
+
+    public Type getResponseType() {
+        return responseType;
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.bingoohuang.springrestclient.codec;
+
+/**
+ * Reads and writes the bodies of a media type, as text by a {@link TextCodec}
+ * or as bytes by a {@link BinaryCodec}.
+ * <p>
+ * The encoders and decoders are created once per api method and type,
+ * so the type inspection should be done when creating them, not when called.
+ * The codecs registered as spring beans take precedence over the default json and xml ones.
+ */
+public interface RestCodec {
+    /**
+     * @param mediaType lower cased media type, like application/json;charset=UTF-8.
+     */
+    boolean supports(String mediaType);
+
+    /**
+     * @return the Content-Type header of the encoded request bodies.
+     */
+    String getContentType();
+}
@@ -0,0 +1,52 @@
+package com.github.bingoohuang.springrestclient.codec;
+
+import lombok.experimental.UtilityClass;
+import lombok.val;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@UtilityClass
+public class RestCodecs {
+    private final List<RestCodec> defaultCodecs = Collections.unmodifiableList(
+        Arrays.<RestCodec>asList(new JsonCodec(), new XmlCodec(), new CborCodec()));
+
+    public List<RestCodec> defaults() {
+        return defaultCodecs;
+    }
+
+    /**
+     * @return the codec beans of the application context in their @Order or Ordered order,
+     * followed by the default codecs.
+     */
+    public List<RestCodec> of(ApplicationContext appContext) {
+        if (appContext == null) return defaultCodecs;
+
+        val beans = appContext.getBeansOfType(RestCodec.class);
+        if (beans.isEmpty()) return defaultCodecs;
+
+        val codecs = new ArrayList<RestCodec>(beans.values());
+        AnnotationAwareOrderComparator.sort(codecs);
+        codecs.addAll(defaultCodecs);
+        return Collections.unmodifiableList(codecs);
+    }
+
+    /**
+     * @return the index of the first codec of the kind supporting the media type, or -1 when none.
+     */
+    public int indexOf(List<RestCodec> codecs, String mediaType, Class<? extends RestCodec> kind) {
+        if (mediaType == null) return -1;
+
+        val lowerCased = mediaType.toLowerCase();
+        for (int i = 0, ii = codecs.size(); i < ii; ++i) {
+            val codec = codecs.get(i);
+            if (kind.isInstance(codec) && codec.supports(lowerCased)) return i;
+        }
+
+        return -1;
+    }
+}
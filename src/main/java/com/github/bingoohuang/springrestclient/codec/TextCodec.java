@@ -0,0 +1,9 @@
+package com.github.bingoohuang.springrestclient.codec;
+
+import java.lang.reflect.Type;
+
+public interface TextCodec extends RestCodec {
+    BeanEncoder encoder(Class<?> type);
+
+    BeanDecoder decoder(Type type);
+}
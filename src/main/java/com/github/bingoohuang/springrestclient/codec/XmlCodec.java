@@ -0,0 +1,120 @@
+package com.github.bingoohuang.springrestclient.codec;
+
+import com.github.bingoohuang.springrestclient.buffer.PooledOutputStream;
+import com.github.bingoohuang.springrestclient.xml.Xmls;
+import com.google.common.base.Charsets;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.reflect.TypeToken;
+import lombok.SneakyThrows;
+import lombok.val;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+
+import static com.github.bingoohuang.springrestclient.codec.JsonCodec.isConcrete;
+import static com.github.bingoohuang.springrestclient.codec.JsonCodec.isPlainText;
+
+/**
+ * The default xml codec, with the JAXB contexts created once per type.
+ * <p>
+ * The bodies of the methods which consume or produce xml are streamed by StAX
+ * to and from the http bodies, the sniffed ones are decoded from the response text.
+ */
+public class XmlCodec implements TextCodec, BinaryCodec {
+    public static final String CONTENT_TYPE = "application/xml;charset=UTF-8";
+
+    private final LoadingCache<Class<?>, JAXBContext> contexts = CacheBuilder.newBuilder()
+        .weakKeys().build(new CacheLoader<Class<?>, JAXBContext>() {
+            @Override public JAXBContext load(Class<?> type) throws JAXBException {
+                return JAXBContext.newInstance(type);
+            }
+        });
+
+    @Override
+    public boolean supports(String mediaType) {
+        return mediaType.contains("/xml") || mediaType.contains("+xml");
+    }
+
+    @Override
+    public String getContentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public BeanEncoder encoder(Class<?> type) {
+        if (isPlainText(type)) return JsonCodec.PlainTextEncoder.INSTANCE;
+
+        final Class<?> beanType = isConcrete(type) ? type : null;
+        final JAXBContext context = beanType == null ? null : contexts.getUnchecked(beanType);
+        return new BeanEncoder() {
+            @Override public String encode(Object bean) {
+                if (bean == null) return "";
+
+                return Xmls.marshal(context(beanType, context, bean), bean);
+            }
+        };
+    }
+
+    private JAXBContext context(Class<?> beanType, JAXBContext context, Object bean) {
+        return bean.getClass() == beanType ? context : contexts.getUnchecked(bean.getClass());
+    }
+
+    @Override
+    public BeanDecoder decoder(Type type) {
+        final Class<?> beanClass = TypeToken.of(type).getRawType();
+        final JAXBContext context = contexts.getUnchecked(beanClass);
+        return new BeanDecoder() {
+            @Override public Object decode(String text) {
+                return Xmls.unmarshal(context, text, beanClass);
+            }
+        };
+    }
+
+    @Override
+    public BinaryEncoder binaryEncoder(Class<?> type) {
+        final Class<?> beanType = isConcrete(type) && !isPlainText(type) ? type : null;
+        final JAXBContext context = beanType == null ? null : contexts.getUnchecked(beanType);
+        return new BinaryEncoder() {
+            @Override public byte[] encode(Object bean) {
+                if (bean == null) return new byte[0];
+                if (isPlainText(bean.getClass())) return bean.toString().getBytes(Charsets.UTF_8);
+
+                val out = new PooledOutputStream();
+                try {
+                    Xmls.marshal(context(beanType, context, bean), bean, out);
+                    return Arrays.copyOf(out.buffer(), out.size());
+                } finally {
+                    out.release();
+                }
+            }
+        };
+    }
+
+    @Override
+    public BinaryDecoder binaryDecoder(Type type) {
+        final Class<?> beanClass = TypeToken.of(type).getRawType();
+        final JAXBContext context = contexts.getUnchecked(beanClass);
+        return new BinaryDecoder() {
+            @Override @SneakyThrows
+            public Object decode(InputStream in) {
+                val stream = in.markSupported() ? in : new BufferedInputStream(in);
+                stream.mark(1);
+                if (stream.read() < 0) return null;
+                stream.reset();
+
+                return Xmls.unmarshal(context, stream, beanClass);
+            }
+        };
+    }
+
+    @Override
+    public String preview(byte[] bytes, int offset, int length) {
+        return new String(bytes, offset, length, Charsets.UTF_8);
+    }
+}
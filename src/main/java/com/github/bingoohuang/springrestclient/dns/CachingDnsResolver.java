@@ -0,0 +1,217 @@
+package com.github.bingoohuang.springrestclient.dns;
+
+import com.github.bingoohuang.springrestclient.utils.Schedulers;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+
+import java.io.Closeable;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.security.Security;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caches the addresses of the hosts for a ttl of its own, instead of the global ttl of the jvm resolver.
+ * <p>
+ * The cached hosts are refreshed in the background every ttl, even without new connections,
+ * so the addresses failed over are noticed under the steady keep-alive traffic too.
+ * The addresses expired are still returned while they are refreshed,
+ * and kept for another ttl when the refresh fails. The addresses of a host are rotated
+ * on each resolving, so the new connections are spread over them round-robin.
+ * The addresses no longer resolved are retired and notified to the {@link Listener}.
+ * <p>
+ * <b>The default delegate resolves by {@link InetAddress#getAllByName}, behind the jvm's own cache</b>,
+ * which keeps the addresses for the "networkaddress.cache.ttl" security property, 30 seconds by default,
+ * or forever under a security manager. A refresh within that ttl gets the addresses cached by the jvm,
+ * so a fail-over is noticed after the longer of both ttls. Set the security property no longer than the ttl,
+ * like {@code Security.setProperty("networkaddress.cache.ttl", "0")} before the first lookup,
+ * or pass a delegate resolving past the jvm cache. A warning is logged when the jvm cache is longer.
+ */
+@Slf4j
+public class CachingDnsResolver implements DnsResolver, Closeable {
+    private static final ExecutorService refresher = Executors.newCachedThreadPool(
+        new ThreadFactoryBuilder().setNameFormat("rest-client-dns-%d").setDaemon(true).build());
+
+    private final long ttlNanos;
+    private final DnsResolver delegate;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+    private final Set<InetAddress> retired = Collections.newSetFromMap(new ConcurrentHashMap<InetAddress, Boolean>());
+    private final ScheduledFuture<?> refreshTask;
+    private volatile Listener listener;
+
+    public interface Listener {
+        void retired(String host, Set<InetAddress> addresses);
+    }
+
+    static final String JVM_CACHE_TTL = "networkaddress.cache.ttl";
+    private static final String JVM_CACHE_TTL_PROPERTY = "sun.net.inetaddr.ttl";
+    private static final long JVM_CACHE_TTL_DEFAULT_MILLIS = 30000L;
+
+    public CachingDnsResolver(long ttlMillis) {
+        this(ttlMillis, SystemDefaultDnsResolver.INSTANCE);
+
+        long jvmTtlMillis = jvmCacheTtlMillis();
+        if (jvmTtlMillis < 0 || jvmTtlMillis > ttlMillis) {
+            log.warn("the jvm caches the addresses for {}, longer than the dns ttl {} millis, "
+                    + "set the security property {} no longer than it to notice the fail-overs in time",
+                jvmTtlMillis < 0 ? "ever" : jvmTtlMillis + " millis", ttlMillis, JVM_CACHE_TTL);
+        }
+    }
+
+    public CachingDnsResolver(long ttlMillis, DnsResolver delegate) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.delegate = delegate;
+        this.refreshTask = Schedulers.scheduleAtFixedRate(new Runnable() {
+            @Override public void run() {
+                refreshCached();
+            }
+        }, ttlMillis);
+    }
+
+    public CachingDnsResolver listener(Listener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    @Override
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        Entry entry = entries.get(host);
+        if (entry == null) {
+            entry = refreshEntry(host);
+        } else if (entry.isExpired() && entry.refreshing.compareAndSet(false, true)) {
+            refreshInBackground(host, entry);
+        }
+
+        return entry.next();
+    }
+
+    private void refreshCached() {
+        for (val cached : entries.entrySet()) {
+            val entry = cached.getValue();
+            if (entry.refreshing.compareAndSet(false, true)) refreshInBackground(cached.getKey(), entry);
+        }
+    }
+
+    private void refreshInBackground(final String host, final Entry entry) {
+        refresher.execute(new Runnable() {
+            @Override public void run() {
+                try {
+                    refreshEntry(host);
+                } catch (Exception e) {
+                    log.warn("failed to refresh the addresses of {}, keep {} for another ttl",
+                        host, Arrays.toString(entry.addresses), e);
+                    entry.expiresNanos = System.nanoTime() + ttlNanos;
+                } finally {
+                    entry.refreshing.set(false);
+                }
+            }
+        });
+    }
+
+    /**
+     * Resolves the host now by the delegate resolver, and retires the addresses no longer resolved.
+     */
+    public InetAddress[] refresh(String host) throws UnknownHostException {
+        return refreshEntry(host).addresses.clone();
+    }
+
+    private Entry refreshEntry(String host) throws UnknownHostException {
+        val addresses = delegate.resolve(host);
+        val entry = new Entry(addresses, System.nanoTime() + ttlNanos);
+        val old = entries.put(host, entry);
+
+        retired.removeAll(Arrays.asList(addresses));
+        if (old == null) return entry;
+
+        val removed = new HashSet<InetAddress>(Arrays.asList(old.addresses));
+        removed.removeAll(Arrays.asList(addresses));
+        if (removed.isEmpty()) return entry;
+
+        log.info("addresses {} of {} are retired, resolved to {} now", removed, host, Arrays.toString(addresses));
+        retired.addAll(removed);
+        val listener = this.listener;
+        if (listener != null) listener.retired(host, removed);
+        return entry;
+    }
+
+    /**
+     * @return true when the address was resolved before, but not any longer.
+     */
+    public boolean isRetired(InetAddress address) {
+        return address != null && retired.contains(address);
+    }
+
+    /**
+     * @return the cached addresses of the host in the resolved order, or null when not cached.
+     */
+    public InetAddress[] getCached(String host) {
+        val entry = entries.get(host);
+        return entry == null ? null : entry.addresses.clone();
+    }
+
+    /**
+     * @return the ttl of the addresses cached by the jvm resolver, -1 for caching forever.
+     */
+    static long jvmCacheTtlMillis() {
+        val seconds = parseSeconds(Security.getProperty(JVM_CACHE_TTL));
+        if (seconds != null) return seconds < 0 ? -1 : TimeUnit.SECONDS.toMillis(seconds);
+
+        val propertySeconds = parseSeconds(System.getProperty(JVM_CACHE_TTL_PROPERTY));
+        if (propertySeconds != null) return propertySeconds < 0 ? -1 : TimeUnit.SECONDS.toMillis(propertySeconds);
+
+        return System.getSecurityManager() == null ? JVM_CACHE_TTL_DEFAULT_MILLIS : -1;
+    }
+
+    private static Long parseSeconds(String value) {
+        if (value == null) return null;
+
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stops refreshing the cached hosts.
+     */
+    @Override
+    public void close() {
+        refreshTask.cancel(false);
+    }
+
+    private static class Entry {
+        final InetAddress[] addresses;
+        final AtomicInteger cursor = new AtomicInteger();
+        final AtomicBoolean refreshing = new AtomicBoolean();
+        volatile long expiresNanos;
+
+        Entry(InetAddress[] addresses, long expiresNanos) {
+            this.addresses = addresses;
+            this.expiresNanos = expiresNanos;
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - expiresNanos > 0;
+        }
+
+        // rotated by one on each call, the http client connects to the first one reachable
+        InetAddress[] next() {
+            int length = addresses.length;
+            if (length <= 1) return addresses.clone();
+
+            int start = (cursor.getAndIncrement() & Integer.MAX_VALUE) % length;
+            val rotated = new InetAddress[length];
+            for (int i = 0; i < length; ++i) {
+                rotated[i] = addresses[(start + i) % length];
+            }
+            return rotated;
+        }
+    }
+}
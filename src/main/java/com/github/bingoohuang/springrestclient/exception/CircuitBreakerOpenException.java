@@ -0,0 +1,7 @@
+package com.github.bingoohuang.springrestclient.exception;
+
+public class CircuitBreakerOpenException extends RestException {
+    public CircuitBreakerOpenException(String message) {
+        super(message);
+    }
+}
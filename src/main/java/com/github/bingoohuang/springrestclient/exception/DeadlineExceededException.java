@@ -0,0 +1,11 @@
+package com.github.bingoohuang.springrestclient.exception;
+
+public class DeadlineExceededException extends RestException {
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.bingoohuang.springrestclient.fanout;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The results of a fan-out in the order of the arguments,
+ * with null in the places of the failed calls, whose errors are kept by their indexes.
+ */
+public class FanOutResult<R> {
+    private final List<R> results;
+    private final Map<Integer, Throwable> errors;
+
+    FanOutResult(List<R> results, Map<Integer, Throwable> errors) {
+        this.results = Collections.unmodifiableList(results);
+        this.errors = Collections.unmodifiableMap(errors);
+    }
+
+    public List<R> getResults() {
+        return results;
+    }
+
+    public Map<Integer, Throwable> getErrors() {
+        return errors;
+    }
+
+    public boolean isAllSucceeded() {
+        return errors.isEmpty();
+    }
+
+    public int getSucceeded() {
+        return results.size() - errors.size();
+    }
+}
@@ -0,0 +1,177 @@
+package com.github.bingoohuang.springrestclient.fanout;
+
+import com.google.common.util.concurrent.JdkFutureAdapters;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.SneakyThrows;
+import lombok.val;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Calls a client method for each of the arguments, with at most {@code concurrency} calls in flight,
+ * and returns the results in the order of the arguments.
+ * <p>
+ * The async methods returning Future are called directly, so the calls are multiplexed on
+ * unirest's async client without a thread each. The sync methods are run on a shared daemon pool.
+ * The default concurrency is unirest's default connections per route,
+ * so the calls reuse the pooled connections without waiting for one.
+ * <p>
+ * The window is refilled on the completion notifications of the calls, without polling.
+ * The futures which are not {@link ListenableFuture} are waited by a pool thread each.
+ */
+public class RestFanOut<A, R> {
+    private static final ListeningExecutorService syncExecutor = MoreExecutors.listeningDecorator(
+        Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("rest-client-fanout-%d").setDaemon(true).build()));
+
+    private final Call<A, R> call;
+    private int concurrency = 20;
+
+    /**
+     * Starts a call for the arguments, like {@code api.getEmployeeByIdAsync(id)}.
+     */
+    public interface Call<A, R> {
+        Future<R> call(A args) throws Throwable;
+    }
+
+    private RestFanOut(Call<A, R> call) {
+        this.call = call;
+    }
+
+    public static <A, R> RestFanOut<A, R> of(Call<A, R> call) {
+        return new RestFanOut<A, R>(call);
+    }
+
+    /**
+     * @return the fan-out of the client method by its name, whose arguments are the argument arrays of the calls.
+     */
+    public static <R> RestFanOut<Object[], R> of(final Object client, String methodName) {
+        final Method method = findMethod(client.getClass(), methodName);
+        val async = Future.class.isAssignableFrom(method.getReturnType());
+        return new RestFanOut<Object[], R>(new Call<Object[], R>() {
+            @Override public Future<R> call(final Object[] args) throws Throwable {
+                if (async) return (Future<R>) invoke(method, client, args);
+
+                return syncExecutor.submit(new Callable<R>() {
+                    @Override public R call() {
+                        return (R) invoke(method, client, args);
+                    }
+                });
+            }
+        });
+    }
+
+    private static Method findMethod(Class<?> clientClass, String methodName) {
+        for (Class<?> apiClass : clientClass.getInterfaces()) {
+            for (Method method : apiClass.getMethods()) {
+                if (method.getName().equals(methodName)) return method;
+            }
+        }
+
+        throw new IllegalArgumentException("no method " + methodName + " in " + clientClass);
+    }
+
+    @SneakyThrows
+    private static Object invoke(Method method, Object client, Object[] args) {
+        try {
+            return method.invoke(client, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    public RestFanOut<A, R> concurrency(int concurrency) {
+        if (concurrency < 1) throw new IllegalArgumentException("concurrency should be positive");
+
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * @return the results in the order of the arguments,
+     * or throws the first error after cancelling the calls in flight and skipping the rest.
+     */
+    @SneakyThrows
+    public List<R> failFast(Collection<? extends A> args) {
+        val result = run(new ArrayList<A>(args), true);
+        if (!result.isAllSucceeded()) throw result.getErrors().values().iterator().next();
+
+        return result.getResults();
+    }
+
+    /**
+     * @return the results of all the calls, with the errors of the failed ones.
+     */
+    public FanOutResult<R> collect(Collection<? extends A> args) throws InterruptedException {
+        return run(new ArrayList<A>(args), false);
+    }
+
+    private FanOutResult<R> run(List<A> args, boolean failFast) throws InterruptedException {
+        int size = args.size();
+        val results = new ArrayList<R>(Collections.<R>nCopies(size, null));
+        val errors = new TreeMap<Integer, Throwable>();
+        val window = new Future[Math.min(concurrency, Math.max(1, size))];
+        val indexes = new int[window.length];
+        // the slots of the completed calls, offered by their listeners
+        val completed = new LinkedBlockingQueue<Integer>();
+
+        int next = 0, inFlight = 0;
+        try {
+            while ((next < size || inFlight > 0) && (!failFast || errors.isEmpty())) {
+                for (int slot = 0; slot < window.length && next < size; ++slot) {
+                    if (window[slot] != null) continue;
+
+                    try {
+                        val future = call.call(args.get(next));
+                        window[slot] = future;
+                        indexes[slot] = next;
+                        ++inFlight;
+                        notifyCompleted(future, slot, completed);
+                    } catch (Throwable e) {
+                        errors.put(next, e);
+                        if (failFast) break;
+                    }
+                    ++next;
+                }
+
+                if (inFlight == 0) continue;
+
+                int slot = completed.take();
+                val future = window[slot];
+                window[slot] = null;
+                --inFlight;
+                try {
+                    results.set(indexes[slot], (R) future.get());
+                } catch (ExecutionException e) {
+                    errors.put(indexes[slot], e.getCause());
+                } catch (CancellationException e) {
+                    errors.put(indexes[slot], e);
+                } catch (RuntimeException e) { // the failed calls without a response
+                    errors.put(indexes[slot], e);
+                }
+            }
+        } finally {
+            for (val future : window) {
+                if (future != null) future.cancel(true);
+            }
+        }
+
+        return new FanOutResult<R>(results, errors);
+    }
+
+    private static void notifyCompleted(Future<?> future, final int slot, final BlockingQueue<Integer> completed) {
+        val listenable = future instanceof ListenableFuture ? (ListenableFuture<?>) future
+            : JdkFutureAdapters.listenInPoolThread(future, syncExecutor);
+        listenable.addListener(new Runnable() {
+            @Override public void run() {
+                completed.offer(slot);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+}
@@ -1,38 +1,62 @@
 package com.github.bingoohuang.springrestclient.generators;
 
-import com.github.bingoohuang.springrestclient.annotations.SpringRestClientEnabled;
 import com.github.bingoohuang.springrestclient.annotations.SuccInResponseJSONProperty;
+import com.github.bingoohuang.springrestclient.annotations.Timeout;
+import com.github.bingoohuang.springrestclient.breaker.RestCircuitBreaker;
+import com.github.bingoohuang.springrestclient.codec.MethodCodecs;
+import com.github.bingoohuang.springrestclient.metrics.RestMetrics;
 import com.github.bingoohuang.springrestclient.provider.BaseUrlProvider;
 import com.github.bingoohuang.springrestclient.provider.BasicAuthProvider;
 import com.github.bingoohuang.springrestclient.provider.SignProvider;
+import com.github.bingoohuang.springrestclient.retry.RetryPolicy;
+import com.github.bingoohuang.springrestclient.utils.Asms;
+import com.github.bingoohuang.springrestclient.utils.RouteTemplate;
 import com.google.common.io.Files;
 import lombok.val;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.Type;
 import org.springframework.context.ApplicationContext;
-import org.springframework.web.bind.annotation.RequestMapping;
 
 import java.io.File;
 import java.io.IOException;
-import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import static com.github.bingoohuang.springrestclient.generators.MethodGenerator.*;
 import static com.github.bingoohuang.springrestclient.utils.Asms.ci;
 import static com.github.bingoohuang.springrestclient.utils.Asms.p;
+import static com.github.bingoohuang.springrestclient.utils.Asms.sig;
 import static org.objectweb.asm.Opcodes.*;
 
 public class ClassGenerator<T> {
     private final Class<T> restClientClass;
+    private final int classVersion;
     private final String implName;
     private final ClassWriter cw;
-    private final SpringRestClientEnabled clientEnabled;
+    private final RestClientModel model;
+    private final Map<String, Class<?>> fields = new LinkedHashMap<String, Class<?>>();
 
     public ClassGenerator(Class<T> restClientClass) {
+        this(restClientClass, Asms.classVersion());
+    }
+
+    /**
+     * @param classVersion the class file version of the generated class, like {@code Opcodes.V1_6}.
+     */
+    public ClassGenerator(Class<T> restClientClass, int classVersion) {
         this.restClientClass = restClientClass;
-        this.implName = restClientClass.getName() + "$$BINGOOASM$$Impl";
+        this.classVersion = classVersion;
+        this.implName = implName(restClientClass);
+        this.model = RestClientModel.of(restClientClass);
         this.cw = createClassWriter();
-        this.clientEnabled = restClientClass.getAnnotation(SpringRestClientEnabled.class);
+    }
+
+    public static String implName(Class<?> restClientClass) {
+        return restClientClass.getName() + "$$BINGOOASM$$Impl";
+    }
+
+    public String getImplName() {
+        return implName;
     }
 
     public Class<? extends T> generate() {
@@ -43,13 +67,8 @@ public class ClassGenerator<T> {
         return defineClass(bytes);
     }
 
-    public String getClassRequestMapping() {
-        val re = restClientClass.getAnnotation(RequestMapping.class);
-        return re != null && re.value().length > 0 ? re.value()[0] : "";
-    }
-
     private void createClassFileForDiagnose(byte[] bytes) {
-        if (clientEnabled.createClassFileForDiagnose())
+        if (model.getClientEnabled().createClassFileForDiagnose())
             writeClassFile4Diagnose(bytes, implName + ".class");
     }
 
@@ -63,17 +82,16 @@ public class ClassGenerator<T> {
 
     private Class<? extends T> defineClass(byte[] bytes) {
         val parentClassLoader = restClientClass.getClassLoader();
-        val classLoader = new RestClientClassLoader(parentClassLoader);
+        val classLoader = RestClientClassLoader.of(parentClassLoader);
         return (Class<? extends T>) classLoader.defineClass(implName, bytes);
     }
 
-    private byte[] createImplClassBytes() {
-        String classRequestMapping = getClassRequestMapping();
-
+    public byte[] createImplClassBytes() {
         constructor();
+        staticInitializer();
 
-        for (val method : restClientClass.getMethods()) {
-            new MethodGenerator(cw, implName, method, classRequestMapping).generate();
+        for (val methodModel : model.getMethods()) {
+            new MethodGenerator(cw, implName, methodModel).generate();
         }
 
         return createBytes();
@@ -85,44 +103,130 @@ public class ClassGenerator<T> {
     }
 
     private ClassWriter createClassWriter() {
-        val cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        val cw = new LoaderClassWriter(restClientClass.getClassLoader(), implName);
         String[] interfaces = {Type.getInternalName(restClientClass)};
-        cw.visit(V1_6, ACC_PUBLIC + ACC_SUPER, implName.replace('.', '/'),
+        cw.visit(classVersion, ACC_PUBLIC + ACC_SUPER, implName.replace('.', '/'),
             null, p(Object.class), interfaces);
 
-        val fv1 = cw.visitField(0, baseUrlProvider, ci(BaseUrlProvider.class), null, null);
-        fv1.visitEnd();
-
-        val fv7 = cw.visitField(0, basicAuthProvider, ci(BasicAuthProvider.class), null, null);
-        fv7.visitEnd();
+        fields.put(baseUrlProvider, BaseUrlProvider.class);
+        fields.put(basicAuthProvider, BasicAuthProvider.class);
+        fields.put(signProvider, SignProvider.class);
+        fields.put(appContext, ApplicationContext.class);
+        fields.put(restMetrics, RestMetrics.class);
+
+        for (val methodModel : model.getMethods()) {
+            val method = methodModel.getMethod();
+            fields.put(method.getName() + StatusExceptionMappings, Map.class);
+            fields.put(method.getName() + FixedRequestParams, Map.class);
+            fields.put(method.getName() + SuccInResponseJSONProperty, SuccInResponseJSONProperty.class);
+            fields.put(method.getName() + CircuitBreaker, RestCircuitBreaker.class);
+            fields.put(method.getName() + RetryPolicy, RetryPolicy.class);
+            fields.put(method.getName() + Timeout, Timeout.class);
+            fields.put(method.getName() + Codecs, MethodCodecs.class);
+        }
 
-        val fv2 = cw.visitField(0, signProvider, ci(SignProvider.class), null, null);
-        fv2.visitEnd();
+        for (Map.Entry<String, Class<?>> field : fields.entrySet()) {
+            val fv = cw.visitField(ACC_FINAL, field.getKey(), ci(field.getValue()), null, null);
+            fv.visitEnd();
+        }
 
-        val fv3 = cw.visitField(0, appContext, ci(ApplicationContext.class), null, null);
-        fv3.visitEnd();
+        for (val methodModel : model.getMethods()) {
+            val method = methodModel.getMethod();
+            val fv = cw.visitField(ACC_PRIVATE + ACC_STATIC + ACC_FINAL,
+                method.getName() + RouteTemplate, ci(RouteTemplate.class), null, null);
+            fv.visitEnd();
+        }
 
-        for (Method method : restClientClass.getDeclaredMethods()) {
-            val fv4 = cw.visitField(0, method.getName() + StatusExceptionMappings, ci(Map.class), null, null);
-            fv4.visitEnd();
+        return cw;
+    }
 
-            val fv5 = cw.visitField(0, method.getName() + FixedRequestParams, ci(Map.class), null, null);
-            fv5.visitEnd();
+    /*
+     * static {
+     *     methodRouteTemplate = RouteTemplate.compile("/api/method/{id}");
+     * }
+     */
+    private void staticInitializer() {
+        val mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+        mv.visitCode();
 
-            val fv6 = cw.visitField(0, method.getName() + SuccInResponseJSONProperty, ci(SuccInResponseJSONProperty.class), null, null);
-            fv6.visitEnd();
+        for (val methodModel : model.getMethods()) {
+            val method = methodModel.getMethod();
+            mv.visitLdcInsn(methodModel.getFullRequestMapping());
+            mv.visitMethodInsn(INVOKESTATIC, p(RouteTemplate.class), "compile",
+                sig(RouteTemplate.class, String.class), false);
+            mv.visitFieldInsn(PUTSTATIC, p(implName), method.getName() + RouteTemplate,
+                ci(RouteTemplate.class));
         }
 
-        return cw;
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(-1, -1);
+        mv.visitEnd();
     }
 
+    /*
+     * public Impl(RestClientWiring wiring) {
+     *     this.field = (FieldType) wiring.get("field"); // for each field
+     * }
+     */
     private void constructor() {
-        val mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        val mv = cw.visitMethod(ACC_PUBLIC, "<init>", sig(void.class, RestClientWiring.class), null, null);
         mv.visitCode();
         mv.visitVarInsn(ALOAD, 0);
         mv.visitMethodInsn(INVOKESPECIAL, p(Object.class), "<init>", "()V", false);
+
+        for (Map.Entry<String, Class<?>> field : fields.entrySet()) {
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitLdcInsn(field.getKey());
+            mv.visitMethodInsn(INVOKEVIRTUAL, p(RestClientWiring.class), "get",
+                sig(Object.class, String.class), false);
+            mv.visitTypeInsn(CHECKCAST, p(field.getValue()));
+            mv.visitFieldInsn(PUTFIELD, p(implName), field.getKey(), ci(field.getValue()));
+        }
+
         mv.visitInsn(RETURN);
-        mv.visitMaxs(1, 1);
+        mv.visitMaxs(-1, -1);
         mv.visitEnd();
     }
+
+    /*
+     * The frames are computed with the types loaded by the loader of the interface,
+     * asm's own loader could not see the types of the interfaces in the child loaders.
+     */
+    private static class LoaderClassWriter extends ClassWriter {
+        private final ClassLoader classLoader;
+        private final String implInternalName;
+
+        LoaderClassWriter(ClassLoader classLoader, String implName) {
+            super(ClassWriter.COMPUTE_FRAMES);
+            this.classLoader = classLoader != null ? classLoader : ClassGenerator.class.getClassLoader();
+            this.implInternalName = p(implName);
+        }
+
+        @Override
+        protected String getCommonSuperClass(String type1, String type2) {
+            // the impl class being generated is not loadable yet, it extends Object
+            if (type1.equals(implInternalName) || type2.equals(implInternalName)) return p(Object.class);
+
+            Class<?> class1 = loadClass(type1);
+            Class<?> class2 = loadClass(type2);
+            if (class1.isAssignableFrom(class2)) return type1;
+            if (class2.isAssignableFrom(class1)) return type2;
+            if (class1.isInterface() || class2.isInterface()) return p(Object.class);
+
+            do {
+                class1 = class1.getSuperclass();
+            } while (!class1.isAssignableFrom(class2));
+
+            return p(class1);
+        }
+
+        private Class<?> loadClass(String internalName) {
+            try {
+                return Class.forName(internalName.replace('/', '.'), false, classLoader);
+            } catch (ClassNotFoundException e) {
+                throw new RuntimeException("unable to load " + internalName + " to compute frames", e);
+            }
+        }
+    }
 }
@@ -0,0 +1,52 @@
+package com.github.bingoohuang.springrestclient.generators;
+
+import org.springframework.context.ApplicationContext;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Placeholder of a rest client, which generates the real impl on the first invocation.
+ */
+public class LazyRestClient implements InvocationHandler {
+    private final Class<?> restClientClass;
+    private final ApplicationContext appContext;
+    private volatile Object restClient;
+
+    private LazyRestClient(Class<?> restClientClass, ApplicationContext appContext) {
+        this.restClientClass = restClientClass;
+        this.appContext = appContext;
+    }
+
+    public static <T> T create(Class<T> restClientClass, ApplicationContext appContext) {
+        return (T) Proxy.newProxyInstance(restClientClass.getClassLoader(),
+            new Class<?>[]{restClientClass}, new LazyRestClient(restClientClass, appContext));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            String name = method.getName();
+            if ("equals".equals(name)) return proxy == args[0];
+            if ("hashCode".equals(name)) return System.identityHashCode(proxy);
+            if ("toString".equals(name)) return "LazyRestClient{" + restClientClass.getName() + "}";
+        }
+
+        try {
+            return method.invoke(getRestClient(), args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Object getRestClient() {
+        Object client = restClient;
+        if (client == null) {
+            client = restClient = SpringRestClientFactory.getRestClient(restClientClass, appContext);
+        }
+
+        return client;
+    }
+}
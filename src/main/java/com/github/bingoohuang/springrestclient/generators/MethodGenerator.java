@@ -2,9 +2,15 @@ package com.github.bingoohuang.springrestclient.generators;
 
 import com.github.bingoohuang.springrestclient.annotations.BasicAuth;
 import com.github.bingoohuang.springrestclient.annotations.SuccInResponseJSONProperty;
+import com.github.bingoohuang.springrestclient.annotations.Timeout;
+import com.github.bingoohuang.springrestclient.breaker.RestCircuitBreaker;
+import com.github.bingoohuang.springrestclient.codec.MethodCodecs;
+import com.github.bingoohuang.springrestclient.metrics.RestMetrics;
 import com.github.bingoohuang.springrestclient.provider.BaseUrlProvider;
 import com.github.bingoohuang.springrestclient.provider.BasicAuthProvider;
 import com.github.bingoohuang.springrestclient.provider.SignProvider;
+import com.github.bingoohuang.springrestclient.retry.RetryPolicy;
+import com.github.bingoohuang.springrestclient.trace.RestTracer;
 import com.github.bingoohuang.springrestclient.utils.*;
 import com.google.common.primitives.Primitives;
 import lombok.val;
@@ -13,13 +19,12 @@ import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.springframework.context.ApplicationContext;
-import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.web.bind.annotation.*;
-import sun.reflect.generics.reflectiveObjects.ParameterizedTypeImpl;
 
 import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.Future;
@@ -27,7 +32,7 @@ import java.util.concurrent.Future;
 import static com.github.bingoohuang.asmvalidator.AsmParamsValidatorFactory.createValidatorSignature;
 import static com.github.bingoohuang.asmvalidator.AsmParamsValidatorFactory.createValidators;
 import static com.github.bingoohuang.springrestclient.utils.Asms.*;
-import static com.github.bingoohuang.springrestclient.utils.PrimitiveWrappers.getParseXxMethodName;
+import static org.apache.commons.lang3.StringUtils.capitalize;
 import static org.apache.commons.lang3.StringUtils.uncapitalize;
 import static org.objectweb.asm.Opcodes.*;
 
@@ -35,23 +40,29 @@ public class MethodGenerator {
     public static final String StatusExceptionMappings = "StatusExceptionMappings";
     public static final String FixedRequestParams = "FixedRequestParams";
     public static final String SuccInResponseJSONProperty = "SuccInResponseJSONProperty";
+    public static final String CircuitBreaker = "CircuitBreaker";
+    public static final String RetryPolicy = "RetryPolicy";
+    public static final String Timeout = "Timeout";
+    public static final String Codecs = "Codecs";
+    public static final String RouteTemplate = "RouteTemplate";
     public static final String baseUrlProvider = "baseUrlProvider";
     public static final String basicAuthProvider = "basicAuthProvider";
     public static final String signProvider = "signProvider";
     public static final String appContext = "appContext";
+    public static final String restMetrics = "restMetrics";
 
+    private final RestMethodModel model;
     private final Method method;
     private final MethodVisitor mv;
-    private final Annotation[][] annotations;
     private final int paramSize;
     private final Class<?> returnType;
     private final Class<?>[] parameterTypes;
     private final int offsetSize;
-    private final String classRequestMapping;
     private final RequestMapping requestMapping;
     private final boolean futureReturnType;
     private final boolean isBinaryReturnType;
-    private final boolean isFutureBinaryReturnType;
+    private final boolean decodedReturnType;
+    private final boolean isPrimitiveReturnType;
 
     private final String implp;
     String restReqBuilder = p(RestReqBuilder.class);
@@ -59,21 +70,20 @@ public class MethodGenerator {
     private boolean validatorsEnabled;
 
 
-    public MethodGenerator(ClassWriter classWriter, String implName, Method method, String classRequestMapping) {
+    public MethodGenerator(ClassWriter classWriter, String implName, RestMethodModel model) {
         this.implp = p(implName);
-        this.method = method;
+        this.model = model;
+        this.method = model.getMethod();
         this.mv = visitMethod(method, classWriter);
-        this.annotations = method.getParameterAnnotations();
         this.parameterTypes = method.getParameterTypes();
-        this.paramSize = annotations.length;
+        this.paramSize = parameterTypes.length;
         this.offsetSize = computeOffsetSize();
         returnType = method.getReturnType();
-        this.classRequestMapping = classRequestMapping;
-        this.requestMapping = method.getAnnotation(RequestMapping.class);
+        this.requestMapping = model.getRequestMapping();
         this.futureReturnType = Types.isFutureReturnType(method);
         this.isBinaryReturnType = returnType == InputStream.class;
-        this.isFutureBinaryReturnType = futureReturnType
-            && Types.getGenericTypeArgument(method) == InputStream.class;
+        this.decodedReturnType = MethodCodecs.responseType(method) != null;
+        this.isPrimitiveReturnType = returnType.isPrimitive() && returnType != void.class;
     }
 
     private MethodVisitor visitMethod(Method method, ClassWriter classWriter) {
@@ -107,6 +117,7 @@ public class MethodGenerator {
     }
 
     private void body() {
+        generateTraceStart();
         generateValidateCode();
         createMap(1, PathVariable.class);
         createMap(2, RequestParam.class);
@@ -140,9 +151,26 @@ public class MethodGenerator {
             sig(void.class, Class.class, String.class, Object[].class), false);
     }
 
+    private void generateTraceStart() {
+        mv.visitLdcInsn(Type.getType(method.getDeclaringClass()));
+        mv.visitLdcInsn(method.getName());
+        mv.visitMethodInsn(INVOKESTATIC, p(RestTracer.class), "start",
+            sig(void.class, Class.class, String.class), false);
+    }
+
+    /*
+     * The async calls are finished by their callbacks.
+     */
+    private void generateTraceFinish() {
+        if (futureReturnType) return;
+
+        mv.visitMethodInsn(INVOKESTATIC, p(RestTracer.class), "finish", sig(void.class), false);
+    }
+
     private void dealResult() {
         if (returnType == void.class) {
             mv.visitInsn(POP);
+            generateTraceFinish();
             mv.visitInsn(RETURN);
             return;
         }
@@ -162,52 +190,50 @@ public class MethodGenerator {
             int requestBodyOffset = findRequestBodyParameterOffset();
             if (requestBodyOffset > -1) {
                 mv.visitVarInsn(ALOAD, requestBodyOffset + 1);
-                getOrPost(futureReturnType,
-                    "postBodyAsync", sig(Future.class, Object.class),
-                    "postBodyAsyncBinary", sig(Future.class, Object.class),
-                    "postBody", sig(String.class, Object.class),
-                    "postBodyBinary", sig(InputStream.class, Object.class));
+                invokeRestReq("postBody", Object.class);
             } else {
-                getOrPost(futureReturnType,
-                    "postAsync", sig(Future.class),
-                    "postAsyncBinary", sig(Future.class),
-                    "post", sig(String.class),
-                    "postBinary", sig(InputStream.class));
+                invokeRestReq("post");
             }
         } else if (isGetMethod()) {
-            getOrPost(futureReturnType,
-                "getAsync", sig(Future.class),
-                "getAsyncBinary", sig(Future.class),
-                "get", sig(String.class),
-                "getBinary", sig(InputStream.class));
+            invokeRestReq("get");
         }
     }
 
-    private void getOrPost(boolean futureReturnType,
-                           String async, String asyncSig,
-                           String asyncBinary, String asyncSigBinary,
-                           String sync, String syncSig,
-                           String syncBinary, String syncSigBinary) {
+    /*
+     * Calls the RestReq method of the return kind, like get, getBinary, getBean, getAsync or getAsyncBean.
+     */
+    private void invokeRestReq(String name, Class<?>... parameterTypes) {
+        String suffix;
+        Class<?> resultType;
         if (futureReturnType) {
-            mv.visitMethodInsn(INVOKEVIRTUAL, p(RestReq.class), async, asyncSig, false);
-        } else if (isBinaryReturnType) {
-            mv.visitMethodInsn(INVOKEVIRTUAL, p(RestReq.class), syncBinary, syncSigBinary, false);
-        } else if (isFutureBinaryReturnType) {
-            mv.visitMethodInsn(INVOKEVIRTUAL, p(RestReq.class), asyncBinary, asyncSigBinary, false);
+            suffix = decodedReturnType ? "AsyncBean" : "Async";
+            resultType = Future.class;
+        } else if (isBinaryReturnType || isPrimitiveReturnType) {
+            // primitives are decoded from the response bytes
+            suffix = "Binary";
+            resultType = InputStream.class;
+        } else if (decodedReturnType) {
+            suffix = "Bean";
+            resultType = Object.class;
         } else {
-            mv.visitMethodInsn(INVOKEVIRTUAL, p(RestReq.class), sync, syncSig, false);
+            suffix = "";
+            resultType = String.class;
         }
+
+        mv.visitMethodInsn(INVOKEVIRTUAL, p(RestReq.class), name + suffix, sig(resultType, parameterTypes), false);
     }
 
     private void buildUniRestReq() {
         newObject(restReqBuilder);
 
-        mv.visitLdcInsn(getFullRequestMapping());
-        mv.visitMethodInsn(INVOKEVIRTUAL, restReqBuilder, "prefix", sigRest(String.class), false);
-        mv.visitLdcInsn(getFirstConsume());
-        mv.visitMethodInsn(INVOKEVIRTUAL, restReqBuilder, "firstConsume", sigRest(String.class), false);
+        mv.visitFieldInsn(GETSTATIC, implp, method.getName() + RouteTemplate, ci(RouteTemplate.class));
+        mv.visitMethodInsn(INVOKEVIRTUAL, restReqBuilder, "routeTemplate", sigRest(RouteTemplate.class), false);
+        mv.visitLdcInsn(method.getName());
+        mv.visitMethodInsn(INVOKEVIRTUAL, restReqBuilder, "methodName", sigRest(String.class), false);
         mv.visitInsn(futureReturnType ? ICONST_1 : ICONST_0);
         mv.visitMethodInsn(INVOKEVIRTUAL, restReqBuilder, "async", sigRest(boolean.class), false);
+        mv.visitInsn(isPrimitiveReturnType ? ICONST_1 : ICONST_0);
+        mv.visitMethodInsn(INVOKEVIRTUAL, restReqBuilder, "primitiveReturn", sigRest(boolean.class), false);
         mv.visitLdcInsn(Type.getType(method.getDeclaringClass()));
         mv.visitMethodInsn(INVOKEVIRTUAL, restReqBuilder, "apiClass", sigRest(Class.class), false);
 
@@ -217,14 +243,20 @@ public class MethodGenerator {
             setField(basicAuthProvider, BasicAuthProvider.class);
         }
         setField(signProvider, SignProvider.class);
+        setField(restMetrics, RestMetrics.class);
         setFieldPerMethod(SuccInResponseJSONProperty, SuccInResponseJSONProperty.class);
         setFieldPerMethod(StatusExceptionMappings, Map.class);
         setFieldPerMethod(FixedRequestParams, Map.class);
+        setFieldPerMethod(CircuitBreaker, RestCircuitBreaker.class);
+        setFieldPerMethod(RetryPolicy, RetryPolicy.class);
+        setFieldPerMethod(Timeout, Timeout.class);
+        setFieldPerMethod(Codecs, MethodCodecs.class);
 
         mv.visitVarInsn(ALOAD, offsetSize + 1);
         mv.visitMethodInsn(INVOKEVIRTUAL, restReqBuilder, "routeParams", sigRest(Map.class), false);
         mv.visitVarInsn(ALOAD, offsetSize + 2);
         mv.visitMethodInsn(INVOKEVIRTUAL, restReqBuilder, "requestParams", sigRest(Map.class), false);
+        addPrimitiveRequestParams();
         mv.visitVarInsn(ALOAD, offsetSize + 3);
         mv.visitMethodInsn(INVOKEVIRTUAL, restReqBuilder, "cookies", sigRest(Map.class), false);
 
@@ -257,32 +289,19 @@ public class MethodGenerator {
     }
 
 
-    private String getFirstConsume() {
-        val isEmpty = requestMapping == null || requestMapping.consumes().length == 0;
-        if (isEmpty) return "";
-
-        return requestMapping.consumes()[0];
-    }
-
-    private String getFullRequestMapping() {
-        val isNotEmpty = requestMapping != null && requestMapping.value().length > 0;
-        val methodMappingName = isNotEmpty ? requestMapping.value()[0] : "";
-
-        return classRequestMapping + methodMappingName;
-    }
-
     private int findRequestBodyParameterOffset() {
-        for (int i = 0, incr = 0; i < paramSize; i++) {
-            if (isWideType(parameterTypes[i])) ++incr;
+        int index = model.getRequestBodyIndex();
+        return index < 0 ? -1 : localIndex(index) - 1;
+    }
 
-            for (Annotation annotation : annotations[i]) {
-                if (annotation.annotationType() == RequestBody.class) {
-                    return i + incr;
-                }
-            }
+    // the local variable index of the parameter, long and double take two slots
+    private int localIndex(int paramIndex) {
+        int index = paramIndex + 1;
+        for (int i = 0; i < paramIndex; ++i) {
+            if (isWideType(parameterTypes[i])) ++index;
         }
 
-        return -1;
+        return index;
     }
 
     private boolean isWideType(Class<?> parameterType) {
@@ -307,79 +326,38 @@ public class MethodGenerator {
 
     private void objectValueOfAndReturn() {
         if (returnType == String.class || returnType == Object.class || isBinaryReturnType) {
+            generateTraceFinish();
             mv.visitInsn(ARETURN);
             return;
         }
 
         if (futureReturnType) {
             val futureType = Types.getFutureGenericArgClass(method);
-            if (!(futureType instanceof Class)) {
+            if (!(futureType instanceof Class) && !(futureType instanceof ParameterizedType)) {
                 mv.visitInsn(ARETURN);
                 return;
             }
 
-            mv.visitLdcInsn(Type.getType((Class) futureType));
+            // the generic beans are decoded by the codecs to the whole type, only the raw class is passed
+            val futureClass = futureType instanceof ParameterizedType
+                ? ((ParameterizedType) futureType).getRawType() : futureType;
+            mv.visitLdcInsn(Type.getType((Class) futureClass));
             mv.visitVarInsn(ALOAD, offsetSize + 4);
             mv.visitMethodInsn(INVOKESTATIC, p(Futures.class),
                 futureType == Void.class ? "convertFutureVoid" : "convertFuture",
                 sig(Future.class, Future.class, Class.class, RestReq.class), false);
-        } else {
-            java.lang.reflect.Type typeArgument = Types.getGenericTypeArgument(method);
-            if (typeArgument == null) {
-                mv.visitLdcInsn(Type.getType(returnType));
-                mv.visitMethodInsn(INVOKESTATIC, p(Beans.class), "unmarshal",
-                    sig(Object.class, String.class, Class.class), false);
-            } else {
-                val genericReturnType = method.getGenericReturnType();
-                if (genericReturnType instanceof ParameterizedTypeImpl) {
-                    buildGenericReturn((ParameterizedTypeImpl) genericReturnType);
-
-                } else {
-                    mv.visitLdcInsn(Type.getType(returnType));
-                }
-
-                mv.visitMethodInsn(INVOKESTATIC, p(Beans.class), "unmarshal",
-                    sig(Object.class, String.class, java.lang.reflect.Type.class), false);
-            }
         }
         mv.visitTypeInsn(CHECKCAST, p(returnType));
+        generateTraceFinish();
         mv.visitInsn(ARETURN);
     }
 
-    private void buildGenericReturn(ParameterizedTypeImpl impl) {
-        // ParameterizedTypeImpl.make(List.class, new Class[]{String.class}, null);
-        mv.visitLdcInsn(Type.getType(method.getReturnType()));
-
-        val actualTypeArgs = impl.getActualTypeArguments();
-
-        if (paramSize <= 5) mv.visitInsn(ICONST_0 + actualTypeArgs.length);
-        else mv.visitIntInsn(BIPUSH, actualTypeArgs.length);
-
-        mv.visitTypeInsn(ANEWARRAY, p(Class.class));
-
-        for (int i = 0; i < actualTypeArgs.length; ++i) {
-            mv.visitInsn(DUP);
-
-            if (i <= 5) mv.visitInsn(ICONST_0 + i);
-            else mv.visitIntInsn(BIPUSH, i);
-
-            mv.visitLdcInsn(Type.getType((Class) actualTypeArgs[i]));
-            mv.visitInsn(AASTORE);
-        }
-
-        mv.visitInsn(ACONST_NULL);
-        mv.visitMethodInsn(INVOKESTATIC, p(ParameterizedTypeImpl.class),
-            "make", sig(ParameterizedTypeImpl.class, Class.class,
-                java.lang.reflect.Type[].class,
-                java.lang.reflect.Type.class), false);
-    }
-
-
     private void primitiveValueOfAndReturn() {
-        val wrapped = Primitives.wrap(returnType);
-        mv.visitMethodInsn(INVOKESTATIC, p(wrapped), getParseXxMethodName(returnType),
-            sig(returnType, String.class), false);
+        val decodeMethodName = "decode" + capitalize(returnType.getName());
+        mv.visitMethodInsn(INVOKESTATIC, p(PrimitiveDecoders.class), decodeMethodName,
+            sig(returnType, InputStream.class), false);
 
+        generateTraceFinish();
         mv.visitInsn(Type.getType(returnType).getOpcode(IRETURN));
     }
 
@@ -388,27 +366,43 @@ public class MethodGenerator {
         newObject(p(LinkedHashMap.class));
         mv.visitVarInsn(ASTORE, offsetSize + index);
 
-        for (int i = 0, incr = 0; i < paramSize; i++) {
-            for (Annotation annotation : annotations[i]) {
-                if (annotation.annotationType() != annotationClass) continue;
+        for (val binding : model.getParamBindings()) {
+            if (binding.getAnnotationType() != annotationClass) continue;
+            if (isPrimitiveRequestParam(binding)) continue;
+
+            mv.visitVarInsn(ALOAD, offsetSize + index);
+            mv.visitLdcInsn(binding.getName());
+            wrapPrimitive(parameterTypes[binding.getIndex()], localIndex(binding.getIndex()));
 
-                mv.visitVarInsn(ALOAD, offsetSize + index);
-                mv.visitLdcInsn(AnnotationUtils.getValue(annotation));
-                wrapPrimitive(parameterTypes[i], i, incr);
+            mv.visitMethodInsn(INVOKEVIRTUAL, p(LinkedHashMap.class), "put",
+                sig(Object.class, Object.class, Object.class), false);
+            mv.visitInsn(POP);
+        }
+    }
 
-                if (isWideType(parameterTypes[i])) ++incr;
+    private boolean isPrimitiveRequestParam(RestMethodModel.ParamBinding binding) {
+        return binding.getAnnotationType() == RequestParam.class && parameterTypes[binding.getIndex()].isPrimitive();
+    }
 
-                mv.visitMethodInsn(INVOKEVIRTUAL, p(LinkedHashMap.class), "put",
-                    sig(Object.class, Object.class, Object.class), false);
-                mv.visitInsn(POP);
-            }
+    /*
+     * The primitive request params are passed unboxed to the builder, to be encoded from their digits.
+     */
+    private void addPrimitiveRequestParams() {
+        for (val binding : model.getParamBindings()) {
+            if (!isPrimitiveRequestParam(binding)) continue;
+
+            Class<?> type = parameterTypes[binding.getIndex()];
+            mv.visitLdcInsn(binding.getName());
+            mv.visitVarInsn(Type.getType(type).getOpcode(ILOAD), localIndex(binding.getIndex()));
+            mv.visitMethodInsn(INVOKEVIRTUAL, restReqBuilder, "requestParam",
+                sig(RestReqBuilder.class, String.class, type), false);
         }
     }
 
-    private void wrapPrimitive(Class<?> type, int paramIndex, int incr) {
+    private void wrapPrimitive(Class<?> type, int localIndex) {
         Type parameterAsmType = Type.getType(type);
         int opcode = parameterAsmType.getOpcode(Opcodes.ILOAD);
-        mv.visitVarInsn(opcode, paramIndex + 1 + incr);
+        mv.visitVarInsn(opcode, localIndex);
 
         if (!type.isPrimitive()) return;
 
@@ -1,11 +1,36 @@
 package com.github.bingoohuang.springrestclient.generators;
 
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
 public class RestClientClassLoader extends ClassLoader {
+    private static final Map<ClassLoader, WeakReference<RestClientClassLoader>> loaders
+        = new WeakHashMap<ClassLoader, WeakReference<RestClientClassLoader>>();
+
     public RestClientClassLoader(ClassLoader parent) {
         super(parent);
     }
 
-    public Class<?> defineClass(String name, byte[] b) {
+    /**
+     * The shared loader of the generated classes for the parent loader.
+     * It is weakly referenced, and kept alive by its generated classes.
+     */
+    public static synchronized RestClientClassLoader of(ClassLoader parent) {
+        WeakReference<RestClientClassLoader> ref = loaders.get(parent);
+        RestClientClassLoader loader = ref == null ? null : ref.get();
+        if (loader == null) {
+            loader = new RestClientClassLoader(parent);
+            loaders.put(parent, new WeakReference<RestClientClassLoader>(loader));
+        }
+
+        return loader;
+    }
+
+    public synchronized Class<?> defineClass(String name, byte[] b) {
+        Class<?> loaded = findLoadedClass(name);
+        if (loaded != null) return loaded;
+
         return defineClass(name, b, 0, b.length);
     }
 }
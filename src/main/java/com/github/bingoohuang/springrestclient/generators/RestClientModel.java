@@ -0,0 +1,84 @@
+package com.github.bingoohuang.springrestclient.generators;
+
+import com.github.bingoohuang.springrestclient.annotations.BasicAuth;
+import com.github.bingoohuang.springrestclient.annotations.SpringRestClientEnabled;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The annotations of an api interface, introspected once in one pass
+ * and shared by the class generation and the wiring of the rest clients.
+ * <p>
+ * The model holds no beans, so it is cached by the interface across application context refreshes.
+ * The model references the interface and its methods, so it is softly held,
+ * or it would keep the interface's class loader alive through the weak key.
+ */
+public class RestClientModel {
+    private static final Cache<Class<?>, RestClientModel> models = CacheBuilder.newBuilder().weakKeys().softValues().build();
+
+    private final Class<?> apiClass;
+    private final SpringRestClientEnabled clientEnabled;
+    private final BasicAuth basicAuth;
+    private final String classRequestMapping;
+    private final List<RestMethodModel> methods;
+
+    private RestClientModel(Class<?> apiClass) {
+        this.apiClass = apiClass;
+        this.clientEnabled = apiClass.getAnnotation(SpringRestClientEnabled.class);
+        this.basicAuth = apiClass.getAnnotation(BasicAuth.class);
+
+        val re = apiClass.getAnnotation(RequestMapping.class);
+        this.classRequestMapping = re != null && re.value().length > 0 ? re.value()[0] : "";
+
+        val methods = new ArrayList<RestMethodModel>();
+        for (Method method : apiClass.getMethods()) {
+            methods.add(new RestMethodModel(this, method));
+        }
+        this.methods = Collections.unmodifiableList(methods);
+    }
+
+    @SneakyThrows
+    public static RestClientModel of(final Class<?> apiClass) {
+        try {
+            return models.get(apiClass, new Callable<RestClientModel>() {
+                @Override public RestClientModel call() {
+                    return new RestClientModel(apiClass);
+                }
+            });
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (com.google.common.util.concurrent.UncheckedExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
+    public Class<?> getApiClass() {
+        return apiClass;
+    }
+
+    public SpringRestClientEnabled getClientEnabled() {
+        return clientEnabled;
+    }
+
+    public BasicAuth getBasicAuth() {
+        return basicAuth;
+    }
+
+    public String getClassRequestMapping() {
+        return classRequestMapping;
+    }
+
+    public List<RestMethodModel> getMethods() {
+        return methods;
+    }
+}
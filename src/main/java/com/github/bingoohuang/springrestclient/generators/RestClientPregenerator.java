@@ -0,0 +1,92 @@
+package com.github.bingoohuang.springrestclient.generators;
+
+import com.github.bingoohuang.springrestclient.annotations.SpringRestClientEnabled;
+import com.github.bingoohuang.springrestclient.utils.Asms;
+import com.google.common.io.Files;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/**
+ * Generates the rest client impl classes at build time, and writes them beside the compiled interfaces,
+ * so they are loaded directly instead of generated at runtime on startup.
+ * <p>
+ * Run after compiling, e.g. by the exec-maven-plugin at the process-classes phase:
+ * <pre>
+ * java com.github.bingoohuang.springrestclient.generators.RestClientPregenerator target/classes
+ * </pre>
+ */
+@Slf4j
+public class RestClientPregenerator {
+    private final File classesDir;
+    private final ClassLoader classLoader;
+
+    public RestClientPregenerator(File classesDir, ClassLoader classLoader) {
+        this.classesDir = classesDir;
+        this.classLoader = classLoader;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: RestClientPregenerator <classesDir>...");
+            System.exit(1);
+        }
+
+        for (String arg : args) {
+            val classesDir = new File(arg);
+            val parent = Thread.currentThread().getContextClassLoader();
+            val classLoader = new URLClassLoader(new URL[]{classesDir.toURI().toURL()}, parent);
+
+            int count = new RestClientPregenerator(classesDir, classLoader).generate();
+            log.info("{} rest client impl classes generated in {}", count, classesDir);
+        }
+    }
+
+    /**
+     * @return the number of the generated impl classes.
+     */
+    public int generate() throws IOException {
+        return generate(classesDir, "");
+    }
+
+    private int generate(File dir, String packagePrefix) throws IOException {
+        val files = dir.listFiles();
+        if (files == null) return 0;
+
+        int count = 0;
+        for (File file : files) {
+            val name = file.getName();
+            if (file.isDirectory()) {
+                count += generate(file, packagePrefix + name + ".");
+            } else if (name.endsWith(".class") && name.indexOf("$$") < 0) {
+                val className = packagePrefix + name.substring(0, name.length() - ".class".length());
+                if (generate(className, file)) ++count;
+            }
+        }
+
+        return count;
+    }
+
+    private boolean generate(String className, File file) throws IOException {
+        Class<?> clazz;
+        try {
+            clazz = Class.forName(className, false, classLoader);
+        } catch (Throwable e) { // including NoClassDefFoundError of the absent optional dependencies
+            log.debug("skip class {} for {}", className, e.toString());
+            return false;
+        }
+
+        if (!clazz.isInterface() || !clazz.isAnnotationPresent(SpringRestClientEnabled.class)) return false;
+
+        // the same class file version as the compiled interface, which targets the jvm to run on
+        val generator = new ClassGenerator(clazz, Asms.classVersion(Files.toByteArray(file)));
+        val bytes = generator.createImplClassBytes();
+        val classFile = new File(classesDir, generator.getImplName().replace('.', '/') + ".class");
+        Files.write(bytes, classFile);
+        return true;
+    }
+}
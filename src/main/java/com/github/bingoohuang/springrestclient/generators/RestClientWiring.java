@@ -0,0 +1,21 @@
+package com.github.bingoohuang.springrestclient.generators;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Field values of a rest client impl, passed to its generated constructor
+ * which assigns them to the final fields.
+ */
+public class RestClientWiring {
+    private final Map<String, Object> fields = new HashMap<String, Object>();
+
+    public RestClientWiring set(String fieldName, Object value) {
+        fields.put(fieldName, value);
+        return this;
+    }
+
+    public Object get(String fieldName) {
+        return fields.get(fieldName);
+    }
+}
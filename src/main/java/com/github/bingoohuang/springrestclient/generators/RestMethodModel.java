@@ -0,0 +1,252 @@
+package com.github.bingoohuang.springrestclient.generators;
+
+import com.github.bingoohuang.springrestclient.annotations.*;
+import com.google.common.collect.Maps;
+import lombok.val;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.web.bind.annotation.*;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The annotations of an api method, with the method level ones
+ * taking precedence over the interface level ones.
+ */
+public class RestMethodModel {
+    private final Method method;
+    private final RequestMapping requestMapping;
+    private final String fullRequestMapping;
+    private final String firstConsume;
+    private final String firstProduce;
+    private final Timeout timeout;
+    private final SuccInResponseJSONProperty succInResponseJSONProperty;
+    private final CircuitBreaker circuitBreaker;
+    private final Retry retry;
+    private final Retry apiRetry;
+    private final Batched batched;
+    private final Map<String, Object> fixedRequestParams;
+    private final Map<Integer, Class<? extends Throwable>> statusExceptionMappings;
+    private final List<ParamBinding> paramBindings;
+    private final int requestBodyIndex;
+
+    RestMethodModel(RestClientModel clientModel, Method method) {
+        val apiClass = clientModel.getApiClass();
+        this.method = method;
+        this.requestMapping = method.getAnnotation(RequestMapping.class);
+
+        val isNotEmpty = requestMapping != null && requestMapping.value().length > 0;
+        this.fullRequestMapping = clientModel.getClassRequestMapping() + (isNotEmpty ? requestMapping.value()[0] : "");
+
+        val isConsumesEmpty = requestMapping == null || requestMapping.consumes().length == 0;
+        this.firstConsume = isConsumesEmpty ? "" : requestMapping.consumes()[0];
+
+        val isProducesEmpty = requestMapping == null || requestMapping.produces().length == 0;
+        this.firstProduce = isProducesEmpty ? "" : requestMapping.produces()[0];
+
+        this.timeout = firstNonNull(method.getAnnotation(Timeout.class), apiClass.getAnnotation(Timeout.class));
+        this.succInResponseJSONProperty = firstNonNull(method.getAnnotation(SuccInResponseJSONProperty.class),
+            apiClass.getAnnotation(SuccInResponseJSONProperty.class));
+        this.circuitBreaker = firstNonNull(method.getAnnotation(CircuitBreaker.class),
+            apiClass.getAnnotation(CircuitBreaker.class));
+        this.apiRetry = apiClass.getAnnotation(Retry.class);
+        this.retry = firstNonNull(method.getAnnotation(Retry.class), apiRetry);
+        this.batched = method.getAnnotation(Batched.class);
+
+        this.fixedRequestParams = createFixedRequestParams(apiClass);
+        this.statusExceptionMappings = createStatusExceptionMappings(apiClass);
+
+        val bindings = new ArrayList<ParamBinding>();
+        int bodyIndex = -1;
+        val parameterAnnotations = method.getParameterAnnotations();
+        for (int i = 0; i < parameterAnnotations.length; ++i) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                val type = annotation.annotationType();
+                if (type == PathVariable.class || type == RequestParam.class || type == CookieValue.class) {
+                    bindings.add(new ParamBinding(i, type, (String) AnnotationUtils.getValue(annotation)));
+                } else if (type == RequestBody.class && bodyIndex < 0) {
+                    bodyIndex = i;
+                }
+            }
+        }
+        this.paramBindings = Collections.unmodifiableList(bindings);
+        this.requestBodyIndex = bodyIndex;
+    }
+
+    private static <T> T firstNonNull(T first, T second) {
+        return first != null ? first : second;
+    }
+
+    private Map<String, Object> createFixedRequestParams(Class<?> apiClass) {
+        Map<String, Object> map = Maps.newHashMap();
+
+        putRequestParams(map, apiClass);
+        putRequestParams(map, method);
+
+        return Collections.unmodifiableMap(map);
+    }
+
+    private void putRequestParams(Map<String, Object> map, AnnotatedElement annotatedElement) {
+        // 按声明顺序来添加固定请求参数
+        for (Annotation annotation : annotatedElement.getAnnotations()) {
+            if (annotation instanceof FixedRequestParam) {
+                putFixedRequestParam(map, (FixedRequestParam) annotation);
+            } else if (annotation instanceof FixedRequestParams) {
+                val params = (FixedRequestParams) annotation;
+                for (FixedRequestParam paramValue : params.value()) {
+                    putFixedRequestParam(map, paramValue);
+                }
+            }
+        }
+    }
+
+    private void putFixedRequestParam(Map<String, Object> map, FixedRequestParam fixedRequestParam) {
+        if (fixedRequestParam.clazz() != void.class) {
+            map.put(fixedRequestParam.name(), fixedRequestParam.clazz());
+        } else if (StringUtils.isNotEmpty(fixedRequestParam.value())) {
+            map.put(fixedRequestParam.name(), fixedRequestParam.value());
+        } else {
+            throw new RuntimeException("bad config for @FixedRequestParam" + fixedRequestParam + " value or clazz should be assigned");
+        }
+    }
+
+    private Map<Integer, Class<? extends Throwable>> createStatusExceptionMappings(Class<?> apiClass) {
+        Map<Integer, Class<? extends Throwable>> statusExceptionMappings = Maps.newHashMap();
+
+        addStatusExceptionMapppings(statusExceptionMappings, apiClass.getAnnotation(RespStatusMappings.class));
+        addStatusExceptionMapppings(statusExceptionMappings, method.getAnnotation(RespStatusMappings.class));
+
+        return Collections.unmodifiableMap(statusExceptionMappings);
+    }
+
+    private void addStatusExceptionMapppings(Map<Integer, Class<? extends Throwable>> statusExceptionMappings, RespStatusMappings respStatusMappings) {
+        if (respStatusMappings == null) return;
+
+        for (RespStatusMapping respStatusMapping : respStatusMappings.value()) {
+            Class<? extends Throwable> exceptionClass = respStatusMapping.exception();
+            checkMethodException(exceptionClass);
+            statusExceptionMappings.put(respStatusMapping.status(), exceptionClass);
+        }
+    }
+
+    public void checkMethodException(Class<? extends Throwable> exceptionClass) {
+        if (RuntimeException.class.isAssignableFrom(exceptionClass)) return;
+
+        // checked exception should be declared
+        for (Class<?> declaredExceptionType : method.getExceptionTypes()) {
+            if (declaredExceptionType == exceptionClass) return;
+        }
+
+        throw new RuntimeException(exceptionClass + " is checked exception and should be declared on the method " + method);
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public String getName() {
+        return method.getName();
+    }
+
+    public RequestMapping getRequestMapping() {
+        return requestMapping;
+    }
+
+    public String getFullRequestMapping() {
+        return fullRequestMapping;
+    }
+
+    public String getFirstConsume() {
+        return firstConsume;
+    }
+
+    public String getFirstProduce() {
+        return firstProduce;
+    }
+
+    /**
+     * @return the declared type of the @RequestBody parameter, or null when none.
+     */
+    public Class<?> getRequestBodyType() {
+        return requestBodyIndex < 0 ? null : method.getParameterTypes()[requestBodyIndex];
+    }
+
+    public Timeout getTimeout() {
+        return timeout;
+    }
+
+    public SuccInResponseJSONProperty getSuccInResponseJSONProperty() {
+        return succInResponseJSONProperty;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public Retry getRetry() {
+        return retry;
+    }
+
+    /**
+     * @return the interface level retry, which configures the retry budget shared by the interface.
+     */
+    public Retry getApiRetry() {
+        return apiRetry;
+    }
+
+    public Batched getBatched() {
+        return batched;
+    }
+
+    public Map<String, Object> getFixedRequestParams() {
+        return fixedRequestParams;
+    }
+
+    public Map<Integer, Class<? extends Throwable>> getStatusExceptionMappings() {
+        return statusExceptionMappings;
+    }
+
+    public List<ParamBinding> getParamBindings() {
+        return paramBindings;
+    }
+
+    /**
+     * @return the index of the @RequestBody parameter, or -1 when none.
+     */
+    public int getRequestBodyIndex() {
+        return requestBodyIndex;
+    }
+
+    /**
+     * A parameter bound by @PathVariable, @RequestParam or @CookieValue.
+     */
+    public static class ParamBinding {
+        private final int index;
+        private final Class<? extends Annotation> annotationType;
+        private final String name;
+
+        ParamBinding(int index, Class<? extends Annotation> annotationType, String name) {
+            this.index = index;
+            this.annotationType = annotationType;
+            this.name = name;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Class<? extends Annotation> getAnnotationType() {
+            return annotationType;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
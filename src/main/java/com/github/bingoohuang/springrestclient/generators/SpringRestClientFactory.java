@@ -1,30 +1,41 @@
 package com.github.bingoohuang.springrestclient.generators;
 
 import com.github.bingoohuang.springrestclient.annotations.*;
+import com.github.bingoohuang.springrestclient.batch.BatchingRestClient;
+import com.github.bingoohuang.springrestclient.breaker.CircuitBreakers;
+import com.github.bingoohuang.springrestclient.codec.MethodCodecs;
+import com.github.bingoohuang.springrestclient.codec.RestCodec;
+import com.github.bingoohuang.springrestclient.codec.RestCodecs;
+import com.github.bingoohuang.springrestclient.metrics.MicrometerRestMetrics;
+import com.github.bingoohuang.springrestclient.metrics.RestMetrics;
 import com.github.bingoohuang.springrestclient.provider.*;
+import com.github.bingoohuang.springrestclient.retry.RetryPolicies;
+import com.github.bingoohuang.springrestclient.transport.ClientPools;
+import com.github.bingoohuang.springrestclient.transport.ConnectionWarmer;
 import com.github.bingoohuang.springrestclient.utils.Obj;
+import com.github.bingoohuang.springrestclient.utils.RestReq;
 import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import lombok.SneakyThrows;
 import lombok.experimental.UtilityClass;
 import lombok.val;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.context.ApplicationContext;
 
-import java.lang.annotation.Annotation;
-import java.lang.reflect.AnnotatedElement;
-import java.lang.reflect.Method;
-import java.util.Collections;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @UtilityClass public class SpringRestClientFactory {
     private Cache<Class, Object> restClientCache = CacheBuilder.newBuilder().build();
+    private Cache<Class, Class> implClassCache = CacheBuilder.newBuilder().build();
 
 
     public <T> T getRestClient(final Class<T> restClientClass, final ApplicationContext appContext) {
@@ -44,134 +55,165 @@ import java.util.concurrent.ExecutionException;
         }
     }
 
-    @SneakyThrows
-    public Object load(Class restClientClass, ApplicationContext appContext) {
-        val generator = new ClassGenerator(restClientClass);
-        val restClientImplClass = generator.generate();
-        val object = Obj.createObject(restClientImplClass);
-
-        setSignProvider(restClientImplClass, object, restClientClass, appContext);
-        setBaseUrlProvider(restClientImplClass, object, restClientClass, appContext);
-        setBasicAuthProvider(restClientImplClass, object, restClientClass, appContext);
-        setStatusMappings(restClientImplClass, object, restClientClass);
-        setFixedRequestParams(restClientImplClass, object, restClientClass);
-        setSuccInResponseJSONProperty(restClientImplClass, object, restClientClass);
-        setAppContext(restClientImplClass, object, restClientClass, appContext);
-
-        return object;
+    /**
+     * Forgets the rest client of the interface, so the next one is loaded again,
+     * with its client pool and connection warmup, like for a refreshed context.
+     */
+    public void evict(Class<?> restClientClass) {
+        restClientCache.invalidate(restClientClass);
     }
 
-    private void setAppContext(Class<?> restClientImplClass, Object object, Class restClientClass, ApplicationContext appContext) {
-        Obj.setField(restClientImplClass, object, MethodGenerator.appContext, appContext);
+    @SneakyThrows
+    public Object load(Class restClientClass, ApplicationContext appContext) {
+        val restClientImplClass = getImplClass(restClientClass);
+        val model = RestClientModel.of(restClientClass);
+        val wiring = new RestClientWiring();
+
+        setSignProvider(wiring, model, appContext);
+        val baseUrlProvider = setBaseUrlProvider(wiring, model, appContext);
+        setBasicAuthProvider(wiring, model, appContext);
+        setMethodFields(wiring, model, RestCodecs.of(appContext));
+        setRestMetrics(wiring, appContext);
+        setAppContext(wiring, appContext);
+
+        val restClient = restClientImplClass.getConstructor(RestClientWiring.class).newInstance(wiring);
+        registerClientPool(model);
+        warmupConnections(model, baseUrlProvider);
+        return BatchingRestClient.wrap(restClientClass, model, restClient);
     }
 
-    private void setSuccInResponseJSONProperty(Class<?> restClientImplClass, Object object, Class<?> restClientClass) {
-        for (Method method : restClientClass.getDeclaredMethods()) {
-            SuccInResponseJSONProperty property = method.getAnnotation(SuccInResponseJSONProperty.class);
-            if (property == null)
-                property = restClientClass.getAnnotation(SuccInResponseJSONProperty.class);
-
-            val fieldName = method.getName() + MethodGenerator.SuccInResponseJSONProperty;
-            Obj.setField(restClientImplClass, object, fieldName, property);
+    /**
+     * Generate the impl classes on a thread pool, the rest client creations wait for the ongoing ones.
+     * The generating failures are left to be thrown again by the rest client creations.
+     */
+    public List<Future<Class<?>>> generateInParallel(Collection<Class<?>> restClientClasses) {
+        val futures = new ArrayList<Future<Class<?>>>(restClientClasses.size());
+        if (restClientClasses.isEmpty()) return futures;
+
+        int threads = Math.min(restClientClasses.size(), Runtime.getRuntime().availableProcessors());
+        val executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+            .setNameFormat("rest-client-generator-%d").setDaemon(true).build());
+        for (final Class<?> restClientClass : restClientClasses) {
+            futures.add(executor.submit(new Callable<Class<?>>() {
+                @Override public Class<?> call() throws Exception {
+                    return getImplClass(restClientClass);
+                }
+            }));
         }
+        executor.shutdown();
+
+        return futures;
     }
 
-    private void setFixedRequestParams(Class<?> restClientImplClass, Object object, Class restClientClass) {
-        for (Method method : restClientClass.getDeclaredMethods()) {
-            val mappings = createFixedRequestParams(method, restClientClass);
-            val fieldName = method.getName() + MethodGenerator.FixedRequestParams;
-            Obj.setField(restClientImplClass, object, fieldName, mappings);
+    @SneakyThrows
+    private Class<?> getImplClass(final Class<?> restClientClass) {
+        try {
+            return implClassCache.get(restClientClass, new Callable<Class>() {
+                @Override public Class call() throws Exception {
+                    return getRestClientImplClass(restClientClass);
+                }
+            });
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (UncheckedExecutionException e) {
+            throw e.getCause();
         }
     }
 
-    private Map<String, Object> createFixedRequestParams(Method method, Class<?> restClientClass) {
-        Map<String, Object> map = Maps.newHashMap();
-
-        putRequestParams(map, restClientClass);
-        putRequestParams(map, method);
+    /**
+     * The impl class precompiled by {@link RestClientPregenerator}, or generated at runtime when missing.
+     */
+    private Class<?> getRestClientImplClass(Class<?> restClientClass) {
+        val implName = ClassGenerator.implName(restClientClass);
+        try {
+            val implClass = Class.forName(implName, true, restClientClass.getClassLoader());
+            if (restClientClass.isAssignableFrom(implClass)) return implClass;
+        } catch (ClassNotFoundException e) {
+            // not precompiled
+        }
 
-        return Collections.unmodifiableMap(map);
+        return new ClassGenerator(restClientClass).generate();
     }
 
-    private void putRequestParams(Map<String, Object> map, AnnotatedElement annotatedElement) {
-        // 按声明顺序来添加固定请求参数
-        for (Annotation annotation : annotatedElement.getAnnotations()) {
-            if (annotation instanceof FixedRequestParam) {
-                putFixedRequestParam(map, (FixedRequestParam) annotation);
-            } else if (annotation instanceof FixedRequestParams) {
-                val params = (FixedRequestParams) annotation;
-                for (FixedRequestParam paramValue : params.value()) {
-                    putFixedRequestParam(map, paramValue);
-                }
-            }
-        }
+    private void setAppContext(RestClientWiring wiring, ApplicationContext appContext) {
+        wiring.set(MethodGenerator.appContext, appContext);
     }
 
-    private void putFixedRequestParam(Map<String, Object> map, FixedRequestParam fixedRequestParam) {
-        if (fixedRequestParam.clazz() != void.class) {
-            map.put(fixedRequestParam.name(), fixedRequestParam.clazz());
-        } else if (StringUtils.isNotEmpty(fixedRequestParam.value())) {
-            map.put(fixedRequestParam.name(), fixedRequestParam.value());
-        } else {
-            throw new RuntimeException("bad config for @FixedRequestParam" + fixedRequestParam + " value or clazz should be assigned");
-        }
+    private void setRestMetrics(RestClientWiring wiring, ApplicationContext appContext) {
+        val restMetrics = createRestMetrics(appContext);
+        wiring.set(MethodGenerator.restMetrics, restMetrics);
     }
 
-    private void setStatusMappings(Class<?> restClientImplClass, Object object, Class restClientClass) {
-        for (Method method : restClientClass.getDeclaredMethods()) {
-            val mappings = createStatusExceptionMappings(method, restClientClass);
-            val fieldName = method.getName() + MethodGenerator.StatusExceptionMappings;
-            Obj.setField(restClientImplClass, object, fieldName, mappings);
-        }
-    }
+    static boolean micrometerPresent = RestReq.classExists("io.micrometer.core.instrument.MeterRegistry");
 
-    private Map<Integer, Class<? extends Throwable>> createStatusExceptionMappings(Method method, Class<?> restClientClass) {
-        Map<Integer, Class<? extends Throwable>> statusExceptionMappings = Maps.newHashMap();
+    private RestMetrics createRestMetrics(ApplicationContext appContext) {
+        RestMetrics bean = Obj.getBean(appContext, RestMetrics.class);
+        if (bean != null) return bean;
+        if (!micrometerPresent) return null;
 
-        addStatusExceptionMapppings(method, statusExceptionMappings, restClientClass.getAnnotation(RespStatusMappings.class));
-        addStatusExceptionMapppings(method, statusExceptionMappings, method.getAnnotation(RespStatusMappings.class));
+        return MicrometerRestMetrics.of(appContext);
+    }
 
-        return Collections.unmodifiableMap(statusExceptionMappings);
+    private void setMethodFields(RestClientWiring wiring, RestClientModel model, List<RestCodec> codecs) {
+        val apiClass = model.getApiClass();
+        for (val methodModel : model.getMethods()) {
+            val name = methodModel.getName();
+            val method = methodModel.getMethod();
+            wiring.set(name + MethodGenerator.StatusExceptionMappings, methodModel.getStatusExceptionMappings());
+            wiring.set(name + MethodGenerator.FixedRequestParams, methodModel.getFixedRequestParams());
+            wiring.set(name + MethodGenerator.SuccInResponseJSONProperty, methodModel.getSuccInResponseJSONProperty());
+            wiring.set(name + MethodGenerator.Timeout, methodModel.getTimeout());
+
+            val breaker = CircuitBreakers.create(apiClass, method, methodModel.getCircuitBreaker());
+            if (breaker != null) methodModel.checkMethodException(breaker.getOpenException());
+            wiring.set(name + MethodGenerator.CircuitBreaker, breaker);
+
+            val retryPolicy = RetryPolicies.create(apiClass, method, methodModel.getRetry(), methodModel.getApiRetry());
+            wiring.set(name + MethodGenerator.RetryPolicy, retryPolicy);
+
+            val methodCodecs = new MethodCodecs(codecs, method, methodModel.getRequestBodyType(),
+                methodModel.getFirstConsume(), methodModel.getFirstProduce());
+            wiring.set(name + MethodGenerator.Codecs, methodCodecs);
+        }
     }
 
-    private void addStatusExceptionMapppings(Method method, Map<Integer, Class<? extends Throwable>> statusExceptionMappings, RespStatusMappings respStatusMappings) {
-        if (respStatusMappings == null) return;
+    private BaseUrlProvider setBaseUrlProvider(RestClientWiring wiring, RestClientModel model, ApplicationContext appContext) {
+        val provider = createBaseUrlProvider(model, appContext);
+        wiring.set(MethodGenerator.baseUrlProvider, provider);
+        return provider;
+    }
 
-        for (RespStatusMapping respStatusMapping : respStatusMappings.value()) {
-            Class<? extends Throwable> exceptionClass = respStatusMapping.exception();
-            checkMethodException(method, exceptionClass);
-            statusExceptionMappings.put(respStatusMapping.status(), exceptionClass);
-        }
+    private void registerClientPool(RestClientModel model) {
+        val dnsTtlMillis = model.getClientEnabled().dnsTtlMillis();
+        if (dnsTtlMillis > 0) ClientPools.register(model.getApiClass(), dnsTtlMillis);
     }
 
-    private void checkMethodException(Method method, Class<? extends Throwable> exceptionClass) {
-        if (RuntimeException.class.isAssignableFrom(exceptionClass)) return;
+    private void warmupConnections(RestClientModel model, BaseUrlProvider baseUrlProvider) {
+        val clientEnabled = model.getClientEnabled();
+        if (clientEnabled.warmupConnections() <= 0) return;
 
-        // checked exception should be declared
-        for (Class<?> declaredExceptionType : method.getExceptionTypes()) {
-            if (declaredExceptionType == exceptionClass) return;
+        boolean async = false;
+        for (val methodModel : model.getMethods()) {
+            if (Future.class.isAssignableFrom(methodModel.getMethod().getReturnType())) async = true;
         }
 
-        throw new RuntimeException(exceptionClass + " is checked exception and should be declared on the method " + method);
-    }
-
-    private void setBaseUrlProvider(Class<?> restClientImplClass, Object object, Class restClientClass, ApplicationContext appContext) {
-        val provider = createBaseUrlProvider(restClientClass, appContext);
-        Obj.setField(restClientImplClass, object, MethodGenerator.baseUrlProvider, provider);
+        ConnectionWarmer.warmup(model.getApiClass(), baseUrlProvider, clientEnabled.warmupConnections(),
+            clientEnabled.warmupPath(), clientEnabled.keepAliveMillis(), async);
     }
 
-    private void setBasicAuthProvider(Class<?> restClientImplClass, Object object, Class restClientClass, ApplicationContext appContext) {
-        val provider = createBasicAuthProvider(restClientClass, appContext);
-        Obj.setField(restClientImplClass, object, MethodGenerator.basicAuthProvider, provider);
+    private void setBasicAuthProvider(RestClientWiring wiring, RestClientModel model, ApplicationContext appContext) {
+        val provider = createBasicAuthProvider(model, appContext);
+        wiring.set(MethodGenerator.basicAuthProvider, provider);
     }
 
-    private void setSignProvider(Class<?> restClientImplClass, Object object, Class restClientClass, ApplicationContext appContext) {
-        val provider = createSignProvider(restClientClass, appContext);
-        Obj.setField(restClientImplClass, object, MethodGenerator.signProvider, provider);
+    private void setSignProvider(RestClientWiring wiring, RestClientModel model, ApplicationContext appContext) {
+        val provider = createSignProvider(model, appContext);
+        wiring.set(MethodGenerator.signProvider, provider);
     }
 
-    private SignProvider createSignProvider(Class<?> restClientClass, ApplicationContext appContext) {
-        val restClientEnabled = restClientClass.getAnnotation(SpringRestClientEnabled.class);
+    private SignProvider createSignProvider(RestClientModel model, ApplicationContext appContext) {
+        val restClientClass = model.getApiClass();
+        val restClientEnabled = model.getClientEnabled();
         val signProviderClass = restClientEnabled.signProvider();
         SignProvider bean = Obj.getBean(appContext, signProviderClass);
         if (bean != null) return bean;
@@ -185,8 +227,9 @@ import java.util.concurrent.ExecutionException;
         }
     }
 
-    private BaseUrlProvider createBaseUrlProvider(Class<?> restClientClass, ApplicationContext appContext) {
-        val restClientEnabled = restClientClass.getAnnotation(SpringRestClientEnabled.class);
+    private BaseUrlProvider createBaseUrlProvider(RestClientModel model, ApplicationContext appContext) {
+        val restClientClass = model.getApiClass();
+        val restClientEnabled = model.getClientEnabled();
         String baseUrl = restClientEnabled.baseUrl();
         if (!Strings.isNullOrEmpty(baseUrl))
             return new FixedBaseUrlProvider(baseUrl);
@@ -202,8 +245,9 @@ import java.util.concurrent.ExecutionException;
         return Obj.createObject(providerClass, restClientClass);
     }
 
-    private BasicAuthProvider createBasicAuthProvider(Class<?> restClientClass, ApplicationContext appContext) {
-        val basicAuth = restClientClass.getAnnotation(BasicAuth.class);
+    private BasicAuthProvider createBasicAuthProvider(RestClientModel model, ApplicationContext appContext) {
+        val restClientClass = model.getApiClass();
+        val basicAuth = model.getBasicAuth();
         if (basicAuth == null) return null;
 
         val providerClass = basicAuth.basicAuthProvider();
@@ -0,0 +1,9 @@
+package com.github.bingoohuang.springrestclient.load;
+
+/**
+ * Creates the arguments of the api method for each call of the load.
+ * It is called by one thread only, in the order of the calls.
+ */
+public interface ArgumentGenerator {
+    Object[] next(long sequence);
+}
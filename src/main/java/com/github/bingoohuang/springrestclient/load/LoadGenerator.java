@@ -0,0 +1,316 @@
+package com.github.bingoohuang.springrestclient.load;
+
+import com.github.bingoohuang.springrestclient.generators.SpringRestClientFactory;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mashape.unirest.http.Unirest;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.springframework.context.support.StaticApplicationContext;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives an api method of a rest client open-loop at a target rate,
+ * the calls are issued at their intended times whether or not the earlier ones completed,
+ * and their latencies are measured from the intended times to correct the coordinated omission.
+ * <p>
+ * Usage: LoadGenerator apiClass method [argumentGeneratorClass, - for none]
+ * [rate, default 100] [seconds, default 10] [mode, default SYNC] [threads, default 16]
+ * [maxTotal maxPerRoute connections]
+ * <p>
+ * or by maven: mvn exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.github.bingoohuang.springrestclient.load.LoadGenerator -Dexec.args="..."
+ */
+@Slf4j
+public class LoadGenerator {
+    private static final ArgumentGenerator NO_ARGS = new ArgumentGenerator() {
+        @Override public Object[] next(long sequence) {
+            return new Object[0];
+        }
+    };
+
+    private final Object client;
+    private final Method method;
+    private ArgumentGenerator arguments = NO_ARGS;
+    private double rate = 100;
+    private long durationNanos = TimeUnit.SECONDS.toNanos(10);
+    private long warmupNanos;
+    private long drainNanos = TimeUnit.SECONDS.toNanos(30);
+    private LoadMode mode = LoadMode.SYNC;
+    private int threads = 16;
+    private int maxTotal;
+    private int maxPerRoute;
+
+    public LoadGenerator(Object client, Method method) {
+        this.client = client;
+        this.method = method;
+    }
+
+    public static LoadGenerator of(Object client, Class<?> apiClass, String methodName) {
+        for (val method : apiClass.getMethods()) {
+            if (method.getName().equals(methodName)) return new LoadGenerator(client, method);
+        }
+
+        throw new IllegalArgumentException("no method " + methodName + " in " + apiClass);
+    }
+
+    public LoadGenerator arguments(ArgumentGenerator arguments) {
+        this.arguments = arguments;
+        return this;
+    }
+
+    /**
+     * @param rate the target calls per second.
+     */
+    public LoadGenerator rate(double rate) {
+        this.rate = rate;
+        return this;
+    }
+
+    public LoadGenerator duration(long duration, TimeUnit unit) {
+        this.durationNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * Runs the load for the time before the measured run, without reporting it.
+     */
+    public LoadGenerator warmup(long warmup, TimeUnit unit) {
+        this.warmupNanos = unit.toNanos(warmup);
+        return this;
+    }
+
+    /**
+     * The longest time to wait for the issued calls to complete after the run.
+     */
+    public LoadGenerator drain(long drain, TimeUnit unit) {
+        this.drainNanos = unit.toNanos(drain);
+        return this;
+    }
+
+    public LoadGenerator mode(LoadMode mode) {
+        this.mode = mode;
+        return this;
+    }
+
+    /**
+     * The worker threads of the SYNC and FUTURE modes, the calls queue up when all of them are busy.
+     */
+    public LoadGenerator threads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Sets the connection pool of unirest's http clients before the run.
+     */
+    public LoadGenerator connections(int maxTotal, int maxPerRoute) {
+        this.maxTotal = maxTotal;
+        this.maxPerRoute = maxPerRoute;
+        return this;
+    }
+
+    public LoadReport run() throws InterruptedException {
+        boolean returnsFuture = Future.class.isAssignableFrom(method.getReturnType());
+        if (mode != LoadMode.SYNC && !returnsFuture)
+            throw new IllegalArgumentException(mode + " mode requires " + method + " to return a Future");
+
+        if (maxTotal > 0) Unirest.setConcurrency(maxTotal, maxPerRoute);
+
+        long sequence = 0;
+        if (warmupNanos > 0) sequence = new Run(new LoadReport(mode, rate)).run(warmupNanos, sequence);
+
+        val report = new LoadReport(mode, rate);
+        long gcCount = gcCount(), gcMillis = gcMillis();
+        long start = System.nanoTime();
+        new Run(report).run(durationNanos, sequence);
+        report.finish(System.nanoTime() - start, gcCount() - gcCount, gcMillis() - gcMillis);
+        return report;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, bean.getCollectionTime());
+        }
+        return millis;
+    }
+
+    private class Run {
+        final LoadReport report;
+        final Queue<InFlight> issued = new ConcurrentLinkedQueue<InFlight>();
+        volatile boolean issuing = true;
+
+        Run(LoadReport report) {
+            this.report = report;
+        }
+
+        long run(long durationNanos, long sequence) throws InterruptedException {
+            val workers = mode == LoadMode.ASYNC ? null : Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder().setNameFormat("rest-client-load-%d").setDaemon(true).build());
+            val collector = mode == LoadMode.ASYNC ? startCollector() : null;
+
+            long intervalNanos = (long) (1e9 / rate);
+            long start = System.nanoTime();
+            try {
+                for (long i = 0; i * intervalNanos < durationNanos; ++i, ++sequence) {
+                    final long intended = start + i * intervalNanos;
+                    sleepUntil(intended);
+
+                    final Object[] args = arguments.next(sequence);
+                    report.issued();
+                    if (workers == null) {
+                        issueAsync(args, intended);
+                    } else {
+                        workers.execute(new Runnable() {
+                            @Override public void run() {
+                                call(args, intended);
+                            }
+                        });
+                    }
+                }
+            } finally {
+                issuing = false;
+                if (workers != null) workers.shutdown();
+            }
+
+            if (workers != null && !workers.awaitTermination(drainNanos, TimeUnit.NANOSECONDS)) {
+                log.warn("{} calls not completed in the drain time", workers.shutdownNow().size());
+            }
+            if (collector != null) {
+                collector.join(TimeUnit.NANOSECONDS.toMillis(drainNanos) + 1);
+                collector.interrupt();
+            }
+
+            return sequence;
+        }
+
+        private void sleepUntil(long intended) {
+            long remaining;
+            while ((remaining = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+            }
+        }
+
+        private void call(Object[] args, long intended) {
+            Throwable error = null;
+            try {
+                val result = method.invoke(client, args);
+                if (mode == LoadMode.FUTURE) ((Future<?>) result).get();
+            } catch (InvocationTargetException e) {
+                error = e.getCause();
+            } catch (ExecutionException e) {
+                error = e.getCause();
+            } catch (Throwable e) {
+                error = e;
+            }
+
+            report.record(System.nanoTime() - intended, error);
+        }
+
+        private void issueAsync(Object[] args, long intended) {
+            try {
+                issued.add(new InFlight((Future<?>) method.invoke(client, args), intended));
+            } catch (InvocationTargetException e) {
+                report.record(System.nanoTime() - intended, e.getCause());
+            } catch (Throwable e) {
+                report.record(System.nanoTime() - intended, e);
+            }
+        }
+
+        private Thread startCollector() {
+            val collector = new Thread(new Runnable() {
+                @Override public void run() {
+                    collect();
+                }
+            }, "rest-client-load-collector");
+            collector.setDaemon(true);
+            collector.start();
+            return collector;
+        }
+
+        // polls the in-flight futures, the completions are seen in about 50 microseconds
+        private void collect() {
+            List<InFlight> inFlights = new ArrayList<InFlight>();
+            while (!Thread.currentThread().isInterrupted()) {
+                boolean lastRound = !issuing;
+                for (InFlight inFlight; (inFlight = issued.poll()) != null; ) inFlights.add(inFlight);
+
+                for (Iterator<InFlight> it = inFlights.iterator(); it.hasNext(); ) {
+                    val inFlight = it.next();
+                    if (!inFlight.future.isDone()) continue;
+
+                    it.remove();
+                    report.record(System.nanoTime() - inFlight.intended, inFlight.error());
+                }
+
+                if (lastRound && inFlights.isEmpty() && issued.isEmpty()) return;
+                LockSupport.parkNanos(50000);
+            }
+
+            if (!inFlights.isEmpty()) log.warn("{} calls not completed in the drain time", inFlights.size());
+        }
+    }
+
+    private static class InFlight {
+        final Future<?> future;
+        final long intended;
+
+        InFlight(Future<?> future, long intended) {
+            this.future = future;
+            this.intended = intended;
+        }
+
+        Throwable error() {
+            try {
+                future.get();
+                return null;
+            } catch (ExecutionException e) {
+                return e.getCause();
+            } catch (Throwable e) {
+                return e;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        val apiClass = Class.forName(args[0]);
+        val argumentClass = args.length > 2 && !"-".equals(args[2]) ? Class.forName(args[2]) : null;
+        double rate = args.length > 3 ? Double.parseDouble(args[3]) : 100;
+        int seconds = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+        val mode = args.length > 5 ? LoadMode.valueOf(args[5].toUpperCase()) : LoadMode.SYNC;
+        int threads = args.length > 6 ? Integer.parseInt(args[6]) : 16;
+
+        val appContext = new StaticApplicationContext();
+        appContext.refresh();
+        val client = SpringRestClientFactory.getRestClient(apiClass, appContext);
+        val generator = LoadGenerator.of(client, apiClass, args[1])
+            .rate(rate).duration(seconds, TimeUnit.SECONDS).warmup(Math.max(1, seconds / 5), TimeUnit.SECONDS)
+            .mode(mode).threads(threads);
+        if (argumentClass != null) generator.arguments((ArgumentGenerator) argumentClass.newInstance());
+        if (args.length > 8) generator.connections(Integer.parseInt(args[7]), Integer.parseInt(args[8]));
+
+        try {
+            System.out.println(generator.run());
+        } finally {
+            Unirest.shutdown();
+        }
+    }
+}
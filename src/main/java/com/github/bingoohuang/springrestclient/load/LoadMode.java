@@ -0,0 +1,17 @@
+package com.github.bingoohuang.springrestclient.load;
+
+public enum LoadMode {
+    /**
+     * Calls the method returning the result directly on the worker threads.
+     */
+    SYNC,
+    /**
+     * Calls the method returning a Future on the worker threads, and waits for it there.
+     */
+    FUTURE,
+    /**
+     * Calls the method returning a Future on the scheduling thread without waiting,
+     * the completions are collected by polling the in-flight futures.
+     */
+    ASYNC
+}
@@ -0,0 +1,132 @@
+package com.github.bingoohuang.springrestclient.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The result of a load run, with the latencies in microseconds measured from the intended start
+ * of each call, so the calls delayed by the slow ones before are not omitted.
+ */
+public class LoadReport {
+    private final LoadMode mode;
+    private final double targetRate;
+    private final Histogram histogram = new ConcurrentHistogram(3);
+    private final AtomicLong issued = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final ConcurrentMap<String, AtomicLong> errorTypes = new ConcurrentHashMap<String, AtomicLong>();
+    private long elapsedNanos;
+    private long gcCount;
+    private long gcMillis;
+
+    LoadReport(LoadMode mode, double targetRate) {
+        this.mode = mode;
+        this.targetRate = targetRate;
+    }
+
+    void issued() {
+        issued.incrementAndGet();
+    }
+
+    void record(long latencyNanos, Throwable error) {
+        histogram.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        if (error == null) return;
+
+        errors.incrementAndGet();
+        String type = error.getClass().getSimpleName();
+        AtomicLong count = errorTypes.get(type);
+        if (count == null) {
+            AtomicLong newCount = new AtomicLong();
+            count = errorTypes.putIfAbsent(type, newCount);
+            if (count == null) count = newCount;
+        }
+        count.incrementAndGet();
+    }
+
+    void finish(long elapsedNanos, long gcCount, long gcMillis) {
+        this.elapsedNanos = elapsedNanos;
+        this.gcCount = gcCount;
+        this.gcMillis = gcMillis;
+    }
+
+    public LoadMode getMode() {
+        return mode;
+    }
+
+    public double getTargetRate() {
+        return targetRate;
+    }
+
+    public long getIssued() {
+        return issued.get();
+    }
+
+    /**
+     * @return the completed calls, the issued ones not completed when the run drained are not included.
+     */
+    public long getCalls() {
+        return histogram.getTotalCount();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    public Map<String, Long> getErrorTypes() {
+        Map<String, Long> types = new TreeMap<String, Long>();
+        for (Map.Entry<String, AtomicLong> entry : errorTypes.entrySet()) {
+            types.put(entry.getKey(), entry.getValue().get());
+        }
+        return types;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : getCalls() * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @param percentile from 0 to 100.
+     */
+    public long getLatencyMicros(double percentile) {
+        return histogram.getValueAtPercentile(percentile);
+    }
+
+    public long getMaxLatencyMicros() {
+        return histogram.getMaxValue();
+    }
+
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    public long getGcMillis() {
+        return gcMillis;
+    }
+
+    public Histogram getHistogram() {
+        return histogram;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s mode, target %.0f calls/s, %d issued, %d completed, %d errors %s in %d ms%n"
+                + "throughput %.0f calls/s%n"
+                + "latency us p50 %d, p90 %d, p99 %d, p99.9 %d, max %d%n"
+                + "gc %d collections, %d ms",
+            mode, targetRate, getIssued(), getCalls(), getErrors(), getErrorTypes(), elapsedNanos / 1000000,
+            getThroughput(),
+            getLatencyMicros(50), getLatencyMicros(90), getLatencyMicros(99), getLatencyMicros(99.9),
+            getMaxLatencyMicros(),
+            gcCount, gcMillis);
+    }
+}
@@ -0,0 +1,243 @@
+package com.github.bingoohuang.springrestclient.metrics;
+
+import com.github.bingoohuang.springrestclient.utils.Obj;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import lombok.val;
+import org.springframework.context.ApplicationContext;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer binding. Timers publish a histogram with the 50th, 95th and 99th percentiles.
+ * <p>
+ * Tags are bounded: the interface name, the api method name, the {@code @RequestMapping} path template,
+ * the http method, the status, the outcome and the exception class name, never the raw urls.
+ */
+public class MicrometerRestMetrics implements RestMetrics {
+    public static final String PREFIX = "rest.client.";
+
+    private static final Map<MeterRegistry, MicrometerRestMetrics> instances
+        = new WeakHashMap<MeterRegistry, MicrometerRestMetrics>();
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<MethodKey, MethodMeters> methodMeters = new ConcurrentHashMap<MethodKey, MethodMeters>();
+
+    private MicrometerRestMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!id.getName().startsWith(PREFIX) || id.getType() != Meter.Type.TIMER) return config;
+
+                return DistributionStatisticConfig.builder()
+                    .percentiles(0.5, 0.95, 0.99)
+                    .percentilesHistogram(true)
+                    .build().merge(config);
+            }
+        });
+    }
+
+    /**
+     * Binds to the {@link MeterRegistry} bean, or the global registry when there is none.
+     */
+    public static MicrometerRestMetrics of(ApplicationContext appContext) {
+        MeterRegistry registry = Obj.getBean(appContext, MeterRegistry.class);
+        return of(registry != null ? registry : Metrics.globalRegistry);
+    }
+
+    /**
+     * One instance per registry, so the percentiles filter is registered only once.
+     */
+    public static synchronized MicrometerRestMetrics of(MeterRegistry registry) {
+        MicrometerRestMetrics metrics = instances.get(registry);
+        if (metrics == null) {
+            metrics = new MicrometerRestMetrics(registry);
+            instances.put(registry, metrics);
+        }
+
+        return metrics;
+    }
+
+    @Override
+    public void record(RestExchange exchange) {
+        val meters = methodMeters(exchange);
+        val statusMeters = meters.statusMeters(exchange.getStatus(), exchange.getException());
+
+        if (exchange.getDurationNanos() >= 0) {
+            statusMeters.requests.record(exchange.getDurationNanos(), TimeUnit.NANOSECONDS);
+            meters.apiRequests.record(exchange.getDurationNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        if (statusMeters.responses != null) statusMeters.responses.increment(1);
+        if (statusMeters.errors != null) statusMeters.errors.increment(1);
+
+        if (exchange.getRequestBytes() >= 0) meters.requestBytes().record(exchange.getRequestBytes());
+        if (exchange.getResponseBytes() >= 0) meters.responseBytes().record(exchange.getResponseBytes());
+
+        // serialization and signing happen once per call, not again for the retries
+        if (exchange.getAttempt() > 1) return;
+
+        if (exchange.getSerializationNanos() >= 0)
+            meters.serialization().record(exchange.getSerializationNanos(), TimeUnit.NANOSECONDS);
+        if (exchange.getSigningNanos() >= 0)
+            meters.signing().record(exchange.getSigningNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /*
+     * The meters are looked up in the registry once per method and status,
+     * not built again with their tags for every exchange.
+     */
+    private MethodMeters methodMeters(RestExchange exchange) {
+        val key = new MethodKey(exchange);
+        MethodMeters meters = methodMeters.get(key);
+        if (meters != null) return meters;
+
+        meters = new MethodMeters(exchange);
+        val old = methodMeters.putIfAbsent(key, meters);
+        return old != null ? old : meters;
+    }
+
+    private static class MethodKey {
+        final Class<?> apiClass;
+        final String methodName;
+        final String uriTemplate;
+        final String httpMethod;
+
+        MethodKey(RestExchange exchange) {
+            this.apiClass = exchange.getApiClass();
+            this.methodName = exchange.getMethodName();
+            this.uriTemplate = exchange.getUriTemplate();
+            this.httpMethod = exchange.getHttpMethod();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof MethodKey)) return false;
+
+            val other = (MethodKey) o;
+            return apiClass == other.apiClass && methodName.equals(other.methodName)
+                && uriTemplate.equals(other.uriTemplate) && httpMethod.equals(other.httpMethod);
+        }
+
+        @Override
+        public int hashCode() {
+            return ((apiClass.hashCode() * 31 + methodName.hashCode()) * 31
+                + uriTemplate.hashCode()) * 31 + httpMethod.hashCode();
+        }
+    }
+
+    private static class StatusKey {
+        final int status;
+        final Class<?> exceptionClass;
+
+        StatusKey(int status, Throwable exception) {
+            this.status = status;
+            this.exceptionClass = exception == null ? null : exception.getClass();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof StatusKey)) return false;
+
+            val other = (StatusKey) o;
+            return status == other.status && exceptionClass == other.exceptionClass;
+        }
+
+        @Override
+        public int hashCode() {
+            return status * 31 + (exceptionClass == null ? 0 : exceptionClass.hashCode());
+        }
+    }
+
+    private static class StatusMeters {
+        final Timer requests;
+        final Counter responses;
+        final Counter errors;
+
+        StatusMeters(Timer requests, Counter responses, Counter errors) {
+            this.requests = requests;
+            this.responses = responses;
+            this.errors = errors;
+        }
+    }
+
+    /*
+     * The meters recorded only by some exchanges are registered at their first records,
+     * racing threads get the same meter from the registry.
+     */
+    private class MethodMeters {
+        final String httpMethod;
+        final Tags methodTags;
+        final Timer apiRequests;
+        final ConcurrentMap<StatusKey, StatusMeters> statusMeters = new ConcurrentHashMap<StatusKey, StatusMeters>();
+        volatile DistributionSummary requestBytes;
+        volatile DistributionSummary responseBytes;
+        volatile Timer serialization;
+        volatile Timer signing;
+
+        MethodMeters(RestExchange exchange) {
+            val api = exchange.getApiClass().getName();
+            this.httpMethod = exchange.getHttpMethod();
+            this.methodTags = Tags.of("api", api, "method", exchange.getMethodName(),
+                "uri", exchange.getUriTemplate());
+            this.apiRequests = registry.timer(PREFIX + "api.requests", Tags.of("api", api));
+        }
+
+        StatusMeters statusMeters(int status, Throwable exception) {
+            val key = new StatusKey(status, exception);
+            StatusMeters meters = statusMeters.get(key);
+            if (meters != null) return meters;
+
+            val statusTag = status < 0 ? "NONE" : String.valueOf(status);
+            val exceptionTag = exception == null ? "None" : exception.getClass().getSimpleName();
+            meters = new StatusMeters(
+                registry.timer(PREFIX + "requests", methodTags.and("http.method", httpMethod,
+                    "status", statusTag, "outcome", outcome(status), "exception", exceptionTag)),
+                status < 0 ? null : registry.counter(PREFIX + "responses", methodTags.and("status", statusTag)),
+                exception == null ? null : registry.counter(PREFIX + "errors", methodTags.and("exception", exceptionTag)));
+            val old = statusMeters.putIfAbsent(key, meters);
+            return old != null ? old : meters;
+        }
+
+        DistributionSummary requestBytes() {
+            if (requestBytes == null) requestBytes = registry.summary(PREFIX + "request.bytes", methodTags);
+            return requestBytes;
+        }
+
+        DistributionSummary responseBytes() {
+            if (responseBytes == null) responseBytes = registry.summary(PREFIX + "response.bytes", methodTags);
+            return responseBytes;
+        }
+
+        Timer serialization() {
+            if (serialization == null) serialization = registry.timer(PREFIX + "serialization", methodTags);
+            return serialization;
+        }
+
+        Timer signing() {
+            if (signing == null) signing = registry.timer(PREFIX + "signing", methodTags);
+            return signing;
+        }
+    }
+
+    private String outcome(int status) {
+        if (status < 0) return "UNKNOWN";
+        if (status < 200) return "INFORMATIONAL";
+        if (status < 300) return "SUCCESS";
+        if (status < 400) return "REDIRECTION";
+        if (status < 500) return "CLIENT_ERROR";
+        return "SERVER_ERROR";
+    }
+}
@@ -0,0 +1,122 @@
+package com.github.bingoohuang.springrestclient.metrics;
+
+/**
+ * One http exchange of an api method. Sizes and durations are -1 when unknown.
+ */
+public class RestExchange {
+    private final Class<?> apiClass;
+    private final String methodName;
+    private final String uriTemplate;
+    private final String httpMethod;
+    private int attempt = 1;
+    private int status = -1;
+    private Throwable exception;
+    private long durationNanos = -1;
+    private long requestBytes = -1;
+    private long responseBytes = -1;
+    private long serializationNanos = -1;
+    private long signingNanos = -1;
+
+    public RestExchange(Class<?> apiClass, String methodName, String uriTemplate, String httpMethod) {
+        this.apiClass = apiClass;
+        this.methodName = methodName;
+        this.uriTemplate = uriTemplate;
+        this.httpMethod = httpMethod;
+    }
+
+    public RestExchange attempt(int attempt) {
+        this.attempt = attempt;
+        return this;
+    }
+
+    public RestExchange status(int status) {
+        this.status = status;
+        return this;
+    }
+
+    public RestExchange exception(Throwable exception) {
+        this.exception = exception;
+        return this;
+    }
+
+    public RestExchange durationNanos(long durationNanos) {
+        this.durationNanos = durationNanos;
+        return this;
+    }
+
+    public RestExchange requestBytes(long requestBytes) {
+        this.requestBytes = requestBytes;
+        return this;
+    }
+
+    public RestExchange responseBytes(long responseBytes) {
+        this.responseBytes = responseBytes;
+        return this;
+    }
+
+    public RestExchange serializationNanos(long serializationNanos) {
+        this.serializationNanos = serializationNanos;
+        return this;
+    }
+
+    public RestExchange signingNanos(long signingNanos) {
+        this.signingNanos = signingNanos;
+        return this;
+    }
+
+    public Class<?> getApiClass() {
+        return apiClass;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    // the @RequestMapping path template, like /user/{id}
+    public String getUriTemplate() {
+        return uriTemplate;
+    }
+
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    public int getAttempt() {
+        return attempt;
+    }
+
+    // -1 when no response received
+    public int getStatus() {
+        return status;
+    }
+
+    public Throwable getException() {
+        return exception;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public long getRequestBytes() {
+        return requestBytes;
+    }
+
+    public long getResponseBytes() {
+        return responseBytes;
+    }
+
+    public long getSerializationNanos() {
+        return serializationNanos;
+    }
+
+    public long getSigningNanos() {
+        return signingNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "RestExchange{" + apiClass.getSimpleName() + "." + methodName + " " + httpMethod + " "
+            + uriTemplate + " attempt " + attempt + ", status " + status + "}";
+    }
+}
@@ -0,0 +1,10 @@
+package com.github.bingoohuang.springrestclient.metrics;
+
+/**
+ * Metrics SPI, notified of every http exchange of the generated clients (each retry is one exchange).
+ * A spring bean of this type is picked up by the clients, otherwise {@link MicrometerRestMetrics}
+ * is used when micrometer is on the classpath.
+ */
+public interface RestMetrics {
+    void record(RestExchange exchange);
+}
@@ -140,6 +140,8 @@ public class DefaultSignProvider implements SignProvider {
         } else if (object instanceof MultipartFile) {
             byte[] bytes = fuckFileGetBytesException((MultipartFile) object);
             signStr.append(md5(bytes));
+        } else if (object instanceof byte[]) {
+            signStr.append(md5((byte[]) object)); // binary body
         } else {
             signStr.appendAbbreviate(ValueUtils.processValue(object));
         }
@@ -0,0 +1,128 @@
+package com.github.bingoohuang.springrestclient.replay;
+
+import com.alibaba.fastjson.parser.ParserConfig;
+import com.alibaba.fastjson.util.TypeUtils;
+import com.github.bingoohuang.springrestclient.codec.BinaryCodec;
+import com.github.bingoohuang.springrestclient.codec.RestCodec;
+import com.github.bingoohuang.springrestclient.codec.RestCodecs;
+import com.github.bingoohuang.springrestclient.codec.TextCodec;
+import com.github.bingoohuang.springrestclient.generators.RestClientModel;
+import com.github.bingoohuang.springrestclient.generators.RestMethodModel;
+import com.google.common.base.Charsets;
+import com.google.common.base.Defaults;
+import lombok.val;
+import org.springframework.web.bind.annotation.CookieValue;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Replays the recordings by calling the methods of the clients which recorded them,
+ * with the arguments rebuilt from the recorded route params, request params, cookies and body.
+ * <p>
+ * The async methods are waited for their results.
+ */
+public class ClientInvoker implements ReplayDriver.Invoker {
+    private final Map<String, Object> clients = new ConcurrentHashMap<String, Object>();
+    private final Map<String, RestMethodModel> methods = new ConcurrentHashMap<String, RestMethodModel>();
+    private final List<RestCodec> codecs;
+
+    public ClientInvoker() {
+        this(RestCodecs.defaults());
+    }
+
+    public ClientInvoker(List<RestCodec> codecs) {
+        this.codecs = codecs;
+    }
+
+    public <T> ClientInvoker client(Class<T> apiClass, T client) {
+        clients.put(apiClass.getName(), client);
+        return this;
+    }
+
+    @Override
+    public Object invoke(Recording recording) throws Throwable {
+        val client = clients.get(recording.getApiClass());
+        if (client == null) throw new IllegalStateException("no client for " + recording.getApiClass());
+
+        val methodModel = findMethod(client, recording);
+        val result = methodModel.getMethod().invoke(client, createArgs(methodModel, recording));
+        if (!(result instanceof Future)) return result;
+
+        try {
+            return ((Future<?>) result).get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
+    private RestMethodModel findMethod(Object client, Recording recording) {
+        val key = recording.getApiClass() + "#" + recording.getMethodName() + " " + recording.getUriTemplate();
+        RestMethodModel found = methods.get(key);
+        if (found != null) return found;
+
+        for (val apiClass : client.getClass().getInterfaces()) {
+            if (!apiClass.getName().equals(recording.getApiClass())) continue;
+
+            for (val methodModel : RestClientModel.of(apiClass).getMethods()) {
+                if (methodModel.getName().equals(recording.getMethodName())
+                    && methodModel.getFullRequestMapping().equals(recording.getUriTemplate())) {
+                    methods.put(key, methodModel);
+                    return methodModel;
+                }
+            }
+        }
+
+        throw new IllegalStateException("no method " + recording.getMethodName()
+            + " mapped to " + recording.getUriTemplate() + " in " + recording.getApiClass());
+    }
+
+    private Object[] createArgs(RestMethodModel methodModel, Recording recording) {
+        val method = methodModel.getMethod();
+        val types = method.getParameterTypes();
+        val genericTypes = method.getGenericParameterTypes();
+        val args = new Object[types.length];
+        for (int i = 0; i < types.length; ++i) {
+            args[i] = Defaults.defaultValue(types[i]);
+        }
+
+        for (val binding : methodModel.getParamBindings()) {
+            val type = binding.getAnnotationType();
+            val params = type == PathVariable.class ? recording.getRouteParams()
+                : type == RequestParam.class ? recording.getRequestParams()
+                : type == CookieValue.class ? recording.getCookies() : null;
+            val value = params == null ? null : params.get(binding.getName());
+            int index = binding.getIndex();
+            if (value != null) args[index] = TypeUtils.cast(value, genericTypes[index], ParserConfig.getGlobalInstance());
+        }
+
+        int bodyIndex = methodModel.getRequestBodyIndex();
+        if (bodyIndex >= 0) args[bodyIndex] = decodeBody(recording, types[bodyIndex], genericTypes[bodyIndex]);
+
+        return args;
+    }
+
+    private Object decodeBody(Recording recording, Class<?> type, Type genericType) {
+        val body = recording.getRequestBody();
+        if (body.length == 0) return null;
+        if (type == String.class) return new String(body, Charsets.UTF_8);
+
+        String contentType = recording.getRequestHeader("Content-Type");
+        if (contentType == null) contentType = "application/json";
+
+        int index = RestCodecs.indexOf(codecs, contentType, TextCodec.class);
+        if (index >= 0) return ((TextCodec) codecs.get(index)).decoder(genericType).decode(new String(body, Charsets.UTF_8));
+
+        index = RestCodecs.indexOf(codecs, contentType, BinaryCodec.class);
+        if (index >= 0) return ((BinaryCodec) codecs.get(index)).binaryDecoder(genericType).decode(new ByteArrayInputStream(body));
+
+        throw new IllegalStateException("no codec for the recorded request body of " + contentType);
+    }
+}
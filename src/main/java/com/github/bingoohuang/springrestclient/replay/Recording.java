@@ -0,0 +1,266 @@
+package com.github.bingoohuang.springrestclient.replay;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One recorded http exchange of an api method, with the request as sent and the response as received.
+ */
+public class Recording {
+    private long timestampMillis;
+    private long latencyNanos;
+    private String apiClass;
+    private String methodName;
+    private String httpMethod;
+    private String uriTemplate;
+    private String url;
+    private Map<String, String> routeParams = Collections.emptyMap();
+    private Map<String, String> requestParams = Collections.emptyMap();
+    private Map<String, String> cookies = Collections.emptyMap();
+    private Map<String, List<String>> requestHeaders = Collections.emptyMap();
+    private byte[] requestBody = new byte[0];
+    private int status;
+    private Map<String, List<String>> responseHeaders = Collections.emptyMap();
+    private byte[] responseBody = new byte[0];
+
+    public Recording timing(long timestampMillis, long latencyNanos) {
+        this.timestampMillis = timestampMillis;
+        this.latencyNanos = latencyNanos;
+        return this;
+    }
+
+    public Recording api(String apiClass, String methodName) {
+        this.apiClass = apiClass;
+        this.methodName = methodName;
+        return this;
+    }
+
+    public Recording request(String httpMethod, String uriTemplate, String url) {
+        this.httpMethod = httpMethod;
+        this.uriTemplate = uriTemplate;
+        this.url = url;
+        return this;
+    }
+
+    public Recording params(Map<String, String> routeParams,
+                            Map<String, String> requestParams, Map<String, String> cookies) {
+        this.routeParams = routeParams;
+        this.requestParams = requestParams;
+        this.cookies = cookies;
+        return this;
+    }
+
+    public Recording requestHeaders(Map<String, List<String>> requestHeaders) {
+        this.requestHeaders = requestHeaders;
+        return this;
+    }
+
+    public Recording requestBody(byte[] requestBody) {
+        this.requestBody = requestBody;
+        return this;
+    }
+
+    public Recording response(int status, Map<String, List<String>> responseHeaders, byte[] responseBody) {
+        this.status = status;
+        this.responseHeaders = responseHeaders;
+        this.responseBody = responseBody;
+        return this;
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(timestampMillis);
+        out.writeLong(latencyNanos);
+        writeString(out, apiClass);
+        writeString(out, methodName);
+        writeString(out, httpMethod);
+        writeString(out, uriTemplate);
+        writeString(out, url);
+        writeMap(out, routeParams);
+        writeMap(out, requestParams);
+        writeMap(out, cookies);
+        writeHeaders(out, requestHeaders);
+        writeBytes(out, requestBody);
+        out.writeInt(status);
+        writeHeaders(out, responseHeaders);
+        writeBytes(out, responseBody);
+    }
+
+    static Recording readFrom(DataInput in) throws IOException {
+        Recording recording = new Recording();
+        recording.timestampMillis = in.readLong();
+        recording.latencyNanos = in.readLong();
+        recording.apiClass = readString(in);
+        recording.methodName = readString(in);
+        recording.httpMethod = readString(in);
+        recording.uriTemplate = readString(in);
+        recording.url = readString(in);
+        recording.routeParams = readMap(in);
+        recording.requestParams = readMap(in);
+        recording.cookies = readMap(in);
+        recording.requestHeaders = readHeaders(in);
+        recording.requestBody = readBytes(in);
+        recording.status = in.readInt();
+        recording.responseHeaders = readHeaders(in);
+        recording.responseBody = readBytes(in);
+        return recording;
+    }
+
+    private static void writeString(DataOutput out, String s) throws IOException {
+        writeBytes(out, s == null ? null : s.getBytes("UTF-8"));
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        byte[] bytes = readBytes(in);
+        return bytes == null ? null : new String(bytes, "UTF-8");
+    }
+
+    private static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] readBytes(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void writeMap(DataOutput out, Map<String, String> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    private static Map<String, String> readMap(DataInput in) throws IOException {
+        int size = in.readInt();
+        Map<String, String> map = new LinkedHashMap<String, String>(size * 2);
+        for (int i = 0; i < size; ++i) {
+            map.put(readString(in), readString(in));
+        }
+        return map;
+    }
+
+    private static void writeHeaders(DataOutput out, Map<String, List<String>> headers) throws IOException {
+        out.writeInt(headers.size());
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            writeString(out, entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (String value : entry.getValue()) writeString(out, value);
+        }
+    }
+
+    private static Map<String, List<String>> readHeaders(DataInput in) throws IOException {
+        int size = in.readInt();
+        Map<String, List<String>> headers = new LinkedHashMap<String, List<String>>(size * 2);
+        for (int i = 0; i < size; ++i) {
+            String name = readString(in);
+            int count = in.readInt();
+            String[] values = new String[count];
+            for (int j = 0; j < count; ++j) values[j] = readString(in);
+            headers.put(name, Arrays.asList(values));
+        }
+        return headers;
+    }
+
+    /**
+     * @return the wall clock time when the request was sent.
+     */
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * @return the time from sending the request to reading the whole response.
+     */
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    public String getApiClass() {
+        return apiClass;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    // the @RequestMapping path template, like /user/{id}
+    public String getUriTemplate() {
+        return uriTemplate;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public Map<String, String> getRouteParams() {
+        return routeParams;
+    }
+
+    public Map<String, String> getRequestParams() {
+        return requestParams;
+    }
+
+    public Map<String, String> getCookies() {
+        return cookies;
+    }
+
+    public Map<String, List<String>> getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    public String getRequestHeader(String name) {
+        return first(requestHeaders, name);
+    }
+
+    public byte[] getRequestBody() {
+        return requestBody;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public Map<String, List<String>> getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    public String getResponseHeader(String name) {
+        return first(responseHeaders, name);
+    }
+
+    public byte[] getResponseBody() {
+        return responseBody;
+    }
+
+    private static String first(Map<String, List<String>> headers, String name) {
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(name) && !entry.getValue().isEmpty()) return entry.getValue().get(0);
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return httpMethod + " " + url + " " + status;
+    }
+}
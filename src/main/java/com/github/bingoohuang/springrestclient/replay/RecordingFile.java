@@ -0,0 +1,144 @@
+package com.github.bingoohuang.springrestclient.replay;
+
+import com.github.bingoohuang.springrestclient.buffer.PooledOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An append-only file of recordings, each one prefixed by its length.
+ * <p>
+ * A record cut by a crash at the end of the file is skipped when read,
+ * and truncated away when the file is opened to append again,
+ * so the later recordings follow the last complete one.
+ */
+@Slf4j
+public class RecordingFile implements Closeable {
+    private static final byte[] MAGIC = {'S', 'R', 'C', 'R', 1};
+
+    private final File file;
+    private final DataOutputStream out;
+
+    private RecordingFile(File file) throws IOException {
+        boolean isNew = !file.exists() || file.length() == 0;
+        if (!isNew) truncateToLastRecord(file);
+
+        this.file = file;
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+        if (isNew) out.write(MAGIC);
+    }
+
+    /*
+     * Scans the length-prefixed records, and cuts the file after the last complete one.
+     */
+    private static void truncateToLastRecord(File file) throws IOException {
+        val raf = new RandomAccessFile(file, "rw");
+        try {
+            long length = raf.length();
+            byte[] magic = new byte[MAGIC.length];
+            if (length < magic.length) throw new IOException(file + " is not a recording file");
+            raf.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) throw new IOException(file + " is not a recording file");
+
+            long position = magic.length;
+            while (position + 4 <= length) {
+                raf.seek(position);
+                int recordLength = raf.readInt();
+                if (recordLength < 0 || recordLength > length - position - 4) break;
+
+                position += 4 + recordLength;
+            }
+
+            if (position < length) {
+                log.warn("the truncated last record of {} is cut at {} of {} bytes", file, position, length);
+                raf.getChannel().truncate(position);
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * @return the file opened to append the recordings, created when not exists.
+     */
+    public static RecordingFile append(File file) throws IOException {
+        return new RecordingFile(file);
+    }
+
+    public void append(Recording recording) throws IOException {
+        val buffer = new PooledOutputStream();
+        try {
+            recording.writeTo(new DataOutputStream(buffer));
+            synchronized (out) {
+                out.writeInt(buffer.size());
+                out.write(buffer.buffer(), 0, buffer.size());
+            }
+        } finally {
+            buffer.release();
+        }
+    }
+
+    public void flush() throws IOException {
+        synchronized (out) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (out) {
+            out.close();
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public static List<Recording> read(File file) throws IOException {
+        val in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) throw new IOException(file + " is not a recording file");
+
+            long remaining = file.length() - magic.length;
+            val recordings = new ArrayList<Recording>();
+            while (true) {
+                byte[] record = readRecord(in, file, remaining);
+                if (record == null) return recordings;
+
+                remaining -= 4 + record.length;
+                recordings.add(Recording.readFrom(new DataInputStream(new ByteArrayInputStream(record))));
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static byte[] readRecord(DataInputStream in, File file, long remaining) throws IOException {
+        if (remaining == 0) return null;
+
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            log.warn("the truncated last record of {} is skipped", file);
+            return null;
+        }
+
+        if (length < 0) throw new IOException("corrupted record of " + length + " bytes in " + file);
+        if (length > remaining - 4) {
+            log.warn("the truncated last record of {} is skipped", file);
+            return null;
+        }
+
+        byte[] record = new byte[length];
+        in.readFully(record);
+        return record;
+    }
+}
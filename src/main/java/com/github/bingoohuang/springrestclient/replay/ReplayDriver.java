@@ -0,0 +1,220 @@
+package com.github.bingoohuang.springrestclient.replay;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays the recordings through the generated clients at N times of the recorded pace,
+ * measuring the client side latency, cpu time and allocation of each call.
+ * <p>
+ * The cpu time and allocation are measured on the calling threads only,
+ * and the allocation is reported as -1 when the JVM could not measure it.
+ * The async calls are waited for by polling their futures every millisecond,
+ * so their cpu time and allocation include the polling besides the client work.
+ */
+@Slf4j
+public class ReplayDriver {
+    private final List<Recording> recordings;
+    private final Invoker invoker;
+    private double speed = 1;
+    private int threads = 4;
+
+    public ReplayDriver(List<Recording> recordings, Invoker invoker) {
+        this.recordings = new ArrayList<Recording>(recordings);
+        this.invoker = invoker;
+
+        Collections.sort(this.recordings, new Comparator<Recording>() {
+            @Override public int compare(Recording o1, Recording o2) {
+                long diff = o1.getTimestampMillis() - o2.getTimestampMillis();
+                return diff < 0 ? -1 : diff > 0 ? 1 : 0;
+            }
+        });
+    }
+
+    /**
+     * The multiple of the recorded pace, 2 to replay twice as fast, 0 to replay as fast as possible.
+     */
+    public ReplayDriver speed(double speed) {
+        this.speed = speed;
+        return this;
+    }
+
+    public ReplayDriver threads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    public Report run() throws InterruptedException {
+        val executor = Executors.newFixedThreadPool(threads,
+            new ThreadFactoryBuilder().setNameFormat("rest-client-replay-%d").setDaemon(true).build());
+        val report = new Report(recordings.size());
+
+        long startNanos = System.nanoTime();
+        try {
+            submit(executor, report, startNanos);
+        } finally {
+            executor.shutdown();
+        }
+        while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+            log.debug("waiting for {} replays", recordings.size() - report.getCalls());
+        }
+
+        report.elapsedNanos = System.nanoTime() - startNanos;
+        return report;
+    }
+
+    private void submit(ExecutorService executor, final Report report, long startNanos)
+        throws InterruptedException {
+        if (recordings.isEmpty()) return;
+
+        long firstMillis = recordings.get(0).getTimestampMillis();
+        for (final Recording recording : recordings) {
+            if (speed > 0) {
+                long offsetNanos = (long) ((recording.getTimestampMillis() - firstMillis) * 1000000L / speed);
+                long sleepNanos = startNanos + offsetNanos - System.nanoTime();
+                if (sleepNanos > 0) TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            }
+
+            executor.execute(new Runnable() {
+                @Override public void run() {
+                    invoke(recording, report);
+                }
+            });
+        }
+    }
+
+    private void invoke(Recording recording, Report report) {
+        long cpuStart = Meters.cpuNanos();
+        long allocStart = Meters.allocatedBytes();
+        long start = System.nanoTime();
+        boolean error = false;
+        try {
+            invoker.invoke(recording);
+        } catch (Throwable e) {
+            error = true;
+            log.debug("replay {} failed", recording, e);
+        }
+
+        long latency = System.nanoTime() - start;
+        long cpu = Meters.cpuNanos() - cpuStart;
+        long alloc = allocStart < 0 ? -1 : Meters.allocatedBytes() - allocStart;
+        report.add(latency, cpu, alloc, error);
+    }
+
+    /**
+     * Invokes the client method which the recording was made by.
+     */
+    public interface Invoker {
+        Object invoke(Recording recording) throws Throwable;
+    }
+
+    public static class Report {
+        private final long[] latencies;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger errors = new AtomicInteger();
+        private final AtomicLong cpuNanos = new AtomicLong();
+        private final AtomicLong allocatedBytes = new AtomicLong();
+        private volatile boolean allocationMeasured = true;
+        private long elapsedNanos;
+
+        Report(int size) {
+            this.latencies = new long[size];
+        }
+
+        void add(long latency, long cpu, long alloc, boolean error) {
+            latencies[calls.getAndIncrement()] = latency;
+            if (error) errors.incrementAndGet();
+            cpuNanos.addAndGet(cpu);
+            if (alloc < 0) allocationMeasured = false;
+            else allocatedBytes.addAndGet(alloc);
+        }
+
+        public int getCalls() {
+            return calls.get();
+        }
+
+        public int getErrors() {
+            return errors.get();
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getCallsPerSecond() {
+            return elapsedNanos == 0 ? 0 : getCalls() * 1e9 / elapsedNanos;
+        }
+
+        public long getCpuNanosPerCall() {
+            return getCalls() == 0 ? 0 : cpuNanos.get() / getCalls();
+        }
+
+        public long getAllocatedBytesPerCall() {
+            if (!allocationMeasured) return -1;
+            return getCalls() == 0 ? 0 : allocatedBytes.get() / getCalls();
+        }
+
+        /**
+         * @param percentile from 0 to 100.
+         */
+        public long getLatencyNanos(double percentile) {
+            int count = getCalls();
+            if (count == 0) return 0;
+
+            val sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, index))];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d calls, %d errors in %d ms, %.0f calls/s, "
+                    + "latency p50 %d us p99 %d us max %d us, cpu %d us/call, alloc %d bytes/call"
+                    + " (with the polling of the async calls)",
+                getCalls(), getErrors(), elapsedNanos / 1000000, getCallsPerSecond(),
+                getLatencyNanos(50) / 1000, getLatencyNanos(99) / 1000, getLatencyNanos(100) / 1000,
+                getCpuNanosPerCall() / 1000, getAllocatedBytesPerCall());
+        }
+    }
+
+    private static class Meters {
+        static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        static final boolean cpuSupported = threadBean.isCurrentThreadCpuTimeSupported();
+        static final boolean allocSupported = isAllocationSupported();
+
+        private static boolean isAllocationSupported() {
+            try {
+                return threadBean instanceof com.sun.management.ThreadMXBean
+                    && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported();
+            } catch (NoClassDefFoundError e) {
+                return false;
+            }
+        }
+
+        static long cpuNanos() {
+            return cpuSupported ? threadBean.getCurrentThreadCpuTime() : 0;
+        }
+
+        static long allocatedBytes() {
+            if (!allocSupported) return -1;
+
+            val bean = (com.sun.management.ThreadMXBean) threadBean;
+            return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.github.bingoohuang.springrestclient.replay;
+
+import com.github.bingoohuang.springrestclient.transport.Loopback;
+import com.google.common.base.Charsets;
+import lombok.val;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.EnglishReasonPhraseCatalog;
+import org.apache.http.message.BasicHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the recorded responses back by the method, path and query of the requests,
+ * falling back to the method and path only, and rotating over the recordings of the same key.
+ * <p>
+ * The host is not matched, so the loopback is registered for each recorded base url.
+ * The requests not recorded are served as 404.
+ */
+public class ReplayLoopback implements Loopback {
+    private static final Set<String> skippedHeaders = new HashSet<String>(
+        Arrays.asList("content-encoding", "content-length", "transfer-encoding"));
+
+    private final Map<String, Replays> replays = new HashMap<String, Replays>();
+    private volatile double latencyScale;
+
+    public ReplayLoopback(List<Recording> recordings) {
+        for (val recording : recordings) {
+            val uri = URI.create(recording.getUrl());
+            add(recording.getHttpMethod() + " " + pathAndQuery(uri), recording);
+            if (uri.getRawQuery() != null) add(recording.getHttpMethod() + " " + uri.getRawPath(), recording);
+        }
+    }
+
+    private void add(String key, Recording recording) {
+        Replays keyed = replays.get(key);
+        if (keyed == null) {
+            keyed = new Replays();
+            replays.put(key, keyed);
+        }
+        keyed.recordings.add(recording);
+    }
+
+    /**
+     * Delays the responses by the recorded latencies multiplied by the scale,
+     * 0 by default to respond at once, 1 to respond in the original latencies.
+     */
+    public ReplayLoopback latencyScale(double latencyScale) {
+        this.latencyScale = latencyScale;
+        return this;
+    }
+
+    @Override
+    public HttpResponse execute(HttpUriRequest request) throws IOException {
+        val uri = request.getURI();
+        val method = request.getMethod();
+        Replays keyed = replays.get(method + " " + pathAndQuery(uri));
+        if (keyed == null) keyed = replays.get(method + " " + uri.getRawPath());
+        if (keyed == null) return createNotFound(method + " " + uri);
+
+        val recording = keyed.next();
+        delay(recording.getLatencyNanos());
+        return createResponse(recording);
+    }
+
+    private void delay(long latencyNanos) throws InterruptedIOException {
+        long delayNanos = (long) (latencyNanos * latencyScale);
+        if (delayNanos <= 0) return;
+
+        try {
+            TimeUnit.NANOSECONDS.sleep(delayNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("replay interrupted");
+        }
+    }
+
+    private static String pathAndQuery(URI uri) {
+        val query = uri.getRawQuery();
+        return query == null ? uri.getRawPath() : uri.getRawPath() + "?" + query;
+    }
+
+    private HttpResponse createResponse(Recording recording) {
+        int status = recording.getStatus();
+        val response = new BasicHttpResponse(HttpVersion.HTTP_1_1, status,
+            EnglishReasonPhraseCatalog.INSTANCE.getReason(status, Locale.ENGLISH));
+        for (val header : recording.getResponseHeaders().entrySet()) {
+            // the recorded body is already decoded
+            if (header.getKey() == null || skippedHeaders.contains(header.getKey().toLowerCase())) continue;
+
+            for (String value : header.getValue()) {
+                response.addHeader(header.getKey(), value);
+            }
+        }
+
+        val entity = new ByteArrayEntity(recording.getResponseBody());
+        val contentType = recording.getResponseHeader("Content-Type");
+        if (contentType != null) entity.setContentType(contentType);
+        response.setEntity(entity);
+        return response;
+    }
+
+    private HttpResponse createNotFound(String request) {
+        val response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 404,
+            EnglishReasonPhraseCatalog.INSTANCE.getReason(404, Locale.ENGLISH));
+        response.addHeader("Content-Type", "text/plain;charset=UTF-8");
+        response.setEntity(new ByteArrayEntity(("no recording for " + request).getBytes(Charsets.UTF_8)));
+        return response;
+    }
+
+    private static class Replays {
+        final List<Recording> recordings = new ArrayList<Recording>();
+        final AtomicInteger next = new AtomicInteger();
+
+        Recording next() {
+            int index = (next.getAndIncrement() & Integer.MAX_VALUE) % recordings.size();
+            return recordings.get(index);
+        }
+    }
+}
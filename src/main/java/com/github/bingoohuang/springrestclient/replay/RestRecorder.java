@@ -0,0 +1,153 @@
+package com.github.bingoohuang.springrestclient.replay;
+
+import com.google.common.io.ByteStreams;
+import com.mashape.unirest.http.HttpResponse;
+import com.mashape.unirest.request.HttpRequest;
+import com.mashape.unirest.request.ValueUtils;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Records the http exchanges of all the rest clients into a recording file while started,
+ * to be replayed offline by {@link ReplayLoopback} and {@link ReplayDriver}.
+ * <p>
+ * Nothing is recorded, and nothing is copied, while not started.
+ * The credentials are redacted: the Authorization, Cookie, Set-Cookie and signature headers by default,
+ * with more headers added by {@link #redactHeaders(String...)}, and the values of the cookie params.
+ */
+@Slf4j
+@UtilityClass
+public class RestRecorder {
+    private final String REDACTED = "<redacted>";
+    private volatile RecordingFile recordingFile;
+    private volatile Set<String> redactedHeaders = lowerCased(Arrays.asList(
+        "Authorization", "Proxy-Authorization", "Cookie", "Set-Cookie", "hisv", "hick"));
+
+    public synchronized void start(File file) throws IOException {
+        stop();
+        recordingFile = RecordingFile.append(file);
+    }
+
+    public synchronized void stop() throws IOException {
+        val current = recordingFile;
+        if (current == null) return;
+
+        recordingFile = null;
+        current.close();
+    }
+
+    public boolean isRecording() {
+        return recordingFile != null;
+    }
+
+    /**
+     * Redacts the headers of the names too, in the requests and the responses.
+     */
+    public synchronized void redactHeaders(String... names) {
+        val headers = new HashSet<String>(redactedHeaders);
+        headers.addAll(lowerCased(Arrays.asList(names)));
+        redactedHeaders = headers;
+    }
+
+    private Set<String> lowerCased(List<String> names) {
+        val set = new HashSet<String>();
+        for (String name : names) set.add(name.toLowerCase());
+        return set;
+    }
+
+    public void record(Class<?> apiClass, String methodName, String uriTemplate,
+                       Map<String, Object> routeParams, Map<String, Object> requestParams,
+                       Map<String, Object> cookies,
+                       HttpRequest httpRequest, HttpResponse<?> response, long costNanos) {
+        val current = recordingFile;
+        if (current == null) return;
+
+        val recording = new Recording()
+            .timing(System.currentTimeMillis() - costNanos / 1000000, costNanos)
+            .api(apiClass.getName(), methodName)
+            .request(httpRequest.getHttpMethod().name(), uriTemplate, httpRequest.getUrl())
+            .params(stringify(routeParams), stringify(requestParams), redactValues(stringify(cookies)))
+            .requestHeaders(redact(httpRequest.getHeaders()))
+            .requestBody(getRequestBody(httpRequest))
+            .response(response.getStatus(), redact(response.getHeaders()), getResponseBody(response));
+
+        try {
+            current.append(recording);
+            current.flush();
+        } catch (IOException e) {
+            log.warn("failed to record {} into {}", recording, current.getFile(), e);
+        }
+    }
+
+    private Map<String, String> stringify(Map<String, Object> params) {
+        if (params == null || params.isEmpty()) return Collections.emptyMap();
+
+        val map = new LinkedHashMap<String, String>(params.size() * 2);
+        for (val entry : params.entrySet()) {
+            val value = entry.getValue();
+            map.put(entry.getKey(), value == null ? null : ValueUtils.processValue(value));
+        }
+        return map;
+    }
+
+    private Map<String, String> redactValues(Map<String, String> params) {
+        for (val entry : params.entrySet()) entry.setValue(REDACTED);
+        return params;
+    }
+
+    private Map<String, List<String>> redact(Map<String, List<String>> headers) {
+        val names = redactedHeaders;
+        val map = copy(headers);
+        for (val entry : map.entrySet()) {
+            if (names.contains(entry.getKey().toLowerCase()))
+                entry.setValue(Arrays.asList(REDACTED));
+        }
+        return map;
+    }
+
+    private Map<String, List<String>> copy(Map<String, List<String>> headers) {
+        if (headers == null) return new LinkedHashMap<String, List<String>>();
+
+        return new LinkedHashMap<String, List<String>>(headers);
+    }
+
+    private byte[] getRequestBody(HttpRequest httpRequest) {
+        val body = httpRequest.getBody();
+        if (body == null) return new byte[0];
+
+        val entity = body.getEntity();
+        if (!entity.isRepeatable()) return new byte[0];
+
+        val out = new ByteArrayOutputStream();
+        try {
+            entity.writeTo(out);
+        } catch (IOException e) {
+            log.warn("failed to record the request body of {}", httpRequest.getUrl(), e);
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] getResponseBody(HttpResponse<?> response) {
+        // unirest reads the whole response body into a byte array stream,
+        // which is the body itself for the InputStream responses, so it is reset after copied
+        val rawBody = response.getRawBody();
+        if (!(rawBody instanceof ByteArrayInputStream)) return new byte[0];
+
+        val stream = (ByteArrayInputStream) rawBody;
+        try {
+            stream.mark(Integer.MAX_VALUE);
+            return ByteStreams.toByteArray(stream);
+        } catch (IOException e) {
+            return new byte[0];
+        } finally {
+            stream.reset();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.bingoohuang.springrestclient.retry;
+
+/**
+ * Token bucket to bound retries to a ratio of calls, so retries cannot amplify an outage.
+ * Balances are kept in hundredths of a token.
+ */
+public class RetryBudget {
+    private final int percent;
+    private final int minRetriesPerSecond;
+    private final long maxBalance;
+
+    private long balance;
+    private long currentSecond;
+    private int minRetriesUsed;
+
+    public RetryBudget(int percent, int minRetriesPerSecond) {
+        this.percent = percent;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        // a long healthy period should not pile up a retry storm
+        this.maxBalance = 100L * Math.max(100, minRetriesPerSecond * 10);
+    }
+
+    public synchronized void deposit() {
+        balance = Math.min(maxBalance, balance + percent);
+    }
+
+    public synchronized boolean tryWithdraw() {
+        long second = currentTimeMillis() / 1000;
+        if (second != currentSecond) {
+            currentSecond = second;
+            minRetriesUsed = 0;
+        }
+
+        if (minRetriesUsed < minRetriesPerSecond) {
+            ++minRetriesUsed;
+            return true;
+        }
+
+        if (balance < 100) return false;
+
+        balance -= 100;
+        return true;
+    }
+
+    public synchronized long getBalance() {
+        return balance / 100;
+    }
+
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+}
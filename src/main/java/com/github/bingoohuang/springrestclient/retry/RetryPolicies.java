@@ -0,0 +1,41 @@
+package com.github.bingoohuang.springrestclient.retry;
+
+import com.github.bingoohuang.springrestclient.annotations.Retry;
+import lombok.experimental.UtilityClass;
+import lombok.val;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@UtilityClass
+public class RetryPolicies {
+    private final ConcurrentMap<Class<?>, RetryBudget> budgets
+        = new ConcurrentHashMap<Class<?>, RetryBudget>();
+
+    public RetryPolicy create(Class<?> apiClass, Method method) {
+        Retry config = method.getAnnotation(Retry.class);
+        if (config == null) config = apiClass.getAnnotation(Retry.class);
+        return create(apiClass, method, config, apiClass.getAnnotation(Retry.class));
+    }
+
+    public RetryPolicy create(Class<?> apiClass, Method method, Retry config, Retry typeConfig) {
+        if (config == null) return null;
+
+        // the budget is shared by the interface, so it is configured by the interface level annotation first
+        val budget = getBudget(apiClass, typeConfig != null ? typeConfig : config);
+
+        val name = apiClass.getName() + "." + method.getName();
+        return new RetryPolicy(name, config, budget);
+    }
+
+    public RetryBudget getBudget(Class<?> apiClass) {
+        return budgets.get(apiClass);
+    }
+
+    private RetryBudget getBudget(Class<?> apiClass, Retry config) {
+        val budget = new RetryBudget(config.budgetPercent(), config.minRetriesPerSecond());
+        val old = budgets.putIfAbsent(apiClass, budget);
+        return old != null ? old : budget;
+    }
+}
@@ -0,0 +1,133 @@
+package com.github.bingoohuang.springrestclient.retry;
+
+import com.github.bingoohuang.springrestclient.annotations.Retry;
+import com.github.bingoohuang.springrestclient.timeout.Deadline;
+import com.mashape.unirest.http.HttpMethod;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Random;
+
+@Slf4j
+public class RetryPolicy {
+    private static final Random random = new Random();
+
+    private final String name;
+    private final Retry config;
+    private final RetryBudget budget;
+
+    public RetryPolicy(String name, Retry config, RetryBudget budget) {
+        this.name = name;
+        this.config = config;
+        this.budget = budget;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RetryBudget getBudget() {
+        return budget;
+    }
+
+    public void onCall() {
+        budget.deposit();
+    }
+
+    /**
+     * Backoff before retrying the failed attempt, or -1 when it should not be retried,
+     * including when the backoff would not fit in the deadline.
+     * <p>
+     * The retry budget is not withdrawn, which should be done by {@link #withdraw(int, Throwable)}
+     * once the retry is also permitted by others like the circuit breaker,
+     * so a retry refused by them does not cost a budget token.
+     */
+    public long retryBackoffMillis(int attempt, Deadline deadline, HttpMethod httpMethod, Throwable e) {
+        long backoff = backoffMillis(attempt);
+        if (!fits(deadline, backoff)) return -1;
+
+        return isRetryable(attempt, httpMethod, e) ? backoff : -1;
+    }
+
+    public long retryBackoffMillis(int attempt, Deadline deadline, int status) {
+        long backoff = backoffMillis(attempt);
+        if (!fits(deadline, backoff)) return -1;
+
+        return isRetryable(attempt, status) ? backoff : -1;
+    }
+
+    private boolean isRetryable(int attempt, HttpMethod httpMethod, Throwable e) {
+        if (attempt >= config.maxAttempts()) return false;
+
+        return isIdempotent(httpMethod) || isRetryableException(e);
+    }
+
+    private boolean isRetryable(int attempt, int status) {
+        return attempt < config.maxAttempts() && isRetryableStatus(status);
+    }
+
+    private boolean fits(Deadline deadline, long backoff) {
+        return deadline == null || backoff < deadline.remainingMillis();
+    }
+
+    /**
+     * Exponential backoff before the retry after the attempt-th call, randomized by jitter.
+     */
+    public long backoffMillis(int attempt) {
+        double backoff = config.backoffMillis() * Math.pow(config.multiplier(), attempt - 1);
+        backoff = Math.min(backoff, config.maxBackoffMillis());
+
+        return (long) (backoff * (1 - config.jitter() * random.nextDouble()));
+    }
+
+    /**
+     * Withdraws the retry of the failed attempt from the budget, false when the budget is exhausted.
+     */
+    public boolean withdraw(int attempt, Throwable e) {
+        return withdraw(attempt, e.toString());
+    }
+
+    public boolean withdraw(int attempt, int status) {
+        return withdraw(attempt, "status " + status);
+    }
+
+    private boolean withdraw(int attempt, String reason) {
+        if (budget.tryWithdraw()) {
+            log.debug("retry {} attempt {} because of {}", name, attempt, reason);
+            return true;
+        }
+
+        log.warn("retry budget of {} exhausted, give up retrying after {}", name, reason);
+        return false;
+    }
+
+    private boolean isIdempotent(HttpMethod httpMethod) {
+        return httpMethod == HttpMethod.GET
+            || httpMethod == HttpMethod.HEAD
+            || httpMethod == HttpMethod.OPTIONS
+            || httpMethod == HttpMethod.PUT
+            || httpMethod == HttpMethod.DELETE;
+    }
+
+    private boolean isRetryableStatus(int status) {
+        for (int retryStatus : config.statuses()) {
+            if (retryStatus == status) return true;
+        }
+
+        return false;
+    }
+
+    private boolean isRetryableException(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            for (Class<? extends Throwable> exception : config.exceptions()) {
+                if (exception.isInstance(cause)) return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy{" + name + "}";
+    }
+}
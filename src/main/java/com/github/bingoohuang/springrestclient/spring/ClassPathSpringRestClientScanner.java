@@ -1,6 +1,7 @@
 package com.github.bingoohuang.springrestclient.spring;
 
 import com.github.bingoohuang.springrestclient.annotations.SpringRestClientEnabled;
+import com.github.bingoohuang.springrestclient.generators.SpringRestClientFactory;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
@@ -13,17 +14,25 @@ import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.core.type.filter.TypeFilter;
+import org.springframework.util.ClassUtils;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Set;
 
 @Slf4j
 public class ClassPathSpringRestClientScanner extends ClassPathBeanDefinitionScanner {
+    private GenerationMode generation = GenerationMode.EAGER;
+
     public ClassPathSpringRestClientScanner(BeanDefinitionRegistry registry) {
         super(registry, false);
     }
 
+    public void setGeneration(GenerationMode generation) {
+        this.generation = generation;
+    }
+
     /**
      * Configures parent scanner to search for the right interfaces. It can search
      * for all interfaces or just for those that extends a markerInterface or/and
@@ -62,13 +71,27 @@ public class ClassPathSpringRestClientScanner extends ClassPathBeanDefinitionSca
                 // the mapper interface is the original class of the bean
                 // but, the actual class of the bean is MapperFactoryBean
                 definition.getPropertyValues().add("interfaceClazz", definition.getBeanClassName());
+                definition.getPropertyValues().add("lazy", generation == GenerationMode.LAZY);
                 definition.setBeanClass(SpringRestClientFactoryBean.class);
             }
+
+            if (generation == GenerationMode.PARALLEL) generateInParallel(beanDefinitions);
         }
 
         return beanDefinitions;
     }
 
+    private void generateInParallel(Set<BeanDefinitionHolder> beanDefinitions) {
+        val classLoader = getResourceLoader().getClassLoader();
+        val restClientClasses = new ArrayList<Class<?>>(beanDefinitions.size());
+        for (BeanDefinitionHolder holder : beanDefinitions) {
+            val interfaceClazz = holder.getBeanDefinition().getPropertyValues().getPropertyValue("interfaceClazz");
+            restClientClasses.add(ClassUtils.resolveClassName((String) interfaceClazz.getValue(), classLoader));
+        }
+
+        SpringRestClientFactory.generateInParallel(restClientClasses);
+    }
+
     /**
      * {@inheritDoc}
      */
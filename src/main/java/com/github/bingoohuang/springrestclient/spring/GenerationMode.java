@@ -0,0 +1,19 @@
+package com.github.bingoohuang.springrestclient.spring;
+
+/**
+ * When the rest client impl classes are generated.
+ */
+public enum GenerationMode {
+    /**
+     * One by one when spring creates the rest client beans.
+     */
+    EAGER,
+    /**
+     * In parallel right after scanning, the bean creations then wait for the generated ones.
+     */
+    PARALLEL,
+    /**
+     * The beans are placeholders which generate the impl on the first invocation.
+     */
+    LAZY
+}
@@ -34,4 +34,9 @@ public @interface SpringRestClientEnabledScan {
      * within the Spring container.
      */
     Class<? extends BeanNameGenerator> nameGenerator() default BeanNameGenerator.class;
+
+    /**
+     * When the rest client impl classes are generated.
+     */
+    GenerationMode generation() default GenerationMode.EAGER;
 }
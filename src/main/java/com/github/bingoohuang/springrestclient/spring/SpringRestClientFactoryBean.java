@@ -1,21 +1,32 @@
 package com.github.bingoohuang.springrestclient.spring;
 
+import com.github.bingoohuang.springrestclient.generators.LazyRestClient;
 import com.github.bingoohuang.springrestclient.generators.SpringRestClientFactory;
+import com.github.bingoohuang.springrestclient.transport.ClientPools;
+import com.github.bingoohuang.springrestclient.transport.ConnectionWarmer;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 
-public class SpringRestClientFactoryBean<T> implements FactoryBean<T>, ApplicationContextAware {
+public class SpringRestClientFactoryBean<T> implements FactoryBean<T>, ApplicationContextAware, DisposableBean {
     private Class<T> interfaceClazz;
     private ApplicationContext appContext;
+    private boolean lazy;
 
     public void setInterfaceClazz(Class<T> interfaceClazz) {
         this.interfaceClazz = interfaceClazz;
     }
 
+    public void setLazy(boolean lazy) {
+        this.lazy = lazy;
+    }
+
     @Override
     public T getObject() throws Exception {
+        if (lazy) return LazyRestClient.create(interfaceClazz, appContext);
+
         return SpringRestClientFactory.getRestClient(interfaceClazz, appContext);
     }
 
@@ -33,4 +44,15 @@ public class SpringRestClientFactoryBean<T> implements FactoryBean<T>, Applicati
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
         this.appContext = applicationContext;
     }
+
+    /*
+     * The keep-alive probes and the client pool last as long as the client bean,
+     * the cached client is evicted, so a refreshed context loads, pools and warms up a new one.
+     */
+    @Override
+    public void destroy() {
+        ConnectionWarmer.stop(interfaceClazz);
+        ClientPools.unregister(interfaceClazz);
+        SpringRestClientFactory.evict(interfaceClazz);
+    }
 }
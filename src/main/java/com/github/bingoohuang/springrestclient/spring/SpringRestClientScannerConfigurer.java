@@ -33,6 +33,8 @@ public class SpringRestClientScannerConfigurer implements BeanDefinitionRegistry
 
     private BeanNameGenerator nameGenerator;
 
+    private GenerationMode generation = GenerationMode.EAGER;
+
     /*
      * This property lets you set the base package for your mapper interface files.
      * <p/>
@@ -82,6 +84,10 @@ public class SpringRestClientScannerConfigurer implements BeanDefinitionRegistry
         this.nameGenerator = nameGenerator;
     }
 
+    public void setGeneration(GenerationMode generation) {
+        this.generation = generation;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -107,6 +113,7 @@ public class SpringRestClientScannerConfigurer implements BeanDefinitionRegistry
         ClassPathSpringRestClientScanner scanner = new ClassPathSpringRestClientScanner(registry);
         scanner.setResourceLoader(this.applicationContext);
         scanner.setBeanNameGenerator(this.nameGenerator);
+        scanner.setGeneration(this.generation);
         scanner.registerFilters();
         scanner.scan(StringUtils.tokenizeToStringArray(this.basePackage, ConfigurableApplicationContext.CONFIG_LOCATION_DELIMITERS));
     }
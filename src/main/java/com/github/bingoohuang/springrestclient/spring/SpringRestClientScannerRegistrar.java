@@ -56,6 +56,7 @@ public class SpringRestClientScannerRegistrar implements ImportBeanDefinitionReg
             basePackages.add(ClassUtils.getPackageName(className));
         }
 
+        scanner.setGeneration(annoAttrs.<GenerationMode>getEnum("generation"));
         scanner.registerFilters();
         scanner.doScan(StringUtils.toStringArray(basePackages));
     }
@@ -0,0 +1,97 @@
+package com.github.bingoohuang.springrestclient.timeout;
+
+import com.github.bingoohuang.springrestclient.annotations.Timeout;
+import com.google.common.base.Strings;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point of time before which a call should be completed.
+ * <p>
+ * Callers attach a deadline to the current thread, and all the rest client calls
+ * issued from the thread are bounded by it:
+ * <pre>
+ * Deadline previous = Deadline.attach(Deadline.after(500, TimeUnit.MILLISECONDS));
+ * try {
+ *     api.call1();
+ *     api.call2();
+ * } finally {
+ *     Deadline.attach(previous);
+ * }
+ * </pre>
+ * The remaining time is forwarded to the server in the {@link #REMAINING_MILLIS_HEADER} header,
+ * which could be attached again on the server side by {@link #fromRemainingMillis(String)}.
+ */
+public class Deadline {
+    public static final String REMAINING_MILLIS_HEADER = "X-Deadline-Remaining-Millis";
+
+    private static final ThreadLocal<Deadline> current = new ThreadLocal<Deadline>();
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(long duration, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(duration));
+    }
+
+    /**
+     * Parse the forwarded header value, null when absent or malformed.
+     */
+    public static Deadline fromRemainingMillis(String headerValue) {
+        if (Strings.isNullOrEmpty(headerValue)) return null;
+
+        try {
+            return after(Long.parseLong(headerValue.trim()), TimeUnit.MILLISECONDS);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static Deadline current() {
+        return current.get();
+    }
+
+    /**
+     * Attach the deadline to the current thread, null to detach.
+     *
+     * @return the previous attached deadline to restore.
+     */
+    public static Deadline attach(Deadline deadline) {
+        Deadline previous = current.get();
+        if (deadline == null) current.remove();
+        else current.set(deadline);
+
+        return previous;
+    }
+
+    /**
+     * The deadline of a call, the earlier one of the current thread deadline and the total timeout.
+     */
+    public static Deadline of(Timeout timeout) {
+        Deadline deadline = current();
+        if (timeout == null || timeout.totalMillis() < 0) return deadline;
+
+        return after(timeout.totalMillis(), TimeUnit.MILLISECONDS).min(deadline);
+    }
+
+    public Deadline min(Deadline other) {
+        if (other == null) return this;
+        return deadlineNanos - other.deadlineNanos <= 0 ? this : other;
+    }
+
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remaining " + remainingMillis() + " millis}";
+    }
+}
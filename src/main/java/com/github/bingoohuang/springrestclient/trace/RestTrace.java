@@ -0,0 +1,203 @@
+package com.github.bingoohuang.springrestclient.trace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency breakdown of a single call, phases are timed by {@link System#nanoTime()}.
+ */
+public class RestTrace {
+    /**
+     * W3C trace context header, understood by OpenTelemetry propagators.
+     */
+    public static final String TRACEPARENT_HEADER = "traceparent";
+
+    private static final Random random = new Random();
+
+    private final Class<?> apiClass;
+    private final String methodName;
+    private final String traceId;
+    private final String spanId;
+    private final long startNanos;
+    private final long startEpochMillis;
+    private final List<Span> spans = new ArrayList<Span>();
+    private volatile boolean async;
+    private volatile long endNanos = -1;
+    private volatile Throwable error;
+
+    public RestTrace(Class<?> apiClass, String methodName) {
+        this.apiClass = apiClass;
+        this.methodName = methodName;
+        this.traceId = randomHex(32);
+        this.spanId = randomHex(16);
+        this.startEpochMillis = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+    }
+
+    private static String randomHex(int length) {
+        StringBuilder hex = new StringBuilder(length);
+        while (hex.length() < length) {
+            String part = Long.toHexString(random.nextLong());
+            for (int i = part.length(); i < 16 && hex.length() < length; ++i) hex.append('0');
+            hex.append(part, 0, Math.min(part.length(), length - hex.length()));
+        }
+
+        return hex.toString();
+    }
+
+    /**
+     * Record a phase started at startNanos and ended now.
+     */
+    public void record(TracePhase phase, int attempt, long startNanos) {
+        long now = System.nanoTime();
+        record(phase, attempt, startNanos, now - startNanos);
+    }
+
+    public void record(TracePhase phase, int attempt, long startNanos, long durationNanos) {
+        synchronized (spans) {
+            spans.add(new Span(phase, attempt, startNanos, durationNanos));
+        }
+    }
+
+    /**
+     * @return true when it is the first time to finish.
+     */
+    public synchronized boolean finish(Throwable error) {
+        if (endNanos >= 0) return false;
+
+        this.error = error;
+        this.endNanos = System.nanoTime();
+        return true;
+    }
+
+    public boolean isFinished() {
+        return endNanos >= 0;
+    }
+
+    void markAsync() {
+        this.async = true;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public Class<?> getApiClass() {
+        return apiClass;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public String getTraceparent() {
+        return "00-" + traceId + "-" + spanId + "-01";
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    public long getDurationNanos() {
+        return endNanos < 0 ? -1 : endNanos - startNanos;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Convert a {@link System#nanoTime()} of this trace to nanos since the epoch, for exporting.
+     */
+    public long toEpochNanos(long nanoTime) {
+        return TimeUnit.MILLISECONDS.toNanos(startEpochMillis) + nanoTime - startNanos;
+    }
+
+    public List<Span> getSpans() {
+        synchronized (spans) {
+            return Collections.unmodifiableList(new ArrayList<Span>(spans));
+        }
+    }
+
+    /**
+     * Total nanos of the phase over all the attempts, -1 when the phase is absent.
+     */
+    public long getPhaseNanos(TracePhase phase) {
+        long nanos = -1;
+        for (Span span : getSpans()) {
+            if (span.getPhase() != phase) continue;
+            nanos = Math.max(nanos, 0) + span.getDurationNanos();
+        }
+
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder("RestTrace{")
+            .append(apiClass.getSimpleName()).append('.').append(methodName)
+            .append(", trace ").append(traceId);
+        if (endNanos >= 0) str.append(", total ").append(micros(getDurationNanos())).append("us");
+        for (Span span : getSpans()) {
+            str.append(", ").append(span.getPhase());
+            if (span.getAttempt() > 0) str.append('#').append(span.getAttempt());
+            str.append(" +").append(micros(span.getStartNanos() - startNanos)).append("us ")
+                .append(micros(span.getDurationNanos())).append("us");
+        }
+        if (error != null) str.append(", error ").append(error.getClass().getSimpleName());
+
+        return str.append('}').toString();
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    public static class Span {
+        private final TracePhase phase;
+        private final int attempt;
+        private final long startNanos;
+        private final long durationNanos;
+
+        Span(TracePhase phase, int attempt, long startNanos, long durationNanos) {
+            this.phase = phase;
+            this.attempt = attempt;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+        }
+
+        public TracePhase getPhase() {
+            return phase;
+        }
+
+        /**
+         * The http attempt of the EXCHANGE, READ_BODY and BACKOFF phases, 0 for the others.
+         */
+        public int getAttempt() {
+            return attempt;
+        }
+
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.github.bingoohuang.springrestclient.trace;
+
+/**
+ * Receives the finished traces, e.g. to convert them to OpenTelemetry spans.
+ * The trace is the parent span, identified by {@link RestTrace#getTraceId()}
+ * and {@link RestTrace#getSpanId()} as propagated in the traceparent header,
+ * its phases are the child spans.
+ */
+public interface RestTraceExporter {
+    void export(RestTrace trace);
+}
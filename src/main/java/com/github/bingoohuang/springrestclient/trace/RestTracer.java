@@ -0,0 +1,108 @@
+package com.github.bingoohuang.springrestclient.trace;
+
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Random;
+
+/**
+ * Opt-in latency breakdown tracing of the rest client calls.
+ * <p>
+ * Calls are traced when sampled by {@link #setSampleRate(double)},
+ * or forced for the next call of the current thread:
+ * <pre>
+ * RestTracer.forceNext();
+ * api.call();
+ * RestTrace trace = RestReq.lastTrace();
+ * </pre>
+ * The trace of an async call is got by the {@link TraceAware} future.
+ */
+@Slf4j
+@UtilityClass
+public class RestTracer {
+    private final ThreadLocal<RestTrace> current = new ThreadLocal<RestTrace>();
+    private final ThreadLocal<Boolean> forced = new ThreadLocal<Boolean>();
+    // per thread, the calling threads should not contend on one generator
+    private final ThreadLocal<Random> random = new ThreadLocal<Random>() {
+        @Override
+        protected Random initialValue() {
+            return new Random();
+        }
+    };
+
+    private volatile double sampleRate = 0;
+    private volatile RestTraceExporter exporter;
+
+    public void setSampleRate(double rate) {
+        sampleRate = rate;
+    }
+
+    public void setExporter(RestTraceExporter traceExporter) {
+        exporter = traceExporter;
+    }
+
+    public void forceNext() {
+        forced.set(Boolean.TRUE);
+    }
+
+    /**
+     * Called by the generated clients at the start of each call.
+     */
+    public void start(Class<?> apiClass, String methodName) {
+        if (forced.get() != null) {
+            forced.remove();
+        } else if (sampleRate <= 0 || random.get().nextDouble() >= sampleRate) {
+            current.remove();
+            return;
+        }
+
+        current.set(new RestTrace(apiClass, methodName));
+    }
+
+    /**
+     * The trace of the last call from the current thread, null when not traced.
+     */
+    public RestTrace current() {
+        return current.get();
+    }
+
+    /**
+     * Record a phase of the ongoing sync call of the current thread.
+     */
+    public void record(TracePhase phase, long startNanos) {
+        RestTrace trace = current.get();
+        if (trace == null || trace.isAsync() || trace.isFinished()) return;
+
+        trace.record(phase, 0, startNanos);
+    }
+
+    /**
+     * Take the trace of the current thread to finish it on the async completion.
+     */
+    public RestTrace detachAsync() {
+        RestTrace trace = current.get();
+        if (trace != null) trace.markAsync();
+        return trace;
+    }
+
+    /**
+     * Called by the generated sync clients at the end of each call.
+     */
+    public void finish() {
+        RestTrace trace = current.get();
+        if (trace != null && !trace.isAsync()) finish(trace, null);
+    }
+
+    public void finish(RestTrace trace, Throwable error) {
+        if (trace == null || !trace.finish(error)) return;
+
+        RestTraceExporter traceExporter = exporter;
+        if (traceExporter == null) return;
+
+        try {
+            traceExporter.export(trace);
+        } catch (Throwable e) {
+            log.warn("failed to export {}", trace, e);
+        }
+    }
+}
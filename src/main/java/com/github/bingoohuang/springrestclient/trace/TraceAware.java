@@ -0,0 +1,11 @@
+package com.github.bingoohuang.springrestclient.trace;
+
+/**
+ * Implemented by the futures of the async calls, to get their traces.
+ */
+public interface TraceAware {
+    /**
+     * The latency breakdown of the call, null when not traced.
+     */
+    RestTrace getTrace();
+}
@@ -0,0 +1,25 @@
+package com.github.bingoohuang.springrestclient.trace;
+
+public enum TracePhase {
+    /**
+     * Parameters validation by asm-validator.
+     */
+    VALIDATE,
+    /**
+     * Url, route params, cookies and request params merging, including SERIALIZE.
+     */
+    PREPARE,
+    /**
+     * Request body marshalling.
+     */
+    SERIALIZE,
+    SIGN,
+    /**
+     * From sending the request to receiving the response headers,
+     * including the connection pool wait, dns resolving and connecting.
+     */
+    EXCHANGE,
+    READ_BODY,
+    BACKOFF,
+    UNMARSHAL
+}
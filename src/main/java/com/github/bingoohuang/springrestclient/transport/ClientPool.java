@@ -0,0 +1,232 @@
+package com.github.bingoohuang.springrestclient.transport;
+
+import com.github.bingoohuang.springrestclient.dns.CachingDnsResolver;
+import com.github.bingoohuang.springrestclient.utils.Schedulers;
+import com.mashape.unirest.http.options.Option;
+import com.mashape.unirest.http.options.Options;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpInetConnection;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ManagedHttpClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.nio.NHttpClientConnection;
+import org.apache.http.nio.conn.ManagedNHttpClientConnection;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolEntry;
+import org.apache.http.pool.PoolEntryCallback;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The sync and the async http clients of a rest client, configured like unirest's shared ones,
+ * but with their own connection pools resolving the hosts by a {@link CachingDnsResolver}.
+ * <p>
+ * When the addresses of a host are retired, the connections to them are drained gracefully:
+ * the idle ones to the retired addresses are closed, to be reopened on demand to the addresses resolved now,
+ * and the leased ones are closed when released, after their exchanges are completed.
+ */
+@Slf4j
+public class ClientPool implements Closeable {
+    private static final long EVICT_PERIOD_MILLIS = 5000L;
+    private static final long MAX_IDLE_MILLIS = 30000L;
+
+    private final CachingDnsResolver resolver;
+    private final RequestConfig requestConfig;
+    private final int maxTotal;
+    private final int maxPerRoute;
+    private final SyncManager syncManager;
+    private final CloseableHttpClient httpClient;
+    private final ScheduledFuture<?> evictor;
+    private final Object asyncLock = new Object();
+    private AsyncManager asyncManager;
+    private CloseableHttpAsyncClient asyncClient;
+
+    public ClientPool(CachingDnsResolver resolver) {
+        this.resolver = resolver.listener(new CachingDnsResolver.Listener() {
+            @Override public void retired(String host, Set<InetAddress> addresses) {
+                closeRetiredConnections();
+            }
+        });
+        this.requestConfig = RequestConfig.custom()
+            .setConnectTimeout((int) getOption(Option.CONNECTION_TIMEOUT, 10000L))
+            .setSocketTimeout((int) getOption(Option.SOCKET_TIMEOUT, 60000L))
+            .setConnectionRequestTimeout((int) getOption(Option.CONNECTION_TIMEOUT, 10000L))
+            .setProxy((HttpHost) Options.getOption(Option.PROXY))
+            .build();
+        this.maxTotal = (int) getOption(Option.MAX_TOTAL, 200);
+        this.maxPerRoute = (int) getOption(Option.MAX_PER_ROUTE, 20);
+
+        this.syncManager = new SyncManager(resolver);
+        syncManager.setMaxTotal(maxTotal);
+        syncManager.setDefaultMaxPerRoute(maxPerRoute);
+        this.httpClient = HttpClientBuilder.create()
+            .setDefaultRequestConfig(requestConfig).setConnectionManager(syncManager).build();
+
+        this.evictor = Schedulers.scheduleAtFixedRate(new Runnable() {
+            @Override public void run() {
+                closeIdleConnections(MAX_IDLE_MILLIS);
+            }
+        }, EVICT_PERIOD_MILLIS);
+    }
+
+    private static Registry<ConnectionSocketFactory> socketFactoryRegistry() {
+        return RegistryBuilder.<ConnectionSocketFactory>create()
+            .register("http", PlainConnectionSocketFactory.getSocketFactory())
+            .register("https", SSLConnectionSocketFactory.getSocketFactory())
+            .build();
+    }
+
+    private static long getOption(Option option, long defaultValue) {
+        val value = Options.getOption(option);
+        return value == null ? defaultValue : ((Number) value).longValue();
+    }
+
+    public CachingDnsResolver getResolver() {
+        return resolver;
+    }
+
+    public CloseableHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * @return the async http client, created and started on the first call.
+     */
+    public CloseableHttpAsyncClient getStartedAsyncClient() {
+        synchronized (asyncLock) {
+            if (asyncClient != null) return asyncClient;
+
+            try {
+                asyncManager = new AsyncManager(resolver);
+            } catch (IOReactorException e) {
+                throw new RuntimeException(e);
+            }
+            asyncManager.setMaxTotal(maxTotal);
+            asyncManager.setDefaultMaxPerRoute(maxPerRoute);
+            asyncClient = HttpAsyncClientBuilder.create()
+                .setDefaultRequestConfig(requestConfig).setConnectionManager(asyncManager).build();
+            asyncClient.start();
+            return asyncClient;
+        }
+    }
+
+    /**
+     * Closes the expired connections, and the ones idle longer than the idle millis.
+     */
+    public void closeIdleConnections(long idleMillis) {
+        syncManager.closeExpiredConnections();
+        syncManager.closeIdleConnections(idleMillis, TimeUnit.MILLISECONDS);
+
+        synchronized (asyncLock) {
+            if (asyncManager == null) return;
+
+            asyncManager.closeExpiredConnections();
+            asyncManager.closeIdleConnections(idleMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Closes the idle connections to the retired addresses, the ones to the other addresses are kept.
+     */
+    void closeRetiredConnections() {
+        syncManager.closeRetired();
+
+        synchronized (asyncLock) {
+            if (asyncManager != null) asyncManager.closeRetired();
+        }
+    }
+
+    private boolean isRetired(HttpConnection conn) {
+        return conn.isOpen() && conn instanceof HttpInetConnection
+            && resolver.isRetired(((HttpInetConnection) conn).getRemoteAddress());
+    }
+
+    private void closeIfRetired(HttpConnection conn) {
+        try {
+            if (!isRetired(conn)) return;
+
+            log.debug("close the connection {} to a retired address", conn);
+            conn.close();
+        } catch (Exception e) {
+            log.debug("failed to close the connection {}", conn, e);
+        }
+    }
+
+    // the pool entries closed while enumerated are removed from the pool
+    private class SyncManager extends PoolingHttpClientConnectionManager {
+        SyncManager(CachingDnsResolver resolver) {
+            super(socketFactoryRegistry(), null, resolver);
+        }
+
+        @Override
+        public void releaseConnection(HttpClientConnection conn, Object state, long keepalive, TimeUnit tunit) {
+            closeIfRetired(conn);
+            super.releaseConnection(conn, state, keepalive, tunit);
+        }
+
+        void closeRetired() {
+            enumAvailable(new PoolEntryCallback<HttpRoute, ManagedHttpClientConnection>() {
+                @Override public void process(PoolEntry<HttpRoute, ManagedHttpClientConnection> entry) {
+                    if (!isRetired(entry.getConnection())) return;
+
+                    log.debug("close the idle connection {} to a retired address", entry.getConnection());
+                    entry.close();
+                }
+            });
+        }
+    }
+
+    private class AsyncManager extends PoolingNHttpClientConnectionManager {
+        AsyncManager(CachingDnsResolver resolver) throws IOReactorException {
+            super(new DefaultConnectingIOReactor(), null, resolver);
+        }
+
+        @Override
+        public void releaseConnection(NHttpClientConnection conn, Object state, long keepalive, TimeUnit tunit) {
+            closeIfRetired(conn);
+            super.releaseConnection(conn, state, keepalive, tunit);
+        }
+
+        void closeRetired() {
+            enumAvailable(new PoolEntryCallback<HttpRoute, ManagedNHttpClientConnection>() {
+                @Override public void process(PoolEntry<HttpRoute, ManagedNHttpClientConnection> entry) {
+                    if (!isRetired(entry.getConnection())) return;
+
+                    log.debug("close the idle connection {} to a retired address", entry.getConnection());
+                    entry.close();
+                }
+            });
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        evictor.cancel(false);
+        resolver.close();
+        httpClient.close();
+        synchronized (asyncLock) {
+            if (asyncClient != null) asyncClient.close();
+        }
+    }
+}
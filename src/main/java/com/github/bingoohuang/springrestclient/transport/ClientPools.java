@@ -0,0 +1,73 @@
+package com.github.bingoohuang.springrestclient.transport;
+
+import com.github.bingoohuang.springrestclient.dns.CachingDnsResolver;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The transports of the rest clients, by the names of their interfaces.
+ * The interfaces without a {@link ClientPool} of their own share the transport over unirest's http clients.
+ */
+@Slf4j
+@UtilityClass
+public class ClientPools {
+    private final UnirestTransport shared = new UnirestTransport();
+    private final ConcurrentMap<String, UnirestTransport> transports
+        = new ConcurrentHashMap<String, UnirestTransport>();
+
+    public UnirestTransport shared() {
+        return shared;
+    }
+
+    public UnirestTransport transport(Class<?> apiClass) {
+        val transport = transports.get(apiClass.getName());
+        return transport != null ? transport : shared;
+    }
+
+    /**
+     * Creates the pool of the interface resolving the hosts with the dns ttl, unless created already.
+     */
+    public UnirestTransport register(Class<?> apiClass, long dnsTtlMillis) {
+        val name = apiClass.getName();
+        val existing = transports.get(name);
+        if (existing != null) return existing;
+
+        val transport = new UnirestTransport(new ClientPool(new CachingDnsResolver(dnsTtlMillis)));
+        val old = transports.putIfAbsent(name, transport);
+        if (old == null) return transport;
+
+        close(transport);
+        return old;
+    }
+
+    /**
+     * Closes the pool of the interface, which shares unirest's http clients again.
+     */
+    public void unregister(Class<?> apiClass) {
+        val transport = transports.remove(apiClass.getName());
+        if (transport != null) close(transport);
+    }
+
+    /**
+     * Closes the pools of the interfaces, which share unirest's http clients again.
+     */
+    public void reset() {
+        for (val name : transports.keySet()) {
+            val transport = transports.remove(name);
+            if (transport != null) close(transport);
+        }
+    }
+
+    private void close(UnirestTransport transport) {
+        try {
+            transport.getPool().close();
+        } catch (IOException e) {
+            log.warn("failed to close the client pool", e);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.github.bingoohuang.springrestclient.transport;
+
+import com.github.bingoohuang.springrestclient.provider.BaseUrlProvider;
+import com.github.bingoohuang.springrestclient.utils.Schedulers;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Opens the connections to the base urls of the rest clients before their first calls,
+ * by concurrent HEAD probes through the same http clients, and optionally keeps them alive
+ * by probing again periodically, before the idle connection monitor or the server closes them.
+ * <p>
+ * A base url shared by the interfaces is warmed up once, by the first one created,
+ * unless the interfaces have their own {@link ClientPool}s.
+ * The base urls routed to {@link Loopbacks} are not warmed up.
+ * <p>
+ * The keep-alive probes of a base url last while any interface warmed up on it is not stopped,
+ * and the base urls of the interfaces are resolved again at each round of probes,
+ * so the probes move to the new base url when it changes.
+ */
+@Slf4j
+public class ConnectionWarmer {
+    private static final long PROBE_TIMEOUT_MILLIS = 5000;
+    private static final ExecutorService executor = Executors.newCachedThreadPool(
+        new ThreadFactoryBuilder().setNameFormat("rest-client-warmup-%d").setDaemon(true).build());
+    private static final ConcurrentMap<String, Future<WarmupReport>> warmups
+        = new ConcurrentHashMap<String, Future<WarmupReport>>();
+    private static final ConcurrentMap<String, ScheduledFuture<?>> keepAlives
+        = new ConcurrentHashMap<String, ScheduledFuture<?>>();
+    // the interfaces warmed up on the keys, the keys without any are stopped
+    private static final ConcurrentMap<String, Set<ApiWarmup>> owners
+        = new ConcurrentHashMap<String, Set<ApiWarmup>>();
+    private static final ConcurrentMap<Class<?>, ApiWarmup> apiWarmups
+        = new ConcurrentHashMap<Class<?>, ApiWarmup>();
+
+    /**
+     * Warms up the connections in the background, the base url is resolved there too.
+     * The former warmup of the interface is stopped.
+     *
+     * @param async to warm up the connections of the async http client too.
+     * @return the future of the report, of null when the base url is not resolved or routed to a loopback.
+     */
+    public static Future<WarmupReport> warmup(Class<?> apiClass, BaseUrlProvider baseUrlProvider,
+                                              int connections, String path,
+                                              long keepAliveMillis, boolean async) {
+        val apiWarmup = new ApiWarmup(apiClass, baseUrlProvider, connections, path, keepAliveMillis, async);
+        val former = apiWarmups.put(apiClass, apiWarmup);
+        if (former != null) former.stop();
+
+        return executor.submit(apiWarmup);
+    }
+
+    public static Future<WarmupReport> warmup(String baseUrl, int connections, String path,
+                                              long keepAliveMillis, boolean async) {
+        return warmup(ClientPools.shared(), baseUrl, baseUrl, connections, path, keepAliveMillis, async, null);
+    }
+
+    private static Future<WarmupReport> warmup(UnirestTransport transport, String key, String baseUrl,
+                                               int connections, String path,
+                                               long keepAliveMillis, boolean async, ApiWarmup owner) {
+        if (owner != null) own(key, owner);
+
+        val url = baseUrl.replaceAll("/+$", "") + (path.startsWith("/") ? path : "/" + path);
+        val task = new FutureTask<WarmupReport>(new WarmupTask(transport, baseUrl, url, connections, async));
+        val existing = warmups.putIfAbsent(key, task);
+        if (existing != null) return existing;
+
+        task.run();
+        if (keepAliveMillis > 0) keepAlive(transport, key, url, connections, keepAliveMillis, async);
+        return task;
+    }
+
+    private static void own(String key, ApiWarmup owner) {
+        Set<ApiWarmup> keyOwners = owners.get(key);
+        if (keyOwners == null) {
+            val created = new CopyOnWriteArraySet<ApiWarmup>();
+            keyOwners = owners.putIfAbsent(key, created);
+            if (keyOwners == null) keyOwners = created;
+        }
+        keyOwners.add(owner);
+    }
+
+    private static void disown(String key, ApiWarmup owner) {
+        val keyOwners = owners.get(key);
+        if (keyOwners == null || !keyOwners.remove(owner) || !keyOwners.isEmpty()) return;
+
+        owners.remove(key, keyOwners);
+        stop(key);
+    }
+
+    private static void stop(String key) {
+        val probes = keepAlives.remove(key);
+        if (probes != null) probes.cancel(false);
+        warmups.remove(key);
+    }
+
+    private static void keepAlive(final UnirestTransport transport, final String key,
+                                  final String url, final int connections,
+                                  long keepAliveMillis, final boolean async) {
+        val probes = Schedulers.scheduleAtFixedRate(new Runnable() {
+            @Override public void run() {
+                executor.execute(new Runnable() {
+                    @Override public void run() {
+                        val keyOwners = owners.get(key);
+                        if (keyOwners != null) {
+                            for (val owner : keyOwners) owner.checkBaseUrl();
+                        }
+                        if (keepAlives.containsKey(key)) probeConcurrently(transport, url, connections, async, null);
+                    }
+                });
+            }
+        }, keepAliveMillis);
+
+        val existing = keepAlives.put(key, probes);
+        if (existing != null) existing.cancel(false);
+    }
+
+    /**
+     * Stops the warmup of the interface, with the keep-alive probes of its base url
+     * when no other interface is warmed up on it.
+     */
+    public static void stop(Class<?> apiClass) {
+        val apiWarmup = apiWarmups.remove(apiClass);
+        if (apiWarmup != null) apiWarmup.stop();
+    }
+
+    /**
+     * Stops the keep-alive probes, and forgets the warmed up base urls.
+     */
+    public static void reset() {
+        for (val probes : keepAlives.values()) probes.cancel(false);
+        keepAlives.clear();
+        warmups.clear();
+        owners.clear();
+        apiWarmups.clear();
+    }
+
+    private static long probe(UnirestTransport transport, String url, boolean async, WarmupReport report) {
+        long start = System.nanoTime();
+        try {
+            transport.probe(url, async, PROBE_TIMEOUT_MILLIS);
+            if (report != null) report.probed(true);
+        } catch (Exception e) {
+            if (report != null) report.probed(false);
+            log.debug("failed to probe {}", url, e);
+        }
+        return System.nanoTime() - start;
+    }
+
+    // the probes in flight at the same time do not share connections
+    private static void probeConcurrently(final UnirestTransport transport, final String url, int connections,
+                                          final boolean async, final WarmupReport report) {
+        val futures = new ArrayList<Future<?>>(connections);
+        for (int i = 0; i < connections; ++i) {
+            futures.add(executor.submit(new Runnable() {
+                @Override public void run() {
+                    probe(transport, url, false, report);
+                }
+            }));
+            if (async) futures.add(executor.submit(new Runnable() {
+                @Override public void run() {
+                    probe(transport, url, true, null);
+                }
+            }));
+        }
+
+        for (val future : futures) {
+            try {
+                future.get();
+            } catch (Exception e) {
+                log.debug("failed to probe {}", url, e);
+            }
+        }
+    }
+
+    private static class WarmupTask implements Callable<WarmupReport> {
+        final UnirestTransport transport;
+        final String baseUrl;
+        final String url;
+        final int connections;
+        final boolean async;
+
+        WarmupTask(UnirestTransport transport, String baseUrl, String url, int connections, boolean async) {
+            this.transport = transport;
+            this.baseUrl = baseUrl;
+            this.url = url;
+            this.connections = connections;
+            this.async = async;
+        }
+
+        @Override public WarmupReport call() {
+            val report = new WarmupReport(baseUrl, connections);
+            long cold = probe(transport, url, false, null);
+            probeConcurrently(transport, url, connections, async, report);
+            long warm = probe(transport, url, false, null);
+            report.timing(cold, warm);
+
+            log.info("{}", report);
+            return report;
+        }
+    }
+
+    private static class ApiWarmup implements Callable<WarmupReport> {
+        final Class<?> apiClass;
+        final BaseUrlProvider baseUrlProvider;
+        final int connections;
+        final String path;
+        final long keepAliveMillis;
+        final boolean async;
+        volatile String key;
+        volatile boolean stopped;
+
+        ApiWarmup(Class<?> apiClass, BaseUrlProvider baseUrlProvider, int connections, String path,
+                  long keepAliveMillis, boolean async) {
+            this.apiClass = apiClass;
+            this.baseUrlProvider = baseUrlProvider;
+            this.connections = connections;
+            this.path = path;
+            this.keepAliveMillis = keepAliveMillis;
+            this.async = async;
+        }
+
+        @Override public WarmupReport call() throws Exception {
+            String baseUrl;
+            try {
+                baseUrl = baseUrlProvider.getBaseUrl(apiClass);
+            } catch (Exception e) {
+                log.warn("failed to resolve the base url of {} to warm up", apiClass, e);
+                return null;
+            }
+            if (stopped || baseUrl == null || Loopbacks.find(URI.create(baseUrl)) != null) return null;
+
+            val transport = ClientPools.transport(apiClass);
+            key = key(transport, baseUrl);
+            val report = warmup(transport, key, baseUrl, connections, path, keepAliveMillis, async, this);
+            if (stopped) disown(key, this); // stopped while warming up
+            return report.get();
+        }
+
+        String key(UnirestTransport transport, String baseUrl) {
+            return transport == ClientPools.shared() ? baseUrl : apiClass.getName() + " " + baseUrl;
+        }
+
+        // warms up the new base url instead when it is changed
+        void checkBaseUrl() {
+            if (stopped) return;
+
+            try {
+                val baseUrl = baseUrlProvider.getBaseUrl(apiClass);
+                if (baseUrl == null || key(ClientPools.transport(apiClass), baseUrl).equals(key)) return;
+            } catch (Exception e) {
+                log.debug("failed to resolve the base url of {} to keep alive", apiClass, e);
+                return;
+            }
+
+            if (apiWarmups.get(apiClass) == this) {
+                warmup(apiClass, baseUrlProvider, connections, path, keepAliveMillis, async);
+            }
+        }
+
+        void stop() {
+            stopped = true;
+            val current = key;
+            if (current != null) disown(current, this);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.github.bingoohuang.springrestclient.transport;
+
+import com.google.common.base.Charsets;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.URLEncodedUtils;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.EnglishReasonPhraseCatalog;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletConfig;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import javax.servlet.Filter;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Locale;
+
+/**
+ * Serves the requests by a Spring MVC {@link DispatcherServlet} in the same JVM,
+ * through the servlet mocks of spring-test, which should be on the classpath.
+ * <p>
+ * The servlet filters, like the security ones, are applied in the given order before the servlet.
+ * The unhandled exceptions are served as 500 with their messages, like the containers do,
+ * and the async request processing of the handlers is not supported.
+ */
+public class DispatcherServletLoopback implements Loopback {
+    private final ServletContext servletContext;
+    private final DispatcherServlet servlet;
+    private final Filter[] filters;
+
+    @SneakyThrows
+    public DispatcherServletLoopback(WebApplicationContext context, Filter... filters) {
+        this.servletContext = context.getServletContext() != null
+            ? context.getServletContext() : new MockServletContext();
+        this.servlet = new DispatcherServlet(context);
+        this.servlet.init(new MockServletConfig(servletContext, "loopback"));
+        this.filters = filters;
+    }
+
+    @Override
+    public HttpResponse execute(HttpUriRequest request) throws IOException {
+        val servletRequest = createServletRequest(request);
+        val servletResponse = new MockHttpServletResponse();
+        try {
+            new MockFilterChain(servlet, filters).doFilter(servletRequest, servletResponse);
+        } catch (ServletException e) {
+            return createErrorResponse(e.getRootCause() != null ? e.getRootCause() : e);
+        } catch (RuntimeException e) {
+            return createErrorResponse(e);
+        }
+
+        return createResponse(servletResponse);
+    }
+
+    private MockHttpServletRequest createServletRequest(HttpUriRequest request) throws IOException {
+        val uri = request.getURI();
+        val servletRequest = new MockHttpServletRequest(servletContext, request.getMethod(), uri.getRawPath()) {
+            // the header names are lower cased by the containers like tomcat
+            @Override
+            public Enumeration<String> getHeaderNames() {
+                val names = new ArrayList<String>();
+                for (String name : Collections.list(super.getHeaderNames())) {
+                    names.add(name.toLowerCase(Locale.ENGLISH));
+                }
+                return Collections.enumeration(names);
+            }
+        };
+        servletRequest.setScheme(uri.getScheme());
+        servletRequest.setServerName(uri.getHost());
+        servletRequest.setServerPort(uri.getPort() < 0 ? ("https".equals(uri.getScheme()) ? 443 : 80) : uri.getPort());
+        servletRequest.setQueryString(uri.getRawQuery());
+        if (uri.getRawQuery() != null) addParameters(servletRequest, uri.getRawQuery(), Charsets.UTF_8);
+
+        String contentType = null;
+        for (val header : request.getAllHeaders()) {
+            if (header.getName().equalsIgnoreCase("Content-Type")) contentType = header.getValue();
+            else servletRequest.addHeader(header.getName(), header.getValue());
+            if (header.getName().equalsIgnoreCase("Cookie")) servletRequest.setCookies(parseCookies(header.getValue()));
+        }
+
+        val entity = request instanceof HttpEntityEnclosingRequest
+            ? ((HttpEntityEnclosingRequest) request).getEntity() : null;
+        if (entity == null) {
+            if (contentType != null) servletRequest.setContentType(contentType);
+            return servletRequest;
+        }
+
+        // the content type of the entity is sent as the header by the http client
+        if (contentType == null && entity.getContentType() != null) contentType = entity.getContentType().getValue();
+        if (contentType != null) servletRequest.setContentType(contentType);
+
+        val content = EntityUtils.toByteArray(entity);
+        servletRequest.setContent(content);
+        if (contentType != null && contentType.toLowerCase(Locale.ENGLISH).startsWith("application/x-www-form-urlencoded")) {
+            val charset = servletRequest.getCharacterEncoding() == null
+                ? Charsets.UTF_8 : Charset.forName(servletRequest.getCharacterEncoding());
+            addParameters(servletRequest, new String(content, charset), charset);
+        }
+
+        return servletRequest;
+    }
+
+    private void addParameters(MockHttpServletRequest servletRequest, String encoded, Charset charset) {
+        for (NameValuePair pair : URLEncodedUtils.parse(encoded, charset)) {
+            servletRequest.addParameter(pair.getName(), pair.getValue() == null ? "" : pair.getValue());
+        }
+    }
+
+    private Cookie[] parseCookies(String header) {
+        val cookies = new ArrayList<Cookie>();
+        for (String pair : header.split(";")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) cookies.add(new Cookie(pair.substring(0, eq).trim(), pair.substring(eq + 1).trim()));
+        }
+
+        return cookies.toArray(new Cookie[cookies.size()]);
+    }
+
+    private HttpResponse createResponse(MockHttpServletResponse servletResponse) {
+        int status = servletResponse.getStatus();
+        val response = new BasicHttpResponse(HttpVersion.HTTP_1_1, status,
+            EnglishReasonPhraseCatalog.INSTANCE.getReason(status, Locale.ENGLISH));
+        for (String name : servletResponse.getHeaderNames()) {
+            for (String value : servletResponse.getHeaders(name)) {
+                response.addHeader(name, value);
+            }
+        }
+
+        val contentType = servletResponse.getContentType();
+        if (contentType != null && !response.containsHeader("Content-Type"))
+            response.addHeader("Content-Type", contentType);
+
+        byte[] content = servletResponse.getContentAsByteArray();
+        if (content.length == 0 && servletResponse.getErrorMessage() != null)
+            content = servletResponse.getErrorMessage().getBytes(Charsets.UTF_8);
+
+        val entity = new ByteArrayEntity(content);
+        if (contentType != null) entity.setContentType(contentType);
+        response.setEntity(entity);
+        return response;
+    }
+
+    private HttpResponse createErrorResponse(Throwable e) {
+        val response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 500,
+            EnglishReasonPhraseCatalog.INSTANCE.getReason(500, Locale.ENGLISH));
+        response.addHeader("Content-Type", "text/plain;charset=UTF-8");
+        response.setEntity(new ByteArrayEntity(String.valueOf(e.getMessage()).getBytes(Charsets.UTF_8)));
+        return response;
+    }
+}
@@ -0,0 +1,18 @@
+package com.github.bingoohuang.springrestclient.transport;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+
+import java.io.IOException;
+
+/**
+ * An in-process server, which serves the requests to its base url without the sockets.
+ *
+ * @see Loopbacks#register(String, Loopback)
+ */
+public interface Loopback {
+    /**
+     * @return the response with its body fully buffered in the entity.
+     */
+    HttpResponse execute(HttpUriRequest request) throws IOException;
+}
@@ -0,0 +1,45 @@
+package com.github.bingoohuang.springrestclient.transport;
+
+import lombok.experimental.UtilityClass;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The loopbacks which the requests are routed to by the scheme, host and port of their urls.
+ * Nothing is looked up while no loopback is registered.
+ */
+@UtilityClass
+public class Loopbacks {
+    private final ConcurrentMap<String, Loopback> loopbacks = new ConcurrentHashMap<String, Loopback>();
+
+    /**
+     * Routes the requests to the scheme, host and port of the base url to the loopback.
+     */
+    public void register(String baseUrl, Loopback loopback) {
+        loopbacks.put(key(URI.create(baseUrl)), loopback);
+    }
+
+    public void unregister(String baseUrl) {
+        loopbacks.remove(key(URI.create(baseUrl)));
+    }
+
+    public void clear() {
+        loopbacks.clear();
+    }
+
+    public Loopback find(URI uri) {
+        if (loopbacks.isEmpty()) return null;
+
+        return loopbacks.get(key(uri));
+    }
+
+    private String key(URI uri) {
+        String scheme = uri.getScheme().toLowerCase();
+        int port = uri.getPort();
+        if (port < 0) port = "https".equals(scheme) ? 443 : 80;
+
+        return scheme + "://" + uri.getHost().toLowerCase() + ":" + port;
+    }
+}
@@ -0,0 +1,489 @@
+package com.github.bingoohuang.springrestclient.transport;
+
+import com.github.bingoohuang.springrestclient.annotations.Timeout;
+import com.github.bingoohuang.springrestclient.buffer.PooledOutputStream;
+import com.github.bingoohuang.springrestclient.exception.DeadlineExceededException;
+import com.github.bingoohuang.springrestclient.timeout.Deadline;
+import com.github.bingoohuang.springrestclient.trace.RestTrace;
+import com.github.bingoohuang.springrestclient.trace.TracePhase;
+import com.github.bingoohuang.springrestclient.utils.Schedulers;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mashape.unirest.http.HttpClientHelper;
+import com.mashape.unirest.http.HttpMethod;
+import com.mashape.unirest.http.HttpResponse;
+import com.mashape.unirest.http.async.Callback;
+import com.mashape.unirest.http.async.utils.AsyncIdleConnectionMonitorThread;
+import com.mashape.unirest.http.exceptions.UnirestException;
+import com.mashape.unirest.http.options.Option;
+import com.mashape.unirest.http.options.Options;
+import com.mashape.unirest.http.utils.ClientFactory;
+import com.mashape.unirest.request.HttpRequest;
+import lombok.val;
+import org.apache.http.HttpHost;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.*;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.nio.entity.NByteArrayEntity;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Executes unirest requests on unirest's http clients like {@code HttpClientHelper},
+ * but with the timeouts and the deadline applied on each request.
+ * <p>
+ * The requests to the base urls of the registered {@link Loopbacks} are served in process instead.
+ * The transport over a {@link ClientPool} runs the requests on the http clients of the pool instead of unirest's.
+ */
+public class UnirestTransport {
+    private static final String USER_AGENT = unirestConstant("USER_AGENT", "unirest-java/1.3.11");
+    private static final long DEFAULT_SOCKET_TIMEOUT = 60000L;
+    private static final ExecutorService loopbackExecutor = Executors.newCachedThreadPool(
+        new ThreadFactoryBuilder().setNameFormat("rest-client-loopback-%d").setDaemon(true).build());
+
+    private static final Object asyncClientLock = new Object();
+
+    private final ClientPool pool;
+
+    public UnirestTransport() {
+        this(null);
+    }
+
+    public UnirestTransport(ClientPool pool) {
+        this.pool = pool;
+    }
+
+    public ClientPool getPool() {
+        return pool;
+    }
+
+    public <T> HttpResponse<T> request(
+        HttpRequest httpRequest, Class<T> responseClass,
+        Timeout timeout, Deadline deadline, RestTrace trace, int attempt) throws UnirestException {
+        val request = prepareRequest(httpRequest, timeout, deadline);
+        setEntity(httpRequest, request);
+        val loopback = Loopbacks.find(request.getURI());
+        if (loopback != null) return requestLoopback(loopback, request, responseClass, deadline, trace, attempt);
+
+        val abort = scheduleAbort(request, deadline);
+        try {
+            long start = System.nanoTime();
+            val response = getHttpClient().execute(request);
+            return readResponse(response, responseClass, trace, attempt, start);
+        } catch (Exception e) {
+            throw new UnirestException(e);
+        } finally {
+            if (abort != null) abort.cancel(false);
+            request.releaseConnection();
+        }
+    }
+
+    public <T> Future<?> requestAsync(
+        HttpRequest httpRequest, final Class<T> responseClass,
+        Timeout timeout, final Deadline deadline,
+        final RestTrace trace, final int attempt, final Callback<T> callback) {
+        val request = prepareRequest(httpRequest, timeout, deadline);
+        val loopback = Loopbacks.find(request.getURI());
+        val canceller = new DeadlineCanceller(deadline);
+        if (loopback != null) {
+            setEntity(httpRequest, request);
+            return canceller.schedule(requestLoopbackAsync(
+                loopback, request, responseClass, deadline, trace, attempt, callback, canceller));
+        }
+
+        val client = getStartedAsyncClient();
+        final PooledOutputStream body = setBufferedEntity(httpRequest, request);
+        final long start = System.nanoTime();
+        final Future<org.apache.http.HttpResponse> future;
+        try {
+            future = client.execute(request, new FutureCallback<org.apache.http.HttpResponse>() {
+                @Override
+                public void completed(org.apache.http.HttpResponse response) {
+                    canceller.done();
+                    releaseBody();
+                    callback.completed(readResponse(response, responseClass, trace, attempt, start));
+                }
+
+                @Override
+                public void failed(Exception e) {
+                    canceller.done();
+                    discardBody();
+                    callback.failed(new UnirestException(e));
+                }
+
+                @Override
+                public void cancelled() {
+                    canceller.done();
+                    discardBody();
+                    if (deadline != null && deadline.isExpired()) {
+                        callback.failed(new UnirestException(new DeadlineExceededException("deadline exceeded")));
+                    } else {
+                        callback.cancelled();
+                    }
+                }
+
+                private void releaseBody() {
+                    if (body != null) body.release();
+                }
+
+                // the reactor may still be writing the entity when the exchange is cancelled or failed
+                private void discardBody() {
+                    if (body != null) body.discard();
+                }
+            });
+        } catch (RuntimeException e) {
+            if (body != null) body.release();
+            throw e;
+        }
+
+        return canceller.schedule(future);
+    }
+
+    /*
+     * Cancels the future when the deadline passes,
+     * the scheduled task is cancelled as soon as the exchange is done, so they do not pile up in the scheduler.
+     */
+    private static class DeadlineCanceller implements Runnable {
+        private final Deadline deadline;
+        private volatile Future<?> future;
+        private volatile ScheduledFuture<?> task;
+        private volatile boolean done;
+
+        DeadlineCanceller(Deadline deadline) {
+            this.deadline = deadline;
+        }
+
+        Future<?> schedule(Future<?> future) {
+            if (deadline == null) return future;
+
+            this.future = future;
+            this.task = Schedulers.schedule(this, abortDelayMillis(deadline));
+            if (done) task.cancel(false);
+            return future;
+        }
+
+        void done() {
+            done = true;
+            val task = this.task;
+            if (task != null) task.cancel(false);
+        }
+
+        @Override
+        public void run() {
+            future.cancel(true);
+        }
+    }
+
+    /*
+     * The loopback is not interrupted by the deadline, which is only checked before serving.
+     */
+    private <T> HttpResponse<T> requestLoopback(
+        Loopback loopback, HttpRequestBase request, Class<T> responseClass,
+        Deadline deadline, RestTrace trace, int attempt) throws UnirestException {
+        try {
+            if (deadline != null && deadline.isExpired()) throw new DeadlineExceededException("deadline exceeded");
+
+            long start = System.nanoTime();
+            return readResponse(loopback.execute(request), responseClass, trace, attempt, start);
+        } catch (Exception e) {
+            throw new UnirestException(e);
+        }
+    }
+
+    /*
+     * Served on the loopback threads, the callback is notified of the cancellation like the async http client does.
+     */
+    private <T> Future<?> requestLoopbackAsync(
+        final Loopback loopback, final HttpRequestBase request, final Class<T> responseClass,
+        final Deadline deadline, final RestTrace trace, final int attempt, final Callback<T> callback,
+        final DeadlineCanceller canceller) {
+        // a cancellation racing with the serving thread notifies the callback only once
+        final AtomicBoolean notified = new AtomicBoolean();
+        val task = new FutureTask<Void>(new Runnable() {
+            @Override
+            public void run() {
+                HttpResponse<T> response;
+                try {
+                    response = requestLoopback(loopback, request, responseClass, deadline, trace, attempt);
+                } catch (UnirestException e) {
+                    if (notified.compareAndSet(false, true)) callback.failed(e);
+                    return;
+                }
+                if (notified.compareAndSet(false, true)) callback.completed(response);
+            }
+        }, null) {
+            @Override
+            protected void done() {
+                canceller.done();
+                if (!isCancelled() || !notified.compareAndSet(false, true)) return;
+
+                if (deadline != null && deadline.isExpired()) {
+                    callback.failed(new UnirestException(new DeadlineExceededException("deadline exceeded")));
+                } else {
+                    callback.cancelled();
+                }
+            }
+        };
+
+        loopbackExecutor.execute(task);
+        return task;
+    }
+
+    /*
+     * The response headers are received when the http client returns,
+     * the body is read by the unirest response.
+     */
+    private <T> HttpResponse<T> readResponse(
+        org.apache.http.HttpResponse response, Class<T> responseClass,
+        RestTrace trace, int attempt, long start) {
+        if (trace == null) return new HttpResponse<T>(response, responseClass);
+
+        long headersReceived = System.nanoTime();
+        trace.record(TracePhase.EXCHANGE, attempt, start, headersReceived - start);
+        try {
+            return new HttpResponse<T>(response, responseClass);
+        } finally {
+            trace.record(TracePhase.READ_BODY, attempt, headersReceived);
+        }
+    }
+
+    private ScheduledFuture<?> scheduleAbort(final HttpRequestBase request, Deadline deadline) {
+        if (deadline == null) return null;
+
+        return Schedulers.schedule(new Runnable() {
+            @Override
+            public void run() {
+                request.abort();
+            }
+        }, abortDelayMillis(deadline));
+    }
+
+    // rounded up, so the deadline is surely expired when the request is aborted
+    private static long abortDelayMillis(Deadline deadline) {
+        return Math.max(0, deadline.remainingMillis() + 1);
+    }
+
+    /*
+     * The constants of unirest's HttpClientHelper, so the requests look like the ones sent by the unirest in use.
+     */
+    private static String unirestConstant(String name, String defaultValue) {
+        try {
+            val field = HttpClientHelper.class.getDeclaredField(name);
+            field.setAccessible(true);
+            return (String) field.get(null);
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+
+    private HttpClient getHttpClient() {
+        return pool != null ? pool.getHttpClient() : ClientFactory.getHttpClient();
+    }
+
+    private CloseableHttpAsyncClient getStartedAsyncClient() {
+        if (pool != null) return pool.getStartedAsyncClient();
+
+        val client = ClientFactory.getAsyncHttpClient();
+        synchronized (asyncClientLock) {
+            if (!client.isRunning()) {
+                client.start();
+                val monitor = (AsyncIdleConnectionMonitorThread) Options.getOption(Option.ASYNC_MONITOR);
+                if (monitor != null) monitor.start();
+            }
+        }
+
+        return client;
+    }
+
+    /**
+     * Sends a HEAD request by the sync or the async http client, whose connection is
+     * kept in the pool of the client for the following requests to the same route.
+     *
+     * @return the response status.
+     */
+    public int probe(String url, boolean async, long timeoutMillis) throws Exception {
+        val head = new HttpHead(url);
+        head.addHeader("user-agent", USER_AGENT);
+        head.setConfig(RequestConfig.custom()
+            .setConnectTimeout((int) timeoutMillis)
+            .setSocketTimeout((int) timeoutMillis)
+            .setConnectionRequestTimeout((int) timeoutMillis)
+            .setProxy((HttpHost) Options.getOption(Option.PROXY))
+            .build());
+
+        if (async) {
+            val future = getStartedAsyncClient().execute(head, null);
+            try {
+                return future.get(timeoutMillis, TimeUnit.MILLISECONDS).getStatusLine().getStatusCode();
+            } finally {
+                future.cancel(true); // the timed out probe releases its connection
+            }
+        }
+
+        try {
+            val response = getHttpClient().execute(head);
+            EntityUtils.consume(response.getEntity());
+            return response.getStatusLine().getStatusCode();
+        } finally {
+            head.releaseConnection();
+        }
+    }
+
+    private HttpRequestBase prepareRequest(
+        HttpRequest request, Timeout timeout, Deadline deadline) {
+        val reqObj = createRequest(request.getHttpMethod(), createUrl(request));
+
+        // set on the apache request, not the unirest one, which might be sent again by retries
+        val defaultHeaders = (Map<String, String>) Options.getOption(Option.DEFAULT_HEADERS);
+        if (defaultHeaders != null) {
+            for (Map.Entry<String, String> entry : defaultHeaders.entrySet()) {
+                reqObj.addHeader(entry.getKey(), entry.getValue());
+            }
+        }
+
+        val headers = request.getHeaders();
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            for (String value : entry.getValue()) {
+                reqObj.addHeader(entry.getKey(), value);
+            }
+        }
+        if (!reqObj.containsHeader("user-agent")) reqObj.addHeader("user-agent", USER_AGENT);
+        if (!reqObj.containsHeader("accept-encoding")) reqObj.addHeader("accept-encoding", "gzip");
+        if (deadline != null) {
+            val remaining = Math.max(0, deadline.remainingMillis());
+            reqObj.setHeader(Deadline.REMAINING_MILLIS_HEADER, String.valueOf(remaining));
+        }
+
+        val config = createRequestConfig(timeout, deadline);
+        if (config != null) reqObj.setConfig(config);
+
+        return reqObj;
+    }
+
+    private RequestConfig createRequestConfig(Timeout timeout, Deadline deadline) {
+        if (timeout == null && deadline == null) return null;
+
+        long connectTimeout = getGlobalTimeout(Option.CONNECTION_TIMEOUT, Options.CONNECTION_TIMEOUT);
+        long socketTimeout = getGlobalTimeout(Option.SOCKET_TIMEOUT, DEFAULT_SOCKET_TIMEOUT);
+        if (timeout != null && timeout.connectMillis() >= 0) connectTimeout = timeout.connectMillis();
+        if (timeout != null && timeout.responseMillis() >= 0) socketTimeout = timeout.responseMillis();
+
+        if (deadline != null) {
+            long remaining = Math.max(1, deadline.remainingMillis());
+            connectTimeout = bound(connectTimeout, remaining);
+            socketTimeout = bound(socketTimeout, remaining);
+        }
+
+        return RequestConfig.custom()
+            .setConnectTimeout((int) connectTimeout)
+            .setSocketTimeout((int) socketTimeout)
+            .setConnectionRequestTimeout((int) connectTimeout)
+            .setProxy((HttpHost) Options.getOption(Option.PROXY))
+            .build();
+    }
+
+    private long getGlobalTimeout(Option option, long defaultValue) {
+        val value = Options.getOption(option);
+        return value == null ? defaultValue : ((Number) value).longValue();
+    }
+
+    // 0 is infinite for http client
+    private long bound(long timeout, long remaining) {
+        return timeout <= 0 ? remaining : Math.min(timeout, remaining);
+    }
+
+    private String createUrl(HttpRequest request) {
+        try {
+            val url = new URL(request.getUrl());
+            val uri = new URI(url.getProtocol(), url.getUserInfo(), url.getHost(), url.getPort(),
+                URLDecoder.decode(url.getPath(), "UTF-8"), "", url.getRef());
+            String urlToRequest = uri.toURL().toString();
+            if (url.getQuery() != null && !url.getQuery().trim().equals("")) {
+                if (!urlToRequest.endsWith("?")) urlToRequest += "?";
+                urlToRequest += url.getQuery();
+            } else if (urlToRequest.endsWith("?")) {
+                urlToRequest = urlToRequest.substring(0, urlToRequest.length() - 1);
+            }
+
+            return urlToRequest;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private HttpRequestBase createRequest(final HttpMethod httpMethod, String url) {
+        switch (httpMethod) {
+            case GET:
+                return new HttpGet(url);
+            case POST:
+                return new HttpPost(url);
+            case PUT:
+                return new HttpPut(url);
+            case OPTIONS:
+                return new HttpOptions(url);
+            case HEAD:
+                return new HttpHead(url);
+            default: // DELETE and PATCH with body
+                val request = new HttpEntityEnclosingRequestBase() {
+                    @Override
+                    public String getMethod() {
+                        return httpMethod.name();
+                    }
+                };
+                request.setURI(URI.create(url));
+                return request;
+        }
+    }
+
+    private void setEntity(HttpRequest request, HttpRequestBase reqObj) {
+        if (!hasEntity(request)) return;
+
+        ((HttpEntityEnclosingRequestBase) reqObj).setEntity(request.getBody().getEntity());
+    }
+
+    /*
+     * The async client needs a non blocking entity, the body is copied into a pooled buffer,
+     * which is returned to the pool when the exchange is completed,
+     * and left to the garbage collector when it is cancelled or failed.
+     */
+    private PooledOutputStream setBufferedEntity(HttpRequest request, HttpRequestBase reqObj) {
+        if (!hasEntity(request)) return null;
+
+        val entity = request.getBody().getEntity();
+        if (!reqObj.containsHeader("content-type") && entity.getContentType() != null)
+            reqObj.setHeader(entity.getContentType());
+
+        val output = new PooledOutputStream();
+        try {
+            entity.writeTo(output);
+        } catch (IOException e) {
+            output.release();
+            throw new RuntimeException(e);
+        }
+
+        ((HttpEntityEnclosingRequestBase) reqObj).setEntity(
+            new NByteArrayEntity(output.buffer(), 0, output.size()));
+        return output;
+    }
+
+    private boolean hasEntity(HttpRequest request) {
+        val httpMethod = request.getHttpMethod();
+        if (httpMethod == HttpMethod.GET || httpMethod == HttpMethod.HEAD) return false;
+
+        return request.getBody() != null;
+    }
+}
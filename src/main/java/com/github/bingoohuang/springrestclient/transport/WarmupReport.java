@@ -0,0 +1,70 @@
+package com.github.bingoohuang.springrestclient.transport;
+
+/**
+ * The result of warming up the connections to a base url, where the time of the first probe
+ * opening a new connection compared with the time of a probe reusing one
+ * is the time saved for the first call.
+ */
+public class WarmupReport {
+    private final String baseUrl;
+    private final int connections;
+    private int opened;
+    private int errors;
+    private long coldNanos;
+    private long warmNanos;
+
+    WarmupReport(String baseUrl, int connections) {
+        this.baseUrl = baseUrl;
+        this.connections = connections;
+    }
+
+    synchronized void probed(boolean succeeded) {
+        if (succeeded) ++opened;
+        else ++errors;
+    }
+
+    void timing(long coldNanos, long warmNanos) {
+        this.coldNanos = coldNanos;
+        this.warmNanos = warmNanos;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public int getConnections() {
+        return connections;
+    }
+
+    /**
+     * @return the successful concurrent probes, at most the max connections per route of the client.
+     */
+    public synchronized int getOpened() {
+        return opened;
+    }
+
+    public synchronized int getErrors() {
+        return errors;
+    }
+
+    // the time of the first probe paying the dns, tcp and tls setup
+    public long getColdNanos() {
+        return coldNanos;
+    }
+
+    // the time of a probe on a warmed connection
+    public long getWarmNanos() {
+        return warmNanos;
+    }
+
+    public long getImprovementNanos() {
+        return coldNanos - warmNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("warmed up %d/%d connections to %s with %d errors, "
+                + "first call %.2f ms cold, %.2f ms warm",
+            getOpened(), connections, baseUrl, getErrors(), coldNanos / 1e6, warmNanos / 1e6);
+    }
+}
@@ -2,6 +2,8 @@ package com.github.bingoohuang.springrestclient.utils;
 
 import com.github.bingoohuang.asmvalidator.AsmParamsValidatorFactory;
 import com.github.bingoohuang.asmvalidator.ex.AsmValidateException;
+import com.github.bingoohuang.springrestclient.trace.RestTracer;
+import com.github.bingoohuang.springrestclient.trace.TracePhase;
 import lombok.experimental.UtilityClass;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,12 +15,16 @@ public class AsmValidatorLog {
         String methodSignature,
         Object... parametersValues
     ) {
+        long start = System.nanoTime();
         try {
             AsmParamsValidatorFactory.validate(methodSignature, parametersValues);
         } catch (AsmValidateException e) {
             Logger log = LoggerFactory.getLogger(apiClass);
             log.warn("validate failed {}", e.getMessage());
+            RestTracer.finish(RestTracer.current(), e);
             throw e;
+        } finally {
+            RestTracer.record(TracePhase.VALIDATE, start);
         }
     }
 }
@@ -1,8 +1,34 @@
 package com.github.bingoohuang.springrestclient.utils;
 
 import lombok.val;
+import org.objectweb.asm.Opcodes;
 
 public class Asms {
+    /**
+     * The class file version of the classes generated and defined at runtime,
+     * the newest one supported by the running jvm.
+     */
+    public static int classVersion() {
+        return classVersion(System.getProperty("java.specification.version"));
+    }
+
+    /**
+     * The class file version for the java target like 1.6 or 11, at most the java 8 one written by asm.
+     */
+    public static int classVersion(String target) {
+        if ("1.6".equals(target) || "6".equals(target)) return Opcodes.V1_6;
+        if ("1.7".equals(target) || "7".equals(target)) return Opcodes.V1_7;
+        return Opcodes.V1_8;
+    }
+
+    /**
+     * The class file version of the compiled class, so the generated class is loadable wherever it is.
+     */
+    public static int classVersion(byte[] classFile) {
+        int major = ((classFile[6] & 0xFF) << 8) | (classFile[7] & 0xFF);
+        return Math.min(major, Opcodes.V1_8);
+    }
+
     // Creates a dotted class name from a path/package name
     public static String c(String p) {
         return p.replace('/', '.');
@@ -1,27 +1,35 @@
 package com.github.bingoohuang.springrestclient.utils;
 
-import com.alibaba.fastjson.JSON;
-import com.github.bingoohuang.springrestclient.xml.Xmls;
-import com.github.bingoohuang.utils.codec.Json;
+import com.github.bingoohuang.springrestclient.codec.RestCodecs;
+import com.github.bingoohuang.springrestclient.codec.TextCodec;
 import lombok.experimental.UtilityClass;
+import lombok.val;
 import org.apache.commons.lang3.StringUtils;
 
 import java.lang.reflect.Type;
 
+/**
+ * @deprecated the bodies are decoded by the codecs of the api methods,
+ * see {@link com.github.bingoohuang.springrestclient.codec.MethodCodecs}.
+ */
+@Deprecated
 @UtilityClass
 public class Beans {
     public Object unmarshal(String text, Class<?> clazz) {
         if (StringUtils.isEmpty(text)) return null;
 
-        return text.startsWith("<")
-            ? Xmls.unmarshal(text, clazz)
-            : (text.startsWith("{")
-            ? Json.unJson(text, clazz)
-            : Json.unJsonArray(text, clazz));
+        return decode(text, clazz, text.startsWith("<") ? "application/xml" : "application/json");
     }
 
     public Object unmarshal(String text, Type returnType) {
-        return JSON.parseObject(text, returnType);
+        if (StringUtils.isEmpty(text)) return null;
+
+        return decode(text, returnType, "application/json");
     }
 
+    private Object decode(String text, Type type, String mediaType) {
+        val codecs = RestCodecs.defaults();
+        val codec = (TextCodec) codecs.get(RestCodecs.indexOf(codecs, mediaType, TextCodec.class));
+        return codec.decoder(type).decode(text);
+    }
 }
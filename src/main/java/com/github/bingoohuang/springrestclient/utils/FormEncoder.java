@@ -0,0 +1,201 @@
+package com.github.bingoohuang.springrestclient.utils;
+
+import com.github.bingoohuang.springrestclient.buffer.BufferPool;
+import com.github.bingoohuang.springrestclient.buffer.PooledOutputStream;
+import com.mashape.unirest.request.ValueUtils;
+import lombok.experimental.UtilityClass;
+import lombok.val;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Encodes query strings and application/x-www-form-urlencoded bodies in one pass,
+ * in the iteration order of the parameters map.
+ * Values are converted like unirest does, names and values are encoded like {@link java.net.URLEncoder}.
+ * <p>
+ * The encoded bytes are written straight into a pooled buffer, non ASCII characters are
+ * encoded to UTF-8 code point by code point without intermediate strings or arrays.
+ */
+@UtilityClass
+public class FormEncoder {
+    public final String CONTENT_TYPE = "application/x-www-form-urlencoded; charset=UTF-8";
+
+    private final byte[] HEX = {
+        '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
+
+    public void appendQuery(StringBuilder url, Map<String, Object> params) {
+        appendQuery(url, params, null, PrimitiveParams.Target.GET);
+    }
+
+    /**
+     * Appends the params and then the primitive params of the target, which could be null.
+     */
+    public void appendQuery(StringBuilder url, Map<String, Object> params,
+                            PrimitiveParams primitives, PrimitiveParams.Target target) {
+        if (params.isEmpty() && (primitives == null || primitives.isEmpty(target))) return;
+
+        val query = new PooledOutputStream(BufferPool.shared(), params.size() * 32 + 32);
+        try {
+            int separator = url.indexOf("?") >= 0 ? '&' : '?';
+            for (Map.Entry<String, Object> entry : params.entrySet()) {
+                query.write(separator);
+                separator = '&';
+                appendParam(query, entry);
+            }
+            if (primitives != null) primitives.appendTo(query, target, separator);
+
+            appendAscii(url, query);
+        } finally {
+            query.release();
+        }
+    }
+
+    public byte[] encodeForm(Map<String, Object> params) {
+        return encodeForm(params, null);
+    }
+
+    /**
+     * @return the exactly sized form body, the only copy made out of the pooled buffer,
+     * since the body is kept by the request for retries and async sending.
+     */
+    public byte[] encodeForm(Map<String, Object> params, PrimitiveParams primitives) {
+        val form = new PooledOutputStream(BufferPool.shared(), params.size() * 32 + 32);
+        try {
+            encodeForm(form, params, primitives);
+            return Arrays.copyOf(form.buffer(), form.size());
+        } finally {
+            form.release();
+        }
+    }
+
+    public void encodeForm(PooledOutputStream form, Map<String, Object> params, PrimitiveParams primitives) {
+        int separator = -1;
+        for (Map.Entry<String, Object> entry : params.entrySet()) {
+            if (separator >= 0) form.write(separator);
+            separator = '&';
+            appendParam(form, entry);
+        }
+        if (primitives != null) primitives.appendTo(form, PrimitiveParams.Target.POST_FORM, separator);
+    }
+
+    private void appendParam(PooledOutputStream out, Map.Entry<String, Object> entry) {
+        encode(out, entry.getKey());
+        out.write('=');
+        encode(out, ValueUtils.processValue(entry.getValue()));
+    }
+
+    // the encoded bytes are pure ASCII
+    private void appendAscii(StringBuilder url, PooledOutputStream encoded) {
+        val buffer = encoded.buffer();
+        url.ensureCapacity(url.length() + encoded.size());
+        for (int i = 0, ii = encoded.size(); i < ii; ++i) {
+            url.append((char) buffer[i]);
+        }
+    }
+
+    public void encode(PooledOutputStream out, String value) {
+        for (int i = 0, ii = value.length(); i < ii; ++i) {
+            char c = value.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < ii && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                appendEscaped(out, 0xF0 | codePoint >> 18);
+                appendEscaped(out, 0x80 | codePoint >> 12 & 0x3F);
+                appendEscaped(out, 0x80 | codePoint >> 6 & 0x3F);
+                appendEscaped(out, 0x80 | codePoint & 0x3F);
+            } else {
+                encode(out, c);
+            }
+        }
+    }
+
+    private void encode(PooledOutputStream out, char c) {
+        if (c == ' ') {
+            out.write('+');
+        } else if (c < 0x80) {
+            if (isUnescaped(c)) out.write(c);
+            else appendEscaped(out, c);
+        } else if (c < 0x800) {
+            appendEscaped(out, 0xC0 | c >> 6);
+            appendEscaped(out, 0x80 | c & 0x3F);
+        } else if (c < Character.MIN_SURROGATE || c > Character.MAX_SURROGATE) {
+            appendEscaped(out, 0xE0 | c >> 12);
+            appendEscaped(out, 0x80 | c >> 6 & 0x3F);
+            appendEscaped(out, 0x80 | c & 0x3F);
+        } else {
+            // a lone surrogate is replaced by '?' like String.getBytes does
+            appendEscaped(out, '?');
+        }
+    }
+
+    /**
+     * Appends the name and the digits of the primitive value, without boxing or a string of the value.
+     * The byte, short and int values are appended as long.
+     */
+    public void append(PooledOutputStream out, String name, long value) {
+        encode(out, name);
+        out.write('=');
+
+        // accumulated negatively, so Long.MIN_VALUE fits
+        if (value < 0) out.write('-');
+        else value = -value;
+
+        int start = out.size();
+        do {
+            out.write('0' - (int) (value % 10));
+            value /= 10;
+        } while (value != 0);
+
+        val buffer = out.buffer();
+        for (int i = start, j = out.size() - 1; i < j; ++i, --j) {
+            byte b = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = b;
+        }
+    }
+
+    public void append(PooledOutputStream out, String name, boolean value) {
+        encode(out, name);
+        out.write('=');
+        appendAscii(out, value ? "true" : "false");
+    }
+
+    public void append(PooledOutputStream out, String name, char value) {
+        encode(out, name);
+        out.write('=');
+        encode(out, value);
+    }
+
+    /**
+     * The float and double values are still formatted by the JDK for the shortest exact digits,
+     * which are pure ASCII and need no escaping.
+     */
+    public void append(PooledOutputStream out, String name, double value) {
+        encode(out, name);
+        out.write('=');
+        appendAscii(out, String.valueOf(value));
+    }
+
+    public void append(PooledOutputStream out, String name, float value) {
+        encode(out, name);
+        out.write('=');
+        appendAscii(out, String.valueOf(value));
+    }
+
+    private void appendAscii(PooledOutputStream out, String ascii) {
+        for (int i = 0, ii = ascii.length(); i < ii; ++i) {
+            out.write(ascii.charAt(i));
+        }
+    }
+
+    private boolean isUnescaped(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+            || c == '-' || c == '.' || c == '_' || c == '*';
+    }
+
+    private void appendEscaped(PooledOutputStream out, int b) {
+        out.write('%');
+        out.write(HEX[b >> 4]);
+        out.write(HEX[b & 0xF]);
+    }
+}
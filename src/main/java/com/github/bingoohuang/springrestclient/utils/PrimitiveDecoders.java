@@ -0,0 +1,128 @@
+package com.github.bingoohuang.springrestclient.utils;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+/**
+ * Decodes primitive return values directly from the response bytes,
+ * without building the body string first.
+ * Surrounding whitespaces are skipped, others follow the {@code Xxx.parseXxx} rules.
+ */
+@UtilityClass
+public class PrimitiveDecoders {
+    public boolean decodeBoolean(InputStream body) {
+        if (body == null) return false;
+
+        // same as Boolean.parseBoolean, only "true" ignoring case is true
+        int b = skipWhitespaces(body);
+        for (int i = 0; i < 4; ++i, b = read(body)) {
+            if (b < 0 || Character.toLowerCase(b) != "true".charAt(i)) return false;
+        }
+
+        return isWhitespacesToEnd(b, body);
+    }
+
+    public byte decodeByte(InputStream body) {
+        long value = decodeLong(body);
+        if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) throw numberFormatException(body);
+
+        return (byte) value;
+    }
+
+    public short decodeShort(InputStream body) {
+        long value = decodeLong(body);
+        if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) throw numberFormatException(body);
+
+        return (short) value;
+    }
+
+    public int decodeInt(InputStream body) {
+        long value = decodeLong(body);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) throw numberFormatException(body);
+
+        return (int) value;
+    }
+
+    public long decodeLong(InputStream body) {
+        if (body == null) throw new NumberFormatException("null");
+
+        int b = skipWhitespaces(body);
+        boolean negative = b == '-';
+        if (negative || b == '+') b = read(body);
+        if (b < '0' || b > '9') throw numberFormatException(body);
+
+        // accumulated negatively like Long.parseLong, so Long.MIN_VALUE fits
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multMin = limit / 10;
+        long result = 0;
+        for (; b >= '0' && b <= '9'; b = read(body)) {
+            int digit = b - '0';
+            if (result < multMin) throw numberFormatException(body);
+            result *= 10;
+            if (result < limit + digit) throw numberFormatException(body);
+            result -= digit;
+        }
+
+        if (!isWhitespacesToEnd(b, body)) throw numberFormatException(body);
+
+        return negative ? result : -result;
+    }
+
+    /*
+     * Exact decimal to binary floating point conversion is left to the JDK,
+     * only the body string is saved.
+     */
+    public float decodeFloat(InputStream body) {
+        return Float.parseFloat(text(body));
+    }
+
+    public double decodeDouble(InputStream body) {
+        return Double.parseDouble(text(body));
+    }
+
+    /**
+     * The body as text, the stream is rewound when possible
+     * so it can be read again, e.g. for logging or error messages.
+     */
+    @SneakyThrows
+    public String text(InputStream body) {
+        if (body == null) return null;
+        if (!(body instanceof ByteArrayInputStream)) {
+            return new String(ByteStreams.toByteArray(body), Charsets.UTF_8);
+        }
+
+        body.reset();
+        String text = new String(ByteStreams.toByteArray(body), Charsets.UTF_8);
+        body.reset();
+        return text;
+    }
+
+    private NumberFormatException numberFormatException(InputStream body) {
+        return new NumberFormatException("For input string: \"" + text(body) + "\"");
+    }
+
+    private int skipWhitespaces(InputStream body) {
+        int b = read(body);
+        while (isWhitespace(b)) b = read(body);
+        return b;
+    }
+
+    private boolean isWhitespacesToEnd(int b, InputStream body) {
+        while (isWhitespace(b)) b = read(body);
+        return b < 0;
+    }
+
+    private boolean isWhitespace(int b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    @SneakyThrows
+    private int read(InputStream body) {
+        return body.read();
+    }
+}
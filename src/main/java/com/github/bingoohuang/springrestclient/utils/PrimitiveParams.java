@@ -0,0 +1,209 @@
+package com.github.bingoohuang.springrestclient.utils;
+
+import com.github.bingoohuang.springrestclient.buffer.PooledOutputStream;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The primitive request params of a call, kept unboxed and encoded by {@link FormEncoder}
+ * straight into the query or the form buffer.
+ * They are boxed into the params map only when it is needed by others,
+ * like a sign provider, the delayed params, the multipart fields or the recorder.
+ * <p>
+ * The names prefixed by "q^" are the query params of a post, like the ones of the params map.
+ */
+public class PrimitiveParams {
+    /**
+     * Which of the params go to the query or the form being encoded.
+     */
+    public enum Target {
+        /**
+         * All the params go to the query of a get.
+         */
+        GET,
+        /**
+         * The "q^" params go to the query of a post.
+         */
+        POST_QUERY,
+        /**
+         * The others go to the form of a post.
+         */
+        POST_FORM;
+
+        boolean accepts(String name) {
+            switch (this) {
+                case POST_QUERY:
+                    return isQueryParam(name);
+                case POST_FORM:
+                    return !isQueryParam(name);
+                default:
+                    return true;
+            }
+        }
+    }
+
+    private static final char BYTE = 'B';
+    private static final char SHORT = 'S';
+    private static final char INT = 'I';
+    private static final char LONG = 'J';
+    private static final char BOOLEAN = 'Z';
+    private static final char CHAR = 'C';
+    private static final char FLOAT = 'F';
+    private static final char DOUBLE = 'D';
+
+    private String[] names;
+    private long[] values;
+    private char[] kinds;
+    private int size;
+
+    public PrimitiveParams(int capacity) {
+        this.names = new String[capacity];
+        this.values = new long[capacity];
+        this.kinds = new char[capacity];
+    }
+
+    public void add(String name, byte value) {
+        add(name, BYTE, value);
+    }
+
+    public void add(String name, short value) {
+        add(name, SHORT, value);
+    }
+
+    public void add(String name, int value) {
+        add(name, INT, value);
+    }
+
+    public void add(String name, long value) {
+        add(name, LONG, value);
+    }
+
+    public void add(String name, boolean value) {
+        add(name, BOOLEAN, value ? 1 : 0);
+    }
+
+    public void add(String name, char value) {
+        add(name, CHAR, value);
+    }
+
+    public void add(String name, float value) {
+        add(name, FLOAT, Float.floatToRawIntBits(value));
+    }
+
+    public void add(String name, double value) {
+        add(name, DOUBLE, Double.doubleToRawLongBits(value));
+    }
+
+    private void add(String name, char kind, long value) {
+        if (size == names.length) {
+            int capacity = Math.max(size << 1, 4);
+            names = Arrays.copyOf(names, capacity);
+            values = Arrays.copyOf(values, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+        }
+
+        names[size] = name;
+        kinds[size] = kind;
+        values[size] = value;
+        ++size;
+    }
+
+    public boolean isEmpty(Target target) {
+        for (int i = 0; i < size; ++i) {
+            if (target.accepts(names[i])) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Appends the params of the target to the encoded query or form, each after the separator.
+     *
+     * @param separator the separator before the first param, '?', '&amp;' or -1 for none.
+     * @return the separator before the next param.
+     */
+    public int appendTo(PooledOutputStream out, Target target, int separator) {
+        for (int i = 0; i < size; ++i) {
+            if (!target.accepts(names[i])) continue;
+
+            if (separator >= 0) out.write(separator);
+            separator = '&';
+
+            String name = target == Target.POST_FORM ? names[i] : realName(names[i]);
+            long value = values[i];
+            switch (kinds[i]) {
+                case BOOLEAN:
+                    FormEncoder.append(out, name, value != 0);
+                    break;
+                case CHAR:
+                    FormEncoder.append(out, name, (char) value);
+                    break;
+                case FLOAT:
+                    FormEncoder.append(out, name, Float.intBitsToFloat((int) value));
+                    break;
+                case DOUBLE:
+                    FormEncoder.append(out, name, Double.longBitsToDouble(value));
+                    break;
+                default:
+                    FormEncoder.append(out, name, value);
+            }
+        }
+
+        return separator;
+    }
+
+    /**
+     * Boxes all the params into the map, with their names as they are.
+     */
+    public <T extends Map<String, Object>> T boxInto(T map) {
+        for (int i = 0; i < size; ++i) {
+            map.put(names[i], box(i));
+        }
+
+        return map;
+    }
+
+    /**
+     * Boxes the params of the target into the map, with their names as encoded.
+     */
+    public <T extends Map<String, Object>> T boxInto(T map, Target target) {
+        for (int i = 0; i < size; ++i) {
+            if (!target.accepts(names[i])) continue;
+
+            map.put(target == Target.POST_FORM ? names[i] : realName(names[i]), box(i));
+        }
+
+        return map;
+    }
+
+    private Object box(int i) {
+        long value = values[i];
+        switch (kinds[i]) {
+            case BOOLEAN:
+                return value != 0;
+            case CHAR:
+                return (char) value;
+            case FLOAT:
+                return Float.intBitsToFloat((int) value);
+            case DOUBLE:
+                return Double.longBitsToDouble(value);
+            case BYTE:
+                return (byte) value;
+            case SHORT:
+                return (short) value;
+            case INT:
+                return (int) value;
+            default:
+                return value;
+        }
+    }
+
+    private static boolean isQueryParam(String name) {
+        return name.startsWith("q^");
+    }
+
+    private static String realName(String name) {
+        return isQueryParam(name) ? name.substring(2) : name;
+    }
+}
@@ -30,7 +30,7 @@ public class RequestParamsHelper {
     }
 
     Map<String, Object> createQueryParamsForPost() {
-        Map<String, Object> queryParams = Maps.newHashMap();
+        Map<String, Object> queryParams = Maps.newLinkedHashMap();
         Map<String, ParameterDelayable> delayedParameters = Maps.newLinkedHashMap();
 
         for (Map.Entry<String, Object> entry : fixedRequestParams.entrySet()) {
@@ -62,7 +62,7 @@ public class RequestParamsHelper {
     }
 
     Map<String, Object> mergeRequestParamsForGet() {
-        Map<String, Object> mergedRequestParams = Maps.newHashMap();
+        Map<String, Object> mergedRequestParams = Maps.newLinkedHashMap();
         Map<String, ParameterDelayable> delayedParameters = Maps.newLinkedHashMap();
 
         for (Map.Entry<String, Object> entry : fixedRequestParams.entrySet()) {
@@ -90,7 +90,7 @@ public class RequestParamsHelper {
 
 
     Map<String, Object> mergeRequestParamsWithoutQueryParams() {
-        Map<String, Object> mergedRequestParams = Maps.newHashMap();
+        Map<String, Object> mergedRequestParams = Maps.newLinkedHashMap();
         Map<String, ParameterDelayable> delayedParameters = Maps.newLinkedHashMap();
 
         for (Map.Entry<String, Object> entry : fixedRequestParams.entrySet()) {
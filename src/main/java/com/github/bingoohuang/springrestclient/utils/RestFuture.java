@@ -1,14 +1,20 @@
 package com.github.bingoohuang.springrestclient.utils;
 
+import com.github.bingoohuang.springrestclient.trace.RestTrace;
+import com.github.bingoohuang.springrestclient.trace.TraceAware;
+import com.github.bingoohuang.springrestclient.trace.TracePhase;
+import com.google.common.util.concurrent.JdkFutureAdapters;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.mashape.unirest.http.HttpResponse;
 
 import java.io.InputStream;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
-public class RestFuture<T> implements Future<T>, ResponseAware {
+public class RestFuture<T> implements ListenableFuture<T>, ResponseAware, TraceAware {
     private final Future<HttpResponse<?>> future;
     private final Class<T> beanClass;
     private final RestReq restReq;
@@ -22,6 +28,15 @@ public class RestFuture<T> implements Future<T>, ResponseAware {
         this.restReq = restReq;
     }
 
+    /**
+     * The listener runs when the response is received, the response is not processed by then.
+     */
+    @Override
+    public void addListener(Runnable listener, Executor executor) {
+        if (future instanceof ListenableFuture) ((ListenableFuture<?>) future).addListener(listener, executor);
+        else JdkFutureAdapters.listenInPoolThread(future).addListener(listener, executor);
+    }
+
     @Override
     public boolean cancel(boolean mayInterruptIfRunning) {
         return future.cancel(mayInterruptIfRunning);
@@ -67,7 +82,9 @@ public class RestFuture<T> implements Future<T>, ResponseAware {
             if (beanClass == InputStream.class)
                 return (T) response.getRawBody();
 
-            T bean = (T) Beans.unmarshal(body.toString(), beanClass);
+            long start = System.nanoTime();
+            T bean = (T) restReq.decode(body, response);
+            if (restReq.trace != null) restReq.trace.record(TracePhase.UNMARSHAL, 0, start);
             return bean;
         }
 
@@ -77,4 +94,9 @@ public class RestFuture<T> implements Future<T>, ResponseAware {
             throw new ExecutionException(throwable);
         }
     }
+
+    @Override
+    public RestTrace getTrace() {
+        return restReq.trace;
+    }
 }
@@ -1,17 +1,21 @@
 package com.github.bingoohuang.springrestclient.utils;
 
+import com.github.bingoohuang.springrestclient.buffer.PooledOutputStream;
+import com.github.bingoohuang.springrestclient.codec.MethodCodecs;
 import com.github.bingoohuang.springrestclient.provider.SignProvider;
-import com.google.common.base.Charsets;
 import com.google.common.base.Joiner;
 import com.google.common.io.ByteStreams;
 import com.mashape.unirest.http.HttpResponse;
 import com.mashape.unirest.request.HttpRequest;
 import com.mashape.unirest.request.body.Body;
 import lombok.extern.slf4j.Slf4j;
+import lombok.val;
 import org.apache.http.HttpEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
@@ -26,10 +30,21 @@ public class RestLog {
     private final String uuid = UUID.randomUUID().toString();
     private final Logger logger;
     private final Class<?> apiClass;
+    private final MethodCodecs codecs;
     private long start;
+    private long signingStartNanos;
+    private long signingNanos = -1;
 
     public RestLog(Class<?> apiClass, boolean async) {
+        this(apiClass, async, null);
+    }
+
+    /**
+     * @param codecs to preview the binary bodies, null when none.
+     */
+    public RestLog(Class<?> apiClass, boolean async, MethodCodecs codecs) {
         this.apiClass = apiClass;
+        this.codecs = codecs;
         this.syncOrAsync = async ? "asyn" : "sync";
         this.logger = LoggerFactory.getLogger(apiClass);
     }
@@ -45,7 +60,7 @@ public class RestLog {
         List<String> contentTypes = httpRequest.getHeaders().get("Content-Type");
         String contentType = contentTypes != null && contentTypes.size() > 0 ? contentTypes.get(0) : null;
 
-        String body = getBodyAsString(requestParams, httpRequest);
+        Object body = getBody(requestParams, httpRequest);
 
         logger.info("spring rest client {} {} request: {} {} headers:{} body: {}",
             syncOrAsync, uuid, methodName, url, headers, singleLine(contentType, body));
@@ -54,10 +69,20 @@ public class RestLog {
     private void signReq(SignProvider signProvider, Map<String, Object> requestParams, HttpRequest httpRequest) {
         if (signProvider == null) return;
 
+        signingStartNanos = System.nanoTime();
         signProvider.sign(apiClass, uuid, requestParams, httpRequest);
+        signingNanos = System.nanoTime() - signingStartNanos;
+    }
+
+    public long getSigningStartNanos() {
+        return signingStartNanos;
+    }
+
+    public long getSigningNanos() {
+        return signingNanos;
     }
 
-    private String getBodyAsString(Map<String, Object> requestParams, HttpRequest httpRequest) {
+    private Object getBody(Map<String, Object> requestParams, HttpRequest httpRequest) {
         try {
             Body body = httpRequest.getBody();
             if (body == null) return "";
@@ -65,7 +90,15 @@ public class RestLog {
             HttpEntity entity = body.getEntity();
             // MultipartFormEntity // StringEntity // UrlEncodedFormEntity;
             InputStream context = entity.getContent();
-            return new String(ByteStreams.toByteArray(context), Charsets.UTF_8);
+            val output = new PooledOutputStream();
+            try {
+                ByteStreams.copy(context, output);
+                if (codecs != null && codecs.isBinaryRequest())
+                    return new Preview(codecs.previewRequest(output.buffer(), 0, output.size()));
+                return output.toString();
+            } finally {
+                output.release();
+            }
         } catch (UnsupportedOperationException e) {
             return requestParams.toString();
         } catch (Exception e) {
@@ -82,12 +115,20 @@ public class RestLog {
     }
 
     public void log(HttpResponse<?> response) {
+        log(response, false);
+    }
+
+    /**
+     * @param textBody the stream body is logged as text, like the primitive returns.
+     */
+    public void log(HttpResponse<?> response, boolean textBody) {
         if (!logger.isInfoEnabled()) return;
 
         int status = response.getStatus();
         String headers = buildHeaders(response.getHeaders());
         String contentType = response.getHeaders().getFirst("Content-Type");
         Object body = response.getBody();
+        if (body instanceof InputStream) body = streamBody((InputStream) body, contentType, textBody);
         long costTimeMillis = System.currentTimeMillis() - start;
         if (status >= 200 & status < 300)
             logger.info("spring rest client {} {} response: cost {} millis, {} headers:{} body: {}",
@@ -97,6 +138,47 @@ public class RestLog {
                 syncOrAsync, uuid, costTimeMillis, status, headers, singleLine(contentType, body));
     }
 
+    private Object streamBody(InputStream body, String contentType, boolean textBody) {
+        if (textBody) return PrimitiveDecoders.text(body);
+        if (codecs == null || !codecs.isBinaryResponse()) return body;
+        // like the error messages in text
+        if (!codecs.isBinaryResponse(contentType)) return PrimitiveDecoders.text(body);
+
+        return previewResponse(body);
+    }
+
+    // unirest reads the whole response into a byte array stream, which is reset for the decoding
+    private Object previewResponse(InputStream body) {
+        if (!(body instanceof ByteArrayInputStream)) return body;
+
+        val output = new PooledOutputStream();
+        try {
+            ByteStreams.copy(body, output);
+            return new Preview(codecs.previewResponse(output.buffer(), 0, output.size()));
+        } catch (IOException e) {
+            return body;
+        } finally {
+            ((ByteArrayInputStream) body).reset();
+            output.release();
+        }
+    }
+
+    /**
+     * The readable binary body, logged as is.
+     */
+    private static class Preview {
+        private final String text;
+
+        Preview(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
     public void log(String status) {
         if (!logger.isInfoEnabled()) return;
 
@@ -113,6 +195,7 @@ public class RestLog {
     public String singleLine(String contentType, Object object) {
         if (containsIgnoreCase(contentType, "image")) return "<image>";
         if (object instanceof InputStream) return "<inputstream>";
+        if (object instanceof Preview) return object.toString();
 
         String str = "" + object;
         String s = lineBreakPattern.matcher(str).replaceAll("\\n");
@@ -1,35 +1,55 @@
 package com.github.bingoohuang.springrestclient.utils;
 
 import com.github.bingoohuang.springrestclient.annotations.SuccInResponseJSONProperty;
+import com.github.bingoohuang.springrestclient.annotations.Timeout;
+import com.github.bingoohuang.springrestclient.breaker.RestCircuitBreaker;
+import com.github.bingoohuang.springrestclient.codec.MethodCodecs;
+import com.github.bingoohuang.springrestclient.exception.DeadlineExceededException;
 import com.github.bingoohuang.springrestclient.exception.RestException;
+import com.github.bingoohuang.springrestclient.metrics.RestExchange;
+import com.github.bingoohuang.springrestclient.metrics.RestMetrics;
 import com.github.bingoohuang.springrestclient.provider.BaseUrlProvider;
 import com.github.bingoohuang.springrestclient.provider.BasicAuthProvider;
 import com.github.bingoohuang.springrestclient.provider.SignProvider;
-import com.github.bingoohuang.springrestclient.xml.Xmls;
+import com.github.bingoohuang.springrestclient.replay.RestRecorder;
+import com.github.bingoohuang.springrestclient.retry.RetryPolicy;
+import com.github.bingoohuang.springrestclient.timeout.Deadline;
+import com.github.bingoohuang.springrestclient.trace.RestTrace;
+import com.github.bingoohuang.springrestclient.trace.RestTracer;
+import com.github.bingoohuang.springrestclient.trace.TracePhase;
+import com.github.bingoohuang.springrestclient.transport.ClientPools;
+import com.github.bingoohuang.springrestclient.transport.UnirestTransport;
 import com.github.bingoohuang.utils.codec.Json;
+import com.google.common.base.Charsets;
 import com.google.common.base.Strings;
+import com.google.common.base.Utf8;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.mashape.unirest.http.HttpResponse;
 import com.mashape.unirest.http.Unirest;
 import com.mashape.unirest.http.exceptions.UnirestException;
 import com.mashape.unirest.request.BaseRequest;
 import com.mashape.unirest.request.HttpRequest;
 import com.mashape.unirest.request.HttpRequestWithBody;
-import com.mashape.unirest.request.ValueUtils;
 import com.mashape.unirest.request.body.MultipartBody;
+import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.springframework.context.ApplicationContext;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.InputStream;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+@Slf4j
 public class RestReq {
     final SuccInResponseJSONProperty succInResponseJSONProperty;
     final Map<String, Object> fixedRequestParams;
@@ -37,48 +57,107 @@ public class RestReq {
     final Class<?> apiClass;
     final BaseUrlProvider baseUrlProvider;
     final String prefix;
+    final RouteTemplate routeTemplate;
     final Map<String, Object> routeParams;
     final Map<String, Object> requestParams;
+    final PrimitiveParams primitiveParams;
     final Map<String, Object> cookies;
     final RestLog restLog;
+    final boolean primitiveReturn;
     final SignProvider signProvider;
     final ApplicationContext appContext;
     final RequestParamsHelper requestParamsHelper;
-    final String firstConsume;
+    final MethodCodecs codecs;
     final BasicAuthProvider basicAuthProvider;
+    final RestCircuitBreaker circuitBreaker;
+    volatile long circuitBreakerPermit = RestCircuitBreaker.NOT_PERMITTED;
+    final RetryPolicy retryPolicy;
+    final Timeout timeout;
+    final String methodName;
+    final RestMetrics restMetrics;
+    long serializationNanos = -1;
+    final RestTrace trace;
+    final long createdNanos;
+    Long requestBytes;
+    HttpResponse<?> response;
+
+    final UnirestTransport transport;
 
     RestReq(
+        String methodName,
+        RestMetrics restMetrics,
+        Timeout timeout,
+        RetryPolicy retryPolicy,
+        RestCircuitBreaker circuitBreaker,
         BasicAuthProvider basicAuthProvider,
-        String firstConsume,
+        MethodCodecs codecs,
         SuccInResponseJSONProperty succInResponseJSONProperty,
         Map<String, Object> fixedRequestParams,
         Map<Integer, Class<? extends Throwable>> sendStatusExceptionMappings,
         Class<?> apiClass,
         BaseUrlProvider baseUrlProvider,
-        String prefix,
+        RouteTemplate routeTemplate,
         Map<String, Object> routeParams,
         Map<String, Object> requestParams,
+        PrimitiveParams primitiveParams,
         Map<String, Object> cookies,
         boolean async,
+        boolean primitiveReturn,
         SignProvider signProvider,
         ApplicationContext appContext) {
+        this.methodName = methodName;
+        this.restMetrics = restMetrics;
+        this.timeout = timeout;
+        this.retryPolicy = retryPolicy;
+        this.circuitBreaker = circuitBreaker;
         this.basicAuthProvider = basicAuthProvider;
-        this.firstConsume = firstConsume;
+        this.codecs = codecs;
         this.succInResponseJSONProperty = succInResponseJSONProperty;
         this.fixedRequestParams = fixedRequestParams;
         this.sendStatusExceptionMappings = sendStatusExceptionMappings;
         this.apiClass = apiClass;
+        this.transport = ClientPools.transport(apiClass);
         this.baseUrlProvider = baseUrlProvider;
-        this.prefix = prefix;
+        this.routeTemplate = routeTemplate;
+        this.prefix = routeTemplate.getTemplate();
         this.routeParams = routeParams;
         this.requestParams = requestParams;
+        this.primitiveParams = unboxedParams(primitiveParams, requestParams, fixedRequestParams, signProvider);
         this.cookies = cookies;
-        this.restLog = new RestLog(apiClass, async);
+        this.primitiveReturn = primitiveReturn;
+        this.restLog = new RestLog(apiClass, async, codecs);
         this.signProvider = signProvider;
         this.appContext = appContext;
 
         this.requestParamsHelper = new RequestParamsHelper(
             fixedRequestParams, requestParams, appContext);
+        this.trace = RestTracer.current();
+        this.createdNanos = System.nanoTime();
+    }
+
+    /*
+     * The primitive request params are kept unboxed unless the params map is needed by others,
+     * the sign provider signing the params, or the bean params which may be delayed ones computed from them.
+     */
+    private static PrimitiveParams unboxedParams(PrimitiveParams primitiveParams,
+                                                 Map<String, Object> requestParams,
+                                                 Map<String, Object> fixedRequestParams,
+                                                 SignProvider signProvider) {
+        if (primitiveParams == null) return null;
+        if (signProvider == null && !hasBeanParams(fixedRequestParams)) return primitiveParams;
+
+        primitiveParams.boxInto(requestParams);
+        return null;
+    }
+
+    private static boolean hasBeanParams(Map<String, Object> fixedRequestParams) {
+        if (fixedRequestParams == null) return false;
+
+        for (Object value : fixedRequestParams.values()) {
+            if (value instanceof Class && value != void.class) return true;
+        }
+
+        return false;
     }
 
     static ThreadLocal<HttpResponse<?>> lastResponseTL;
@@ -91,51 +170,49 @@ public class RestReq {
         return lastResponseTL.get();
     }
 
+    /**
+     * The trace of the last call from the current thread, null when not traced.
+     */
+    public static RestTrace lastTrace() {
+        return RestTracer.current();
+    }
+
     public String get() throws Throwable {
-        String url = createUrl();
+        String url = createUrl(requestParamsHelper.mergeRequestParamsForGet(), PrimitiveParams.Target.GET);
         HttpRequest get = Unirest.get(url);
         setRouteParamsAndCookie(get);
 
-        get.queryString(requestParamsHelper.mergeRequestParamsForGet());
-
         return request(null, get);
     }
 
     public InputStream getBinary() throws Throwable {
-        String url = createUrl();
+        String url = createUrl(requestParamsHelper.mergeRequestParamsForGet(), PrimitiveParams.Target.GET);
         HttpRequest get = Unirest.get(url);
         setRouteParamsAndCookie(get);
 
-        get.queryString(requestParamsHelper.mergeRequestParamsForGet());
-
         return requestBinary(null, get);
     }
 
     public Future<HttpResponse<String>> getAsync() throws Throwable {
-        String url = createUrl();
+        String url = createUrl(requestParamsHelper.mergeRequestParamsForGet(), PrimitiveParams.Target.GET);
         HttpRequest get = Unirest.get(url);
         setRouteParamsAndCookie(get);
 
-        get.queryString(requestParamsHelper.mergeRequestParamsForGet());
-
         return requestAsync(null, get);
     }
 
     public Future<HttpResponse<InputStream>> getAsyncBinary() throws Throwable {
-        String url = createUrl();
+        String url = createUrl(requestParamsHelper.mergeRequestParamsForGet(), PrimitiveParams.Target.GET);
         HttpRequest get = Unirest.get(url);
         setRouteParamsAndCookie(get);
 
-        get.queryString(requestParamsHelper.mergeRequestParamsForGet());
-
         return requestAsyncBinary(null, get);
     }
 
     public String post() throws Throwable {
-        String url = createUrl();
+        String url = createUrl(requestParamsHelper.createQueryParamsForPost(), PrimitiveParams.Target.POST_QUERY);
         HttpRequestWithBody post = Unirest.post(url);
         setRouteParamsAndCookie(post);
-        post.queryString(requestParamsHelper.createQueryParamsForPost());
 
         val requestParams = requestParamsHelper.mergeRequestParamsWithoutQueryParams();
         BaseRequest fields = fields(post, requestParams);
@@ -144,10 +221,9 @@ public class RestReq {
     }
 
     public InputStream postBinary() throws Throwable {
-        String url = createUrl();
+        String url = createUrl(requestParamsHelper.createQueryParamsForPost(), PrimitiveParams.Target.POST_QUERY);
         HttpRequestWithBody post = Unirest.post(url);
         setRouteParamsAndCookie(post);
-        post.queryString(requestParamsHelper.createQueryParamsForPost());
 
         val requestParams = requestParamsHelper.mergeRequestParamsWithoutQueryParams();
         BaseRequest fields = fields(post, requestParams);
@@ -158,24 +234,28 @@ public class RestReq {
 
     private BaseRequest fields(
         HttpRequestWithBody post, Map<String, Object> requestParams) {
+        boolean primitives = primitiveParams != null && !primitiveParams.isEmpty(PrimitiveParams.Target.POST_FORM);
+        if (requestParams.isEmpty() && !primitives) return post;
+        if (!hasFiles(requestParams)) {
+            post.header("Content-Type", FormEncoder.CONTENT_TYPE);
+            byte[] form = FormEncoder.encodeForm(requestParams, primitiveParams);
+            requestBytes = (long) form.length;
+            return post.body(form);
+        }
+
+        // the multipart fields are set one by one from the params map
+        if (primitives) primitiveParams.boxInto(requestParams, PrimitiveParams.Target.POST_FORM);
+
         MultipartBody field = null;
 
         for (Map.Entry<String, Object> entry : requestParams.entrySet()) {
             Object value = entry.getValue();
-            boolean isFileCollection = false;
-            if (value instanceof Collection) {
-                isFileCollection = true;
+            boolean isFileCollection = isFileCollection(value);
+            if (isFileCollection) {
                 for (Object o : (Collection) value) {
-                    if (o instanceof File || o instanceof MultipartFile)
-                        field = fieldFileOrElse(post, field, entry, o);
-                    else {
-                        isFileCollection = false;
-                        break;
-                    }
+                    field = fieldFileOrElse(post, field, entry, o);
                 }
-            }
-
-            if (!isFileCollection) {
+            } else {
                 field = fieldFileOrElse(post, field, entry, value);
             }
         }
@@ -183,6 +263,28 @@ public class RestReq {
         return field == null ? post : field;
     }
 
+    private boolean hasFiles(Map<String, Object> requestParams) {
+        for (Object value : requestParams.values()) {
+            if (isFile(value) || isFileCollection(value)) return true;
+        }
+
+        return false;
+    }
+
+    private boolean isFile(Object value) {
+        return value instanceof File || value instanceof MultipartFile;
+    }
+
+    private boolean isFileCollection(Object value) {
+        if (!(value instanceof Collection)) return false;
+
+        for (Object o : (Collection) value) {
+            if (!isFile(o)) return false;
+        }
+
+        return true;
+    }
+
     private MultipartBody fieldFileOrElse(HttpRequestWithBody post,
                                           MultipartBody field,
                                           Map.Entry<String, Object> entry,
@@ -203,10 +305,9 @@ public class RestReq {
     }
 
     public Future<HttpResponse<String>> postAsync() throws Throwable {
-        String url = createUrl();
+        String url = createUrl(requestParamsHelper.createQueryParamsForPost(), PrimitiveParams.Target.POST_QUERY);
         val post = Unirest.post(url);
         setRouteParamsAndCookie(post);
-        post.queryString(requestParamsHelper.createQueryParamsForPost());
 
         val requestParams = requestParamsHelper.mergeRequestParamsWithoutQueryParams();
         BaseRequest fields = fields(post, requestParams);
@@ -215,10 +316,9 @@ public class RestReq {
     }
 
     public Future<HttpResponse<InputStream>> postAsyncBinary() throws Throwable {
-        String url = createUrl();
+        String url = createUrl(requestParamsHelper.createQueryParamsForPost(), PrimitiveParams.Target.POST_QUERY);
         val post = Unirest.post(url);
         setRouteParamsAndCookie(post);
-        post.queryString(requestParamsHelper.createQueryParamsForPost());
 
         val requestParams = requestParamsHelper.mergeRequestParamsWithoutQueryParams();
         BaseRequest fields = fields(post, requestParams);
@@ -244,11 +344,6 @@ public class RestReq {
                 .Blackcat.prepareRPC(httpRequest);
         }
 
-        for (Map.Entry<String, Object> entry : routeParams.entrySet()) {
-            String value = String.valueOf(entry.getValue());
-            httpRequest.routeParam(entry.getKey(), value);
-        }
-
         val cookieStr = new StringBuilder();
         for (Map.Entry<String, Object> entry : cookies.entrySet()) {
             String value = String.valueOf(entry.getValue());
@@ -257,6 +352,8 @@ public class RestReq {
         if (cookieStr.length() > 0)
             httpRequest.header("Cookie", cookieStr.toString());
 
+        val accept = codecs == null ? null : codecs.getAcceptContentType();
+        if (accept != null) httpRequest.header("Accept", accept);
 
         if (basicAuthProvider != null) {
             httpRequest.basicAuth(basicAuthProvider.username(), basicAuthProvider.password());
@@ -265,134 +362,262 @@ public class RestReq {
 
     public String postBody(Object bean) throws Throwable {
         val post = createPost();
-
-        val body = createBody(post, bean);
-        post.body(body);
-
-        val requestParams = createJsonBody(body);
+        val requestParams = setBody(post, bean);
 
         return request(requestParams, post);
     }
 
     public InputStream postBodyBinary(Object bean) throws Throwable {
         val post = createPost();
-
-        val body = createBody(post, bean);
-        post.body(body);
-
-        val requestParams = createJsonBody(body);
+        val requestParams = setBody(post, bean);
 
         return requestBinary(requestParams, post);
     }
 
     public Future<HttpResponse<String>> postBodyAsync(Object bean) throws Throwable {
         val post = createPost();
-
-        val body = createBody(post, bean);
-        post.body(body);
-
-        Map<String, Object> requestParams = createJsonBody(body);
+        val requestParams = setBody(post, bean);
 
         return requestAsync(requestParams, post);
     }
 
     public Future<HttpResponse<InputStream>> postBodyAsyncBinary(Object bean) throws Throwable {
         val post = createPost();
+        val requestParams = setBody(post, bean);
 
-        val body = createBody(post, bean);
-        post.body(body);
+        return requestAsyncBinary(requestParams, post);
+    }
 
-        val requestParams = createJsonBody(body);
+    /**
+     * The bean returns, decoded from the response text or from the bytes of a binary response.
+     */
+    public Object getBean() throws Throwable {
+        String url = createUrl(requestParamsHelper.mergeRequestParamsForGet(), PrimitiveParams.Target.GET);
+        HttpRequest get = Unirest.get(url);
+        setRouteParamsAndCookie(get);
 
-        return requestAsyncBinary(requestParams, post);
+        return decode(request(null, get, responseClass()));
     }
 
+    public Object postBean() throws Throwable {
+        String url = createUrl(requestParamsHelper.createQueryParamsForPost(), PrimitiveParams.Target.POST_QUERY);
+        HttpRequestWithBody post = Unirest.post(url);
+        setRouteParamsAndCookie(post);
 
-    private Map<String, Object> createJsonBody(String body) {
-        Map<String, Object> requestParams = Maps.newHashMap();
-        requestParams.put("_json", body);
-        return requestParams;
+        val requestParams = requestParamsHelper.mergeRequestParamsWithoutQueryParams();
+        BaseRequest fields = fields(post, requestParams);
+
+        return decode(request(requestParams, fields, responseClass()));
+    }
+
+    public Object postBodyBean(Object bean) throws Throwable {
+        val post = createPost();
+        val requestParams = setBody(post, bean);
+
+        return decode(request(requestParams, post, responseClass()));
     }
 
+    public Future<HttpResponse<?>> getAsyncBean() throws Throwable {
+        String url = createUrl(requestParamsHelper.mergeRequestParamsForGet(), PrimitiveParams.Target.GET);
+        HttpRequest get = Unirest.get(url);
+        setRouteParamsAndCookie(get);
+
+        return (Future) requestAsync(null, get, responseClass());
+    }
+
+    public Future<HttpResponse<?>> postAsyncBean() throws Throwable {
+        String url = createUrl(requestParamsHelper.createQueryParamsForPost(), PrimitiveParams.Target.POST_QUERY);
+        val post = Unirest.post(url);
+        setRouteParamsAndCookie(post);
+
+        val requestParams = requestParamsHelper.mergeRequestParamsWithoutQueryParams();
+        BaseRequest fields = fields(post, requestParams);
+
+        return (Future) requestAsync(requestParams, fields, responseClass());
+    }
+
+    public Future<HttpResponse<?>> postBodyAsyncBean(Object bean) throws Throwable {
+        val post = createPost();
+        val requestParams = setBody(post, bean);
+
+        return (Future) requestAsync(requestParams, post, responseClass());
+    }
+
+    private Class<?> responseClass() {
+        return codecs.isBinaryResponse() ? InputStream.class : String.class;
+    }
 
     private HttpRequestWithBody createPost() {
-        String url = createUrl();
+        String url = createUrl(requestParamsHelper.mergeRequestParamsForGet(), PrimitiveParams.Target.GET);
         val post = Unirest.post(url);
         setRouteParamsAndCookie(post);
-        post.queryString(requestParamsHelper.mergeRequestParamsForGet());
         return post;
     }
 
-    private String createBody(HttpRequestWithBody post, Object bean) {
-        if (firstConsume != null && firstConsume.indexOf("/xml") >= 0) {
-            post.header("Content-Type", "application/xml;charset=UTF-8");
-            return Xmls.marshal(bean);
-        } else {
-            post.header("Content-Type", "application/json;charset=UTF-8");
-            return ValueUtils.processValue(bean);
+    /*
+     * Encodes the bean as the request body,
+     * the text body is signed as the _json param and the binary one as the _binary param.
+     */
+    private Map<String, Object> setBody(HttpRequestWithBody post, Object bean) {
+        long start = System.nanoTime();
+        Map<String, Object> requestParams = Maps.newHashMap();
+        try {
+            post.header("Content-Type", codecs.getRequestContentType());
+            if (codecs.isBinaryRequest()) {
+                byte[] body = codecs.encodeBinary(bean);
+                requestBytes = (long) body.length;
+                post.body(body);
+                // the streamed xml is still signed as text, the binary bodies by their bytes
+                if (codecs.isTextRequest()) requestParams.put("_json", new String(body, Charsets.UTF_8));
+                else requestParams.put("_binary", body);
+            } else {
+                String body = codecs.encode(bean);
+                requestBytes = (long) Utf8.encodedLength(body);
+                post.body(body);
+                requestParams.put("_json", body);
+            }
+            return requestParams;
+        } finally {
+            serializationNanos = System.nanoTime() - start;
+            if (trace != null) trace.record(TracePhase.SERIALIZE, 0, start, serializationNanos);
         }
     }
 
     private String request(Map<String, Object> reqParams, BaseRequest httpReq)
         throws Throwable {
-        boolean loggedResponse = false;
-        try {
-            restLog.logAndSign(signProvider, reqParams, httpReq.getHttpRequest());
-            lastResponseTL.remove();
-            val response = httpReq.asString();
-            restLog.log(response);
-            loggedResponse = true;
-            lastResponseTL.set(response);
-
-            if (isSuccessful(response))
-                return RestClientUtils.nullOrBody(response);
-
-            throw processStatusExceptionMappings(response);
-        } catch (UnirestException e) {
-            if (!loggedResponse) restLog.log(e);
-            throw new RuntimeException(e);
-        } catch (Throwable e) {
-            if (!loggedResponse) restLog.log(e);
-            throw e;
-        }
+        return request(reqParams, httpReq, String.class);
     }
 
     private InputStream requestBinary(Map<String, Object> reqParams, BaseRequest httpReq)
         throws Throwable {
+        return request(reqParams, httpReq, InputStream.class);
+    }
+
+    private <T> T request(Map<String, Object> reqParams, BaseRequest httpReq, Class<T> responseClass)
+        throws Throwable {
+        acquireCircuitBreakerPermission();
+
+        boolean permitHeld = circuitBreaker != null;
         boolean loggedResponse = false;
         try {
-            restLog.logAndSign(signProvider, reqParams, httpReq.getHttpRequest());
+            val httpRequest = httpReq.getHttpRequest();
+            traceBeforeSend(httpRequest);
+            restLog.logAndSign(signProvider, reqParams, httpRequest);
+            traceSigning();
             lastResponseTL.remove();
-            val response = httpReq.asBinary();
-            restLog.log(response);
-            loggedResponse = true;
-            lastResponseTL.set(response);
+            if (retryPolicy != null) retryPolicy.onCall();
+
+            val deadline = Deadline.of(timeout);
+            for (int attempt = 1; ; ++attempt) {
+                loggedResponse = false;
+                checkDeadline(deadline, null);
+
+                long start = System.nanoTime();
+                HttpResponse<T> response;
+                try {
+                    response = transport.request(httpRequest, responseClass, timeout, deadline, trace, attempt);
+                } catch (UnirestException e) {
+                    long costNanos = System.nanoTime() - start;
+                    restLog.log(e);
+                    loggedResponse = true;
+                    recordMetrics(httpRequest, attempt, null, e, costNanos);
+                    if (circuitBreaker != null) circuitBreaker.onError(costNanos);
+                    permitHeld = false;
+                    checkDeadline(deadline, e);
+
+                    long backoff = retryPolicy == null ? -1
+                        : retryPolicy.retryBackoffMillis(attempt, deadline, httpRequest.getHttpMethod(), e);
+                    if (backoff >= 0 && permitsRetry(attempt, e)) {
+                        permitHeld = circuitBreaker != null;
+                        backoff(attempt, backoff);
+                        continue;
+                    }
+
+                    throw new RuntimeException(e);
+                }
 
-            if (isSuccessful(response))
-                return RestClientUtils.nullOrBody(response);
+                long costNanos = System.nanoTime() - start;
+                restLog.log(response, primitiveReturn);
+                loggedResponse = true;
+                lastResponseTL.set(response);
+                this.response = response;
+                recordMetrics(httpRequest, attempt, response, null, costNanos);
+                recordExchange(httpRequest, response, costNanos);
+                if (circuitBreaker != null)
+                    circuitBreaker.onResponse(response.getStatus(), costNanos);
+                permitHeld = false;
+
+                long backoff = retryPolicy == null ? -1
+                    : retryPolicy.retryBackoffMillis(attempt, deadline, response.getStatus());
+                if (backoff >= 0 && permitsRetry(attempt, response.getStatus())) {
+                    permitHeld = circuitBreaker != null;
+                    backoff(attempt, backoff);
+                    continue;
+                }
 
-            throw processStatusExceptionMappings(response);
-        } catch (UnirestException e) {
-            if (!loggedResponse) restLog.log(e);
-            throw new RuntimeException(e);
+                if (isSuccessful(response))
+                    return RestClientUtils.nullOrBody(response);
+
+                throw processStatusExceptionMappings(response);
+            }
         } catch (Throwable e) {
             if (!loggedResponse) restLog.log(e);
+            RestTracer.finish(trace, e);
             throw e;
+        } finally {
+            // ended without an outcome, like by the sign provider or the deadline
+            if (permitHeld) releaseCircuitBreakerPermission();
         }
     }
 
+    private void backoff(int attempt, long backoffMillis) throws InterruptedException {
+        long start = System.nanoTime();
+        Thread.sleep(backoffMillis);
+        if (trace != null) trace.record(TracePhase.BACKOFF, attempt, start);
+    }
+
+    private void traceBeforeSend(HttpRequest httpRequest) {
+        if (trace == null) return;
+
+        trace.record(TracePhase.PREPARE, 0, createdNanos);
+        httpRequest.header(RestTrace.TRACEPARENT_HEADER, trace.getTraceparent());
+    }
+
+    private void traceSigning() {
+        if (trace == null || restLog.getSigningNanos() < 0) return;
+
+        trace.record(TracePhase.SIGN, 0, restLog.getSigningStartNanos(), restLog.getSigningNanos());
+    }
+
     private Future<HttpResponse<String>> requestAsync(
         Map<String, Object> reqParams, BaseRequest httpReq)
         throws Throwable {
-        restLog.logAndSign(signProvider, reqParams, httpReq.getHttpRequest());
-        lastResponseTL.remove(); // clear response threadlocal before execution
-        val callback = new UniRestCallback<String>(apiClass, restLog);
-        val future = httpReq.asStringAsync(callback);
+        return requestAsync(reqParams, httpReq, String.class);
+    }
+
+    private Future<HttpResponse<InputStream>> requestAsyncBinary(
+        Map<String, Object> reqParams, BaseRequest httpReq)
+        throws Throwable {
+        return requestAsync(reqParams, httpReq, InputStream.class);
+    }
+
+    private <T> Future<HttpResponse<T>> requestAsync(
+        Map<String, Object> reqParams, BaseRequest httpReq, Class<T> responseClass)
+        throws Throwable {
+        acquireCircuitBreakerPermission();
+
+        val callback = sendAsync(reqParams, httpReq, responseClass);
+
+        // listenable, so the fan-out refills its window on the completions without polling
+        return new ListenableFuture<HttpResponse<T>>() {
+            @Override
+            public void addListener(Runnable listener, Executor executor) {
+                callback.addListener(listener, executor);
+            }
 
-        return new Future<HttpResponse<String>>() {
             @Override
             public boolean cancel(boolean mayInterruptIfRunning) {
-                return future.cancel(mayInterruptIfRunning);
+                return callback.cancel(mayInterruptIfRunning);
             }
 
             @Override
@@ -406,55 +631,133 @@ public class RestReq {
             }
 
             @Override
-            public HttpResponse<String> get()
+            public HttpResponse<T> get()
                 throws InterruptedException, ExecutionException {
                 return callback.get();
             }
 
             @Override
-            public HttpResponse<String> get(long timeout, TimeUnit unit)
+            public HttpResponse<T> get(long timeout, TimeUnit unit)
                 throws InterruptedException, ExecutionException, TimeoutException {
                 return callback.get(unit.toMillis(timeout));
             }
         };
     }
 
-    private Future<HttpResponse<InputStream>> requestAsyncBinary(
-        Map<String, Object> requestParams, BaseRequest httpRequest)
-        throws Throwable {
-        restLog.logAndSign(signProvider, requestParams, httpRequest.getHttpRequest());
-        lastResponseTL.remove(); // clear response threadlocal before execution
-        val callback = new UniRestCallback<InputStream>(apiClass, restLog);
-        val future = httpRequest.asBinaryAsync(callback);
+    /*
+     * The callback records the outcome of the sent request,
+     * the permission is released when it could not be sent.
+     */
+    private <T> UniRestCallback<T> sendAsync(
+        Map<String, Object> reqParams, BaseRequest httpReq, Class<T> responseClass) {
+        boolean sent = false;
+        try {
+            RestTracer.detachAsync();
+            traceBeforeSend(httpReq.getHttpRequest());
+            restLog.logAndSign(signProvider, reqParams, httpReq.getHttpRequest());
+            traceSigning();
+            lastResponseTL.remove(); // clear response threadlocal before execution
+            if (retryPolicy != null) retryPolicy.onCall();
+            val deadline = Deadline.of(timeout);
+            checkDeadline(deadline, null);
+            val callback = new UniRestCallback<T>(this, httpReq.getHttpRequest(), responseClass, deadline);
+            callback.send();
+            sent = true;
+            return callback;
+        } finally {
+            if (!sent) releaseCircuitBreakerPermission();
+        }
+    }
 
-        return new Future<HttpResponse<InputStream>>() {
-            @Override
-            public boolean cancel(boolean mayInterruptIfRunning) {
-                return future.cancel(mayInterruptIfRunning);
-            }
+    void releaseCircuitBreakerPermission() {
+        if (circuitBreaker != null) circuitBreaker.releasePermission(circuitBreakerPermit);
+    }
 
-            @Override
-            public boolean isCancelled() {
-                return callback.isCancelled();
-            }
+    private boolean tryAcquireCircuitBreakerPermission() {
+        if (circuitBreaker == null) return true;
 
-            @Override
-            public boolean isDone() {
-                return callback.isDone();
-            }
+        circuitBreakerPermit = circuitBreaker.acquirePermit();
+        return circuitBreakerPermit != RestCircuitBreaker.NOT_PERMITTED;
+    }
 
-            @Override
-            public HttpResponse<InputStream> get()
-                throws InterruptedException, ExecutionException {
-                return callback.get();
-            }
+    private void acquireCircuitBreakerPermission() throws Throwable {
+        if (tryAcquireCircuitBreakerPermission()) return;
 
-            @Override
-            public HttpResponse<InputStream> get(long timeout, TimeUnit unit)
-                throws InterruptedException, ExecutionException, TimeoutException {
-                return callback.get(unit.toMillis(timeout));
-            }
-        };
+        String msg = "circuit breaker " + circuitBreaker.getName() + " is open";
+        throw Obj.createObject(circuitBreaker.getOpenException(), msg);
+    }
+
+    void recordMetrics(HttpRequest httpRequest, int attempt,
+                       HttpResponse<?> response, Throwable e, long costNanos) {
+        if (restMetrics == null) return;
+
+        val exchange = new RestExchange(apiClass, methodName, prefix, httpRequest.getHttpMethod().name())
+            .attempt(attempt)
+            .durationNanos(costNanos)
+            .requestBytes(getRequestBytes(httpRequest))
+            .serializationNanos(serializationNanos)
+            .signingNanos(restLog.getSigningNanos());
+        if (response != null) {
+            exchange.status(response.getStatus()).responseBytes(getResponseBytes(response));
+        } else {
+            exchange.exception(e);
+        }
+
+        try {
+            restMetrics.record(exchange);
+        } catch (Throwable ex) {
+            log.warn("failed to record metrics of {}", exchange, ex);
+        }
+    }
+
+    void recordExchange(HttpRequest httpRequest, HttpResponse<?> response, long costNanos) {
+        if (!RestRecorder.isRecording()) return;
+
+        val recordedParams = primitiveParams == null ? requestParams
+            : primitiveParams.boxInto(new LinkedHashMap<String, Object>(requestParams));
+        RestRecorder.record(apiClass, methodName, prefix, routeParams, recordedParams, cookies,
+            httpRequest, response, costNanos);
+    }
+
+    /*
+     * The length of the encoded body, the multipart body is not measured,
+     * which would be built again by its entity.
+     */
+    private long getRequestBytes(HttpRequest httpRequest) {
+        if (requestBytes != null) return requestBytes;
+
+        return httpRequest.getBody() == null ? 0L : -1L;
+    }
+
+    private long getResponseBytes(HttpResponse<?> response) {
+        // unirest reads the whole response body into a byte array stream
+        val rawBody = response.getRawBody();
+        return rawBody instanceof ByteArrayInputStream ? ((ByteArrayInputStream) rawBody).available() : -1;
+    }
+
+    private void checkDeadline(Deadline deadline, Throwable cause) {
+        if (deadline == null || !deadline.isExpired()) return;
+
+        throw new DeadlineExceededException("deadline exceeded for " + prefix, cause);
+    }
+
+    /*
+     * The circuit breaker is asked first, so a refused retry does not cost a retry budget token.
+     */
+    boolean permitsRetry(int attempt, Throwable e) {
+        if (!tryAcquireCircuitBreakerPermission()) return false;
+        if (retryPolicy.withdraw(attempt, e)) return true;
+
+        releaseCircuitBreakerPermission();
+        return false;
+    }
+
+    boolean permitsRetry(int attempt, int status) {
+        if (!tryAcquireCircuitBreakerPermission()) return false;
+        if (retryPolicy.withdraw(attempt, status)) return true;
+
+        releaseCircuitBreakerPermission();
+        return false;
     }
 
     public Throwable processStatusExceptionMappings(HttpResponse<?> response)
@@ -464,7 +767,12 @@ public class RestReq {
         String msg = response.header("error-msg");
         if (Strings.isNullOrEmpty(msg)) {
             Object body = response.getBody();
-            msg = body instanceof InputStream ? "" : ("" + body);
+            if (body instanceof InputStream) {
+                boolean textBody = primitiveReturn || codecs != null && codecs.isBinaryResponse();
+                msg = textBody ? PrimitiveDecoders.text((InputStream) body) : "";
+            } else {
+                msg = "" + body;
+            }
         }
 
         if (exceptionClass == null)
@@ -473,17 +781,38 @@ public class RestReq {
         throw Obj.createObject(exceptionClass, msg);
     }
 
-    private String createUrl() {
+    private String createUrl(Map<String, Object> queryParams, PrimitiveParams.Target target) {
         String baseUrl = baseUrlProvider.getBaseUrl(apiClass);
         if (Strings.isNullOrEmpty(baseUrl)) {
             throw new RuntimeException(
                 "base url cannot be null generated by provider "
                     + baseUrlProvider.getClass());
         }
-        return baseUrl + prefix;
+
+        val url = new StringBuilder(baseUrl.length() + routeTemplate.estimatedLength() + queryParams.size() * 32);
+        url.append(baseUrl);
+        routeTemplate.render(url, routeParams);
+        FormEncoder.appendQuery(url, queryParams, primitiveParams, target);
+        return url.toString();
     }
 
 
+    private Object decode(Object body) {
+        if (body == null) return null;
+
+        long start = System.nanoTime();
+        try {
+            return decode(body, response);
+        } finally {
+            RestTracer.record(TracePhase.UNMARSHAL, start);
+        }
+    }
+
+    Object decode(Object body, HttpResponse<?> response) {
+        val contentType = response == null ? null : response.header("Content-Type");
+        return codecs.decode(body, contentType);
+    }
+
     public boolean isSuccessful(HttpResponse<?> response) {
         int status = response.getStatus();
         boolean isHttpSucc = status >= 200 && status < 300;
@@ -493,7 +822,12 @@ public class RestReq {
         if (!RestClientUtils.isResponseJsonContentType(response)) return true;
 
         Object body = response.getBody();
-        if (body instanceof InputStream) return true;
+        if (body instanceof InputStream) {
+            if (!primitiveReturn) return true;
+
+            // the primitive is decoded from the bytes, but the json property is still checked on the text
+            body = PrimitiveDecoders.text((InputStream) body);
+        }
 
         Map<String, Object> map = Json.unJson("" + body);
         String key = succInResponseJSONProperty.key();
@@ -1,9 +1,14 @@
 package com.github.bingoohuang.springrestclient.utils;
 
 import com.github.bingoohuang.springrestclient.annotations.SuccInResponseJSONProperty;
+import com.github.bingoohuang.springrestclient.annotations.Timeout;
+import com.github.bingoohuang.springrestclient.breaker.RestCircuitBreaker;
+import com.github.bingoohuang.springrestclient.codec.MethodCodecs;
+import com.github.bingoohuang.springrestclient.metrics.RestMetrics;
 import com.github.bingoohuang.springrestclient.provider.BaseUrlProvider;
 import com.github.bingoohuang.springrestclient.provider.BasicAuthProvider;
 import com.github.bingoohuang.springrestclient.provider.SignProvider;
+import com.github.bingoohuang.springrestclient.retry.RetryPolicy;
 import org.springframework.context.ApplicationContext;
 
 import java.util.Map;
@@ -14,23 +19,55 @@ public class RestReqBuilder {
     Map<Integer, Class<? extends Throwable>> statusExceptionMapping;
     Class<?> apiClass;
     BaseUrlProvider baseUrlProvider;
-    String prefix;
+    RouteTemplate routeTemplate;
     Map<String, Object> routeParams;
     Map<String, Object> requestParams;
+    PrimitiveParams primitiveParams;
     Map<String, Object> cookies;
     boolean async;
+    boolean primitiveReturn;
     SignProvider signProvider;
     ApplicationContext appContext;
-    String firstConsume; // consumes = {"application/xml"}
+    MethodCodecs codecs;
     BasicAuthProvider basicAuthProvider;
+    RestCircuitBreaker circuitBreaker;
+    RetryPolicy retryPolicy;
+    Timeout timeout;
+    String methodName;
+    RestMetrics restMetrics;
+
+    public RestReqBuilder methodName(String methodName) {
+        this.methodName = methodName;
+        return this;
+    }
+
+    public RestReqBuilder restMetrics(RestMetrics restMetrics) {
+        this.restMetrics = restMetrics;
+        return this;
+    }
+
+    public RestReqBuilder timeout(Timeout timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    public RestReqBuilder retryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    public RestReqBuilder circuitBreaker(RestCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+        return this;
+    }
 
     public RestReqBuilder basicAuthProvider(BasicAuthProvider basicAuthProvider) {
         this.basicAuthProvider = basicAuthProvider;
         return this;
     }
 
-    public RestReqBuilder firstConsume(String firstConsume) {
-        this.firstConsume = firstConsume;
+    public RestReqBuilder codecs(MethodCodecs codecs) {
+        this.codecs = codecs;
         return this;
     }
 
@@ -50,8 +87,18 @@ public class RestReqBuilder {
         return this;
     }
 
+    public RestReqBuilder primitiveReturn(boolean primitiveReturn) {
+        this.primitiveReturn = primitiveReturn;
+        return this;
+    }
+
     public RestReqBuilder prefix(String prefix) {
-        this.prefix = prefix;
+        this.routeTemplate = RouteTemplate.compile(prefix);
+        return this;
+    }
+
+    public RestReqBuilder routeTemplate(RouteTemplate routeTemplate) {
+        this.routeTemplate = routeTemplate;
         return this;
     }
 
@@ -80,6 +127,51 @@ public class RestReqBuilder {
         return this;
     }
 
+    public RestReqBuilder requestParam(String name, byte value) {
+        primitiveParams().add(name, value);
+        return this;
+    }
+
+    public RestReqBuilder requestParam(String name, short value) {
+        primitiveParams().add(name, value);
+        return this;
+    }
+
+    public RestReqBuilder requestParam(String name, int value) {
+        primitiveParams().add(name, value);
+        return this;
+    }
+
+    public RestReqBuilder requestParam(String name, long value) {
+        primitiveParams().add(name, value);
+        return this;
+    }
+
+    public RestReqBuilder requestParam(String name, boolean value) {
+        primitiveParams().add(name, value);
+        return this;
+    }
+
+    public RestReqBuilder requestParam(String name, char value) {
+        primitiveParams().add(name, value);
+        return this;
+    }
+
+    public RestReqBuilder requestParam(String name, float value) {
+        primitiveParams().add(name, value);
+        return this;
+    }
+
+    public RestReqBuilder requestParam(String name, double value) {
+        primitiveParams().add(name, value);
+        return this;
+    }
+
+    private PrimitiveParams primitiveParams() {
+        if (primitiveParams == null) primitiveParams = new PrimitiveParams(4);
+        return primitiveParams;
+    }
+
     public RestReqBuilder routeParams(Map<String, Object> routeParams) {
         this.routeParams = routeParams;
         return this;
@@ -97,18 +189,25 @@ public class RestReqBuilder {
 
     public RestReq build() {
         return new RestReq(
+            methodName,
+            restMetrics,
+            timeout,
+            retryPolicy,
+            circuitBreaker,
             basicAuthProvider,
-            firstConsume,
+            codecs,
             succInResponseJSONProperty,
             fixedRequestParams,
             statusExceptionMapping,
             apiClass,
             baseUrlProvider,
-            prefix,
+            routeTemplate,
             routeParams,
             requestParams,
+            primitiveParams,
             cookies,
             async,
+            primitiveReturn,
             signProvider,
             appContext);
     }
@@ -0,0 +1,150 @@
+package com.github.bingoohuang.springrestclient.utils;
+
+import com.google.common.base.Charsets;
+import lombok.val;
+
+import java.util.*;
+
+/**
+ * Request mapping like {@code /person/{id}} compiled once into literal and variable segments,
+ * rendered after the base url in one pass with the variables percent-encoded.
+ */
+public class RouteTemplate {
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final String template;
+    private final String[] literals; // literals[i] is before variables[i], the last one is after all
+    private final String[] variables;
+    private final Set<String> variableNames;
+    private final int literalsLength;
+
+    private RouteTemplate(String template, List<String> literals, List<String> variables) {
+        this.template = template;
+        this.literals = literals.toArray(new String[literals.size()]);
+        this.variables = variables.toArray(new String[variables.size()]);
+        this.variableNames = new HashSet<String>(variables);
+
+        int length = 0;
+        for (String literal : literals) length += literal.length();
+        this.literalsLength = length;
+    }
+
+    public static RouteTemplate compile(String template) {
+        val literals = new ArrayList<String>();
+        val variables = new ArrayList<String>();
+
+        int from = 0;
+        while (true) {
+            int open = template.indexOf('{', from);
+            int close = open < 0 ? -1 : closingBrace(template, open);
+            if (close < 0) break;
+
+            literals.add(template.substring(from, open));
+            variables.add(variableName(template.substring(open + 1, close)));
+            from = close + 1;
+        }
+        literals.add(template.substring(from));
+
+        return new RouteTemplate(template, literals, variables);
+    }
+
+    // the regex of {name:regex} could have its own braces, like {id:\d{3}}
+    private static int closingBrace(String template, int open) {
+        int depth = 0;
+        for (int i = open, ii = template.length(); i < ii; ++i) {
+            char c = template.charAt(i);
+            if (c == '{') ++depth;
+            else if (c == '}' && --depth == 0) return i;
+        }
+
+        return -1;
+    }
+
+    // {name:regex} is matched by name
+    private static String variableName(String variable) {
+        int colon = variable.indexOf(':');
+        return colon < 0 ? variable : variable.substring(0, colon);
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public String render(String baseUrl, Map<String, Object> routeParams) {
+        if (variables.length == 0) {
+            checkRouteParams(routeParams);
+            return baseUrl + template;
+        }
+
+        val url = new StringBuilder(baseUrl.length() + estimatedLength());
+        url.append(baseUrl);
+        render(url, routeParams);
+        return url.toString();
+    }
+
+    public int estimatedLength() {
+        return literalsLength + variables.length * 16;
+    }
+
+    public void render(StringBuilder url, Map<String, Object> routeParams) {
+        checkRouteParams(routeParams);
+
+        for (int i = 0; i < variables.length; ++i) {
+            url.append(literals[i]);
+            if (routeParams.containsKey(variables[i])) {
+                encode(url, String.valueOf(routeParams.get(variables[i])));
+            } else {
+                url.append('{').append(variables[i]).append('}');
+            }
+        }
+        url.append(literals[variables.length]);
+    }
+
+    private void checkRouteParams(Map<String, Object> routeParams) {
+        if (routeParams.isEmpty()) return;
+
+        for (String name : routeParams.keySet()) {
+            if (!variableNames.contains(name))
+                throw new RuntimeException("Can't find route parameter name \"" + name + "\"");
+        }
+    }
+
+    /*
+     * Percent-encodes all but the unreserved characters of RFC 3986 and "!*'()",
+     * non ASCII characters are encoded as UTF-8 bytes, the space is %20 in the path, not +.
+     */
+    static void encode(StringBuilder url, String value) {
+        for (int i = 0, ii = value.length(); i < ii; ++i) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (isUnescaped(c)) {
+                    url.append(c);
+                } else {
+                    appendEscaped(url, c);
+                }
+                continue;
+            }
+
+            int end = i + 1;
+            while (end < ii && value.charAt(end) >= 0x80) ++end;
+            for (byte b : value.substring(i, end).getBytes(Charsets.UTF_8)) {
+                appendEscaped(url, b & 0xFF);
+            }
+            i = end - 1;
+        }
+    }
+
+    private static boolean isUnescaped(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+            || "-._~!*'()".indexOf(c) >= 0;
+    }
+
+    private static void appendEscaped(StringBuilder url, int b) {
+        url.append('%').append(HEX[b >> 4]).append(HEX[b & 0xF]);
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.bingoohuang.springrestclient.utils;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.experimental.UtilityClass;
+import lombok.val;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timer for delayed async retries, deadline aborts and keep-alive probes.
+ * The tasks should be short, the requests themselves run on unirest's clients.
+ */
+@UtilityClass
+public class Schedulers {
+    private final ScheduledThreadPoolExecutor scheduler = createScheduler();
+
+    private ScheduledThreadPoolExecutor createScheduler() {
+        val scheduler = new ScheduledThreadPoolExecutor(1,
+            new ThreadFactoryBuilder().setNameFormat("rest-client-scheduler-%d").setDaemon(true).build());
+        try {
+            // the deadline tasks of the completed requests are cancelled, they should not wait in the queue
+            scheduler.setRemoveOnCancelPolicy(true);
+        } catch (NoSuchMethodError e) {
+            // java 6, the cancelled tasks are dropped when their delays elapse
+        }
+
+        return scheduler;
+    }
+
+    public ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+        return scheduler.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long periodMillis) {
+        return scheduler.scheduleAtFixedRate(task, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+}
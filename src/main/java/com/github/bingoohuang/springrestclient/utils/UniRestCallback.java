@@ -1,38 +1,159 @@
 package com.github.bingoohuang.springrestclient.utils;
 
+import com.github.bingoohuang.springrestclient.breaker.RestCircuitBreaker;
+import com.github.bingoohuang.springrestclient.exception.DeadlineExceededException;
+import com.github.bingoohuang.springrestclient.retry.RetryPolicy;
+import com.github.bingoohuang.springrestclient.timeout.Deadline;
+import com.github.bingoohuang.springrestclient.trace.RestTrace;
+import com.github.bingoohuang.springrestclient.trace.RestTracer;
+import com.github.bingoohuang.springrestclient.trace.TracePhase;
+import com.google.common.util.concurrent.ExecutionList;
 import com.mashape.unirest.http.HttpResponse;
 import com.mashape.unirest.http.async.Callback;
 import com.mashape.unirest.http.exceptions.UnirestException;
+import com.mashape.unirest.request.HttpRequest;
+import lombok.val;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 class UniRestCallback<T> implements Callback<T> {
-    private final Class<?> apiClass;
+    private final RestReq restReq;
     private final RestLog restLog;
+    private final RestCircuitBreaker circuitBreaker;
+    private final RetryPolicy retryPolicy;
+    private final HttpRequest httpRequest;
+    private final Class<T> responseClass;
+    private final Deadline deadline;
+    private final RestTrace trace;
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private final ExecutionList listeners = new ExecutionList();
+    private volatile long start;
+    private volatile int attempt;
+    private volatile Future<?> future;
     private volatile boolean done;
     private volatile boolean cancelled;
     private HttpResponse<T> response;
+    private UnirestException exception;
+
+    public UniRestCallback(RestReq restReq, HttpRequest httpRequest,
+                           Class<T> responseClass, Deadline deadline) {
+        this.restReq = restReq;
+        this.restLog = restReq.restLog;
+        this.circuitBreaker = restReq.circuitBreaker;
+        this.retryPolicy = restReq.retryPolicy;
+        this.httpRequest = httpRequest;
+        this.responseClass = responseClass;
+        this.deadline = deadline;
+        this.trace = restReq.trace;
+    }
 
-    public UniRestCallback(final Class<?> apiClass, RestLog restLog) {
-        this.apiClass = apiClass;
-        this.restLog = restLog;
+    public void send() {
+        ++attempt;
+        start = System.nanoTime();
+        future = restReq.transport.requestAsync(httpRequest, responseClass,
+            restReq.timeout, deadline, trace, attempt, this);
     }
 
     @Override
     public void completed(HttpResponse<T> response) {
+        long costNanos = System.nanoTime() - start;
+        restLog.log(response);
+        restReq.recordMetrics(httpRequest, attempt, response, null, costNanos);
+        restReq.recordExchange(httpRequest, response, costNanos);
+        if (circuitBreaker != null)
+            circuitBreaker.onResponse(response.getStatus(), costNanos);
+
+        long backoff = retryPolicy == null ? -1
+            : retryPolicy.retryBackoffMillis(attempt, deadline, response.getStatus());
+        if (backoff >= 0 && !cancelled && restReq.permitsRetry(attempt, response.getStatus())) {
+            retryLater(backoff);
+            return;
+        }
+
         this.response = response;
         done = true;
-        restLog.log(response);
+        RestTracer.finish(trace, null);
+        notifyFinished();
     }
 
     @Override
     public void failed(UnirestException e) {
-        done = true;
+        long costNanos = System.nanoTime() - start;
         restLog.log(e);
+        restReq.recordMetrics(httpRequest, attempt, null, e, costNanos);
+        if (circuitBreaker != null)
+            circuitBreaker.onError(costNanos);
+
+        long backoff = retryPolicy == null || deadline != null && deadline.isExpired() ? -1
+            : retryPolicy.retryBackoffMillis(attempt, deadline, httpRequest.getHttpMethod(), e);
+        if (backoff >= 0 && !cancelled && restReq.permitsRetry(attempt, e)) {
+            retryLater(backoff);
+            return;
+        }
+
+        this.exception = e;
+        done = true;
+        RestTracer.finish(trace, e);
+        notifyFinished();
+    }
+
+    /*
+     * The retry is fired by the retry scheduler after the backoff,
+     * no thread is blocked while waiting.
+     */
+    private void retryLater(long backoffMillis) {
+        final long backoffStart = System.nanoTime();
+        Schedulers.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (trace != null) trace.record(TracePhase.BACKOFF, attempt, backoffStart);
+                if (cancelled) {
+                    restReq.releaseCircuitBreakerPermission();
+                    return;
+                }
+
+                try {
+                    send();
+                } catch (RuntimeException e) {
+                    failed(new UnirestException(e));
+                }
+            }
+        }, backoffMillis);
     }
 
     @Override
     public void cancelled() {
         cancelled = true;
         restLog.log("cancelled");
+        restReq.releaseCircuitBreakerPermission();
+        RestTracer.finish(trace, null);
+        notifyFinished();
+    }
+
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (isDone()) return false;
+
+        cancelled = true;
+        future.cancel(mayInterruptIfRunning);
+        notifyFinished();
+        return true;
+    }
+
+    // wakes up the waiting getters and runs the listeners once
+    private void notifyFinished() {
+        finished.countDown();
+        listeners.execute();
+    }
+
+    /**
+     * Runs the listener when the call is done or cancelled, right away when it already is.
+     */
+    public void addListener(Runnable listener, Executor executor) {
+        listeners.add(listener, executor);
     }
 
     public boolean isDone() {
@@ -43,16 +164,28 @@ class UniRestCallback<T> implements Callback<T> {
         return cancelled;
     }
 
-    public HttpResponse<T> get() throws InterruptedException {
-        while (!isDone()) Thread.sleep(1);
-        return response;
+    public HttpResponse<T> get() throws InterruptedException, ExecutionException {
+        finished.await();
+        return getResponse();
     }
 
-    public HttpResponse<T> get(long timeout) throws InterruptedException {
-        long start = System.currentTimeMillis();
-        while (!isDone() && System.currentTimeMillis() - start < timeout)
-            Thread.sleep(1);
+    public HttpResponse<T> get(long timeout) throws InterruptedException, ExecutionException {
+        finished.await(timeout, TimeUnit.MILLISECONDS);
+        return getResponse();
+    }
+
+    /*
+     * A failed call returns a null response as before, only the deadline exceeded is raised,
+     * which could only happen to the calls with a deadline.
+     */
+    private HttpResponse<T> getResponse() throws ExecutionException {
+        if (exception == null) return response;
+
+        val cause = exception.getCause();
+        if (cause instanceof DeadlineExceededException) throw new ExecutionException(cause);
+        if (deadline != null && deadline.isExpired())
+            throw new ExecutionException(new DeadlineExceededException("deadline exceeded", exception));
 
-        return response;
+        return null;
     }
 }
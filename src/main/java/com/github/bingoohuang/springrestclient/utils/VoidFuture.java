@@ -1,13 +1,18 @@
 package com.github.bingoohuang.springrestclient.utils;
 
+import com.github.bingoohuang.springrestclient.trace.RestTrace;
+import com.github.bingoohuang.springrestclient.trace.TraceAware;
+import com.google.common.util.concurrent.JdkFutureAdapters;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.mashape.unirest.http.HttpResponse;
 
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
-public class VoidFuture implements Future<Void>, ResponseAware {
+public class VoidFuture implements ListenableFuture<Void>, ResponseAware, TraceAware {
     private final Future<HttpResponse<?>> future;
     private final RestReq restReq;
     private HttpResponse<?> response;
@@ -19,6 +24,15 @@ public class VoidFuture implements Future<Void>, ResponseAware {
     }
 
 
+    /**
+     * The listener runs when the response is received, the response is not processed by then.
+     */
+    @Override
+    public void addListener(Runnable listener, Executor executor) {
+        if (future instanceof ListenableFuture) ((ListenableFuture<?>) future).addListener(listener, executor);
+        else JdkFutureAdapters.listenInPoolThread(future).addListener(listener, executor);
+    }
+
     @Override
     public boolean cancel(boolean mayInterruptIfRunning) {
         return future.cancel(mayInterruptIfRunning);
@@ -66,4 +80,9 @@ public class VoidFuture implements Future<Void>, ResponseAware {
             throw new RuntimeException(e);
         }
     }
+
+    @Override
+    public RestTrace getTrace() {
+        return restReq.trace;
+    }
 }
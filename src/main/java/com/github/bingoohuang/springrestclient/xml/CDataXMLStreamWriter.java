@@ -23,4 +23,18 @@ public class CDataXMLStreamWriter extends DelegatingXMLStreamWriter {
             super.writeCharacters(text);
         }
     }
+
+    // JAXB writes the element texts by the char array, which should use the CDATA as well
+    @Override
+    public void writeCharacters(char[] text, int start, int len) throws XMLStreamException {
+        for (int i = start, ii = start + len; i < ii; ++i) {
+            char c = text[i];
+            if (c == '&' || c == '<' || c == '>') {
+                super.writeCData(new String(text, start, len));
+                return;
+            }
+        }
+
+        super.writeCharacters(text, start, len);
+    }
 }
\ No newline at end of file
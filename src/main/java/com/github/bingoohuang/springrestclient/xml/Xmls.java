@@ -8,32 +8,63 @@ import org.xml.sax.InputSource;
 
 import javax.xml.bind.JAXB;
 import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.io.StringWriter;
 
 @UtilityClass
 public class Xmls {
+    // the StAX factories are thread safe once configured, so they are created once and shared
+    private final XMLInputFactory inputFactory = createInputFactory();
+    private final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+
+    private XMLInputFactory createInputFactory() {
+        val factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
     public String marshal(Object bean) {
         return marshal(bean, bean.getClass());
     }
 
     @SneakyThrows
     public String marshal(Object bean, Class... types) {
+        return marshal(JAXBContext.newInstance(types), bean);
+    }
+
+    @SneakyThrows
+    public String marshal(JAXBContext context, Object bean) {
         val sw = new StringWriter();
+        marshal(context, bean, outputFactory.createXMLStreamWriter(sw));
+        return sw.toString();
+    }
 
-        val carContext = JAXBContext.newInstance(types);
-        val marshaller = carContext.createMarshaller();
+    /**
+     * Marshals the bean as UTF-8 directly into the stream, which is left open.
+     */
+    @SneakyThrows
+    public void marshal(JAXBContext context, Object bean, OutputStream out) {
+        marshal(context, bean, outputFactory.createXMLStreamWriter(out, "UTF-8"));
+    }
 
-        val xof = XMLOutputFactory.newInstance();
-        val streamWriter = xof.createXMLStreamWriter(sw);
+    private void marshal(JAXBContext context, Object bean, XMLStreamWriter streamWriter)
+        throws JAXBException, XMLStreamException {
+        val marshaller = context.createMarshaller();
         val cdataStreamWriter = new CDataXMLStreamWriter(streamWriter);
 
 //            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
@@ -42,8 +73,6 @@ public class Xmls {
         marshaller.marshal(bean, cdataStreamWriter);
         cdataStreamWriter.flush();
         cdataStreamWriter.close();
-
-        return sw.toString();
     }
 
     public <T> T unmarshal(String xml, Class<T> beanClass) {
@@ -51,6 +80,25 @@ public class Xmls {
         return JAXB.unmarshal(reader, beanClass);
     }
 
+    @SneakyThrows
+    public <T> T unmarshal(JAXBContext context, String xml, Class<T> beanClass) {
+        val unmarshaller = context.createUnmarshaller();
+        return unmarshaller.unmarshal(inputFactory.createXMLStreamReader(new StringReader(xml)), beanClass).getValue();
+    }
+
+    /**
+     * Unmarshals the bean directly from the stream, with the encoding detected from the xml declaration.
+     */
+    @SneakyThrows
+    public <T> T unmarshal(JAXBContext context, InputStream in, Class<T> beanClass) {
+        val streamReader = inputFactory.createXMLStreamReader(in);
+        try {
+            return context.createUnmarshaller().unmarshal(streamReader, beanClass).getValue();
+        } finally {
+            streamReader.close();
+        }
+    }
+
     @SneakyThrows
     public String prettyXml(String xml) {
         val omitXmlDeclaration = !xml.startsWith("<?xml");
@@ -0,0 +1,53 @@
+package com.github.bingoohuang.springrestclient.batch;
+
+import com.github.bingoohuang.springrestclient.annotations.Batched;
+import com.github.bingoohuang.springrestclient.annotations.CircuitBreaker;
+import com.github.bingoohuang.springrestclient.annotations.Retry;
+import com.github.bingoohuang.springrestclient.boot.domain.EmployeeVO;
+import lombok.val;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class MicroBatcherTest {
+    interface ItemApi {
+        @Batched("items")
+        EmployeeVO item(int id);
+
+        @Batched("items")
+        int count(int id);
+
+        @Batched("items") @Retry
+        EmployeeVO retried(int id);
+
+        @Batched("items") @CircuitBreaker
+        EmployeeVO broken(int id);
+
+        @Retry
+        List<EmployeeVO> items(List<Integer> ids);
+    }
+
+    private MicroBatcher batcher(String methodName) throws Exception {
+        val method = ItemApi.class.getMethod(methodName, int.class);
+        return new MicroBatcher(null, method, method.getAnnotation(Batched.class));
+    }
+
+    private String badConfig(String methodName) throws Exception {
+        try {
+            batcher(methodName);
+            throw new AssertionError("bad config expected");
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Test
+    public void rejectedSingleItemMethods() throws Exception {
+        assertThat(batcher("item")).isNotNull();
+        assertThat(badConfig("count")).contains("should not return a primitive");
+        assertThat(badConfig("retried")).contains("put @Retry or @CircuitBreaker on the batch method");
+        assertThat(badConfig("broken")).contains("put @Retry or @CircuitBreaker on the batch method");
+    }
+}
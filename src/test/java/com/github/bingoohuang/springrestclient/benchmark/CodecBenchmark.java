@@ -0,0 +1,75 @@
+package com.github.bingoohuang.springrestclient.benchmark;
+
+import com.github.bingoohuang.springrestclient.boot.domain.EmployeeListVO;
+import com.github.bingoohuang.springrestclient.boot.domain.EmployeeVO;
+import com.github.bingoohuang.springrestclient.codec.BinaryCodec;
+import com.github.bingoohuang.springrestclient.codec.CborCodec;
+import com.github.bingoohuang.springrestclient.codec.JsonCodec;
+import com.google.common.base.Charsets;
+import lombok.val;
+
+import java.io.ByteArrayInputStream;
+
+/**
+ * Payload size and encode/decode cost of the json and the cbor codecs.
+ * <p>
+ * Usage: CodecBenchmark [employees in the list, default 100] [iterations, default 20000]
+ */
+public class CodecBenchmark {
+    public static void main(String[] args) {
+        int employees = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+
+        val list = new EmployeeListVO();
+        for (int i = 0; i < employees; ++i) {
+            list.getEmployees().add(new EmployeeVO(i, "first" + i, "last" + i, "employee" + i + "@example.com"));
+        }
+
+        System.out.printf("%-8s %-16s %10s %14s %14s%n", "codec", "payload", "bytes", "encode ns/op", "decode ns/op");
+        for (int round = 0; round < 2; ++round) { // the first round warms up
+            boolean print = round == 1;
+            json(list.getEmployees().get(0), iterations, print);
+            cbor(list.getEmployees().get(0), iterations, print);
+            json(list, iterations / employees + 1, print);
+            cbor(list, iterations / employees + 1, print);
+        }
+    }
+
+    private static void json(Object bean, int iterations, boolean print) {
+        val codec = new JsonCodec();
+        val encoder = codec.encoder(bean.getClass());
+        val decoder = codec.decoder(bean.getClass());
+
+        String text = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; ++i) text = encoder.encode(bean);
+        long encode = (System.nanoTime() - start) / iterations;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; ++i) decoder.decode(text);
+        long decode = (System.nanoTime() - start) / iterations;
+
+        if (print) report("json", bean, text.getBytes(Charsets.UTF_8).length, encode, decode);
+    }
+
+    private static void cbor(Object bean, int iterations, boolean print) {
+        BinaryCodec codec = new CborCodec();
+        val encoder = codec.binaryEncoder(bean.getClass());
+        val decoder = codec.binaryDecoder(bean.getClass());
+
+        byte[] bytes = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; ++i) bytes = encoder.encode(bean);
+        long encode = (System.nanoTime() - start) / iterations;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; ++i) decoder.decode(new ByteArrayInputStream(bytes));
+        long decode = (System.nanoTime() - start) / iterations;
+
+        if (print) report("cbor", bean, bytes.length, encode, decode);
+    }
+
+    private static void report(String codec, Object bean, int bytes, long encode, long decode) {
+        System.out.printf("%-8s %-16s %10d %14d %14d%n", codec, bean.getClass().getSimpleName(), bytes, encode, decode);
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.bingoohuang.springrestclient.benchmark;
+
+import com.github.bingoohuang.springrestclient.generators.LazyRestClient;
+import com.github.bingoohuang.springrestclient.generators.SpringRestClientFactory;
+import lombok.val;
+import org.springframework.context.support.StaticApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost of the generation modes over synthetic api interfaces.
+ * <p>
+ * Usage: GenerationBenchmark [interfaces, default 300] [methods per interface, default 10]
+ */
+public class GenerationBenchmark {
+    public static void main(String[] args) throws Exception {
+        int interfaces = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int methods = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        val appContext = new StaticApplicationContext();
+        appContext.refresh();
+
+        // warm up the generators
+        eager(SyntheticApis.create(20, methods), appContext);
+
+        val eager = eager(SyntheticApis.create(interfaces, methods), appContext);
+        val parallel = parallel(SyntheticApis.create(interfaces, methods), appContext);
+        val lazy = lazy(SyntheticApis.create(interfaces, methods), appContext);
+
+        System.out.printf("%d interfaces x %d methods%n", interfaces, methods);
+        System.out.printf("EAGER    %6d ms%n", eager);
+        System.out.printf("PARALLEL %6d ms%n", parallel);
+        System.out.printf("LAZY     %6d ms (startup only)%n", lazy);
+    }
+
+    private static long eager(List<Class<?>> apis, StaticApplicationContext appContext) {
+        long start = System.nanoTime();
+        for (Class<?> api : apis) {
+            SpringRestClientFactory.getRestClient(api, appContext);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static long parallel(List<Class<?>> apis, StaticApplicationContext appContext) throws Exception {
+        long start = System.nanoTime();
+        List<Future<Class<?>>> futures = SpringRestClientFactory.generateInParallel(apis);
+        for (Class<?> api : apis) {
+            SpringRestClientFactory.getRestClient(api, appContext);
+        }
+        for (Future<Class<?>> future : futures) future.get();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static long lazy(List<Class<?>> apis, StaticApplicationContext appContext) {
+        long start = System.nanoTime();
+        for (Class<?> api : apis) {
+            LazyRestClient.create(api, appContext);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.bingoohuang.springrestclient.benchmark;
+
+import com.github.bingoohuang.springrestclient.boot.Application;
+import com.github.bingoohuang.springrestclient.generators.SpringRestClientFactory;
+import com.github.bingoohuang.springrestclient.load.ArgumentGenerator;
+import com.github.bingoohuang.springrestclient.load.LoadGenerator;
+import com.github.bingoohuang.springrestclient.load.LoadMode;
+import com.github.bingoohuang.springrestclient.spring.api.EmployeeXmlApi;
+import com.mashape.unirest.http.Unirest;
+import lombok.val;
+import org.springframework.context.support.StaticApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the sync, Future and async calls and the connection pool sizes
+ * against the local stub server, at the same open-loop rate.
+ * <p>
+ * Usage: LoadBenchmark [rate, default 2000] [seconds, default 10]
+ */
+public class LoadBenchmark {
+    public static void main(String[] args) throws Exception {
+        double rate = args.length > 0 ? Double.parseDouble(args[0]) : 2000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        Application.startup();
+        val appContext = new StaticApplicationContext();
+        appContext.refresh();
+        val api = SpringRestClientFactory.getRestClient(EmployeeXmlApi.class, appContext);
+        val ids = new ArgumentGenerator() {
+            @Override public Object[] next(long sequence) {
+                return new Object[]{(int) (sequence % 3) + 1};
+            }
+        };
+
+        int[][] pools = {{20, 2}, {200, 20}, {200, 200}};
+        for (int[] pool : pools) {
+            run(LoadGenerator.of(api, EmployeeXmlApi.class, "streamEmployeeById")
+                .mode(LoadMode.SYNC).threads(pool[1]), ids, rate, seconds, pool);
+            run(LoadGenerator.of(api, EmployeeXmlApi.class, "streamEmployeeByIdAsync")
+                .mode(LoadMode.FUTURE).threads(pool[1]), ids, rate, seconds, pool);
+            run(LoadGenerator.of(api, EmployeeXmlApi.class, "streamEmployeeByIdAsync")
+                .mode(LoadMode.ASYNC), ids, rate, seconds, pool);
+        }
+
+        Unirest.shutdown();
+        System.exit(0);
+    }
+
+    private static void run(LoadGenerator generator, ArgumentGenerator ids,
+                            double rate, int seconds, int[] pool) throws InterruptedException {
+        val report = generator.arguments(ids).rate(rate)
+            .duration(seconds, TimeUnit.SECONDS).warmup(Math.max(1, seconds / 5), TimeUnit.SECONDS)
+            .connections(pool[0], pool[1]).run();
+        System.out.printf("pool %d/%d per route: %s%n%n", pool[0], pool[1], report);
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.bingoohuang.springrestclient.benchmark;
+
+import com.github.bingoohuang.springrestclient.spring.api.EmployeeXmlApi;
+import com.github.bingoohuang.springrestclient.spring.api.PayPartyApi;
+import com.github.bingoohuang.springrestclient.transport.LoopbackServer;
+import lombok.val;
+import org.apache.http.client.methods.HttpGet;
+
+/**
+ * Client overhead over the in-process loopback, without the sockets and the server threads.
+ * The direct dispatches of the same requests are the server share of the client calls.
+ * <p>
+ * Usage: LoopbackBenchmark [calls, default 20000]
+ */
+public class LoopbackBenchmark {
+    private static final String BASE_URL = LoopbackServer.BASE_URL;
+
+    public static void main(String[] args) throws Exception {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+
+        val server = new LoopbackServer();
+        val loopback = server.getDispatcher();
+        server.register();
+
+        val employeeXmlApi = LoopbackServer.client(EmployeeXmlApi.class);
+        val payPartyApi = LoopbackServer.client(PayPartyApi.class);
+
+        for (int round = 0; round < 2; ++round) { // the first round warms up
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; ++i) loopback.execute(new HttpGet(BASE_URL + "/employees/1"));
+            long direct = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < calls; ++i) employeeXmlApi.streamEmployeeById(1);
+            long xml = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < calls; ++i) payPartyApi.party("seller", "buyer", "party" + i, "name");
+            long signed = System.nanoTime() - start;
+
+            if (round == 0) continue;
+            System.out.printf("%d calls%n", calls);
+            report("dispatch only", direct, calls);
+            report("xml client", xml, calls);
+            report("signed form", signed, calls);
+            System.out.printf("xml client overhead %d ns/call%n", (xml - direct) / calls);
+        }
+
+        server.unregister();
+    }
+
+    private static void report(String name, long nanos, int calls) {
+        System.out.printf("%-14s %8d ns/call %8.0f calls/s%n", name, nanos / calls, calls * 1e9 / nanos);
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.bingoohuang.springrestclient.benchmark;
+
+import com.github.bingoohuang.springrestclient.generators.ClassGenerator;
+import com.github.bingoohuang.springrestclient.generators.RestClientClassLoader;
+import lombok.val;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Metaspace footprint of the generated clients,
+ * defined by a loader per interface compared with the shared loader.
+ * <p>
+ * Usage: MetaspaceReport [clients, default 500] [methods per interface, default 10]
+ */
+public class MetaspaceReport {
+    public static void main(String[] args) {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int methods = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        val perInterfaceApis = SyntheticApis.create(clients, methods);
+        val sharedApis = SyntheticApis.create(clients, methods);
+        val kept = new ArrayList<Class<?>>();
+
+        // load the generator classes before measuring
+        for (Class<?> api : SyntheticApis.create(20, methods)) {
+            kept.add(new ClassGenerator(api).generate());
+        }
+
+        long before = metaspaceUsed();
+        for (Class<?> api : perInterfaceApis) {
+            val generator = new ClassGenerator(api);
+            val loader = new RestClientClassLoader(api.getClassLoader());
+            kept.add(loader.defineClass(generator.getImplName(), generator.createImplClassBytes()));
+        }
+        long perInterface = metaspaceUsed() - before;
+
+        before = metaspaceUsed();
+        for (Class<?> api : sharedApis) {
+            kept.add(new ClassGenerator(api).generate());
+        }
+        long shared = metaspaceUsed() - before;
+
+        System.out.printf("%d clients x %d methods%n", clients, methods);
+        System.out.printf("loader per interface %8d KB%n", perInterface / 1024);
+        System.out.printf("shared loader        %8d KB%n", shared / 1024);
+    }
+
+    private static long metaspaceUsed() {
+        System.gc();
+
+        long used = 0;
+        List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans();
+        for (MemoryPoolMXBean pool : pools) {
+            val name = pool.getName();
+            if (name.equals("Metaspace") || name.equals("Compressed Class Space"))
+                used += pool.getUsage().getUsed();
+        }
+
+        return used;
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.bingoohuang.springrestclient.benchmark;
+
+import com.github.bingoohuang.springrestclient.replay.ClientInvoker;
+import com.github.bingoohuang.springrestclient.replay.RecordingFile;
+import com.github.bingoohuang.springrestclient.replay.ReplayDriver;
+import com.github.bingoohuang.springrestclient.replay.ReplayLoopback;
+import com.github.bingoohuang.springrestclient.transport.LoopbackServer;
+import com.github.bingoohuang.springrestclient.transport.Loopbacks;
+import lombok.val;
+
+import java.io.File;
+import java.net.URI;
+import java.util.HashSet;
+
+/**
+ * Replays a recording file through the generated clients without any server,
+ * to measure the client side cpu time and allocation under the recorded traffic.
+ * The recordings are made by starting the RestRecorder in the application.
+ * <p>
+ * Usage: ReplayBenchmark file [speed, default 1, 0 as fast as possible] [threads, default 4]
+ * [latency scale, default 0 to respond at once, 1 in the recorded latencies]
+ */
+public class ReplayBenchmark {
+    public static void main(String[] args) throws Exception {
+        val recordings = RecordingFile.read(new File(args[0]));
+        double speed = args.length > 1 ? Double.parseDouble(args[1]) : 1;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        double latencyScale = args.length > 3 ? Double.parseDouble(args[3]) : 0;
+
+        val invoker = new ClientInvoker();
+        val apiClasses = new HashSet<String>();
+        val baseUrls = new HashSet<String>();
+        for (val recording : recordings) {
+            if (apiClasses.add(recording.getApiClass()))
+                addClient(invoker, Class.forName(recording.getApiClass()));
+
+            val uri = URI.create(recording.getUrl());
+            baseUrls.add(uri.getScheme() + "://" + uri.getAuthority());
+        }
+
+        val loopback = new ReplayLoopback(recordings).latencyScale(latencyScale);
+        for (String baseUrl : baseUrls) Loopbacks.register(baseUrl, loopback);
+
+        System.out.printf("%d recordings of %d apis on %s%n", recordings.size(), apiClasses.size(), baseUrls);
+        // the first round warms up as fast as possible
+        System.out.println("warmup: " + new ReplayDriver(recordings, invoker).speed(0).threads(threads).run());
+        System.out.printf("%sx speed: %s%n", speed,
+            new ReplayDriver(recordings, invoker).speed(speed).threads(threads).run());
+
+        for (String baseUrl : baseUrls) Loopbacks.unregister(baseUrl);
+    }
+
+    private static <T> void addClient(ClientInvoker invoker, Class<T> apiClass) {
+        invoker.client(apiClass, LoopbackServer.client(apiClass));
+    }
+}
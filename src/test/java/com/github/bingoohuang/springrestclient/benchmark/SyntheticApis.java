@@ -0,0 +1,73 @@
+package com.github.bingoohuang.springrestclient.benchmark;
+
+import com.github.bingoohuang.springrestclient.annotations.SpringRestClientEnabled;
+import com.github.bingoohuang.springrestclient.generators.RestClientClassLoader;
+import lombok.val;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Type;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Api interfaces generated for the benchmarks, each call creates a new set in a new class loader.
+ */
+public class SyntheticApis {
+    private static int round;
+
+    public static List<Class<?>> create(int interfaces, int methods) {
+        val classLoader = new RestClientClassLoader(SyntheticApis.class.getClassLoader());
+        val apis = new ArrayList<Class<?>>(interfaces);
+        ++round;
+        for (int i = 0; i < interfaces; ++i) {
+            val name = "com.github.bingoohuang.springrestclient.benchmark.SyntheticApi" + round + "_" + i;
+            apis.add(classLoader.defineClass(name, createApi(name, methods)));
+        }
+
+        return apis;
+    }
+
+    /*
+     * @RequestMapping("/synthetic")
+     * @SpringRestClientEnabled(baseUrl = "http://localhost:4849")
+     * public interface SyntheticApi {
+     *     @RequestMapping("/m0") String m0(@RequestParam("p") String p);
+     *     ...
+     * }
+     */
+    private static byte[] createApi(String name, int methods) {
+        val cw = new ClassWriter(0);
+        cw.visit(V1_6, ACC_PUBLIC + ACC_ABSTRACT + ACC_INTERFACE, name.replace('.', '/'),
+            null, "java/lang/Object", null);
+
+        requestMapping(cw.visitAnnotation(Type.getDescriptor(RequestMapping.class), true), "/synthetic");
+        val enabled = cw.visitAnnotation(Type.getDescriptor(SpringRestClientEnabled.class), true);
+        enabled.visit("baseUrl", "http://localhost:4849");
+        enabled.visitEnd();
+
+        for (int j = 0; j < methods; ++j) {
+            val mv = cw.visitMethod(ACC_PUBLIC + ACC_ABSTRACT, "m" + j,
+                "(Ljava/lang/String;)Ljava/lang/String;", null, null);
+            requestMapping(mv.visitAnnotation(Type.getDescriptor(RequestMapping.class), true), "/m" + j);
+            val param = mv.visitParameterAnnotation(0, Type.getDescriptor(RequestParam.class), true);
+            param.visit("value", "p");
+            param.visitEnd();
+            mv.visitEnd();
+        }
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static void requestMapping(AnnotationVisitor av, String path) {
+        val value = av.visitArray("value");
+        value.visit(null, path);
+        value.visitEnd();
+        av.visitEnd();
+    }
+}
@@ -32,6 +32,11 @@ public class Application {
         creator.setProxyTargetClass(true);
         return creator;
     }
+
+    @Bean
+    public CborHttpMessageConverter cborHttpMessageConverter() {
+        return new CborHttpMessageConverter();
+    }
 }
 
 
@@ -0,0 +1,46 @@
+package com.github.bingoohuang.springrestclient.boot;
+
+import com.github.bingoohuang.springrestclient.codec.CborCodec;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+
+import java.io.IOException;
+
+/**
+ * The server side of the application/cbor apis, by the client codec.
+ */
+public class CborHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+    private final CborCodec codec = new CborCodec();
+
+    public CborHttpMessageConverter() {
+        super(MediaType.parseMediaType(CborCodec.CONTENT_TYPE));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return true;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return mediaType != null && super.canRead(mediaType);
+    }
+
+    // only for the explicit application/cbor, not for the */* accepted ones
+    @Override
+    protected boolean canWrite(MediaType mediaType) {
+        return mediaType != null && !mediaType.isWildcardSubtype() && super.canWrite(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return codec.binaryDecoder(clazz).decode(inputMessage.getBody());
+    }
+
+    @Override
+    protected void writeInternal(Object o, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getBody().write(codec.binaryEncoder(o.getClass()).encode(o));
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.bingoohuang.springrestclient.boot.controller;
+
+import com.alibaba.fastjson.JSON;
+import com.github.bingoohuang.springrestclient.boot.domain.EmployeeVO;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RestController
+@RequestMapping("/batch")
+public class BatchController {
+    public static final AtomicInteger itemCalls = new AtomicInteger();
+    public static final AtomicInteger batchCalls = new AtomicInteger();
+    public static final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+
+    private static EmployeeVO employee(int id) {
+        return new EmployeeVO(id, "first" + id, "last" + id, id + "@a.b");
+    }
+
+    private static List<Integer> parseIds(String ids) {
+        batchCalls.incrementAndGet();
+        List<Integer> list = JSON.parseArray(ids, Integer.class);
+        batchSizes.add(list.size());
+        return list;
+    }
+
+    @RequestMapping("/item/{id}")
+    public EmployeeVO item(@PathVariable("id") int id) {
+        itemCalls.incrementAndGet();
+        return employee(id);
+    }
+
+    @RequestMapping("/items")
+    public List<EmployeeVO> items(@RequestParam("ids") String ids) {
+        List<EmployeeVO> employees = new ArrayList<EmployeeVO>();
+        for (int id : parseIds(ids)) employees.add(employee(id));
+        return employees;
+    }
+
+    // the ids from 100 are not found
+    @RequestMapping("/map")
+    public Map<Integer, EmployeeVO> map(@RequestParam("ids") String ids) {
+        Map<Integer, EmployeeVO> employees = new HashMap<Integer, EmployeeVO>();
+        for (int id : parseIds(ids)) {
+            if (id < 100) employees.put(id, employee(id));
+        }
+        return employees;
+    }
+
+    @RequestMapping("/shuffled")
+    public List<EmployeeVO> shuffled(@RequestParam("ids") String ids) {
+        List<EmployeeVO> employees = new ArrayList<EmployeeVO>();
+        for (int id : parseIds(ids)) employees.add(0, employee(id));
+        return employees;
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.bingoohuang.springrestclient.boot.controller;
+
+import com.github.bingoohuang.springrestclient.boot.domain.EmployeeListVO;
+import com.github.bingoohuang.springrestclient.boot.domain.EmployeeVO;
+import com.github.bingoohuang.springrestclient.codec.CborCodec;
+import lombok.val;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.web.bind.annotation.RequestMethod.POST;
+
+@RestController
+@RequestMapping("/cbor")
+public class CborController {
+    @RequestMapping(value = "/echo", method = POST,
+        consumes = CborCodec.CONTENT_TYPE, produces = CborCodec.CONTENT_TYPE)
+    public EmployeeVO echo(@RequestBody EmployeeVO employeeVO) {
+        employeeVO.setFirstName("BingooHuang");
+        return employeeVO;
+    }
+
+    @RequestMapping(value = "/employees", produces = CborCodec.CONTENT_TYPE)
+    public EmployeeListVO employees() {
+        val employees = new EmployeeListVO();
+        employees.getEmployees().add(new EmployeeVO(1, "Lokesh", "Gupta", "howtodoinjava@gmail.com"));
+        employees.getEmployees().add(new EmployeeVO(2, "Amit", "Singhal", "asinghal@yahoo.com"));
+        return employees;
+    }
+}
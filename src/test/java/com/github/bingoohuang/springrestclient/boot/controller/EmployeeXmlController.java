@@ -48,4 +48,10 @@ public class EmployeeXmlController {
         employeeVO.setFirstName("BingooHuang");
         return employeeVO;
     }
+
+    @RequestMapping(value = "/stream-echo/", method = POST,
+        consumes = MediaType.APPLICATION_XML_VALUE, produces = MediaType.APPLICATION_XML_VALUE)
+    public EmployeeVO streamEchoEmployeeVO(@RequestBody EmployeeVO employeeVO) {
+        return echoEmployeeVO(employeeVO);
+    }
 }
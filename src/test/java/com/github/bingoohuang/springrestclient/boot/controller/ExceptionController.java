@@ -26,6 +26,12 @@ public class ExceptionController {
         else return error;
     }
 
+    @RequestMapping("/sleep/{millis}")
+    public String sleep(@PathVariable("millis") long millis) throws InterruptedException {
+        Thread.sleep(millis);
+        return "" + millis;
+    }
+
     // https://spring.io/blog/2013/11/01/exception-handling-in-spring-mvc
     // Controller Based Exception Handling
     @ExceptionHandler(BadArgumentException.class)
@@ -0,0 +1,28 @@
+package com.github.bingoohuang.springrestclient.boot.controller;
+
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@RestController
+@RequestMapping("/retry")
+public class RetryController {
+    private final ConcurrentMap<String, AtomicInteger> calls = new ConcurrentHashMap<String, AtomicInteger>();
+
+    // responds 503 for the first failures calls of the key
+    @RequestMapping("/flaky/{key}/{failures}")
+    public int flaky(@PathVariable("key") String key,
+                     @PathVariable("failures") int failures,
+                     HttpServletResponse response) {
+        calls.putIfAbsent(key, new AtomicInteger());
+        int call = calls.get(key).incrementAndGet();
+        if (call <= failures) response.setStatus(503);
+
+        return call;
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.bingoohuang.springrestclient.boot.controller;
+
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/timeout")
+public class TimeoutController {
+    // responds the forwarded remaining millis of the deadline after sleeping
+    @RequestMapping("/sleep/{millis}")
+    public String sleep(@PathVariable("millis") long millis,
+                        @RequestHeader(value = "X-Deadline-Remaining-Millis", required = false) String remaining)
+        throws InterruptedException {
+        Thread.sleep(millis);
+        return remaining == null ? "none" : remaining;
+    }
+}
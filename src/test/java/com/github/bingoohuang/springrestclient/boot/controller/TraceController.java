@@ -0,0 +1,20 @@
+package com.github.bingoohuang.springrestclient.boot.controller;
+
+import com.github.bingoohuang.springrestclient.boot.domain.Person;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.web.bind.annotation.RequestMethod.POST;
+
+@RestController
+@RequestMapping("/trace")
+public class TraceController {
+    // responds the propagated trace context in the addr
+    @RequestMapping(value = "/person", method = POST)
+    public Person person(@RequestBody Person person,
+                         @RequestHeader(value = "traceparent", required = false) String traceparent) {
+        return new Person(person.getName(), traceparent == null ? "none" : traceparent);
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.bingoohuang.springrestclient.breaker;
+
+import com.github.bingoohuang.springrestclient.annotations.CircuitBreaker;
+import lombok.val;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class RestCircuitBreakerTest {
+    @CircuitBreaker(slidingWindowSize = 4, minimumNumberOfCalls = 4,
+        slowCallDurationMillis = 100, slowCallRateThreshold = 75,
+        waitDurationInOpenStateMillis = 1000, permittedCallsInHalfOpenState = 2)
+    interface Config {
+    }
+
+    static class ClockBreaker extends RestCircuitBreaker {
+        long now;
+
+        ClockBreaker() {
+            super("test", Config.class.getAnnotation(CircuitBreaker.class));
+        }
+
+        @Override protected long currentTimeMillis() {
+            return now;
+        }
+    }
+
+    @Test
+    public void slidingWindow() {
+        val breaker = new ClockBreaker();
+        breaker.onResponse(500, 0);
+        breaker.onResponse(200, 0);
+        breaker.onResponse(200, 0);
+        breaker.onResponse(200, 0);
+        assertThat(breaker.getFailureRate()).isEqualTo(25f);
+
+        // the oldest failure slides out of the window
+        breaker.onResponse(500, 0);
+        assertThat(breaker.getFailureRate()).isEqualTo(25f);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreakerState.CLOSED);
+
+        breaker.onResponse(503, 0);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreakerState.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    public void halfOpenProbing() {
+        val breaker = new ClockBreaker();
+        for (int i = 0; i < 4; ++i) breaker.onError(0);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreakerState.OPEN);
+
+        breaker.now = 1000;
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreakerState.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+
+        breaker.onResponse(200, 0);
+        breaker.onResponse(200, 0);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreakerState.CLOSED);
+    }
+
+    @Test
+    public void releasedHalfOpenPermission() {
+        val breaker = new ClockBreaker();
+        for (int i = 0; i < 4; ++i) breaker.onError(0);
+
+        breaker.now = 1000;
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        long permit = breaker.acquirePermit();
+        assertThat(permit).isNotEqualTo(RestCircuitBreaker.NOT_PERMITTED);
+
+        // the second call is cancelled without an outcome
+        breaker.onResponse(200, 0);
+        breaker.releasePermission(permit);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreakerState.HALF_OPEN);
+
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        breaker.onResponse(200, 0);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreakerState.CLOSED);
+    }
+
+    @Test
+    public void releasedClosedPermitKeepsProbes() {
+        val breaker = new ClockBreaker();
+        long permit = breaker.acquirePermit();
+        assertThat(permit).isEqualTo(RestCircuitBreaker.CLOSED_PERMIT);
+        for (int i = 0; i < 4; ++i) breaker.onError(0);
+
+        breaker.now = 1000;
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+
+        // the call permitted while closed frees no probe slot of the half open state
+        breaker.releasePermission(permit);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    public void slowCalls() {
+        val breaker = new ClockBreaker();
+        long slow = TimeUnit.MILLISECONDS.toNanos(100);
+        breaker.onResponse(200, slow);
+        breaker.onResponse(200, slow);
+        breaker.onResponse(200, 0);
+        breaker.onResponse(200, slow);
+        assertThat(breaker.getSlowCallRate()).isEqualTo(75f);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreakerState.OPEN);
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.bingoohuang.springrestclient.buffer;
+
+import org.junit.Test;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class BufferPoolTest {
+    @Test
+    public void sizeClasses() {
+        BufferPool pool = new BufferPool(512, 4096, 2);
+        assertThat(pool.acquire(1).length).isEqualTo(512);
+        assertThat(pool.acquire(512).length).isEqualTo(512);
+        assertThat(pool.acquire(513).length).isEqualTo(1024);
+        assertThat(pool.acquire(4096).length).isEqualTo(4096);
+        assertThat(pool.acquire(4097).length).isEqualTo(4097);
+        assertThat(pool.outstanding()).isEqualTo(5);
+    }
+
+    @Test
+    public void reuseBounded() {
+        BufferPool pool = new BufferPool(512, 4096, 2);
+        byte[] a = pool.acquire(600);
+        byte[] b = pool.acquire(600);
+        byte[] c = pool.acquire(600);
+        pool.release(a);
+        pool.release(b);
+        pool.release(c);
+        pool.release(new byte[5000]);
+
+        assertThat(pool.pooled()).isEqualTo(2);
+        assertThat(pool.outstanding()).isEqualTo(-1);
+        assertThat(pool.acquire(1000)).isSameAs(a);
+    }
+
+    @Test
+    public void leakDetection() {
+        BufferPool pool = new BufferPool(512, 4096, 2);
+        pool.setLeakDetection(true);
+
+        byte[] released = pool.acquire(100);
+        pool.acquire(100);
+        pool.release(released);
+        pool.release(released); // ignored
+
+        assertThat(pool.outstanding()).isEqualTo(1);
+        assertThat(pool.leaks()).hasSize(1);
+        assertThat(pool.leaks().get(0).getStackTrace()[1].getMethodName()).isEqualTo("leakDetection");
+    }
+
+    @Test
+    public void pooledOutputStream() {
+        BufferPool pool = new BufferPool(512, 4096, 2);
+        PooledOutputStream out = new PooledOutputStream(pool, 16);
+        for (int i = 0; i < 1000; ++i) out.write('a' + i % 26);
+
+        assertThat(out.size()).isEqualTo(1000);
+        assertThat(out.buffer().length).isEqualTo(1024);
+        assertThat(out.toString()).startsWith("abcdefghijklmnopqrstuvwxyzabc");
+        assertThat(pool.outstanding()).isEqualTo(1);
+
+        out.release();
+        out.release();
+        assertThat(pool.outstanding()).isEqualTo(0);
+        assertThat(pool.pooled()).isEqualTo(2);
+    }
+
+    @Test
+    public void discardNotPooled() {
+        BufferPool pool = new BufferPool(512, 4096, 2);
+        pool.setLeakDetection(true);
+        PooledOutputStream out = new PooledOutputStream(pool, 600);
+        byte[] buffer = out.buffer();
+
+        out.discard();
+        assertThat(pool.outstanding()).isEqualTo(0);
+        assertThat(pool.leaks()).isEmpty();
+        assertThat(pool.pooled()).isEqualTo(0);
+        assertThat(pool.acquire(600)).isNotSameAs(buffer);
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.bingoohuang.springrestclient.codec;
+
+import com.alibaba.fastjson.TypeReference;
+import com.github.bingoohuang.springrestclient.boot.domain.EmployeeVO;
+import com.google.common.collect.ImmutableMap;
+import lombok.val;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class CborCodecTest {
+    CborCodec codec = new CborCodec();
+
+    private Object roundTrip(Object bean, java.lang.reflect.Type type) {
+        val bytes = codec.binaryEncoder(bean.getClass()).encode(bean);
+        return codec.binaryDecoder(type).decode(new ByteArrayInputStream(bytes));
+    }
+
+    @Test
+    public void bean() {
+        val employee = new EmployeeVO(1, "bingoo", "huang", "bingoo@a.b");
+        assertThat(roundTrip(employee, EmployeeVO.class)).isEqualTo(employee);
+    }
+
+    @Test
+    public void genericMap() {
+        val type = new TypeReference<Map<String, EmployeeVO>>() {}.getType();
+        val map = ImmutableMap.of("a", new EmployeeVO(1, "a", null, null), "b", new EmployeeVO(2, "b", "c", null));
+        assertThat(roundTrip(map, type)).isEqualTo(map);
+    }
+
+    @Test
+    public void numbers() {
+        val map = ImmutableMap.<String, Object>of("negative", -300, "long", 1L << 40,
+            "float", 1.5d, "double", 0.1d, "text", "中文");
+        val decoded = (Map<String, Object>) roundTrip(map, Map.class);
+        assertThat(decoded.get("negative")).isEqualTo(-300);
+        assertThat(decoded.get("long")).isEqualTo(1L << 40);
+        assertThat(decoded.get("float")).isEqualTo(1.5d);
+        assertThat(decoded.get("double")).isEqualTo(0.1d);
+        assertThat(decoded.get("text")).isEqualTo("中文");
+    }
+
+    @Test
+    public void indefiniteLength() {
+        // {_ "a": [_ 1, 2], "b": true}
+        val bytes = new byte[]{(byte) 0xbf, 0x61, 'a', (byte) 0x9f, 0x01, 0x02, (byte) 0xff,
+            0x61, 'b', (byte) 0xf5, (byte) 0xff};
+        assertThat(codec.preview(bytes, 0, bytes.length)).isEqualTo("{\"a\":[1,2],\"b\":true}");
+    }
+
+    @Test
+    public void emptyAndMalformed() {
+        assertThat(codec.binaryDecoder(EmployeeVO.class).decode(new ByteArrayInputStream(new byte[0]))).isNull();
+
+        val bytes = new byte[]{(byte) 0xa1, 0x61};
+        assertThat(codec.preview(bytes, 0, bytes.length)).isEqualTo("0xa161");
+    }
+}
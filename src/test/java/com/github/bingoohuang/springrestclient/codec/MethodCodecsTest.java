@@ -0,0 +1,120 @@
+package com.github.bingoohuang.springrestclient.codec;
+
+import com.github.bingoohuang.springrestclient.boot.domain.EmployeeVO;
+import com.google.common.base.Charsets;
+import lombok.val;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.ParameterizedType;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class MethodCodecsTest {
+    public interface CodecApi {
+        Map<String, EmployeeVO> map();
+
+        EmployeeVO employee(EmployeeVO employeeVO);
+
+        Future<EmployeeVO> employeeAsync();
+
+        String text();
+
+        Object object();
+
+        Future<List<EmployeeVO>> employeesAsync();
+    }
+
+    private MethodCodecs codecs(String methodName, String consumes, String produces) throws Exception {
+        for (val method : CodecApi.class.getMethods()) {
+            if (!method.getName().equals(methodName)) continue;
+
+            val parameterTypes = method.getParameterTypes();
+            val requestBodyType = parameterTypes.length == 0 ? null : parameterTypes[0];
+            return new MethodCodecs(RestCodecs.defaults(), method, requestBodyType, consumes, produces);
+        }
+
+        throw new NoSuchMethodException(methodName);
+    }
+
+    @Test
+    public void genericJson() throws Exception {
+        val codecs = codecs("map", "", "");
+        assertThat(codecs.getResponseType()).isEqualTo(CodecApi.class.getMethod("map").getGenericReturnType());
+
+        val map = (Map<String, EmployeeVO>) codecs.decode("{\"bingoo\":{\"id\":1,\"firstName\":\"bingoo\"}}",
+            "application/json;charset=UTF-8");
+        assertThat(map.get("bingoo")).isEqualTo(new EmployeeVO(1, "bingoo", null, null));
+    }
+
+    @Test
+    public void xmlByConsumesAndContentType() throws Exception {
+        val codecs = codecs("employee", "application/xml", "");
+        assertThat(codecs.getRequestContentType()).isEqualTo(XmlCodec.CONTENT_TYPE);
+        assertThat(codecs.isBinaryRequest()).isTrue();
+        assertThat(codecs.isTextRequest()).isTrue();
+        assertThat(codecs("employee", CborCodec.CONTENT_TYPE, "").isTextRequest()).isFalse();
+
+        val employee = new EmployeeVO(2, "huang", "bingoo", "bingoo@a.b");
+        val xml = new String(codecs.encodeBinary(employee), Charsets.UTF_8);
+        assertThat(xml).startsWith("<employee id=\"2\">");
+        assertThat(codecs.decode(xml, "application/xml")).isEqualTo(employee);
+
+        val json = "{\"id\":2,\"firstName\":\"huang\",\"lastName\":\"bingoo\",\"email\":\"bingoo@a.b\"}";
+        assertThat(codecs.decode(json, "application/json")).isEqualTo(employee);
+    }
+
+    @Test
+    public void producesAndSniffing() throws Exception {
+        val employee = new EmployeeVO(3, "a", "b", "c");
+        val xml = codecs("employee", "application/xml", "").encodeBinary(employee);
+
+        val produces = codecs("employeeAsync", "", "application/xml");
+        assertThat(produces.isBinaryResponse()).isTrue();
+        assertThat(produces.decode(new ByteArrayInputStream(xml), "text/plain")).isEqualTo(employee);
+        assertThat(produces.decode(new ByteArrayInputStream(new byte[0]), "text/plain")).isNull();
+        assertThat(produces.decode(new String(xml, Charsets.UTF_8), "text/plain")).isEqualTo(employee);
+        assertThat(codecs("employeeAsync", "", "").decode(new String(xml, Charsets.UTF_8), null)).isEqualTo(employee);
+
+        val list = (List<EmployeeVO>) codecs("employeeAsync", "", "").decode("[{\"id\":3}]", null);
+        assertThat(list.get(0).getId()).isEqualTo(3);
+    }
+
+    @Test
+    public void plainText() throws Exception {
+        val codecs = codecs("text", "", "");
+        assertThat(codecs.getResponseType()).isNull();
+        assertThat(codecs.decode("{\"a\":1}", "application/json")).isEqualTo("{\"a\":1}");
+        assertThat(codecs.decode("", "application/json")).isNull();
+
+        val employeeCodecs = codecs("employee", "", "");
+        assertThat(employeeCodecs.getRequestContentType()).isEqualTo(JsonCodec.CONTENT_TYPE);
+        assertThat(employeeCodecs.encode(new EmployeeVO(4, "x", null, null))).isEqualTo("{\"firstName\":\"x\",\"id\":4}");
+    }
+
+    @Test
+    public void objectAndGenericFuture() throws Exception {
+        val object = (Map<String, Object>) codecs("object", "", "").decode("{\"id\":5}", "application/json");
+        assertThat(object.get("id")).isEqualTo(5);
+
+        val codecs = codecs("employeesAsync", "", "");
+        val futureType = (ParameterizedType) CodecApi.class.getMethod("employeesAsync").getGenericReturnType();
+        assertThat(codecs.getResponseType()).isEqualTo(futureType.getActualTypeArguments()[0]);
+        val list = (List<EmployeeVO>) codecs.decode("[{\"id\":6}]", "application/json");
+        assertThat(list.get(0)).isEqualTo(new EmployeeVO(6, null, null, null));
+    }
+
+    @Test
+    public void textBodyOfBinaryProduces() throws Exception {
+        val codecs = codecs("employeeAsync", "", CborCodec.CONTENT_TYPE);
+        assertThat(codecs.getAcceptContentType()).isEqualTo(CborCodec.CONTENT_TYPE);
+        assertThat(codecs("text", "", "").getAcceptContentType()).isNull();
+
+        val json = "{\"id\":7,\"firstName\":\"cbor\"}".getBytes(Charsets.UTF_8);
+        assertThat(codecs.decode(new ByteArrayInputStream(json), "application/json;charset=UTF-8"))
+            .isEqualTo(new EmployeeVO(7, "cbor", null, null));
+    }
+}
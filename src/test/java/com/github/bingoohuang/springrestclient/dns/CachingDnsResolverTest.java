@@ -0,0 +1,250 @@
+package com.github.bingoohuang.springrestclient.dns;
+
+import com.github.bingoohuang.springrestclient.transport.ClientPool;
+import com.github.bingoohuang.springrestclient.transport.UnirestTransport;
+import com.google.common.base.Charsets;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.mashape.unirest.http.Unirest;
+import lombok.val;
+import org.apache.http.conn.DnsResolver;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.security.Security;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class CachingDnsResolverTest {
+    static final String HOST = "svc.test";
+    static final String OTHER_HOST = "other.test";
+
+    static class FakeDnsResolver implements DnsResolver {
+        volatile InetAddress[] addresses;
+        final Map<String, InetAddress> hosts = new ConcurrentHashMap<String, InetAddress>();
+        final AtomicInteger lookups = new AtomicInteger();
+
+        FakeDnsResolver resolveTo(String... ips) throws UnknownHostException {
+            val addresses = new InetAddress[ips.length];
+            for (int i = 0; i < ips.length; ++i) addresses[i] = InetAddress.getByName(ips[i]);
+            this.addresses = addresses;
+            return this;
+        }
+
+        @Override public InetAddress[] resolve(String host) throws UnknownHostException {
+            lookups.incrementAndGet();
+            val address = hosts.get(host);
+            if (address != null) return new InetAddress[]{address};
+            if (addresses == null) throw new UnknownHostException(host);
+            return addresses.clone();
+        }
+    }
+
+    ServerSocket serverSocket;
+    ClientPool pool;
+
+    @After
+    public void after() throws IOException {
+        if (pool != null) pool.close();
+        if (serverSocket != null) serverSocket.close();
+    }
+
+    static void await(Object expected, Callable<Object> actual) throws Exception {
+        for (int i = 0; i < 100 && !expected.equals(actual.call()); ++i) {
+            Uninterruptibles.sleepUninterruptibly(20, TimeUnit.MILLISECONDS);
+        }
+        assertThat(actual.call()).isEqualTo(expected);
+    }
+
+    @Test
+    public void cachesAndRotates() throws Exception {
+        val delegate = new FakeDnsResolver().resolveTo("127.0.0.1", "127.0.0.2");
+        val resolver = new CachingDnsResolver(60000, delegate);
+
+        assertThat(resolver.resolve(HOST)[0].getHostAddress()).isEqualTo("127.0.0.1");
+        assertThat(resolver.resolve(HOST)[0].getHostAddress()).isEqualTo("127.0.0.2");
+        assertThat(resolver.resolve(HOST)[0].getHostAddress()).isEqualTo("127.0.0.1");
+        assertThat(resolver.resolve(HOST)).hasLength(2);
+        assertThat(delegate.lookups.get()).isEqualTo(1);
+        resolver.close();
+    }
+
+    @Test
+    public void refreshesOnScheduleAndRetires() throws Exception {
+        val delegate = new FakeDnsResolver().resolveTo("127.0.0.1");
+        val retired = new CopyOnWriteArrayList<InetAddress>();
+        final CachingDnsResolver resolver = new CachingDnsResolver(50, delegate).listener(new CachingDnsResolver.Listener() {
+            @Override public void retired(String host, Set<InetAddress> addresses) {
+                retired.addAll(addresses);
+            }
+        });
+        resolver.resolve(HOST);
+
+        // refreshed without resolving again
+        delegate.resolveTo("127.0.0.2");
+        await("127.0.0.2", new Callable<Object>() {
+            @Override public Object call() {
+                return resolver.getCached(HOST)[0].getHostAddress();
+            }
+        });
+        resolver.close();
+
+        assertThat(retired).containsExactly(InetAddress.getByName("127.0.0.1"));
+        assertThat(resolver.isRetired(InetAddress.getByName("127.0.0.1"))).isTrue();
+        assertThat(resolver.isRetired(InetAddress.getByName("127.0.0.2"))).isFalse();
+    }
+
+    @Test
+    public void keepsStaleOnFailure() throws Exception {
+        final FakeDnsResolver delegate = new FakeDnsResolver().resolveTo("127.0.0.1");
+        val resolver = new CachingDnsResolver(100, delegate);
+        resolver.resolve(HOST);
+
+        delegate.addresses = null;
+        await(2, new Callable<Object>() {
+            @Override public Object call() {
+                return delegate.lookups.get();
+            }
+        });
+
+        // kept for another ttl
+        assertThat(resolver.resolve(HOST)[0].getHostAddress()).isEqualTo("127.0.0.1");
+        assertThat(resolver.getCached(HOST)[0].getHostAddress()).isEqualTo("127.0.0.1");
+        resolver.close();
+    }
+
+    @Test
+    public void drainsRetiredConnections() throws Exception {
+        final List<String> accepted = new CopyOnWriteArrayList<String>();
+        final AtomicInteger closed = new AtomicInteger();
+        listen(accepted, closed);
+
+        val delegate = new FakeDnsResolver().resolveTo("127.0.0.1");
+        val resolver = new CachingDnsResolver(100, delegate);
+        pool = new ClientPool(resolver);
+        val transport = new UnirestTransport(pool);
+        val url = "http://" + HOST + ":" + serverSocket.getLocalPort() + "/ping";
+
+        assertThat(transport.request(Unirest.get(url), String.class, null, null, null, 1).getBody()).isEqualTo("pong");
+        assertThat(transport.request(Unirest.get(url), String.class, null, null, null, 1).getBody()).isEqualTo("pong");
+        assertThat(accepted).containsExactly("127.0.0.1");
+
+        // failed over under the keep-alive connection, noticed by the scheduled refresh
+        delegate.resolveTo("127.0.0.2");
+        await(1, new Callable<Object>() {
+            @Override public Object call() {
+                return closed.get();
+            }
+        });
+
+        assertThat(transport.request(Unirest.get(url), String.class, null, null, null, 1).getBody()).isEqualTo("pong");
+        assertThat(accepted).containsExactly("127.0.0.1", "127.0.0.2").inOrder();
+    }
+
+    @Test
+    public void keepsConnectionsToOtherHosts() throws Exception {
+        final List<String> accepted = new CopyOnWriteArrayList<String>();
+        final AtomicInteger closed = new AtomicInteger();
+        listen(accepted, closed);
+
+        val delegate = new FakeDnsResolver().resolveTo("127.0.0.1");
+        delegate.hosts.put(OTHER_HOST, InetAddress.getByName("127.0.0.3"));
+        pool = new ClientPool(new CachingDnsResolver(100, delegate));
+        val transport = new UnirestTransport(pool);
+        val url = "http://" + HOST + ":" + serverSocket.getLocalPort() + "/ping";
+        val otherUrl = "http://" + OTHER_HOST + ":" + serverSocket.getLocalPort() + "/ping";
+
+        assertThat(transport.request(Unirest.get(url), String.class, null, null, null, 1).getBody()).isEqualTo("pong");
+        assertThat(transport.request(Unirest.get(otherUrl), String.class, null, null, null, 1).getBody())
+            .isEqualTo("pong");
+        assertThat(accepted).containsExactly("127.0.0.1", "127.0.0.3").inOrder();
+
+        // only the idle connection to the retired address is closed
+        delegate.resolveTo("127.0.0.2");
+        await(1, new Callable<Object>() {
+            @Override public Object call() {
+                return closed.get();
+            }
+        });
+        Uninterruptibles.sleepUninterruptibly(300, TimeUnit.MILLISECONDS); // a few more refreshes
+        assertThat(closed.get()).isEqualTo(1);
+
+        assertThat(transport.request(Unirest.get(otherUrl), String.class, null, null, null, 1).getBody())
+            .isEqualTo("pong");
+        assertThat(accepted).containsExactly("127.0.0.1", "127.0.0.3").inOrder();
+    }
+
+    @Test
+    public void jvmCacheTtl() {
+        val former = Security.getProperty(CachingDnsResolver.JVM_CACHE_TTL);
+        try {
+            Security.setProperty(CachingDnsResolver.JVM_CACHE_TTL, "0");
+            assertThat(CachingDnsResolver.jvmCacheTtlMillis()).isEqualTo(0L);
+            Security.setProperty(CachingDnsResolver.JVM_CACHE_TTL, "10");
+            assertThat(CachingDnsResolver.jvmCacheTtlMillis()).isEqualTo(10000L);
+            Security.setProperty(CachingDnsResolver.JVM_CACHE_TTL, "-1");
+            assertThat(CachingDnsResolver.jvmCacheTtlMillis()).isEqualTo(-1L);
+        } finally {
+            // a security property could not be removed, "" falls back to the default as unset
+            Security.setProperty(CachingDnsResolver.JVM_CACHE_TTL, former == null ? "" : former);
+        }
+    }
+
+    void listen(final List<String> accepted, final AtomicInteger closed) throws IOException {
+        serverSocket = new ServerSocket(0);
+        val acceptor = new Thread(new Runnable() {
+            @Override public void run() {
+                try {
+                    while (true) {
+                        val socket = serverSocket.accept();
+                        accepted.add(socket.getLocalAddress().getHostAddress());
+                        serve(socket, closed);
+                    }
+                } catch (IOException e) {
+                    // closed
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    // a keep-alive http server answering pong, counting the connections closed by the client
+    static void serve(final Socket socket, final AtomicInteger closed) {
+        val thread = new Thread(new Runnable() {
+            @Override public void run() {
+                try {
+                    val in = new BufferedReader(new InputStreamReader(socket.getInputStream(), Charsets.ISO_8859_1));
+                    val out = socket.getOutputStream();
+                    for (String line; (line = in.readLine()) != null; ) {
+                        while ((line = in.readLine()) != null && !line.isEmpty()) {
+                            // skip the headers
+                        }
+                        out.write("HTTP/1.1 200 OK\r\nContent-Type: text/plain\r\nContent-Length: 4\r\n\r\npong"
+                            .getBytes(Charsets.ISO_8859_1));
+                        out.flush();
+                    }
+                    closed.incrementAndGet();
+                } catch (IOException e) {
+                    closed.incrementAndGet();
+                }
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.bingoohuang.springrestclient.fanout;
+
+import com.github.bingoohuang.springrestclient.boot.domain.EmployeeVO;
+import com.github.bingoohuang.springrestclient.exception.RestException;
+import com.github.bingoohuang.springrestclient.spring.api.EmployeeXmlApi;
+import com.github.bingoohuang.springrestclient.transport.LoopbackServer;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+import lombok.val;
+import org.junit.AfterClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class RestFanOutTest {
+    @ClassRule
+    public static final LoopbackServer server = new LoopbackServer();
+    static final EmployeeXmlApi employeeXmlApi = LoopbackServer.client(EmployeeXmlApi.class);
+    static ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+    static ExecutorService plainExecutor = Executors.newCachedThreadPool();
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    final AtomicInteger started = new AtomicInteger();
+
+    @AfterClass
+    public static void afterClass() {
+        executor.shutdown();
+        plainExecutor.shutdown();
+    }
+
+    // sleeps longer for the smaller ids, so the later calls complete first
+    RestFanOut.Call<Integer, Integer> square = new RestFanOut.Call<Integer, Integer>() {
+        @Override public Future<Integer> call(final Integer id) {
+            started.incrementAndGet();
+            return executor.submit(new Callable<Integer>() {
+                @Override public Integer call() {
+                    int current = inFlight.incrementAndGet();
+                    while (true) {
+                        int max = maxInFlight.get();
+                        if (current <= max || maxInFlight.compareAndSet(max, current)) break;
+                    }
+                    try {
+                        Uninterruptibles.sleepUninterruptibly(10 - id % 10, TimeUnit.MILLISECONDS);
+                        if (id < 0) throw new IllegalArgumentException("negative " + id);
+                        return id * id;
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                }
+            });
+        }
+    };
+
+    static List<Integer> range(int from, int to) {
+        val list = new ArrayList<Integer>();
+        for (int i = from; i < to; ++i) list.add(i);
+        return list;
+    }
+
+    @Test
+    public void orderedAndBounded() {
+        val results = RestFanOut.of(square).concurrency(4).failFast(range(0, 50));
+
+        assertThat(results).hasSize(50);
+        for (int i = 0; i < 50; ++i) assertThat(results.get(i)).isEqualTo(i * i);
+        assertThat(maxInFlight.get()).isAtMost(4);
+        assertThat(maxInFlight.get()).isGreaterThan(1);
+    }
+
+    @Test
+    public void plainFutures() {
+        RestFanOut.Call<Integer, Integer> plain = new RestFanOut.Call<Integer, Integer>() {
+            @Override public Future<Integer> call(final Integer id) {
+                return plainExecutor.submit(new Callable<Integer>() {
+                    @Override public Integer call() {
+                        Uninterruptibles.sleepUninterruptibly(10 - id % 10, TimeUnit.MILLISECONDS);
+                        return id * id;
+                    }
+                });
+            }
+        };
+
+        val results = RestFanOut.of(plain).concurrency(3).failFast(range(0, 20));
+        for (int i = 0; i < 20; ++i) assertThat(results.get(i)).isEqualTo(i * i);
+    }
+
+    @Test
+    public void collectPartial() throws Exception {
+        val result = RestFanOut.of(square).concurrency(3).collect(Arrays.asList(1, -2, 3, -4, 5));
+
+        assertThat(result.isAllSucceeded()).isFalse();
+        assertThat(result.getSucceeded()).isEqualTo(3);
+        assertThat(result.getResults()).containsExactly(1, null, 9, null, 25).inOrder();
+        assertThat(result.getErrors().keySet()).containsExactly(1, 3).inOrder();
+        assertThat(result.getErrors().get(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void failFastSkipsTheRest() {
+        val args = range(0, 100);
+        args.set(2, -1);
+        try {
+            RestFanOut.of(square).concurrency(2).failFast(args);
+            throw new AssertionError("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage()).isEqualTo("negative -1");
+        }
+        assertThat(started.get()).isLessThan(10);
+    }
+
+    @Test
+    public void generatedClients() throws Exception {
+        List<Object[]> ids = new ArrayList<Object[]>();
+        for (int id : new int[]{1, 2, 3, 10, 1}) ids.add(new Object[]{id});
+
+        FanOutResult<EmployeeVO> async = RestFanOut.<EmployeeVO>of(employeeXmlApi, "streamEmployeeByIdAsync")
+            .concurrency(2).collect(ids);
+        FanOutResult<EmployeeVO> sync = RestFanOut.<EmployeeVO>of(employeeXmlApi, "streamEmployeeById")
+            .concurrency(2).collect(ids);
+
+        for (val result : Arrays.asList(async, sync)) {
+            assertThat(result.getSucceeded()).isEqualTo(4);
+            assertThat(result.getResults().get(2).getFirstName()).isEqualTo("Lokesh");
+            assertThat(result.getResults().get(3)).isNull();
+            assertThat(result.getErrors().keySet()).containsExactly(3);
+            assertThat(((RestException) result.getErrors().get(3)).getStatus()).isEqualTo(404);
+        }
+    }
+}
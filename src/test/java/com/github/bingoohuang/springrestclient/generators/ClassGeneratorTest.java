@@ -0,0 +1,54 @@
+package com.github.bingoohuang.springrestclient.generators;
+
+import com.github.bingoohuang.springrestclient.provider.FixedBaseUrlProvider;
+import com.github.bingoohuang.springrestclient.spring.api.TimeoutApi;
+import com.github.bingoohuang.springrestclient.spring.api.TraceApi;
+import com.github.bingoohuang.springrestclient.utils.Asms;
+import lombok.val;
+import org.junit.Test;
+import org.objectweb.asm.Opcodes;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class ClassGeneratorTest {
+    @Test
+    public void constructorWiring() throws Exception {
+        val implClass = new ClassGenerator<TimeoutApi>(TimeoutApi.class).generate();
+
+        val provider = new FixedBaseUrlProvider("http://localhost:4849");
+        val wiring = new RestClientWiring().set(MethodGenerator.baseUrlProvider, provider);
+        val impl = implClass.getConstructor(RestClientWiring.class).newInstance(wiring);
+
+        for (Field field : implClass.getDeclaredFields()) {
+            assertThat(Modifier.isFinal(field.getModifiers())).named(field.getName()).isTrue();
+        }
+
+        val field = implClass.getDeclaredField(MethodGenerator.baseUrlProvider);
+        field.setAccessible(true);
+        assertThat(field.get(impl)).isSameAs(provider);
+        assertThat(implClass.getDeclaredField("sleep" + MethodGenerator.Timeout)).isNotNull();
+    }
+
+    @Test
+    public void sharedClassLoader() {
+        val timeoutImpl = new ClassGenerator<TimeoutApi>(TimeoutApi.class).generate();
+        val traceImpl = new ClassGenerator<TraceApi>(TraceApi.class).generate();
+
+        assertThat(timeoutImpl.getClassLoader()).isInstanceOf(RestClientClassLoader.class);
+        assertThat(traceImpl.getClassLoader()).isSameAs(timeoutImpl.getClassLoader());
+        assertThat(new ClassGenerator<TimeoutApi>(TimeoutApi.class).generate()).isSameAs(timeoutImpl);
+    }
+
+    @Test
+    public void classVersion() {
+        assertThat(Asms.classVersion("1.6")).isEqualTo(Opcodes.V1_6);
+        assertThat(Asms.classVersion("1.7")).isEqualTo(Opcodes.V1_7);
+        assertThat(Asms.classVersion("11")).isEqualTo(Opcodes.V1_8);
+
+        val bytes = new ClassGenerator<TimeoutApi>(TimeoutApi.class, Opcodes.V1_6).createImplClassBytes();
+        assertThat(Asms.classVersion(bytes)).isEqualTo(Opcodes.V1_6);
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.bingoohuang.springrestclient.generators;
+
+import com.github.bingoohuang.springrestclient.annotations.*;
+import com.github.bingoohuang.springrest.boot.exception.NotFoundException;
+import lombok.val;
+import org.junit.Test;
+import org.springframework.web.bind.annotation.*;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class RestClientModelTest {
+    @RequestMapping("/model")
+    @SpringRestClientEnabled(baseUrl = "http://localhost:4849")
+    @Timeout(responseMillis = 100)
+    @FixedRequestParam(name = "appId", value = "app")
+    @RespStatusMappings({@RespStatusMapping(status = 404, exception = NotFoundException.class)})
+    public interface ModelApi {
+        @RequestMapping(value = "/{id}", consumes = "application/xml")
+        @Timeout(responseMillis = 200)
+        String get(@RequestParam("size") long size, @PathVariable("id") int id,
+                   @CookieValue("sid") String sid, @RequestBody Object body);
+    }
+
+    @Test
+    public void introspectedOnce() {
+        val model = RestClientModel.of(ModelApi.class);
+        assertThat(RestClientModel.of(ModelApi.class)).isSameAs(model);
+        assertThat(model.getClassRequestMapping()).isEqualTo("/model");
+        assertThat(model.getBasicAuth()).isNull();
+        assertThat(model.getMethods()).hasSize(1);
+
+        val method = model.getMethods().get(0);
+        assertThat(method.getName()).isEqualTo("get");
+        assertThat(method.getFullRequestMapping()).isEqualTo("/model/{id}");
+        assertThat(method.getFirstConsume()).isEqualTo("application/xml");
+        assertThat(method.getTimeout().responseMillis()).isEqualTo(200);
+        assertThat(method.getFixedRequestParams()).containsEntry("appId", "app");
+        assertThat(method.getStatusExceptionMappings()).containsEntry(404, NotFoundException.class);
+        assertThat(method.getRequestBodyIndex()).isEqualTo(3);
+
+        val bindings = method.getParamBindings();
+        assertThat(bindings).hasSize(3);
+        assertThat(bindings.get(0).getName()).isEqualTo("size");
+        assertThat(bindings.get(1).getAnnotationType()).isEqualTo(PathVariable.class);
+        assertThat(bindings.get(1).getIndex()).isEqualTo(1);
+        assertThat(bindings.get(2).getName()).isEqualTo("sid");
+    }
+
+    @Test
+    public void wideParameterSlots() throws Exception {
+        // verified when linked, the path variable is loaded after the two slots of the long
+        val implClass = new ClassGenerator<ModelApi>(ModelApi.class).generate();
+        val impl = implClass.getConstructor(RestClientWiring.class).newInstance(new RestClientWiring());
+        assertThat(impl).isInstanceOf(ModelApi.class);
+    }
+}
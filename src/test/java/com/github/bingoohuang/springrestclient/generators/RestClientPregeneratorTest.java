@@ -0,0 +1,39 @@
+package com.github.bingoohuang.springrestclient.generators;
+
+import com.github.bingoohuang.springrestclient.spring.api.TimeoutApi;
+import com.github.bingoohuang.springrestclient.utils.Asms;
+import com.google.common.io.Files;
+import lombok.val;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class RestClientPregeneratorTest {
+    @Test
+    public void generate() throws Exception {
+        val classesDir = Files.createTempDir();
+        val classFile = TimeoutApi.class.getName().replace('.', '/') + ".class";
+        val apiFile = new File(classesDir, classFile);
+        apiFile.getParentFile().mkdirs();
+        Files.copy(new File(TimeoutApi.class.getClassLoader().getResource(classFile).toURI()), apiFile);
+        Files.write(new byte[]{1, 2, 3}, new File(classesDir, "Broken.class"));
+
+        val classLoader = new URLClassLoader(new URL[]{classesDir.toURI().toURL()}, getClass().getClassLoader());
+        assertThat(new RestClientPregenerator(classesDir, classLoader).generate()).isEqualTo(1);
+
+        val implName = ClassGenerator.implName(TimeoutApi.class);
+        val implFile = new File(classesDir, implName.replace('.', '/') + ".class");
+        assertThat(implFile.exists()).isTrue();
+        // loadable by the jvm the interface is compiled for, not only by the building one
+        assertThat(Asms.classVersion(Files.toByteArray(implFile)))
+            .isEqualTo(Asms.classVersion(Files.toByteArray(apiFile)));
+
+        val implClass = Class.forName(implName, true, classLoader);
+        assertThat(implClass.getClassLoader()).isSameAs(classLoader);
+        assertThat(TimeoutApi.class.isAssignableFrom(implClass)).isTrue();
+    }
+}
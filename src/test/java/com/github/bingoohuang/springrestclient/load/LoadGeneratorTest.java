@@ -0,0 +1,96 @@
+package com.github.bingoohuang.springrestclient.load;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import lombok.val;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.util.concurrent.*;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class LoadGeneratorTest {
+    static ExecutorService executor = Executors.newCachedThreadPool();
+
+    public interface StubApi {
+        int echo(int value);
+
+        Future<Integer> echoAsync(int value);
+    }
+
+    static class Stub implements StubApi {
+        final long delayMillis;
+
+        Stub(long delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public int echo(int value) {
+            Uninterruptibles.sleepUninterruptibly(delayMillis, TimeUnit.MILLISECONDS);
+            if (value % 10 == 0) throw new IllegalStateException("bad value " + value);
+            return value;
+        }
+
+        @Override
+        public Future<Integer> echoAsync(final int value) {
+            return executor.submit(new Callable<Integer>() {
+                @Override public Integer call() {
+                    return echo(value);
+                }
+            });
+        }
+    }
+
+    static ArgumentGenerator sequences = new ArgumentGenerator() {
+        @Override public Object[] next(long sequence) {
+            return new Object[]{(int) sequence + 1};
+        }
+    };
+
+    @AfterClass
+    public static void afterClass() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void openLoopSync() throws Exception {
+        val report = LoadGenerator.of(new Stub(0), StubApi.class, "echo")
+            .arguments(sequences).rate(1000).duration(200, TimeUnit.MILLISECONDS).run();
+
+        assertThat(report.getIssued()).isEqualTo(200L);
+        assertThat(report.getCalls()).isEqualTo(200L);
+        assertThat(report.getErrors()).isEqualTo(20L);
+        assertThat(report.getErrorTypes().get("IllegalStateException")).isEqualTo(20L);
+        assertThat(report.getThroughput()).isGreaterThan(0.0);
+    }
+
+    @Test
+    public void coordinatedOmissionCorrected() throws Exception {
+        // one worker serves 50 calls/s while 100 calls/s are issued, so the calls wait longer and longer
+        val report = LoadGenerator.of(new Stub(20), StubApi.class, "echo")
+            .arguments(sequences).rate(100).duration(300, TimeUnit.MILLISECONDS).threads(1).run();
+
+        assertThat(report.getCalls()).isEqualTo(30L);
+        assertThat(report.getLatencyMicros(50)).isAtLeast(20000L);
+        assertThat(report.getMaxLatencyMicros()).isAtLeast(200000L);
+    }
+
+    @Test
+    public void futureAndAsync() throws Exception {
+        for (val mode : new LoadMode[]{LoadMode.FUTURE, LoadMode.ASYNC}) {
+            val report = LoadGenerator.of(new Stub(5), StubApi.class, "echoAsync")
+                .arguments(sequences).rate(500).duration(100, TimeUnit.MILLISECONDS)
+                .warmup(20, TimeUnit.MILLISECONDS).mode(mode).run();
+
+            assertThat(report.getMode()).isEqualTo(mode);
+            assertThat(report.getCalls()).isEqualTo(50L);
+            assertThat(report.getLatencyMicros(50)).isAtLeast(5000L);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void asyncRequiresFuture() throws Exception {
+        LoadGenerator.of(new Stub(0), StubApi.class, "echo").mode(LoadMode.ASYNC).run();
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.bingoohuang.springrestclient.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+import org.junit.Test;
+
+import java.net.ConnectException;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class MicrometerRestMetricsTest {
+    interface FooApi {
+    }
+
+    private RestExchange exchange(int attempt) {
+        return new RestExchange(FooApi.class, "foo", "/foo/{id}", "GET")
+            .attempt(attempt)
+            .durationNanos(TimeUnit.MILLISECONDS.toNanos(10))
+            .requestBytes(0)
+            .serializationNanos(1000);
+    }
+
+    @Test
+    public void record() {
+        val registry = new SimpleMeterRegistry();
+        val metrics = MicrometerRestMetrics.of(registry);
+        assertThat(MicrometerRestMetrics.of(registry)).isSameAs(metrics);
+
+        metrics.record(exchange(1).status(503).responseBytes(20));
+        metrics.record(exchange(2).exception(new ConnectException()));
+        metrics.record(exchange(3).status(200).responseBytes(30));
+
+        val api = FooApi.class.getName();
+        assertThat(registry.get("rest.client.requests").tag("api", api).tag("method", "foo")
+            .tag("uri", "/foo/{id}").tag("http.method", "GET").tag("outcome", "SUCCESS")
+            .timer().count()).isEqualTo(1L);
+        assertThat(registry.get("rest.client.requests").tag("status", "503").timer().count()).isEqualTo(1L);
+        assertThat(registry.get("rest.client.requests").tag("exception", "ConnectException")
+            .timer().count()).isEqualTo(1L);
+        assertThat(registry.get("rest.client.api.requests").tag("api", api).timer().count()).isEqualTo(3L);
+        assertThat(registry.get("rest.client.errors").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("rest.client.response.bytes").summary().totalAmount()).isEqualTo(50.0);
+
+        // serialization is measured once per call, whatever the retries
+        assertThat(registry.get("rest.client.serialization").timer().count()).isEqualTo(1L);
+        assertThat(registry.find("rest.client.signing").timer()).isNull();
+    }
+}
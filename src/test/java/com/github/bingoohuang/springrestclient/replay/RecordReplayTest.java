@@ -0,0 +1,151 @@
+package com.github.bingoohuang.springrestclient.replay;
+
+import com.github.bingoohuang.springrestclient.boot.domain.Account;
+import com.github.bingoohuang.springrestclient.boot.domain.EmployeeVO;
+import com.github.bingoohuang.springrestclient.exception.RestException;
+import com.github.bingoohuang.springrestclient.spring.api.EmployeeXmlApi;
+import com.github.bingoohuang.springrestclient.spring.api.PayPartyApi;
+import com.github.bingoohuang.springrestclient.transport.LoopbackServer;
+import com.google.common.io.Files;
+import lombok.val;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class RecordReplayTest {
+    static final LoopbackServer server = new LoopbackServer();
+    static final PayPartyApi payPartyApi = LoopbackServer.client(PayPartyApi.class);
+    static final EmployeeXmlApi employeeXmlApi = LoopbackServer.client(EmployeeXmlApi.class);
+    static File file;
+    static List<Recording> recordings;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        file = File.createTempFile("rest-client", ".recording");
+        file.deleteOnExit();
+        server.register();
+        RestRecorder.start(file);
+        try {
+            callAll();
+        } finally {
+            RestRecorder.stop();
+            server.unregister();
+        }
+
+        recordings = RecordingFile.read(file);
+    }
+
+    static void callAll() {
+        val party = payPartyApi.party("seller", "buyer", "party", "中文 name");
+        assertThat(party.getPartyName()).isEqualTo("中文 name");
+        assertThat(payPartyApi.transferInt(new Account(100, "huang"), 10)).isEqualTo(new Account(1234, "bingoo"));
+
+        val echo = employeeXmlApi.streamEchoEmployeeVO(new EmployeeVO(1, "a", "<b>", "c"));
+        assertThat(echo).isEqualTo(new EmployeeVO(1, "BingooHuang", "<b>", "c"));
+
+        try {
+            employeeXmlApi.getEmployeeById(10);
+            throw new AssertionError("RestException expected");
+        } catch (RestException e) {
+            assertThat(e.getStatus()).isEqualTo(404);
+        }
+    }
+
+    @After
+    public void after() {
+        server.unregister();
+    }
+
+    @Test
+    public void recorded() {
+        assertThat(RestRecorder.isRecording()).isFalse();
+        assertThat(recordings).hasSize(4);
+
+        val party = recordings.get(0);
+        assertThat(party.getApiClass()).isEqualTo(PayPartyApi.class.getName());
+        assertThat(party.getMethodName()).isEqualTo("party");
+        assertThat(party.getHttpMethod()).isEqualTo("POST");
+        assertThat(party.getUriTemplate()).isEqualTo("/pay-party/party/{sellerId}/{buyerId}");
+        assertThat(party.getRouteParams().get("sellerId")).isEqualTo("seller");
+        assertThat(party.getRequestParams().get("name")).isEqualTo("中文 name");
+        assertThat(party.getStatus()).isEqualTo(200);
+        assertThat(party.getLatencyNanos()).isGreaterThan(0L);
+        assertThat(party.getRequestHeader("hisv")).isEqualTo("<redacted>");
+        assertThat(party.getRequestHeader("hici")).isNotEqualTo("<redacted>");
+
+        val echo = recordings.get(2);
+        assertThat(echo.getRequestHeader("content-type")).startsWith("application/xml");
+        assertThat(new String(echo.getRequestBody())).contains("<b>");
+        assertThat(new String(echo.getResponseBody())).contains("BingooHuang");
+
+        val notFound = recordings.get(3);
+        assertThat(notFound.getRouteParams().get("id")).isEqualTo("10");
+        assertThat(notFound.getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    public void replayed() {
+        server.register(new ReplayLoopback(recordings));
+        callAll();
+
+        try {
+            payPartyApi.getStr("seller");
+            throw new AssertionError("RestException expected");
+        } catch (RestException e) {
+            assertThat(e.getStatus()).isEqualTo(404);
+        }
+    }
+
+    @Test
+    public void driven() throws Exception {
+        server.register(new ReplayLoopback(recordings));
+        val invoker = new ClientInvoker()
+            .client(PayPartyApi.class, payPartyApi)
+            .client(EmployeeXmlApi.class, employeeXmlApi);
+        val report = new ReplayDriver(recordings, invoker).speed(0).threads(2).run();
+
+        assertThat(report.getCalls()).isEqualTo(4);
+        assertThat(report.getErrors()).isEqualTo(1);
+        assertThat(report.getLatencyNanos(100)).isAtLeast(report.getLatencyNanos(50));
+    }
+
+    @Test
+    public void truncatedTail() throws Exception {
+        val bytes = Files.toByteArray(file);
+        val truncated = File.createTempFile("rest-client", ".recording");
+        truncated.deleteOnExit();
+        Files.write(Arrays.copyOf(bytes, bytes.length - 3), truncated);
+
+        assertThat(RecordingFile.read(truncated)).hasSize(3);
+
+        // appended again after the last complete record
+        val recordingFile = RecordingFile.append(truncated);
+        try {
+            recordingFile.append(recordings.get(0));
+        } finally {
+            recordingFile.close();
+        }
+        val appended = RecordingFile.read(truncated);
+        assertThat(appended).hasSize(4);
+        assertThat(appended.get(3).toString()).isEqualTo(recordings.get(0).toString());
+    }
+
+    @Test(expected = IOException.class)
+    public void corruptedLength() throws Exception {
+        val bytes = Files.toByteArray(file);
+        val corrupted = File.createTempFile("rest-client", ".recording");
+        corrupted.deleteOnExit();
+        // the length prefix of the first record, right after the magic
+        bytes[5] = (byte) 0x80;
+        Files.write(bytes, corrupted);
+
+        RecordingFile.read(corrupted);
+    }
+}
@@ -0,0 +1,105 @@
+package com.github.bingoohuang.springrestclient.retry;
+
+import com.github.bingoohuang.springrestclient.annotations.Retry;
+import com.github.bingoohuang.springrestclient.timeout.Deadline;
+import com.mashape.unirest.http.HttpMethod;
+import com.mashape.unirest.http.exceptions.UnirestException;
+import com.google.common.collect.Range;
+import lombok.val;
+import org.junit.Test;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class RetryPolicyTest {
+    @Retry(maxAttempts = 3, backoffMillis = 100, multiplier = 2, maxBackoffMillis = 300,
+        statuses = 503, exceptions = ConnectException.class)
+    interface Config {
+    }
+
+    static class ClockBudget extends RetryBudget {
+        long now;
+
+        ClockBudget(int percent, int minRetriesPerSecond) {
+            super(percent, minRetriesPerSecond);
+        }
+
+        @Override protected long currentTimeMillis() {
+            return now;
+        }
+    }
+
+    private RetryPolicy createPolicy() {
+        val config = Config.class.getAnnotation(Retry.class);
+        return new RetryPolicy("test", config, new RetryBudget(100, 100));
+    }
+
+    @Test
+    public void retryConditions() {
+        val policy = createPolicy();
+        val timeout = new UnirestException(new SocketTimeoutException());
+        val refused = new UnirestException(new ConnectException());
+
+        assertThat(policy.retryBackoffMillis(1, null, HttpMethod.GET, timeout)).isAtLeast(0L);
+        assertThat(policy.retryBackoffMillis(1, null, HttpMethod.POST, timeout)).isEqualTo(-1L);
+        assertThat(policy.retryBackoffMillis(1, null, HttpMethod.POST, refused)).isAtLeast(0L);
+        assertThat(policy.retryBackoffMillis(3, null, HttpMethod.GET, timeout)).isEqualTo(-1L);
+
+        assertThat(policy.retryBackoffMillis(1, null, 503)).isAtLeast(0L);
+        assertThat(policy.retryBackoffMillis(1, null, 500)).isEqualTo(-1L);
+        assertThat(policy.retryBackoffMillis(3, null, 503)).isEqualTo(-1L);
+    }
+
+    @Test
+    public void backoffFitsInDeadline() {
+        val policy = createPolicy();
+        val timeout = new UnirestException(new SocketTimeoutException());
+
+        assertThat(policy.retryBackoffMillis(1, Deadline.after(10, TimeUnit.SECONDS), 503)).isAtLeast(0L);
+        assertThat(policy.retryBackoffMillis(1, Deadline.after(10, TimeUnit.MILLISECONDS), 503)).isEqualTo(-1L);
+        assertThat(policy.retryBackoffMillis(1, Deadline.after(10, TimeUnit.MILLISECONDS),
+            HttpMethod.GET, timeout)).isEqualTo(-1L);
+    }
+
+    @Test
+    public void backoffWithoutWithdrawing() {
+        val budget = new ClockBudget(100, 1);
+        val policy = new RetryPolicy("test", Config.class.getAnnotation(Retry.class), budget);
+
+        // refused by the circuit breaker, the retry does not withdraw the budget
+        assertThat(policy.retryBackoffMillis(1, null, 503)).isAtLeast(0L);
+        assertThat(policy.retryBackoffMillis(1, null, 500)).isEqualTo(-1L);
+
+        assertThat(policy.withdraw(1, 503)).isTrue();
+        assertThat(policy.withdraw(1, new UnirestException(new ConnectException()))).isFalse();
+    }
+
+    @Test
+    public void exponentialBackoffWithJitter() {
+        val policy = createPolicy();
+        for (int i = 0; i < 100; ++i) {
+            assertThat(policy.backoffMillis(1)).isIn(Range.closed(50L, 100L));
+            assertThat(policy.backoffMillis(2)).isIn(Range.closed(100L, 200L));
+            assertThat(policy.backoffMillis(3)).isIn(Range.closed(150L, 300L));
+        }
+    }
+
+    @Test
+    public void budget() {
+        val budget = new ClockBudget(50, 1);
+        assertThat(budget.tryWithdraw()).isTrue(); // the minimum retries per second
+        assertThat(budget.tryWithdraw()).isFalse();
+
+        budget.deposit();
+        assertThat(budget.tryWithdraw()).isFalse();
+        budget.deposit();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+
+        budget.now = 1000;
+        assertThat(budget.tryWithdraw()).isTrue();
+    }
+}
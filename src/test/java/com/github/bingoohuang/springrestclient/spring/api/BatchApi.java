@@ -0,0 +1,41 @@
+package com.github.bingoohuang.springrestclient.spring.api;
+
+import com.github.bingoohuang.springrestclient.annotations.Batched;
+import com.github.bingoohuang.springrestclient.annotations.SpringRestClientEnabled;
+import com.github.bingoohuang.springrestclient.boot.domain.EmployeeVO;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+@SpringRestClientEnabled(baseUrl = "http://localhost:4849")
+@RequestMapping("/batch")
+public interface BatchApi {
+    @Batched(value = "items", windowMillis = 50, maxSize = 8)
+    @RequestMapping("/item/{id}")
+    EmployeeVO item(@PathVariable("id") int id);
+
+    @Batched(value = "map", windowMillis = 50)
+    @RequestMapping("/item/{id}")
+    Future<EmployeeVO> itemAsync(@PathVariable("id") int id);
+
+    @Batched(value = "shuffled", windowMillis = 50, keyProperty = "id")
+    @RequestMapping("/item/{id}")
+    EmployeeVO itemById(@PathVariable("id") int id);
+
+    @RequestMapping("/item/{id}")
+    EmployeeVO unbatchedItem(@PathVariable("id") int id);
+
+    @RequestMapping("/items")
+    List<EmployeeVO> items(@RequestParam("ids") List<Integer> ids);
+
+    @RequestMapping("/map")
+    Map<Integer, EmployeeVO> map(@RequestParam("ids") Set<Integer> ids);
+
+    @RequestMapping("/shuffled")
+    Future<EmployeeVO[]> shuffled(@RequestParam("ids") int[] ids);
+}
@@ -0,0 +1,28 @@
+package com.github.bingoohuang.springrestclient.spring.api;
+
+import com.github.bingoohuang.springrestclient.annotations.SpringRestClientEnabled;
+import com.github.bingoohuang.springrestclient.boot.domain.EmployeeListVO;
+import com.github.bingoohuang.springrestclient.boot.domain.EmployeeVO;
+import com.github.bingoohuang.springrestclient.codec.CborCodec;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.util.concurrent.Future;
+
+import static org.springframework.web.bind.annotation.RequestMethod.GET;
+import static org.springframework.web.bind.annotation.RequestMethod.POST;
+
+@RequestMapping("/cbor")
+@SpringRestClientEnabled(baseUrl = "http://localhost:4849")
+public interface CborApi {
+    @RequestMapping(value = "/echo", method = POST,
+        consumes = CborCodec.CONTENT_TYPE, produces = CborCodec.CONTENT_TYPE)
+    EmployeeVO echo(@RequestBody EmployeeVO employeeVO);
+
+    @RequestMapping(value = "/echo", method = POST,
+        consumes = CborCodec.CONTENT_TYPE, produces = CborCodec.CONTENT_TYPE)
+    Future<EmployeeVO> echoAsync(@RequestBody EmployeeVO employeeVO);
+
+    @RequestMapping(value = "/employees", method = GET, produces = CborCodec.CONTENT_TYPE)
+    EmployeeListVO employees();
+}
@@ -0,0 +1,27 @@
+package com.github.bingoohuang.springrestclient.spring.api;
+
+import com.github.bingoohuang.springrestclient.annotations.CircuitBreaker;
+import com.github.bingoohuang.springrestclient.annotations.SpringRestClientEnabled;
+import com.github.bingoohuang.springrestclient.provider.DefaultSignProvider;
+import com.github.bingoohuang.springrestclient.spring.exception.OtherError;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.util.concurrent.Future;
+
+@RequestMapping("/exception")
+@SpringRestClientEnabled(baseUrl = "http://localhost:4849", signProvider = DefaultSignProvider.class)
+@CircuitBreaker(slidingWindowSize = 10, minimumNumberOfCalls = 4)
+public interface CircuitBreakerApi {
+    @RequestMapping("/error/{error}")
+    int error(@PathVariable("error") int error);
+
+    @RequestMapping("/error/{error}")
+    @CircuitBreaker(slidingWindowSize = 10, minimumNumberOfCalls = 4, openException = OtherError.class)
+    int errorMapped(@PathVariable("error") int error);
+
+    @RequestMapping("/sleep/{millis}")
+    @CircuitBreaker(slidingWindowSize = 2, minimumNumberOfCalls = 2,
+        waitDurationInOpenStateMillis = 100, permittedCallsInHalfOpenState = 1)
+    Future<String> sleepAsync(@PathVariable("millis") long millis);
+}
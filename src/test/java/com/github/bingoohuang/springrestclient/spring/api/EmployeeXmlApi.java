@@ -29,4 +29,17 @@ public interface EmployeeXmlApi {
 
     @RequestMapping(value = "/echo/", consumes = MediaType.APPLICATION_XML_VALUE, method = POST)
     EmployeeVO echoEmployeeVO(@RequestBody EmployeeVO employeeVO);
+
+    @RequestMapping(value = "", produces = MediaType.APPLICATION_XML_VALUE)
+    EmployeeListVO streamAllEmployees();
+
+    @RequestMapping(value = "/{id}", produces = MediaType.APPLICATION_XML_VALUE)
+    EmployeeVO streamEmployeeById(@PathVariable("id") int id);
+
+    @RequestMapping(value = "/{id}", produces = MediaType.APPLICATION_XML_VALUE)
+    Future<EmployeeVO> streamEmployeeByIdAsync(@PathVariable("id") int id);
+
+    @RequestMapping(value = "/stream-echo/", consumes = MediaType.APPLICATION_XML_VALUE,
+        produces = MediaType.APPLICATION_XML_VALUE, method = POST)
+    EmployeeVO streamEchoEmployeeVO(@RequestBody EmployeeVO employeeVO);
 }
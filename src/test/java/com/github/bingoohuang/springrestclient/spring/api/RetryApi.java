@@ -0,0 +1,29 @@
+package com.github.bingoohuang.springrestclient.spring.api;
+
+import com.github.bingoohuang.springrestclient.annotations.Retry;
+import com.github.bingoohuang.springrestclient.annotations.SpringRestClientEnabled;
+import com.mashape.unirest.http.HttpResponse;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.util.concurrent.Future;
+
+import static org.springframework.web.bind.annotation.RequestMethod.GET;
+
+@RequestMapping("/retry")
+@SpringRestClientEnabled(baseUrl = "http://localhost:4849")
+@Retry(statuses = 503, backoffMillis = 10)
+public interface RetryApi {
+    @RequestMapping(value = "/flaky/{key}/{failures}", method = GET)
+    int flaky(@PathVariable("key") String key, @PathVariable("failures") int failures);
+
+    @RequestMapping("/flaky/{key}/{failures}")
+    int flakyPost(@PathVariable("key") String key, @PathVariable("failures") int failures);
+
+    @RequestMapping(value = "/flaky/{key}/{failures}", method = GET)
+    Future<HttpResponse<String>> flakyAsync(@PathVariable("key") String key, @PathVariable("failures") int failures);
+
+    @RequestMapping(value = "/flaky/{key}/{failures}", method = GET)
+    @Retry
+    int flakyNoStatuses(@PathVariable("key") String key, @PathVariable("failures") int failures);
+}
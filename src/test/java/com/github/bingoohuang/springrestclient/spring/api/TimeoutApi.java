@@ -0,0 +1,32 @@
+package com.github.bingoohuang.springrestclient.spring.api;
+
+import com.github.bingoohuang.springrestclient.annotations.Retry;
+import com.github.bingoohuang.springrestclient.annotations.SpringRestClientEnabled;
+import com.github.bingoohuang.springrestclient.annotations.Timeout;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.util.concurrent.Future;
+
+import static org.springframework.web.bind.annotation.RequestMethod.GET;
+
+@RequestMapping("/timeout")
+@SpringRestClientEnabled(baseUrl = "http://localhost:4849")
+@Timeout(responseMillis = 200)
+public interface TimeoutApi {
+    @RequestMapping(value = "/sleep/{millis}", method = GET)
+    String sleep(@PathVariable("millis") long millis);
+
+    @RequestMapping(value = "/sleep/{millis}", method = GET)
+    @Timeout(totalMillis = 300)
+    String sleepWithDeadline(@PathVariable("millis") long millis);
+
+    @RequestMapping(value = "/sleep/{millis}", method = GET)
+    @Timeout(responseMillis = 100, totalMillis = 300)
+    @Retry(backoffMillis = 50, maxAttempts = 10)
+    String sleepWithRetry(@PathVariable("millis") long millis);
+
+    @RequestMapping(value = "/sleep/{millis}", method = GET)
+    @Timeout(totalMillis = 300)
+    Future<String> sleepAsync(@PathVariable("millis") long millis);
+}
@@ -0,0 +1,20 @@
+package com.github.bingoohuang.springrestclient.spring.api;
+
+import com.github.bingoohuang.springrestclient.annotations.SpringRestClientEnabled;
+import com.github.bingoohuang.springrestclient.boot.domain.Person;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.util.concurrent.Future;
+
+import static org.springframework.web.bind.annotation.RequestMethod.POST;
+
+@RequestMapping("/trace")
+@SpringRestClientEnabled(baseUrl = "http://localhost:4849")
+public interface TraceApi {
+    @RequestMapping(value = "/person", method = POST)
+    Person person(@RequestBody Person person);
+
+    @RequestMapping(value = "/person", method = POST)
+    Future<Person> personAsync(@RequestBody Person person);
+}
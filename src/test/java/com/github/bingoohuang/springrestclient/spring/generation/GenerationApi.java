@@ -0,0 +1,12 @@
+package com.github.bingoohuang.springrestclient.spring.generation;
+
+import com.github.bingoohuang.springrestclient.annotations.SpringRestClientEnabled;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+@RequestMapping("/timeout")
+@SpringRestClientEnabled(baseUrl = "http://localhost:4849")
+public interface GenerationApi {
+    @RequestMapping("/sleep/{millis}")
+    String sleep(@PathVariable("millis") long millis);
+}
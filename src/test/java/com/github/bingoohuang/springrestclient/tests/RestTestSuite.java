@@ -1,6 +1,27 @@
 package com.github.bingoohuang.springrestclient.tests;
 
+import com.github.bingoohuang.springrestclient.batch.MicroBatcherTest;
 import com.github.bingoohuang.springrestclient.boot.Application;
+import com.github.bingoohuang.springrestclient.breaker.RestCircuitBreakerTest;
+import com.github.bingoohuang.springrestclient.buffer.BufferPoolTest;
+import com.github.bingoohuang.springrestclient.codec.CborCodecTest;
+import com.github.bingoohuang.springrestclient.codec.MethodCodecsTest;
+import com.github.bingoohuang.springrestclient.dns.CachingDnsResolverTest;
+import com.github.bingoohuang.springrestclient.fanout.RestFanOutTest;
+import com.github.bingoohuang.springrestclient.generators.ClassGeneratorTest;
+import com.github.bingoohuang.springrestclient.generators.RestClientModelTest;
+import com.github.bingoohuang.springrestclient.generators.RestClientPregeneratorTest;
+import com.github.bingoohuang.springrestclient.load.LoadGeneratorTest;
+import com.github.bingoohuang.springrestclient.metrics.MicrometerRestMetricsTest;
+import com.github.bingoohuang.springrestclient.replay.RecordReplayTest;
+import com.github.bingoohuang.springrestclient.retry.RetryPolicyTest;
+import com.github.bingoohuang.springrestclient.timeout.DeadlineTest;
+import com.github.bingoohuang.springrestclient.trace.RestTraceTest;
+import com.github.bingoohuang.springrestclient.transport.ConnectionWarmerTest;
+import com.github.bingoohuang.springrestclient.transport.LoopbackTest;
+import com.github.bingoohuang.springrestclient.utils.FormEncoderTest;
+import com.github.bingoohuang.springrestclient.utils.PrimitiveDecodersTest;
+import com.github.bingoohuang.springrestclient.utils.RouteTemplateTest;
 import com.github.bingoohuang.springrestclient.tests.api.*;
 import com.github.bingoohuang.springrestclient.tests.xml.XmlsTest;
 import com.mashape.unirest.http.Unirest;
@@ -15,6 +36,13 @@ import org.n3r.diamond.client.impl.MockDiamondServer;
     AnotherApiTest.class,
     PayPartyApiTest.class,
     ExApiTest.class,
+    CircuitBreakerApiTest.class,
+    RetryApiTest.class,
+    TimeoutApiTest.class,
+    MetricsApiTest.class,
+    TraceApiTest.class,
+    BufferLeakTest.class,
+    GenerationModeTest.class,
     NullApiTest.class,
     YunpianTest.class,
     YunpianAsyncTest.class,
@@ -33,7 +61,30 @@ import org.n3r.diamond.client.impl.MockDiamondServer;
     GenericApiTest.class,
     CookieApiTest.class,
     UserXmlApiTest.class,
-    BasicAuthApiTest.class
+    BasicAuthApiTest.class,
+    CborApiTest.class,
+    BatchApiTest.class,
+    RestCircuitBreakerTest.class,
+    RetryPolicyTest.class,
+    DeadlineTest.class,
+    MicrometerRestMetricsTest.class,
+    RestTraceTest.class,
+    RestClientPregeneratorTest.class,
+    ClassGeneratorTest.class,
+    RestClientModelTest.class,
+    PrimitiveDecodersTest.class,
+    RouteTemplateTest.class,
+    FormEncoderTest.class,
+    BufferPoolTest.class,
+    MethodCodecsTest.class,
+    CborCodecTest.class,
+    MicroBatcherTest.class,
+    LoopbackTest.class,
+    RecordReplayTest.class,
+    LoadGeneratorTest.class,
+    RestFanOutTest.class,
+    ConnectionWarmerTest.class,
+    CachingDnsResolverTest.class
 })
 public class RestTestSuite {
     @ClassRule
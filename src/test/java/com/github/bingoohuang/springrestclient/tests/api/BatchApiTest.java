@@ -0,0 +1,100 @@
+package com.github.bingoohuang.springrestclient.tests.api;
+
+import com.github.bingoohuang.springrestclient.boot.controller.BatchController;
+import com.github.bingoohuang.springrestclient.boot.domain.EmployeeVO;
+import com.github.bingoohuang.springrestclient.spring.SpringRestClientConfig;
+import com.github.bingoohuang.springrestclient.spring.api.BatchApi;
+import lombok.val;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = SpringRestClientConfig.class)
+public class BatchApiTest {
+    @Autowired
+    BatchApi batchApi;
+
+    @Before
+    public void before() {
+        BatchController.itemCalls.set(0);
+        BatchController.batchCalls.set(0);
+        BatchController.batchSizes.clear();
+    }
+
+    private List<EmployeeVO> callConcurrently(int count, final boolean byId) throws Exception {
+        val executor = Executors.newFixedThreadPool(count);
+        val start = new CountDownLatch(1);
+        val futures = new ArrayList<Future<EmployeeVO>>();
+        for (int i = 0; i < count; ++i) {
+            final int id = i + 1;
+            futures.add(executor.submit(new Callable<EmployeeVO>() {
+                @Override public EmployeeVO call() throws Exception {
+                    start.await();
+                    return byId ? batchApi.itemById(id) : batchApi.item(id);
+                }
+            }));
+        }
+        start.countDown();
+
+        val employees = new ArrayList<EmployeeVO>();
+        for (val future : futures) employees.add(future.get());
+        executor.shutdown();
+        return employees;
+    }
+
+    @Test
+    public void concurrentCallsBatched() throws Exception {
+        val employees = callConcurrently(20, false);
+
+        for (int i = 0; i < 20; ++i) {
+            assertThat(employees.get(i), is(equalTo(new EmployeeVO(i + 1, "first" + (i + 1), "last" + (i + 1), (i + 1) + "@a.b"))));
+        }
+        assertThat(BatchController.itemCalls.get(), is(0));
+        assertThat(BatchController.batchCalls.get(), is(lessThan(20)));
+        assertThat(Collections.max(BatchController.batchSizes), is(lessThanOrEqualTo(8)));
+    }
+
+    @Test
+    public void matchedByKeyProperty() throws Exception {
+        val employees = callConcurrently(5, true);
+
+        for (int i = 0; i < 5; ++i) assertThat(employees.get(i).getId(), is(i + 1));
+        assertThat(BatchController.itemCalls.get(), is(0));
+    }
+
+    @Test
+    public void asyncByMapWithMissingAndDuplicates() throws Exception {
+        val one = batchApi.itemAsync(1);
+        val two = batchApi.itemAsync(2);
+        val oneAgain = batchApi.itemAsync(1);
+        val missing = batchApi.itemAsync(100);
+
+        assertThat(one.get().getFirstName(), is("first1"));
+        assertThat(two.get().getFirstName(), is("first2"));
+        assertThat(oneAgain.get(), is(equalTo(one.get())));
+        assertThat(missing.get(), is(nullValue()));
+        assertThat(BatchController.batchCalls.get(), is(1));
+        assertThat(BatchController.batchSizes.get(0), is(3));
+    }
+
+    @Test
+    public void unbatched() {
+        assertThat(batchApi.unbatchedItem(7).getFirstName(), is("first7"));
+        assertThat(BatchController.itemCalls.get(), is(1));
+        assertThat(BatchController.batchCalls.get(), is(0));
+    }
+}
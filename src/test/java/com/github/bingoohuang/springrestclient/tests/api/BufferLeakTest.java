@@ -0,0 +1,84 @@
+package com.github.bingoohuang.springrestclient.tests.api;
+
+import com.github.bingoohuang.springrestclient.boot.domain.Person;
+import com.github.bingoohuang.springrestclient.buffer.BufferPool;
+import com.github.bingoohuang.springrestclient.spring.SpringRestClientConfig;
+import com.github.bingoohuang.springrestclient.spring.api.TraceApi;
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = SpringRestClientConfig.class)
+public class BufferLeakTest {
+    @Autowired
+    TraceApi traceApi;
+
+    @Before
+    public void before() {
+        BufferPool.shared().setLeakDetection(true);
+    }
+
+    @After
+    public void after() {
+        BufferPool.shared().setLeakDetection(false);
+    }
+
+    @Test
+    public void buffersReleased() throws Exception {
+        for (int i = 0; i < 10; ++i) {
+            assertThat(traceApi.person(new Person("bingoo", "")).getName(), is(equalTo("bingoo")));
+            assertThat(traceApi.personAsync(new Person("huang", "")).get().getName(), is(equalTo("huang")));
+        }
+
+        assertThat(BufferPool.shared().leaks().size(), is(0));
+    }
+
+    @Test
+    public void cancelledUploadNotPooled() throws Exception {
+        BufferPool pool = BufferPool.shared();
+        for (int i = 0; i < 10; ++i) {
+            String name = Strings.repeat("cancelled" + i, 5000);
+            drain(pool);
+
+            Future<Person> future = traceApi.personAsync(new Person(name, ""));
+            future.cancel(true);
+            assertThat(future.isCancelled(), is(true));
+
+            // the cancelled body is not offered back to the pool while the reactor may still write it
+            for (byte[] buffer : drain(pool)) {
+                assertThat(new String(buffer, Charsets.UTF_8).contains(name), is(false));
+            }
+        }
+
+        assertThat(pool.leaks().size(), is(0));
+        assertThat(traceApi.person(new Person("bingoo", "")).getName(), is(equalTo("bingoo")));
+    }
+
+    // takes out the pooled buffers big enough for the request body
+    private List<byte[]> drain(BufferPool pool) {
+        List<byte[]> buffers = new ArrayList<byte[]>();
+        while (true) {
+            int pooled = pool.pooled();
+            byte[] buffer = pool.acquire(pool.getMaxSize());
+            pool.discard(buffer);
+            if (pool.pooled() == pooled) return buffers;
+
+            buffers.add(buffer);
+        }
+    }
+}
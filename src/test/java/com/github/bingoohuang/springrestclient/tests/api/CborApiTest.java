@@ -0,0 +1,45 @@
+package com.github.bingoohuang.springrestclient.tests.api;
+
+import com.github.bingoohuang.springrestclient.boot.domain.EmployeeVO;
+import com.github.bingoohuang.springrestclient.codec.CborCodec;
+import com.github.bingoohuang.springrestclient.spring.SpringRestClientConfig;
+import com.github.bingoohuang.springrestclient.spring.api.CborApi;
+import com.github.bingoohuang.springrestclient.utils.RestReq;
+import lombok.val;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = SpringRestClientConfig.class)
+public class CborApiTest {
+    @Autowired
+    CborApi cborApi;
+
+    @Test
+    public void echo() {
+        val employee = cborApi.echo(new EmployeeVO(1, "Lokesh", "Gupta", "howtodoinjava@gmail.com"));
+        assertThat(employee, is(equalTo(new EmployeeVO(1, "BingooHuang", "Gupta", "howtodoinjava@gmail.com"))));
+        assertThat(RestReq.lastResponse().header("Content-Type"), startsWith(CborCodec.CONTENT_TYPE));
+    }
+
+    @Test
+    public void echoAsync() throws Exception {
+        val employee = cborApi.echoAsync(new EmployeeVO(2, "Amit", "Singhal", "asinghal@yahoo.com")).get();
+        assertThat(employee, is(equalTo(new EmployeeVO(2, "BingooHuang", "Singhal", "asinghal@yahoo.com"))));
+    }
+
+    @Test
+    public void employees() {
+        val employees = cborApi.employees().getEmployees();
+        assertThat(employees.size(), is(2));
+        assertThat(employees.get(1), is(equalTo(new EmployeeVO(2, "Amit", "Singhal", "asinghal@yahoo.com"))));
+    }
+}
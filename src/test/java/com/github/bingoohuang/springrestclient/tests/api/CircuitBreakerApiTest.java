@@ -0,0 +1,91 @@
+package com.github.bingoohuang.springrestclient.tests.api;
+
+import com.github.bingoohuang.springrestclient.breaker.CircuitBreakerState;
+import com.github.bingoohuang.springrestclient.breaker.CircuitBreakers;
+import com.github.bingoohuang.springrestclient.exception.CircuitBreakerOpenException;
+import com.github.bingoohuang.springrestclient.exception.RestException;
+import com.github.bingoohuang.springrestclient.spring.SpringRestClientConfig;
+import com.github.bingoohuang.springrestclient.spring.api.CircuitBreakerApi;
+import com.github.bingoohuang.springrestclient.spring.exception.OtherError;
+import lombok.val;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = SpringRestClientConfig.class)
+public class CircuitBreakerApiTest {
+    @Autowired
+    CircuitBreakerApi circuitBreakerApi;
+
+    @Test
+    public void openAfterFailures() {
+        val breaker = CircuitBreakers.get(CircuitBreakerApi.class, "error");
+        assertThat(circuitBreakerApi.error(100), is(equalTo(100)));
+
+        for (int i = 0; i < 3; ++i) {
+            try {
+                circuitBreakerApi.error(3);
+                fail();
+            } catch (CircuitBreakerOpenException e) {
+                fail();
+            } catch (RestException e) {
+                assertThat(e.getStatus(), is(equalTo(500)));
+            }
+        }
+
+        assertThat(breaker.getState(), is(equalTo(CircuitBreakerState.OPEN)));
+
+        try {
+            circuitBreakerApi.error(100);
+            fail();
+        } catch (CircuitBreakerOpenException e) {
+            assertThat(breaker.getNumberOfNotPermittedCalls(), is(equalTo(1L)));
+        }
+    }
+
+    @Test
+    public void cancelledHalfOpenCall() throws Exception {
+        circuitBreakerApi.sleepAsync(0).get();
+        val breaker = CircuitBreakers.get(CircuitBreakerApi.class, "sleepAsync");
+        breaker.onError(0);
+        breaker.onError(0);
+        assertThat(breaker.getState(), is(equalTo(CircuitBreakerState.OPEN)));
+
+        Thread.sleep(150);
+        val cancelled = circuitBreakerApi.sleepAsync(1000);
+        assertThat(breaker.getState(), is(equalTo(CircuitBreakerState.HALF_OPEN)));
+        assertThat(cancelled.cancel(true), is(true));
+
+        // the permission of the cancelled call is given back to the next probing call
+        assertThat(circuitBreakerApi.sleepAsync(0).get(), is(equalTo("0")));
+        assertThat(breaker.getState(), is(equalTo(CircuitBreakerState.CLOSED)));
+    }
+
+    @Test
+    public void mappedOpenException() {
+        for (int i = 0; i < 4; ++i) {
+            try {
+                circuitBreakerApi.errorMapped(3);
+                fail();
+            } catch (RestException e) {
+                assertThat(e.getStatus(), is(equalTo(500)));
+            }
+        }
+
+        try {
+            circuitBreakerApi.errorMapped(100);
+            fail();
+        } catch (OtherError e) {
+            assertThat(e.getMessage(), is(equalTo("circuit breaker "
+                + CircuitBreakerApi.class.getName() + ".errorMapped is open")));
+        }
+    }
+}
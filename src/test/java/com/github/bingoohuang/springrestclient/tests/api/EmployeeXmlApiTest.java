@@ -77,4 +77,28 @@ public class EmployeeXmlApiTest {
             is(equalTo("EmployeeVO(id=1, firstName=BingooHuang, lastName=DDDD, email=xx@yy.com)")));
     }
 
+    @Test
+    public void streamAllEmployees() {
+        assertAllEmployees(employeeXmlApi.streamAllEmployees());
+    }
+
+    @Test
+    public void streamEmployeeByIdAsync() throws ExecutionException, InterruptedException {
+        Future<EmployeeVO> employeeVO = employeeXmlApi.streamEmployeeByIdAsync(1);
+        assertThat(employeeVO.get().toString(),
+            is(equalTo("EmployeeVO(id=1, firstName=Lokesh, lastName=Gupta, email=howtodoinjava@gmail.com)")));
+    }
+
+    @Test(expected = RestException.class)
+    public void streamEmployeeByIdNotFound() {
+        employeeXmlApi.streamEmployeeById(10);
+    }
+
+    @Test
+    public void streamEchoEmployeeVO() {
+        val vo = new EmployeeVO(1, "BBBB", "D&D <黄>", "xx@yy.com");
+        val echo = employeeXmlApi.streamEchoEmployeeVO(vo);
+        assertThat(echo.toString(),
+            is(equalTo("EmployeeVO(id=1, firstName=BingooHuang, lastName=D&D <黄>, email=xx@yy.com)")));
+    }
 }
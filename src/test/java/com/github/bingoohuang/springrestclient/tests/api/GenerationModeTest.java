@@ -0,0 +1,51 @@
+package com.github.bingoohuang.springrestclient.tests.api;
+
+import com.github.bingoohuang.springrestclient.spring.GenerationMode;
+import com.github.bingoohuang.springrestclient.spring.SpringRestClientEnabledScan;
+import com.github.bingoohuang.springrestclient.spring.generation.GenerationApi;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.Proxy;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class GenerationModeTest {
+    @Configuration
+    @SpringRestClientEnabledScan(basePackageClasses = GenerationApi.class, generation = GenerationMode.LAZY)
+    public static class LazyConfig {
+    }
+
+    @Configuration
+    @SpringRestClientEnabledScan(basePackageClasses = GenerationApi.class, generation = GenerationMode.PARALLEL)
+    public static class ParallelConfig {
+    }
+
+    @Test
+    public void lazy() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(LazyConfig.class);
+        try {
+            GenerationApi api = context.getBean(GenerationApi.class);
+            assertThat(Proxy.isProxyClass(api.getClass()), is(true));
+            assertThat(api.sleep(0), is(equalTo("none")));
+            assertThat(api.equals(api), is(true));
+        } finally {
+            context.close();
+        }
+    }
+
+    @Test
+    public void parallel() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(ParallelConfig.class);
+        try {
+            GenerationApi api = context.getBean(GenerationApi.class);
+            assertThat(Proxy.isProxyClass(api.getClass()), is(false));
+            assertThat(api.sleep(0), is(equalTo("none")));
+        } finally {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.bingoohuang.springrestclient.tests.api;
+
+import com.github.bingoohuang.springrestclient.spring.SpringRestClientConfig;
+import com.github.bingoohuang.springrestclient.spring.api.TimeoutApi;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = SpringRestClientConfig.class)
+public class MetricsApiTest {
+    @Autowired
+    TimeoutApi timeoutApi;
+
+    @Test
+    public void globalRegistry() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            timeoutApi.sleep(0);
+            timeoutApi.sleep(0);
+
+            long count = registry.get("rest.client.requests")
+                .tag("api", TimeoutApi.class.getName())
+                .tag("method", "sleep")
+                .tag("status", "200")
+                .timer().count();
+            assertThat(count, is(equalTo(2L)));
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+}
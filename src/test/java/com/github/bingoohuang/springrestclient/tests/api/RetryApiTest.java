@@ -0,0 +1,59 @@
+package com.github.bingoohuang.springrestclient.tests.api;
+
+import com.github.bingoohuang.springrestclient.exception.RestException;
+import com.github.bingoohuang.springrestclient.spring.SpringRestClientConfig;
+import com.github.bingoohuang.springrestclient.spring.api.RetryApi;
+import lombok.SneakyThrows;
+import lombok.val;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = SpringRestClientConfig.class)
+public class RetryApiTest {
+    @Autowired
+    RetryApi retryApi;
+
+    @Test
+    public void retryStatus() {
+        assertThat(retryApi.flaky("get", 2), is(equalTo(3)));
+        assertThat(retryApi.flakyPost("post", 1), is(equalTo(2)));
+    }
+
+    @Test
+    public void giveUpAfterMaxAttempts() {
+        try {
+            retryApi.flaky("max", 3);
+            fail();
+        } catch (RestException e) {
+            assertThat(e.getStatus(), is(equalTo(503)));
+        }
+
+        assertThat(retryApi.flaky("max", 3), is(equalTo(4)));
+    }
+
+    @Test
+    public void noRetryWithoutStatuses() {
+        try {
+            retryApi.flakyNoStatuses("none", 1);
+            fail();
+        } catch (RestException e) {
+            assertThat(e.getStatus(), is(equalTo(503)));
+        }
+    }
+
+    @Test @SneakyThrows
+    public void retryAsync() {
+        val response = retryApi.flakyAsync("async", 2).get();
+        assertThat(response.getStatus(), is(equalTo(200)));
+        assertThat(response.getBody(), is(equalTo("3")));
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.bingoohuang.springrestclient.tests.api;
+
+import com.github.bingoohuang.springrestclient.exception.DeadlineExceededException;
+import com.github.bingoohuang.springrestclient.spring.SpringRestClientConfig;
+import com.github.bingoohuang.springrestclient.spring.api.TimeoutApi;
+import com.github.bingoohuang.springrestclient.timeout.Deadline;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = SpringRestClientConfig.class)
+public class TimeoutApiTest {
+    @Autowired
+    TimeoutApi timeoutApi;
+
+    @Test
+    public void responseTimeout() {
+        assertThat(timeoutApi.sleep(0), is(equalTo("none")));
+
+        try {
+            timeoutApi.sleep(500);
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getCause().getCause(), instanceOf(SocketTimeoutException.class));
+        }
+    }
+
+    @Test
+    public void forwardRemainingMillis() {
+        long remaining = Long.parseLong(timeoutApi.sleepWithDeadline(0));
+        assertTrue(remaining > 0 && remaining <= 300);
+    }
+
+    @Test
+    public void callerDeadline() {
+        Deadline previous = Deadline.attach(Deadline.after(100, TimeUnit.MILLISECONDS));
+        try {
+            long remaining = Long.parseLong(timeoutApi.sleepWithDeadline(0));
+            assertTrue(remaining > 0 && remaining <= 100);
+
+            timeoutApi.sleepWithDeadline(150);
+            fail();
+        } catch (DeadlineExceededException e) {
+            // expected
+        } finally {
+            Deadline.attach(previous);
+        }
+    }
+
+    @Test
+    public void retriesInsideDeadline() {
+        long start = System.currentTimeMillis();
+        try {
+            timeoutApi.sleepWithRetry(150);
+            fail();
+        } catch (DeadlineExceededException e) {
+            assertTrue(System.currentTimeMillis() - start < 500);
+        } catch (RuntimeException e) {
+            // the next retry could not fit in the deadline
+            assertThat(e.getCause().getCause(), instanceOf(SocketTimeoutException.class));
+            assertTrue(System.currentTimeMillis() - start < 500);
+        }
+    }
+
+    @Test
+    public void asyncDeadline() throws InterruptedException {
+        try {
+            timeoutApi.sleepAsync(500).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(DeadlineExceededException.class));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.bingoohuang.springrestclient.tests.api;
+
+import com.github.bingoohuang.springrestclient.boot.domain.Person;
+import com.github.bingoohuang.springrestclient.spring.SpringRestClientConfig;
+import com.github.bingoohuang.springrestclient.spring.api.TraceApi;
+import com.github.bingoohuang.springrestclient.trace.RestTrace;
+import com.github.bingoohuang.springrestclient.trace.RestTraceExporter;
+import com.github.bingoohuang.springrestclient.trace.RestTracer;
+import com.github.bingoohuang.springrestclient.trace.TracePhase;
+import com.github.bingoohuang.springrestclient.trace.TraceAware;
+import com.github.bingoohuang.springrestclient.utils.RestReq;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = SpringRestClientConfig.class)
+public class TraceApiTest {
+    @Autowired
+    TraceApi traceApi;
+
+    @Test
+    public void notTracedByDefault() {
+        Person person = traceApi.person(new Person("bingoo", ""));
+        assertThat(person.getAddr(), is(equalTo("none")));
+        assertThat(RestReq.lastTrace(), is(nullValue()));
+    }
+
+    @Test
+    public void forcedSync() {
+        final List<RestTrace> exported = new ArrayList<RestTrace>();
+        RestTracer.setExporter(new RestTraceExporter() {
+            @Override
+            public void export(RestTrace trace) {
+                exported.add(trace);
+            }
+        });
+
+        try {
+            RestTracer.forceNext();
+            Person person = traceApi.person(new Person("bingoo", ""));
+
+            RestTrace trace = RestReq.lastTrace();
+            assertThat(person.getAddr(), is(equalTo(trace.getTraceparent())));
+            assertTrue(trace.isFinished());
+            assertThat(exported.size(), is(1));
+            assertThat(exported.get(0), is(trace));
+
+            for (TracePhase phase : new TracePhase[]{TracePhase.PREPARE, TracePhase.SERIALIZE,
+                TracePhase.EXCHANGE, TracePhase.READ_BODY, TracePhase.UNMARSHAL}) {
+                assertTrue(phase + " " + trace, trace.getPhaseNanos(phase) >= 0);
+            }
+            assertTrue(trace.getPhaseNanos(TracePhase.EXCHANGE) <= trace.getDurationNanos());
+        } finally {
+            RestTracer.setExporter(null);
+        }
+    }
+
+    @Test
+    public void forcedAsync() throws Exception {
+        RestTracer.forceNext();
+        Future<Person> future = traceApi.personAsync(new Person("bingoo", ""));
+        Person person = future.get();
+
+        RestTrace trace = ((TraceAware) future).getTrace();
+        assertThat(person.getAddr(), is(equalTo(trace.getTraceparent())));
+        assertTrue(trace.isAsync());
+        assertTrue(trace.isFinished());
+        assertTrue(trace.toString(), trace.getPhaseNanos(TracePhase.EXCHANGE) >= 0);
+        assertTrue(trace.toString(), trace.getPhaseNanos(TracePhase.UNMARSHAL) >= 0);
+    }
+}
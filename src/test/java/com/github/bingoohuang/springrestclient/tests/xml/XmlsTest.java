@@ -3,6 +3,10 @@ package com.github.bingoohuang.springrestclient.tests.xml;
 import com.github.bingoohuang.springrestclient.xml.Xmls;
 import org.junit.Test;
 
+import javax.xml.bind.JAXBContext;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
 import static com.google.common.truth.Truth.assertThat;
 
 public class XmlsTest {
@@ -16,4 +20,18 @@ public class XmlsTest {
         String xml = Xmls.marshal(car);
         assertThat(xml).isEqualTo("<car registration=\"abc123\"><brand>Volvo</brand><description><![CDATA[Sedan<xx.yy@gmail.com>]]></description></car>");
     }
+
+    @Test
+    public void streamCar() throws Exception {
+        Car car = new Car("abc123", "沃尔沃", "Sedan<xx.yy@gmail.com>");
+        JAXBContext context = JAXBContext.newInstance(Car.class);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Xmls.marshal(context, car, out);
+        assertThat(out.toString("UTF-8")).isEqualTo(Xmls.marshal(car));
+
+        Car unmarshalled = Xmls.unmarshal(context, new ByteArrayInputStream(out.toByteArray()), Car.class);
+        assertThat(unmarshalled.getBrand()).isEqualTo("沃尔沃");
+        assertThat(unmarshalled.getDescription()).isEqualTo("Sedan<xx.yy@gmail.com>");
+    }
 }
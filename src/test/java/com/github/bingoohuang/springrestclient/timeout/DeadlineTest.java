@@ -0,0 +1,42 @@
+package com.github.bingoohuang.springrestclient.timeout;
+
+import com.github.bingoohuang.springrestclient.annotations.Timeout;
+import com.google.common.collect.Range;
+import lombok.val;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class DeadlineTest {
+    @Timeout(totalMillis = 1000)
+    interface Config {
+    }
+
+    @Test
+    public void callerDeadlineWins() {
+        val timeout = Config.class.getAnnotation(Timeout.class);
+        assertThat(Deadline.of(null)).isNull();
+        assertThat(Deadline.of(timeout).remainingMillis()).isAtMost(1000L);
+
+        val caller = Deadline.after(100, TimeUnit.MILLISECONDS);
+        val previous = Deadline.attach(caller);
+        try {
+            assertThat(Deadline.of(timeout)).isSameAs(caller);
+            assertThat(Deadline.of(null)).isSameAs(caller);
+        } finally {
+            Deadline.attach(previous);
+        }
+
+        assertThat(Deadline.current()).isNull();
+    }
+
+    @Test
+    public void fromRemainingMillis() {
+        assertThat(Deadline.fromRemainingMillis(null)).isNull();
+        assertThat(Deadline.fromRemainingMillis("abc")).isNull();
+        assertThat(Deadline.fromRemainingMillis("0").isExpired()).isTrue();
+        assertThat(Deadline.fromRemainingMillis(" 500 ").remainingMillis()).isIn(Range.closed(400L, 500L));
+    }
+}
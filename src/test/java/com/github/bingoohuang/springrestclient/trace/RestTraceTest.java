@@ -0,0 +1,62 @@
+package com.github.bingoohuang.springrestclient.trace;
+
+import lombok.val;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class RestTraceTest {
+    interface FooApi {
+    }
+
+    @Test
+    public void phases() {
+        val trace = new RestTrace(FooApi.class, "foo");
+        assertThat(trace.getTraceparent()).matches("00-[0-9a-f]{32}-[0-9a-f]{16}-01");
+        assertThat(trace.getPhaseNanos(TracePhase.EXCHANGE)).isEqualTo(-1L);
+
+        long start = trace.getStartNanos();
+        trace.record(TracePhase.EXCHANGE, 1, start, 100);
+        trace.record(TracePhase.BACKOFF, 1, start + 100, 50);
+        trace.record(TracePhase.EXCHANGE, 2, start + 150, 30);
+
+        assertThat(trace.getPhaseNanos(TracePhase.EXCHANGE)).isEqualTo(130L);
+        assertThat(trace.getSpans()).hasSize(3);
+        assertThat(trace.getSpans().get(2).getAttempt()).isEqualTo(2);
+        assertThat(trace.toEpochNanos(start + 150) - trace.toEpochNanos(start)).isEqualTo(150L);
+        assertThat(trace.getDurationNanos()).isEqualTo(-1L);
+    }
+
+    @Test
+    public void finishOnce() {
+        final AtomicInteger exports = new AtomicInteger();
+        RestTracer.setExporter(new RestTraceExporter() {
+            @Override
+            public void export(RestTrace trace) {
+                exports.incrementAndGet();
+            }
+        });
+
+        try {
+            RestTracer.forceNext();
+            RestTracer.start(FooApi.class, "foo");
+            val trace = RestTracer.current();
+            RestTracer.record(TracePhase.VALIDATE, trace.getStartNanos());
+            RestTracer.finish();
+            RestTracer.finish(trace, new RuntimeException());
+            RestTracer.record(TracePhase.UNMARSHAL, trace.getStartNanos());
+
+            assertThat(exports.get()).isEqualTo(1);
+            assertThat(trace.getError()).isNull();
+            assertThat(trace.getSpans()).hasSize(1);
+            assertThat(trace.getDurationNanos()).isAtLeast(0L);
+
+            RestTracer.start(FooApi.class, "foo");
+            assertThat(RestTracer.current()).isNull();
+        } finally {
+            RestTracer.setExporter(null);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.github.bingoohuang.springrestclient.transport;
+
+import com.github.bingoohuang.springrestclient.annotations.SpringRestClientEnabled;
+import com.github.bingoohuang.springrestclient.generators.SpringRestClientFactory;
+import com.github.bingoohuang.springrestclient.provider.BaseUrlProvider;
+import com.github.bingoohuang.springrestclient.spring.SpringRestClientFactoryBean;
+import com.google.common.base.Charsets;
+import com.google.common.util.concurrent.Uninterruptibles;
+import lombok.val;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class ConnectionWarmerTest {
+    static ServerSocket serverSocket;
+    // per test, the threads serving the connections of the former tests count on their own
+    final AtomicInteger accepted = new AtomicInteger();
+    final AtomicInteger requests = new AtomicInteger();
+
+    @SpringRestClientEnabled(baseUrlProvider = StubBaseUrlProvider.class, warmupConnections = 3)
+    public interface WarmupApi {
+        @RequestMapping("/ping")
+        String ping();
+    }
+
+    public interface KeepAliveApi {
+    }
+
+    static class MovableBaseUrlProvider implements BaseUrlProvider {
+        volatile String baseUrl = baseUrl();
+
+        @Override public String getBaseUrl(Class<?> apiClass) {
+            return baseUrl;
+        }
+    }
+
+    public static class StubBaseUrlProvider implements BaseUrlProvider {
+        @Override public String getBaseUrl(Class<?> apiClass) {
+            return baseUrl();
+        }
+    }
+
+    static String baseUrl() {
+        return "http://localhost:" + serverSocket.getLocalPort();
+    }
+
+    @Before
+    public void before() throws IOException {
+        serverSocket = listen();
+    }
+
+    ServerSocket listen() throws IOException {
+        final ServerSocket socket = new ServerSocket(0);
+        val acceptor = new Thread(new Runnable() {
+            @Override public void run() {
+                try {
+                    while (true) serve(socket.accept());
+                } catch (IOException e) {
+                    // closed
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return socket;
+    }
+
+    @After
+    public void after() throws IOException {
+        ConnectionWarmer.reset();
+        serverSocket.close();
+    }
+
+    // a keep-alive http server answering pong slowly, so the concurrent probes could not share connections
+    void serve(final Socket socket) {
+        accepted.incrementAndGet();
+        val thread = new Thread(new Runnable() {
+            @Override public void run() {
+                try {
+                    val in = new BufferedReader(new InputStreamReader(socket.getInputStream(), Charsets.ISO_8859_1));
+                    val out = socket.getOutputStream();
+                    for (String line; (line = in.readLine()) != null; ) {
+                        boolean head = line.startsWith("HEAD");
+                        int contentLength = 0;
+                        while ((line = in.readLine()) != null && !line.isEmpty()) {
+                            if (line.toLowerCase().startsWith("content-length:"))
+                                contentLength = Integer.parseInt(line.substring(15).trim());
+                        }
+                        for (int i = 0; i < contentLength; ++i) in.read();
+
+                        requests.incrementAndGet();
+                        Uninterruptibles.sleepUninterruptibly(50, TimeUnit.MILLISECONDS);
+                        out.write(("HTTP/1.1 200 OK\r\nContent-Type: text/plain\r\nContent-Length: 4\r\n\r\n"
+                            + (head ? "" : "pong")).getBytes(Charsets.ISO_8859_1));
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    // closed
+                }
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Test
+    public void opensAndKeepsAlive() throws Exception {
+        val report = ConnectionWarmer.warmup(baseUrl(), 4, "/", 100, false).get();
+
+        assertThat(report.getOpened()).isEqualTo(4);
+        assertThat(report.getErrors()).isEqualTo(0);
+        assertThat(report.getColdNanos()).isGreaterThan(0L);
+        assertThat(accepted.get()).isEqualTo(4);
+        assertThat(ConnectionWarmer.warmup(baseUrl(), 4, "/", 100, false).get()).isSameAs(report);
+
+        Uninterruptibles.sleepUninterruptibly(400, TimeUnit.MILLISECONDS);
+        assertThat(requests.get()).isAtLeast(4 + 2 + 4 * 2);
+        assertThat(accepted.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void warmedUpWhenCreated() {
+        val appContext = new StaticApplicationContext();
+        appContext.getBeanFactory().registerSingleton("stubBaseUrlProvider", new StubBaseUrlProvider());
+        appContext.refresh();
+        val api = SpringRestClientFactory.getRestClient(WarmupApi.class, appContext);
+
+        for (int i = 0; i < 100 && requests.get() < 5; ++i) {
+            Uninterruptibles.sleepUninterruptibly(50, TimeUnit.MILLISECONDS);
+        }
+        assertThat(accepted.get()).isEqualTo(3);
+
+        assertThat(api.ping()).isEqualTo("pong");
+        assertThat(accepted.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void warmedUpAgainWhenRefreshed() throws Exception {
+        SpringRestClientFactory.evict(WarmupApi.class);
+        val factoryBean = createFactoryBean();
+        factoryBean.getObject();
+        awaitRequests(4);
+        Uninterruptibles.sleepUninterruptibly(200, TimeUnit.MILLISECONDS); // the probes in flight
+        factoryBean.destroy();
+
+        int destroyed = requests.get();
+        val refreshed = createFactoryBean();
+        val api = refreshed.getObject();
+        try {
+            awaitRequests(destroyed + 4);
+            assertThat(requests.get()).isAtLeast(destroyed + 4);
+            assertThat(api.ping()).isEqualTo("pong");
+        } finally {
+            refreshed.destroy();
+        }
+    }
+
+    SpringRestClientFactoryBean<WarmupApi> createFactoryBean() {
+        val appContext = new StaticApplicationContext();
+        appContext.getBeanFactory().registerSingleton("stubBaseUrlProvider", new StubBaseUrlProvider());
+        appContext.refresh();
+
+        val factoryBean = new SpringRestClientFactoryBean<WarmupApi>();
+        factoryBean.setInterfaceClazz(WarmupApi.class);
+        factoryBean.setApplicationContext(appContext);
+        return factoryBean;
+    }
+
+    void awaitRequests(int count) {
+        for (int i = 0; i < 100 && requests.get() < count; ++i) {
+            Uninterruptibles.sleepUninterruptibly(50, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Test
+    public void followsTheBaseUrlAndStops() throws Exception {
+        val provider = new MovableBaseUrlProvider();
+        val report = ConnectionWarmer.warmup(KeepAliveApi.class, provider, 2, "/", 100, false).get();
+        assertThat(report.getOpened()).isEqualTo(2);
+        assertThat(accepted.get()).isEqualTo(2);
+
+        val moved = listen();
+        try {
+            provider.baseUrl = "http://localhost:" + moved.getLocalPort();
+            for (int i = 0; i < 100 && accepted.get() < 4; ++i) {
+                Uninterruptibles.sleepUninterruptibly(50, TimeUnit.MILLISECONDS);
+            }
+            assertThat(accepted.get()).isEqualTo(4);
+
+            ConnectionWarmer.stop(KeepAliveApi.class);
+            Uninterruptibles.sleepUninterruptibly(300, TimeUnit.MILLISECONDS); // the probes in flight
+            int stopped = requests.get();
+            Uninterruptibles.sleepUninterruptibly(400, TimeUnit.MILLISECONDS);
+            assertThat(requests.get()).isEqualTo(stopped);
+        } finally {
+            moved.close();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.bingoohuang.springrestclient.transport;
+
+import com.github.bingoohuang.springrest.boot.RestConfiguration;
+import com.github.bingoohuang.springrest.boot.filter.MultiReadFilter;
+import com.github.bingoohuang.springrestclient.generators.SpringRestClientFactory;
+import lombok.val;
+import org.junit.rules.ExternalResource;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+/**
+ * The test controllers served in process on the base url of the test server,
+ * registered around the tests when used as a rule, or by hand in the benchmarks.
+ */
+public class LoopbackServer extends ExternalResource {
+    public static final String BASE_URL = "http://localhost:4849";
+
+    @Configuration
+    @EnableWebMvc
+    @Import(RestConfiguration.class)
+    @ComponentScan("com.github.bingoohuang.springrestclient.boot.controller")
+    public static class WebConfig {
+    }
+
+    private final Loopback dispatcher;
+
+    public LoopbackServer() {
+        val webContext = new AnnotationConfigWebApplicationContext();
+        webContext.register(WebConfig.class);
+        // the sign interceptor reads the body buffered by the multi read filter
+        this.dispatcher = new DispatcherServletLoopback(webContext, new MultiReadFilter());
+    }
+
+    /**
+     * @return the generated client of the api, created without any beans.
+     */
+    public static <T> T client(Class<T> apiClass) {
+        val appContext = new StaticApplicationContext();
+        appContext.refresh();
+        return SpringRestClientFactory.getRestClient(apiClass, appContext);
+    }
+
+    public Loopback getDispatcher() {
+        return dispatcher;
+    }
+
+    public void register() {
+        register(dispatcher);
+    }
+
+    public void register(Loopback loopback) {
+        Loopbacks.register(BASE_URL, loopback);
+    }
+
+    public void unregister() {
+        Loopbacks.unregister(BASE_URL);
+    }
+
+    @Override
+    protected void before() {
+        register();
+    }
+
+    @Override
+    protected void after() {
+        unregister();
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.bingoohuang.springrestclient.transport;
+
+import com.github.bingoohuang.springrestclient.boot.domain.Account;
+import com.github.bingoohuang.springrestclient.boot.domain.EmployeeVO;
+import com.github.bingoohuang.springrestclient.exception.RestException;
+import com.github.bingoohuang.springrestclient.spring.api.EmployeeXmlApi;
+import com.github.bingoohuang.springrestclient.spring.api.PayPartyApi;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.mashape.unirest.http.Unirest;
+import com.mashape.unirest.http.async.Callback;
+import com.mashape.unirest.http.exceptions.UnirestException;
+import lombok.val;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class LoopbackTest {
+    static final LoopbackServer server = new LoopbackServer();
+    static final PayPartyApi payPartyApi = LoopbackServer.client(PayPartyApi.class);
+    static final EmployeeXmlApi employeeXmlApi = LoopbackServer.client(EmployeeXmlApi.class);
+    AtomicInteger served = new AtomicInteger();
+
+    @Before
+    public void before() {
+        server.register(new Loopback() {
+            @Override public HttpResponse execute(HttpUriRequest request) throws IOException {
+                served.incrementAndGet();
+                return server.getDispatcher().execute(request);
+            }
+        });
+    }
+
+    @After
+    public void after() {
+        server.unregister();
+    }
+
+    @Test
+    public void signedJsonAndParams() {
+        val party = payPartyApi.party("seller", "buyer", "party", "中文 name");
+        assertThat(party.getSellerId()).isEqualTo("seller");
+        assertThat(party.getPartyName()).isEqualTo("中文 name");
+
+        assertThat(payPartyApi.transferInt(new Account(100, "huang"), 10)).isEqualTo(new Account(1234, "bingoo"));
+        assertThat(payPartyApi.getStr("seller")).isEqualTo("seller");
+        assertThat(served.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void xmlAndStatusMapping() throws Exception {
+        val echo = employeeXmlApi.streamEchoEmployeeVO(new EmployeeVO(1, "a", "<b>", "c"));
+        assertThat(echo).isEqualTo(new EmployeeVO(1, "BingooHuang", "<b>", "c"));
+        assertThat(employeeXmlApi.streamEmployeeByIdAsync(2).get().getFirstName()).isEqualTo("Lokesh");
+
+        try {
+            employeeXmlApi.getEmployeeById(10);
+            throw new AssertionError("RestException expected");
+        } catch (RestException e) {
+            assertThat(e.getStatus()).isEqualTo(404);
+        }
+        assertThat(served.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void notRouted() {
+        assertThat(Loopbacks.find(java.net.URI.create("http://localhost:4850/a"))).isNull();
+        assertThat(Loopbacks.find(java.net.URI.create("HTTP://LOCALHOST:4849/a?b=c"))).isNotNull();
+    }
+
+    @Test
+    public void cancelledWhileServing() throws Exception {
+        final CountDownLatch serving = new CountDownLatch(1);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(1);
+        server.register(new Loopback() {
+            @Override public HttpResponse execute(HttpUriRequest request) throws IOException {
+                serving.countDown();
+                Uninterruptibles.awaitUninterruptibly(cancelled);
+                try {
+                    return server.getDispatcher().execute(request);
+                } finally {
+                    finished.countDown();
+                }
+            }
+        });
+
+        final AtomicInteger notified = new AtomicInteger();
+        val future = new UnirestTransport().requestAsync(Unirest.get(LoopbackServer.BASE_URL + "/employees/1"),
+            String.class, null, null, null, 0, new Callback<String>() {
+                @Override public void completed(com.mashape.unirest.http.HttpResponse<String> response) {
+                    notified.incrementAndGet();
+                }
+
+                @Override public void failed(UnirestException e) {
+                    notified.incrementAndGet();
+                }
+
+                @Override public void cancelled() {
+                    notified.incrementAndGet();
+                }
+            });
+
+        serving.await();
+        future.cancel(true);
+        cancelled.countDown();
+        finished.await();
+        Thread.sleep(50); // the late completion of the serving thread
+
+        assertThat(notified.get()).isEqualTo(1);
+    }
+}
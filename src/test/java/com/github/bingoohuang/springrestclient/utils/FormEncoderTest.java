@@ -0,0 +1,98 @@
+package com.github.bingoohuang.springrestclient.utils;
+
+import com.github.bingoohuang.springrestclient.buffer.PooledOutputStream;
+import com.google.common.base.Charsets;
+import org.junit.Test;
+
+import java.net.URLEncoder;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+
+public class FormEncoderTest {
+    @Test
+    public void encodeLikeUrlEncoder() throws Exception {
+        String value = "a b+c&d=e/f?g~h*i.j-k_l©黄😀";
+        PooledOutputStream out = new PooledOutputStream();
+        try {
+            FormEncoder.encode(out, value);
+            assertThat(out.toString()).isEqualTo(URLEncoder.encode(value, "UTF-8"));
+        } finally {
+            out.release();
+        }
+    }
+
+    @Test
+    public void encodeLoneSurrogateLikeUrlEncoder() throws Exception {
+        String value = "a\uD83Db";
+        PooledOutputStream out = new PooledOutputStream();
+        try {
+            FormEncoder.encode(out, value);
+            assertThat(out.toString()).isEqualTo(URLEncoder.encode(value, "UTF-8"));
+        } finally {
+            out.release();
+        }
+    }
+
+    @Test
+    public void appendQueryInOrder() {
+        Map<String, Object> params = new LinkedHashMap<String, Object>();
+        params.put("z", 1);
+        params.put("a", "x y");
+        params.put("n", null);
+
+        StringBuilder url = new StringBuilder("http://localhost/p");
+        FormEncoder.appendQuery(url, params);
+        assertThat(url.toString()).isEqualTo("http://localhost/p?z=1&a=x+y&n=");
+
+        url = new StringBuilder("http://localhost/p?q=0");
+        FormEncoder.appendQuery(url, params);
+        assertThat(url.toString()).isEqualTo("http://localhost/p?q=0&z=1&a=x+y&n=");
+    }
+
+    @Test
+    public void encodeForm() {
+        Map<String, Object> params = new LinkedHashMap<String, Object>();
+        params.put("name", "黄");
+        params.put("ids", Arrays.asList(1, 2));
+
+        String form = new String(FormEncoder.encodeForm(params), Charsets.US_ASCII);
+        assertThat(form).isEqualTo("name=%E9%BB%84&ids=%5B1%2C2%5D");
+    }
+
+    @Test
+    public void appendPrimitivesUnboxed() {
+        PrimitiveParams primitives = new PrimitiveParams(2);
+        primitives.add("min", Long.MIN_VALUE);
+        primitives.add("i", -42);
+        primitives.add("zero", (short) 0);
+        primitives.add("b", true);
+        primitives.add("c", '黄');
+        primitives.add("d", 0.1);
+        primitives.add("f", 0.1f);
+        primitives.add("q^page", 3);
+
+        Map<String, Object> params = new LinkedHashMap<String, Object>();
+        params.put("a", "x");
+
+        StringBuilder url = new StringBuilder("http://localhost/p");
+        FormEncoder.appendQuery(url, params, primitives, PrimitiveParams.Target.GET);
+        assertThat(url.toString()).isEqualTo("http://localhost/p?a=x&min=-9223372036854775808&i=-42&zero=0"
+            + "&b=true&c=%E9%BB%84&d=0.1&f=0.1&page=3");
+
+        url = new StringBuilder("http://localhost/p");
+        FormEncoder.appendQuery(url, new LinkedHashMap<String, Object>(), primitives, PrimitiveParams.Target.POST_QUERY);
+        assertThat(url.toString()).isEqualTo("http://localhost/p?page=3");
+
+        String form = new String(FormEncoder.encodeForm(new LinkedHashMap<String, Object>(), primitives), Charsets.US_ASCII);
+        assertThat(form).isEqualTo("min=-9223372036854775808&i=-42&zero=0&b=true&c=%E9%BB%84&d=0.1&f=0.1");
+
+        Map<String, Object> boxed = primitives.boxInto(new LinkedHashMap<String, Object>());
+        assertThat(boxed.get("i")).isEqualTo(-42);
+        assertThat(boxed.get("zero")).isEqualTo((short) 0);
+        assertThat(boxed.get("f")).isEqualTo(0.1f);
+        assertThat(boxed.get("q^page")).isEqualTo(3);
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.bingoohuang.springrestclient.utils;
+
+import com.google.common.base.Charsets;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+public class PrimitiveDecodersTest {
+    @Test
+    public void decodeNumbers() {
+        assertThat(PrimitiveDecoders.decodeInt(body("123"))).isEqualTo(123);
+        assertThat(PrimitiveDecoders.decodeInt(body(" -42\n"))).isEqualTo(-42);
+        assertThat(PrimitiveDecoders.decodeLong(body("" + Long.MIN_VALUE))).isEqualTo(Long.MIN_VALUE);
+        assertThat(PrimitiveDecoders.decodeLong(body("+" + Long.MAX_VALUE))).isEqualTo(Long.MAX_VALUE);
+        assertThat(PrimitiveDecoders.decodeShort(body("-32768"))).isEqualTo(Short.MIN_VALUE);
+        assertThat(PrimitiveDecoders.decodeByte(body("127"))).isEqualTo((byte) 127);
+        assertThat(PrimitiveDecoders.decodeDouble(body("1.5"))).isEqualTo(1.5d);
+    }
+
+    @Test
+    public void decodeBoolean() {
+        assertThat(PrimitiveDecoders.decodeBoolean(body("TRUE"))).isTrue();
+        assertThat(PrimitiveDecoders.decodeBoolean(body("true\n"))).isTrue();
+        assertThat(PrimitiveDecoders.decodeBoolean(body("truex"))).isFalse();
+        assertThat(PrimitiveDecoders.decodeBoolean(body(""))).isFalse();
+    }
+
+    @Test
+    public void invalidNumbers() {
+        assertInvalid("2147483648");
+        assertInvalid("9223372036854775808");
+        assertInvalid("12a");
+        assertInvalid("-");
+        assertInvalid("");
+    }
+
+    @Test
+    public void textRewinds() {
+        ByteArrayInputStream body = body("12");
+        assertThat(PrimitiveDecoders.text(body)).isEqualTo("12");
+        assertThat(PrimitiveDecoders.decodeInt(body)).isEqualTo(12);
+        assertThat(PrimitiveDecoders.text(body)).isEqualTo("12");
+    }
+
+    private void assertInvalid(String text) {
+        try {
+            PrimitiveDecoders.decodeInt(body(text));
+            fail();
+        } catch (NumberFormatException e) {
+            assertThat(e.getMessage()).isEqualTo("For input string: \"" + text + "\"");
+        }
+    }
+
+    private ByteArrayInputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(Charsets.UTF_8));
+    }
+}
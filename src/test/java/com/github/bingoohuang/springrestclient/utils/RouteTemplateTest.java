@@ -0,0 +1,59 @@
+package com.github.bingoohuang.springrestclient.utils;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+public class RouteTemplateTest {
+    private static final Map<String, Object> NONE = Collections.emptyMap();
+
+    @Test
+    public void literal() {
+        RouteTemplate template = RouteTemplate.compile("/api/person");
+        assertThat(template.render("http://localhost", NONE)).isEqualTo("http://localhost/api/person");
+    }
+
+    @Test
+    public void variables() {
+        RouteTemplate template = RouteTemplate.compile("/person/{id}/friends/{name:[a-z]+}/{id}");
+        Map<String, Object> routeParams = ImmutableMap.<String, Object>of("id", 12, "name", "bingoo");
+        assertThat(template.render("http://localhost", routeParams))
+            .isEqualTo("http://localhost/person/12/friends/bingoo/12");
+    }
+
+    @Test
+    public void nestedBracesInRegex() {
+        RouteTemplate template = RouteTemplate.compile("/person/{id:\\d{3}}/{name:[a-z]{2,8}}.json");
+        Map<String, Object> routeParams = ImmutableMap.<String, Object>of("id", 123, "name", "bingoo");
+        assertThat(template.render("http://localhost", routeParams))
+            .isEqualTo("http://localhost/person/123/bingoo.json");
+    }
+
+    @Test
+    public void percentEncoding() {
+        RouteTemplate template = RouteTemplate.compile("/{value}");
+        Map<String, Object> routeParams = ImmutableMap.<String, Object>of("value", "a b/c?d$\\黄");
+        assertThat(template.render("", routeParams)).isEqualTo("/a%20b%2Fc%3Fd%24%5C%E9%BB%84");
+    }
+
+    @Test
+    public void missingVariableKept() {
+        RouteTemplate template = RouteTemplate.compile("/{a}/{b}");
+        assertThat(template.render("", ImmutableMap.<String, Object>of("a", 1))).isEqualTo("/1/{b}");
+    }
+
+    @Test
+    public void unknownRouteParam() {
+        try {
+            RouteTemplate.compile("/{a}").render("", ImmutableMap.<String, Object>of("b", 1));
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage()).isEqualTo("Can't find route parameter name \"b\"");
+        }
+    }
+}